@@ -0,0 +1,89 @@
+package com.example.main.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DataSource configuration with read/write splitting.
+ * The primary pool is built from the standard 'spring.datasource.*' properties. The replica pool is built from
+ * 'app.datasource.replica.*' and falls back to the primary when no replica URL is configured.
+ * The application DataSource routes read-only transactions to the replica (see ReadWriteRoutingDataSource).
+ * Flyway always migrates the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Connection pool of the primary (read-write) database.
+     * @param properties The standard 'spring.datasource.*' properties.
+     * @return The primary pool.
+     */
+    @Bean
+    @FlywayDataSource
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Connection pool of the read replica, or the primary pool itself if no replica is configured.
+     * @param primaryDataSource The primary pool used as fallback.
+     * @param url JDBC URL of the replica; empty to disable the replica.
+     * @param username Replica user name, defaults to the primary's.
+     * @param password Replica password, defaults to the primary's.
+     * @param maximumPoolSize Maximum size of the replica pool.
+     * @return The replica pool.
+     */
+    @Bean
+    public DataSource replicaDataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                        @Value("${app.datasource.replica.url:}") String url,
+                                        @Value("${app.datasource.replica.username:}") String username,
+                                        @Value("${app.datasource.replica.password:}") String password,
+                                        @Value("${app.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        if (!StringUtils.hasText(url)) {
+            return primaryDataSource;
+        }
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(StringUtils.hasText(username) ? username : primaryDataSource.getUsername());
+        dataSource.setPassword(StringUtils.hasText(username) ? password : primaryDataSource.getPassword());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * The DataSource used by JPA, JdbcTemplate and the transaction manager.
+     * @param primaryDataSource The primary pool.
+     * @param replicaDataSource The replica pool.
+     * @return A lazily connecting routing DataSource.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource);
+        targets.put(ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource);
+
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
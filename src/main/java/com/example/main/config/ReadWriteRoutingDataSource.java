@@ -0,0 +1,63 @@
+package com.example.main.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * DataSource that sends read-only transactions to the replica pool and everything else to the primary.
+ * The routing key is resolved when the first statement needs a connection, so this DataSource must be
+ * wrapped in a LazyConnectionDataSourceProxy (see DataSourceConfig). Otherwise the connection is fetched
+ * before the transaction's read-only flag has been published.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Target keys of the routing DataSource.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Integer> PRIMARY_PINS = ThreadLocal.withInitial(() -> 0);
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    /**
+     * Resolves the route the current thread would use for a new connection.
+     * @return REPLICA inside a read-only transaction that is not pinned to the primary, PRIMARY otherwise.
+     */
+    public static Route currentRoute() {
+        if (PRIMARY_PINS.get() == 0 && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * Runs a read against the primary even if the surrounding transaction is read-only.
+     * Use this for lag-sensitive reads, e.g. reading data right after it was written. It must be called
+     * before the transaction has issued its first statement, because a transaction keeps the connection it started with.
+     * @param action The read to run.
+     * @param <T> The result type.
+     * @return The result of the action.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        PRIMARY_PINS.set(PRIMARY_PINS.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            int depth = PRIMARY_PINS.get() - 1;
+            if (depth == 0) {
+                PRIMARY_PINS.remove();
+            } else {
+                PRIMARY_PINS.set(depth);
+            }
+        }
+    }
+}
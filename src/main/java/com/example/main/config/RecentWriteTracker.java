@@ -0,0 +1,73 @@
+package com.example.main.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers recently written keys (e.g. "lecture:42") for the replica's worst-case lag.
+ * This gives read-your-writes: reads of a key inside that window go to the primary
+ * (ReadWriteRoutingDataSource.onPrimary) instead of a replica that may still be behind.
+ * Writes made in a transaction are recorded once it has committed, so the window starts when the replica can
+ * first see them, and nothing is recorded for rolled back writes. Expired keys are purged periodically.
+ */
+@Component
+public class RecentWriteTracker {
+
+    private final Map<Object, Long> expiries = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public RecentWriteTracker(@Value("${app.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    /**
+     * Records that the given key has just been written, or will be once the current transaction commits.
+     * @param key The written key.
+     */
+    public void recordWrite(Object key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            expiries.put(key, System.currentTimeMillis() + windowMillis);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                expiries.put(key, System.currentTimeMillis() + windowMillis);
+            }
+        });
+    }
+
+    /**
+     * Checks whether the given key was written within the read-your-writes window.
+     * Expired entries are removed on the way.
+     * @param key The key to check.
+     * @return True if reads of the key should go to the primary.
+     */
+    public boolean wasRecentlyWritten(Object key) {
+        Long expiry = expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry < System.currentTimeMillis()) {
+            expiries.remove(key, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Scheduled job removing the keys whose window has passed, including those that are never read again.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.purge-interval-millis:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        expiries.values().removeIf(expiry -> expiry < now);
+    }
+}
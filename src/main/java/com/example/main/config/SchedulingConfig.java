@@ -0,0 +1,13 @@
+package com.example.main.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the scheduled background jobs (methods annotated with @Scheduled), e.g. the pending marking digest.
+ * Jobs run on every node; they are written to be idempotent rather than coordinated.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
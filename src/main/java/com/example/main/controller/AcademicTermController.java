@@ -0,0 +1,178 @@
+package com.example.main.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.main.dto.AcademicTermDTO;
+import com.example.main.dto.ArchiveVerificationDTO;
+import com.example.main.dto.StudentAttendanceSummaryDTO;
+import com.example.main.service.AcademicTermService;
+import com.example.main.service.AttendanceArchiveFileService;
+import com.example.main.service.AttendanceArchiveService;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST Controller for managing academic terms and the archival of their attendance.
+ */
+@RestController
+@RequestMapping("/api/v1/terms") // Base path for academic term endpoints
+public class AcademicTermController {
+
+    private final AcademicTermService academicTermService;
+    private final AttendanceArchiveService attendanceArchiveService; // Moves records of closed terms to the archive
+    private final AttendanceArchiveFileService attendanceArchiveFileService; // Archive files of archived terms
+
+    public AcademicTermController(AcademicTermService academicTermService,
+                                  AttendanceArchiveService attendanceArchiveService,
+                                  AttendanceArchiveFileService attendanceArchiveFileService) {
+        this.academicTermService = academicTermService;
+        this.attendanceArchiveService = attendanceArchiveService;
+        this.attendanceArchiveFileService = attendanceArchiveFileService;
+    }
+
+    /**
+     * Creates a new academic term.
+     * Requires ADMIN role.
+     * @param termDTO The DTO containing the term's name and date range.
+     * @return ResponseEntity with the created AcademicTermDTO and HTTP status 201.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<AcademicTermDTO> createTerm(@Valid @RequestBody AcademicTermDTO termDTO) {
+        AcademicTermDTO createdTerm = academicTermService.createTerm(termDTO);
+        return new ResponseEntity<>(createdTerm, HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves an academic term by its ID.
+     * Requires ADMIN or TEACHER role.
+     * @param id The ID of the term.
+     * @return ResponseEntity with the AcademicTermDTO if found, and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/{id}")
+    public ResponseEntity<AcademicTermDTO> getTermById(@PathVariable Long id) {
+        return ResponseEntity.ok(academicTermService.getTermById(id));
+    }
+
+    /**
+     * Retrieves all academic terms, earliest first.
+     * Requires ADMIN or TEACHER role.
+     * @return ResponseEntity with a list of all AcademicTermDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping
+    public ResponseEntity<List<AcademicTermDTO>> getAllTerms() {
+        return ResponseEntity.ok(academicTermService.getAllTerms());
+    }
+
+    /**
+     * Closes an academic term that has ended. Its attendance can no longer be marked or changed, and its records
+     * are archived by the nightly archival job (or right away with the archive endpoint).
+     * Requires ADMIN role.
+     * @param id The ID of the term.
+     * @return ResponseEntity with the updated AcademicTermDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/close")
+    public ResponseEntity<AcademicTermDTO> closeTerm(@PathVariable Long id) {
+        return ResponseEntity.ok(academicTermService.closeTerm(id));
+    }
+
+    /**
+     * Moves the attendance records of a closed term into the archive now, instead of waiting for the nightly job.
+     * Requires ADMIN role.
+     * @param id The ID of the term.
+     * @return ResponseEntity with the updated AcademicTermDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/archive")
+    public ResponseEntity<AcademicTermDTO> archiveTerm(@PathVariable Long id) {
+        attendanceArchiveService.archiveTerm(id);
+        return ResponseEntity.ok(academicTermService.getTermById(id));
+    }
+
+    /**
+     * Exports the archived attendance of a term into its columnar archive file, replacing an earlier export.
+     * Requires ADMIN role.
+     * @param id The ID of the term.
+     * @return ResponseEntity with the updated AcademicTermDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/export")
+    public ResponseEntity<AcademicTermDTO> exportTerm(@PathVariable Long id) {
+        attendanceArchiveFileService.exportTerm(id);
+        return ResponseEntity.ok(academicTermService.getTermById(id));
+    }
+
+    /**
+     * Cross-checks the archive file of a term against its archived records in the database.
+     * Requires ADMIN role.
+     * @param id The ID of the term.
+     * @return ResponseEntity with the ArchiveVerificationDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}/verify")
+    public ResponseEntity<ArchiveVerificationDTO> verifyTerm(@PathVariable Long id) {
+        return ResponseEntity.ok(attendanceArchiveFileService.verifyTerm(id));
+    }
+
+    /**
+     * Deletes the archived records of a term from the database once its archive file verifies.
+     * Requires ADMIN role.
+     * @param id The ID of the term.
+     * @return ResponseEntity with the updated AcademicTermDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/purge")
+    public ResponseEntity<AcademicTermDTO> purgeTerm(@PathVariable Long id) {
+        attendanceArchiveFileService.purgeTerm(id);
+        return ResponseEntity.ok(academicTermService.getTermById(id));
+    }
+
+    /**
+     * Retrieves a student's attendance per subject within an exported term, read from the term's archive file.
+     * Requires ADMIN or TEACHER role.
+     * @param id The ID of the term.
+     * @param studentId The ID of the student.
+     * @return ResponseEntity with a list of StudentAttendanceSummaryDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/{id}/attendance/summary")
+    public ResponseEntity<List<StudentAttendanceSummaryDTO>> getTermSummary(@PathVariable Long id,
+                                                                            @RequestParam Long studentId) {
+        return ResponseEntity.ok(attendanceArchiveFileService.getTermSummary(id, studentId));
+    }
+
+    /**
+     * Streams the attendance records of an exported term as CSV, read from the term's archive file.
+     * Requires ADMIN or TEACHER role.
+     * @param id The ID of the term.
+     * @return ResponseEntity streaming the CSV, with HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/{id}/attendance/export")
+    public ResponseEntity<StreamingResponseBody> exportTermAttendance(@PathVariable Long id) {
+        attendanceArchiveFileService.requireArchiveFile(id);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            attendanceArchiveFileService.writeTermCsv(id, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"term-" + id + "-attendance.csv\"")
+                .body(body);
+    }
+}
@@ -1,21 +1,52 @@
 package com.example.main.controller;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.example.main.dto.AttendanceChangeDTO;
+import com.example.main.dto.AttendanceCorrectionRequest;
+import com.example.main.dto.AttendanceCorrectionResultDTO;
 import com.example.main.dto.AttendanceRecordDTO;
 import com.example.main.dto.BulkMarkAttendanceRequest;
+import com.example.main.dto.LeaveRequest;
+import com.example.main.dto.LeaveResultDTO;
+import com.example.main.dto.MarkingSheetDTO;
+import com.example.main.dto.OfflineAttendanceUploadRequest;
+import com.example.main.dto.OfflineAttendanceUploadResultDTO;
 import com.example.main.dto.OverallStudentAttendanceDTO;
+import com.example.main.dto.PendingMarkingDTO;
 import com.example.main.model.AttendanceStatus;
 import com.example.main.security.CustomUserDetails;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.service.AttendanceAuditService;
+import com.example.main.service.AttendanceCorrectionService;
+import com.example.main.service.AttendanceRegister;
 import com.example.main.service.AttendanceService;
+import com.example.main.service.LectureAttendanceStreamService;
+import com.example.main.service.OfflineAttendanceService;
+import com.example.main.service.PendingMarkingService;
 import com.example.main.service.StudentService;
 import com.example.main.service.TeacherService;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -28,11 +59,28 @@ public class AttendanceController {
     private final AttendanceService attendanceService;
     private final StudentService studentService; // Needed for student-specific attendance logic
     private final TeacherService teacherService; // Needed for teacher-specific attendance logic
+    private final PendingMarkingService pendingMarkingService; // Lectures still waiting to be marked
+    private final AttendanceCorrectionService attendanceCorrectionService; // Bulk corrections by filter
+    private final AttendanceAuditService attendanceAuditService; // Change history of attendance records
+    private final ObjectMapper objectMapper; // Streams the attendance register as JSON
+    private final LectureAttendanceStreamService lectureAttendanceStreamService; // Live attendance of lectures
+    private final OfflineAttendanceService offlineAttendanceService; // Marks uploaded from offline devices
 
-    public AttendanceController(AttendanceService attendanceService, StudentService studentService, TeacherService teacherService) {
+    public AttendanceController(AttendanceService attendanceService, StudentService studentService, TeacherService teacherService,
+                                PendingMarkingService pendingMarkingService,
+                                AttendanceCorrectionService attendanceCorrectionService,
+                                AttendanceAuditService attendanceAuditService, ObjectMapper objectMapper,
+                                LectureAttendanceStreamService lectureAttendanceStreamService,
+                                OfflineAttendanceService offlineAttendanceService) {
         this.attendanceService = attendanceService;
         this.studentService = studentService;
         this.teacherService = teacherService;
+        this.pendingMarkingService = pendingMarkingService;
+        this.attendanceCorrectionService = attendanceCorrectionService;
+        this.attendanceAuditService = attendanceAuditService;
+        this.objectMapper = objectMapper;
+        this.lectureAttendanceStreamService = lectureAttendanceStreamService;
+        this.offlineAttendanceService = offlineAttendanceService;
     }
 
     /**
@@ -57,6 +105,43 @@ public class AttendanceController {
         return ResponseEntity.ok(markedRecords);
     }
 
+    /**
+     * Uploads the marks a teacher's device queued while offline, across any number of lectures.
+     * Requires TEACHER role. The marks are applied in sequence order, the latest client timestamp winning per
+     * lecture and student, and every operation gets a final outcome so the device can compact its queue.
+     * @param request The DTO containing the device ID and the queued mark operations.
+     * @param currentUser The authenticated user's details.
+     * @return ResponseEntity with the OfflineAttendanceUploadResultDTO (per-operation outcomes) and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('TEACHER')")
+    @PostMapping("/offline-upload")
+    public ResponseEntity<OfflineAttendanceUploadResultDTO> uploadOfflineMarks(
+            @Valid @RequestBody OfflineAttendanceUploadRequest request,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        return ResponseEntity.ok(offlineAttendanceService.uploadMarks(request, currentUser.getUserId()));
+    }
+
+    /**
+     * Applies leave to a student for all their lectures within a date range, optionally limited to some subjects,
+     * e.g. for a medical certificate covering a week. Existing marks are changed to LEAVE.
+     * Requires TEACHER or ADMIN role. Leave applied by an admin is recorded as marked by each lecture's teacher.
+     * @param request The DTO containing the student, date range and optional subject IDs.
+     * @param currentUser The authenticated user's details.
+     * @return ResponseEntity with the LeaveResultDTO (affected counts) and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @PostMapping("/leave")
+    public ResponseEntity<LeaveResultDTO> applyLeave(
+            @Valid @RequestBody LeaveRequest request,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        boolean isTeacher = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_TEACHER"));
+        LeaveResultDTO result = attendanceService.applyLeave(request, isTeacher ? currentUser.getUserId() : null,
+                currentUser.getUserId());
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Updates a single attendance record.
      * Requires TEACHER or ADMIN role. Teachers can only update records they marked or for their lectures.
@@ -78,6 +163,66 @@ public class AttendanceController {
         return ResponseEntity.ok(updatedRecord);
     }
 
+    /**
+     * Corrects all attendance records selected by a filter (lecture IDs, student group, date range, current status)
+     * to a target status, e.g. a whole class wrongly marked absent. Every changed record is audited.
+     * Requires ADMIN role.
+     * @param request The DTO containing the filter, the target status and an optional reason.
+     * @param preview If true, only reports the affected counts without changing anything.
+     * @param currentUser The authenticated user's details.
+     * @return ResponseEntity with the AttendanceCorrectionResultDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/corrections")
+    public ResponseEntity<AttendanceCorrectionResultDTO> correctAttendance(
+            @Valid @RequestBody AttendanceCorrectionRequest request,
+            @RequestParam(defaultValue = "false") boolean preview,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        AttendanceCorrectionResultDTO result = attendanceCorrectionService.correctAttendance(request,
+                currentUser.getUserId(), preview);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Retrieves the change history of an attendance record from the audit log, oldest first.
+     * Requires ADMIN or TEACHER role.
+     * @param recordId The ID of the attendance record.
+     * @return ResponseEntity with a list of AttendanceChangeDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/{recordId}/history")
+    public ResponseEntity<List<AttendanceChangeDTO>> getRecordHistory(@PathVariable Long recordId) {
+        return ResponseEntity.ok(attendanceAuditService.getRecordHistory(recordId));
+    }
+
+    /**
+     * Retrieves the attendance changes of a student, or the changes made by a teacher, from the audit log.
+     * Requires ADMIN or TEACHER role.
+     * @param studentId (Optional) The ID of the student whose records changed.
+     * @param teacherId (Optional) The ID of the teacher (or admin user) who made the changes.
+     * @param from (Optional) The first date of the range (YYYY-MM-DD).
+     * @param to (Optional) The last date of the range (YYYY-MM-DD).
+     * @return ResponseEntity with a list of AttendanceChangeDTOs, oldest first, and HTTP status 200.
+     * @throws InvalidOperationException if not exactly one of studentId and teacherId is given.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/history")
+    public ResponseEntity<List<AttendanceChangeDTO>> getHistory(
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if ((studentId == null) == (teacherId == null)) {
+            throw new InvalidOperationException("Either a student ID or a teacher ID is required.");
+        }
+        List<AttendanceChangeDTO> history = studentId != null
+                ? attendanceAuditService.getStudentHistory(studentId, from, to)
+                : attendanceAuditService.getTeacherHistory(teacherId, from, to);
+        return ResponseEntity.ok(history);
+    }
+
     /**
      * Retrieves attendance records for a specific lecture.
      * Requires ADMIN or TEACHER role.
@@ -91,12 +236,116 @@ public class AttendanceController {
         return ResponseEntity.ok(attendanceRecords);
     }
 
+    /**
+     * Streams the live attendance of a lecture as server-sent events, e.g. for screens watching a check-in session
+     * instead of polling. The first event ('snapshot') holds the status symbol of every marked student and the
+     * counts; each following event ('delta') holds only the changed students and the new counts.
+     * Requires ADMIN or TEACHER role.
+     * @param lectureId The ID of the lecture.
+     * @return ResponseEntity with the event stream and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping(value = "/lecture/{lectureId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLectureAttendance(@PathVariable Long lectureId) {
+        return ResponseEntity.ok(lectureAttendanceStreamService.subscribe(lectureId));
+    }
+
+    /**
+     * Retrieves everything the marking screen of a lecture needs in one call: the lecture header and the roster,
+     * ordered by roll number, merged with the existing marks.
+     * Supports conditional GET: the response carries an ETag over its content, and a request whose If-None-Match
+     * header still matches gets an empty 304 Not Modified instead.
+     * Requires ADMIN or TEACHER role.
+     * @param lectureId The ID of the lecture.
+     * @return ResponseEntity with the MarkingSheetDTO and HTTP status 200, or HTTP status 304.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/lecture/{lectureId}/sheet")
+    public ResponseEntity<MarkingSheetDTO> getMarkingSheet(@PathVariable Long lectureId) {
+        MarkingSheetDTO sheet = attendanceService.getMarkingSheet(lectureId);
+        String etag = DigestUtils.md5DigestAsHex(sheet.toString().getBytes(StandardCharsets.UTF_8));
+        // The If-None-Match check against the ETag is done by Spring when the ResponseEntity is written
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(sheet);
+    }
+
+    /**
+     * Retrieves the pending marking queue: past lectures with no or only part of their attendance marked,
+     * with the number of marked students versus the roster size. Past occurrences of virtual series are included with
+     * no lecture ID and nothing marked.
+     * Requires ADMIN or TEACHER role. Admins can filter by teacher or department; teachers always get their own queue.
+     * @param teacherId (Optional) Only lectures of this teacher.
+     * @param departmentId (Optional) Only lectures of teachers in this department.
+     * @param fromDate (Optional) The earliest lecture date (YYYY-MM-DD); defaults to the configured lookback.
+     * @param currentUser The authenticated user's details.
+     * @return ResponseEntity with a list of PendingMarkingDTOs, oldest first, and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/pending")
+    public ResponseEntity<List<PendingMarkingDTO>> getPendingMarking(
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        if (currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_TEACHER"))) {
+            // Teachers can only see their own pending lectures
+            teacherId = currentUser.getUserId();
+            departmentId = null;
+        }
+        List<PendingMarkingDTO> pending = pendingMarkingService.getPendingLectures(teacherId, departmentId, fromDate);
+        return ResponseEntity.ok(pending);
+    }
+
+    /**
+     * Retrieves the monthly attendance register of a subject for a student group: a grid with a row per student,
+     * a column per lecture (P/A/L) and totals per student and per lecture. Streamed as compact JSON or as CSV.
+     * Occurrences of virtual series that have not been marked yet are unmarked columns (with a null lecture ID in JSON).
+     * Requires ADMIN or TEACHER role.
+     * @param subjectId The ID of the subject.
+     * @param studentGroupId The ID of the student group.
+     * @param month The month (format YYYY-MM).
+     * @param format (Optional) "json" (default) or "csv".
+     * @return ResponseEntity streaming the register, with HTTP status 200.
+     * @throws InvalidOperationException if the format is not supported.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/register")
+    public ResponseEntity<StreamingResponseBody> getAttendanceRegister(
+            @RequestParam Long subjectId,
+            @RequestParam Long studentGroupId,
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(defaultValue = "json") String format) {
+
+        if (!format.equals("json") && !format.equals("csv")) {
+            throw new InvalidOperationException("Unsupported register format: " + format + " (expected json or csv).");
+        }
+        AttendanceRegister register = attendanceService.getAttendanceRegister(subjectId, studentGroupId, month);
+        if (format.equals("csv")) {
+            StreamingResponseBody body = out -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                register.writeCsv(writer);
+                writer.flush();
+            };
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"register-" + subjectId + "-"
+                            + studentGroupId + "-" + month + ".csv\"")
+                    .body(body);
+        }
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            register.writeJson(json);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * Retrieves attendance records for a specific student, optionally within a date range.
      * Requires ADMIN or STUDENT role. Students can only view their own attendance.
      * @param studentId The ID of the student.
      * @param startDate (Optional) Start date for filtering attendance (YYYY-MM-DD).
      * @param endDate (Optional) End date for filtering attendance (YYYY-MM-DD).
+     * @param asOf (Optional) Reconstruct the records as they were at this moment (YYYY-MM-DDTHH:MM:SS).
      * @param currentUser The authenticated user's details.
      * @return ResponseEntity with a list of AttendanceRecordDTOs and HTTP status 200.
      */
@@ -106,6 +355,7 @@ public class AttendanceController {
             @PathVariable Long studentId,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
             @AuthenticationPrincipal CustomUserDetails currentUser) {
 
         // Ensure students can only view their own records
@@ -114,7 +364,9 @@ public class AttendanceController {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN); // Return 403 Forbidden
         }
 
-        List<AttendanceRecordDTO> attendanceRecords = attendanceService.getAttendanceByStudent(studentId, startDate, endDate);
+        List<AttendanceRecordDTO> attendanceRecords = asOf != null
+                ? attendanceService.getAttendanceByStudentAsOf(studentId, startDate, endDate, asOf)
+                : attendanceService.getAttendanceByStudent(studentId, startDate, endDate);
         return ResponseEntity.ok(attendanceRecords);
     }
 
@@ -122,6 +374,7 @@ public class AttendanceController {
      * Retrieves the overall attendance summary for a specific student.
      * Requires ADMIN or STUDENT role. Students can only view their own summary.
      * @param studentId The ID of the student.
+     * @param asOf (Optional) Reconstruct the summary as it was at this moment (YYYY-MM-DDTHH:MM:SS).
      * @param currentUser The authenticated user's details.
      * @return ResponseEntity with the OverallStudentAttendanceDTO and HTTP status 200.
      */
@@ -129,6 +382,7 @@ public class AttendanceController {
     @GetMapping("/student/{studentId}/summary")
     public ResponseEntity<OverallStudentAttendanceDTO> getStudentOverallAttendanceSummary(
             @PathVariable Long studentId,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
             @AuthenticationPrincipal CustomUserDetails currentUser) {
 
         // Ensure students can only view their own summary
@@ -137,7 +391,9 @@ public class AttendanceController {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN); // Return 403 Forbidden
         }
 
-        OverallStudentAttendanceDTO summary = attendanceService.getStudentOverallAttendanceSummary(studentId);
+        OverallStudentAttendanceDTO summary = asOf != null
+                ? attendanceService.getStudentOverallAttendanceSummaryAsOf(studentId, asOf)
+                : attendanceService.getStudentOverallAttendanceSummary(studentId);
         return ResponseEntity.ok(summary);
     }
 }
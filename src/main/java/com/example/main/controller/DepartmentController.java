@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.DepartmentDTO;
 import com.example.main.service.DepartmentService;
 
@@ -81,12 +82,12 @@ public class DepartmentController {
      * Deletes a department by its ID.
      * Requires ADMIN role.
      * @param id The ID of the department to delete.
-     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     * @return ResponseEntity with the per-table deletion report and HTTP status 200 (OK).
      */
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteDepartment(@PathVariable Long id) {
-        departmentService.deleteDepartment(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionReportDTO> deleteDepartment(@PathVariable Long id) {
+        DeletionReportDTO report = departmentService.deleteDepartment(id);
+        return ResponseEntity.ok(report);
     }
 }
@@ -0,0 +1,106 @@
+package com.example.main.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.main.dto.BulkEnrollmentRequest;
+import com.example.main.dto.EnrollmentDTO;
+import com.example.main.service.EnrollmentService;
+
+import java.util.List;
+
+/**
+ * REST Controller for managing Enrollment resources.
+ * Creation and deletion requires ADMIN. Retrieval is for ADMIN and TEACHER.
+ */
+@RestController
+@RequestMapping("/api/v1/enrollments") // Base path for enrollment endpoints
+public class EnrollmentController {
+
+    private final EnrollmentService enrollmentService;
+
+    public EnrollmentController(EnrollmentService enrollmentService) {
+        this.enrollmentService = enrollmentService;
+    }
+
+    /**
+     * Enrolls a single student group in a subject.
+     * Requires ADMIN role.
+     * @param enrollmentDTO The DTO containing enrollment details.
+     * @return ResponseEntity with the created EnrollmentDTO and HTTP status 201.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<EnrollmentDTO> createEnrollment(@Valid @RequestBody EnrollmentDTO enrollmentDTO) {
+        EnrollmentDTO createdEnrollment = enrollmentService.createEnrollment(enrollmentDTO);
+        return new ResponseEntity<>(createdEnrollment, HttpStatus.CREATED);
+    }
+
+    /**
+     * Enrolls several student groups in several subjects.
+     * Requires ADMIN role. Pairs that are already enrolled are skipped.
+     * @param request The DTO containing the student group IDs and subject IDs.
+     * @return ResponseEntity with the newly created EnrollmentDTOs and HTTP status 201.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk")
+    public ResponseEntity<List<EnrollmentDTO>> bulkEnroll(@Valid @RequestBody BulkEnrollmentRequest request) {
+        List<EnrollmentDTO> createdEnrollments = enrollmentService.bulkEnroll(request);
+        return new ResponseEntity<>(createdEnrollments, HttpStatus.CREATED);
+    }
+
+    /**
+     * Withdraws several student groups from several subjects.
+     * Requires ADMIN role.
+     * @param request The DTO containing the student group IDs and subject IDs.
+     * @return ResponseEntity with the number of enrollments removed and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk/remove")
+    public ResponseEntity<Integer> bulkWithdraw(@Valid @RequestBody BulkEnrollmentRequest request) {
+        int removed = enrollmentService.bulkWithdraw(request);
+        return ResponseEntity.ok(removed);
+    }
+
+    /**
+     * Retrieves the enrollments of a student group.
+     * Requires ADMIN or TEACHER role.
+     * @param studentGroupId The ID of the student group.
+     * @return ResponseEntity with a list of EnrollmentDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping
+    public ResponseEntity<List<EnrollmentDTO>> getEnrollments(@RequestParam Long studentGroupId) {
+        List<EnrollmentDTO> enrollments = enrollmentService.getEnrollmentsByStudentGroup(studentGroupId);
+        return ResponseEntity.ok(enrollments);
+    }
+
+    /**
+     * Retrieves the IDs of the student groups enrolled in a subject.
+     * Requires ADMIN or TEACHER role.
+     * @param subjectId The ID of the subject.
+     * @return ResponseEntity with a list of student group IDs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/subject/{subjectId}/groups")
+    public ResponseEntity<List<Long>> getEnrolledStudentGroups(@PathVariable Long subjectId) {
+        List<Long> studentGroupIds = enrollmentService.getEnrolledStudentGroupIds(subjectId);
+        return ResponseEntity.ok(studentGroupIds);
+    }
+
+    /**
+     * Deletes an enrollment by its ID.
+     * Requires ADMIN role.
+     * @param id The ID of the enrollment to delete.
+     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteEnrollment(@PathVariable Long id) {
+        enrollmentService.deleteEnrollment(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.main.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.main.dto.ImportResultDTO;
+import com.example.main.service.BulkImportService;
+
+import java.io.InputStream;
+
+/**
+ * REST Controller for bulk importing students and teachers.
+ * The request body is the raw file (text/csv or application/x-ndjson) and is read as a stream.
+ * All endpoints require ADMIN.
+ */
+@RestController
+@RequestMapping("/api/v1/imports") // Base path for import endpoints
+public class ImportController {
+
+    private final BulkImportService bulkImportService;
+
+    public ImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    /**
+     * Imports students and their user accounts.
+     * Requires ADMIN role.
+     * @param contentType The media type of the uploaded file.
+     * @param dryRun If true, only validates the file without writing anything.
+     * @param body The uploaded file.
+     * @return ResponseEntity with the ImportResultDTO (per-row errors included) and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/students", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<ImportResultDTO> importStudents(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                                         InputStream body) {
+        ImportResultDTO result = bulkImportService.importStudents(body, contentType, dryRun);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Imports teachers and their user accounts.
+     * Requires ADMIN role.
+     * @param contentType The media type of the uploaded file.
+     * @param dryRun If true, only validates the file without writing anything.
+     * @param body The uploaded file.
+     * @return ResponseEntity with the ImportResultDTO (per-row errors included) and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/teachers", consumes = { "text/csv", MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<ImportResultDTO> importTeachers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                          @RequestParam(defaultValue = "false") boolean dryRun,
+                                                          InputStream body) {
+        ImportResultDTO result = bulkImportService.importTeachers(body, contentType, dryRun);
+        return ResponseEntity.ok(result);
+    }
+}
@@ -7,11 +7,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.main.dto.CurrentLectureDTO;
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.LectureDTO;
 import com.example.main.security.CustomUserDetails;
+import com.example.main.exception.InvalidOperationException;
 import com.example.main.service.LectureService;
+import com.example.main.service.ScheduleConflictIndex;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -59,7 +64,7 @@ public class LectureController {
      * Requires ADMIN, TEACHER, or STUDENT role.
      * Teachers can only retrieve their own lectures. Students can only retrieve lectures for their group.
      * @param teacherId (Optional) Filter by teacher ID.
-     * @param studentGroup (Optional) Filter by student group.
+     * @param studentGroupId (Optional) Filter by student group ID.
      * @param date (Optional) Filter by lecture date (format YYYY-MM-DD).
      * @param currentUser The authenticated user's details.
      * @return ResponseEntity with a list of LectureDTOs and HTTP status 200.
@@ -68,7 +73,7 @@ public class LectureController {
     @GetMapping
     public ResponseEntity<List<LectureDTO>> getLectures(
             @RequestParam(required = false) Long teacherId,
-            @RequestParam(required = false) String studentGroup,
+            @RequestParam(required = false) Long studentGroupId,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate date,
             @AuthenticationPrincipal CustomUserDetails currentUser) {
 
@@ -78,8 +83,8 @@ public class LectureController {
             // Admin can view all or filter freely
             if (teacherId != null) {
                 lectures = lectureService.getLecturesByTeacher(teacherId, date);
-            } else if (studentGroup != null) {
-                lectures = lectureService.getLecturesByStudentGroup(studentGroup, date);
+            } else if (studentGroupId != null) {
+                lectures = lectureService.getLecturesByStudentGroup(studentGroupId, date);
             } else {
                 lectures = lectureService.getAllLectures();
             }
@@ -90,10 +95,11 @@ public class LectureController {
         } else if (currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_STUDENT"))) {
             // Student can only view lectures for their group
             // This would typically involve fetching the student's group based on their user ID,
-            // For simplicity, let's assume `studentGroup` is passed or fetched via other means.
+            // For simplicity, let's assume `studentGroupId` is passed or fetched via other means.
             // A more robust implementation would fetch the student's actual group from the Student entity.
-            // For now, if no studentGroup is provided by the student, it won't filter based on it here directly.
-            lectures = lectureService.getLecturesByStudentGroup(studentGroup, date); // Needs accurate studentGroup to filter
+            lectures = studentGroupId != null
+                    ? lectureService.getLecturesByStudentGroup(studentGroupId, date) // Needs accurate studentGroupId to filter
+                    : List.of();
         } else {
             lectures = lectureService.getAllLectures(); // Fallback, though roles should cover all authenticated users
         }
@@ -101,6 +107,47 @@ public class LectureController {
         return ResponseEntity.ok(lectures);
     }
 
+    /**
+     * Retrieves the lecture happening now and the next lecture of the day, for a teacher, student group or room.
+     * Lightweight alternative to polling the day's lectures; answered from the in-memory timetable index.
+     * Requires ADMIN, TEACHER, or STUDENT role. Teachers get their own lectures unless they ask for a room.
+     * @param teacherId (Optional) The teacher to look up.
+     * @param studentGroupId (Optional) The student group to look up.
+     * @param roomNumber (Optional) The room to look up.
+     * @param at (Optional) The moment to look up (format YYYY-MM-DDTHH:MM:SS); defaults to now.
+     * @param currentUser The authenticated user's details.
+     * @return ResponseEntity with the CurrentLectureDTO and HTTP status 200.
+     * @throws InvalidOperationException if none of teacher, student group or room is given.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'STUDENT')")
+    @GetMapping("/now")
+    public ResponseEntity<CurrentLectureDTO> getCurrentLecture(
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Long studentGroupId,
+            @RequestParam(required = false) String roomNumber,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        LocalDateTime moment = at != null ? at : LocalDateTime.now();
+        boolean isTeacher = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_TEACHER"));
+        CurrentLectureDTO lecture;
+        if (roomNumber != null && !roomNumber.isBlank()) {
+            lecture = lectureService.getCurrentAndNextLecture(ScheduleConflictIndex.Resource.ROOM, roomNumber, moment);
+        } else if (isTeacher) {
+            // Teacher can only look up their own lectures
+            lecture = lectureService.getCurrentAndNextLecture(ScheduleConflictIndex.Resource.TEACHER,
+                    currentUser.getUserId(), moment);
+        } else if (teacherId != null) {
+            lecture = lectureService.getCurrentAndNextLecture(ScheduleConflictIndex.Resource.TEACHER, teacherId, moment);
+        } else if (studentGroupId != null) {
+            lecture = lectureService.getCurrentAndNextLecture(ScheduleConflictIndex.Resource.STUDENT_GROUP,
+                    studentGroupId, moment);
+        } else {
+            throw new InvalidOperationException("A teacher ID, student group ID or room number is required.");
+        }
+        return ResponseEntity.ok(lecture);
+    }
+
     /**
      * Updates an existing lecture.
      * Requires ADMIN role.
@@ -119,12 +166,12 @@ public class LectureController {
      * Deletes a lecture by its ID.
      * Requires ADMIN role.
      * @param id The ID of the lecture to delete.
-     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     * @return ResponseEntity with the per-table deletion report and HTTP status 200 (OK).
      */
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteLecture(@PathVariable Long id) {
-        lectureService.deleteLecture(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionReportDTO> deleteLecture(@PathVariable Long id) {
+        DeletionReportDTO report = lectureService.deleteLecture(id);
+        return ResponseEntity.ok(report);
     }
 }
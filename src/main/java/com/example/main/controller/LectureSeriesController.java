@@ -0,0 +1,162 @@
+package com.example.main.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.main.dto.LectureDTO;
+import com.example.main.dto.LectureSeriesDTO;
+import com.example.main.dto.SeriesGenerationResultDTO;
+import com.example.main.service.LectureSeriesService;
+import com.example.main.service.LectureService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST Controller for managing recurring lecture series (the weekly timetable).
+ * Creating a series generates its lectures server-side, unless the series is virtual: its occurrences are then
+ * computed on read and only stored once they are marked or edited.
+ * Creation/Update/Deletion requires ADMIN. Retrieval is for ADMIN and TEACHER.
+ */
+@RestController
+@RequestMapping("/api/v1/lecture-series") // Base path for lecture series endpoints
+public class LectureSeriesController {
+
+    private final LectureSeriesService lectureSeriesService;
+    private final LectureService lectureService;
+
+    public LectureSeriesController(LectureSeriesService lectureSeriesService, LectureService lectureService) {
+        this.lectureSeriesService = lectureSeriesService;
+        this.lectureService = lectureService;
+    }
+
+    /**
+     * Creates a series and generates its lectures, or previews the lectures it would generate.
+     * Requires ADMIN role.
+     * @param seriesDTO The DTO containing the weekly slot, term dates and excluded dates.
+     * @param preview If true, nothing is saved and the generated dates are only reported.
+     * @return ResponseEntity with the SeriesGenerationResultDTO and HTTP status 201 (200 for a preview).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<SeriesGenerationResultDTO> createSeries(@Valid @RequestBody LectureSeriesDTO seriesDTO,
+                                                                  @RequestParam(defaultValue = "false") boolean preview) {
+        if (preview) {
+            return ResponseEntity.ok(lectureSeriesService.previewSeries(seriesDTO));
+        }
+        SeriesGenerationResultDTO result = lectureSeriesService.createSeries(seriesDTO);
+        return new ResponseEntity<>(result, HttpStatus.CREATED);
+    }
+
+    /**
+     * Replaces a series definition and its occurrences from a given date onward.
+     * A virtual series that started earlier is split at that date; the result then names the new series.
+     * Requires ADMIN role.
+     * @param id The ID of the series.
+     * @param seriesDTO The new series details.
+     * @param fromDate (Optional) First date to replace; defaults to today.
+     * @param preview If true, only reports what would change.
+     * @return ResponseEntity with the SeriesGenerationResultDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{id}")
+    public ResponseEntity<SeriesGenerationResultDTO> updateSeries(@PathVariable Long id,
+                                                                  @Valid @RequestBody LectureSeriesDTO seriesDTO,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                                  @RequestParam(defaultValue = "false") boolean preview) {
+        SeriesGenerationResultDTO result = lectureSeriesService.updateSeries(id, seriesDTO, fromDate, preview);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Regenerates the lectures of a series from its stored definition (idempotent).
+     * Requires ADMIN role.
+     * @param id The ID of the series.
+     * @param fromDate (Optional) First date to regenerate; defaults to today.
+     * @param preview If true, only reports what would change.
+     * @return ResponseEntity with the SeriesGenerationResultDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/regenerate")
+    public ResponseEntity<SeriesGenerationResultDTO> regenerateSeries(@PathVariable Long id,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                                      @RequestParam(defaultValue = "false") boolean preview) {
+        SeriesGenerationResultDTO result = lectureSeriesService.regenerateSeries(id, fromDate, preview);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Stores a single occurrence of a series as a lecture, e.g. before it is referenced by ID.
+     * Requires ADMIN or TEACHER role.
+     * @param id The ID of the series.
+     * @param date The date of the occurrence.
+     * @return ResponseEntity with the stored LectureDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @PostMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<LectureDTO> materializeOccurrence(@PathVariable Long id,
+                                                           @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LectureDTO lecture = lectureService.materializeOccurrence(id, date);
+        return ResponseEntity.ok(lecture);
+    }
+
+    /**
+     * Edits a single occurrence of a series (e.g. a room change), storing it first if it is still virtual.
+     * Requires ADMIN role.
+     * @param id The ID of the series.
+     * @param date The date of the occurrence.
+     * @param lectureDTO The DTO containing updated lecture details.
+     * @return ResponseEntity with the updated LectureDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<LectureDTO> updateOccurrence(@PathVariable Long id,
+                                                       @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                       @Valid @RequestBody LectureDTO lectureDTO) {
+        LectureDTO updatedLecture = lectureService.updateOccurrence(id, date, lectureDTO);
+        return ResponseEntity.ok(updatedLecture);
+    }
+
+    /**
+     * Retrieves a series by its ID.
+     * Requires ADMIN or TEACHER role.
+     * @param id The ID of the series.
+     * @return ResponseEntity with the LectureSeriesDTO if found, and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping("/{id}")
+    public ResponseEntity<LectureSeriesDTO> getSeriesById(@PathVariable Long id) {
+        LectureSeriesDTO series = lectureSeriesService.getLectureSeriesById(id);
+        return ResponseEntity.ok(series);
+    }
+
+    /**
+     * Retrieves all series, optionally filtered by student group.
+     * Requires ADMIN or TEACHER role.
+     * @param studentGroupId (Optional) The ID of the student group.
+     * @return ResponseEntity with a list of LectureSeriesDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping
+    public ResponseEntity<List<LectureSeriesDTO>> getAllSeries(@RequestParam(required = false) Long studentGroupId) {
+        List<LectureSeriesDTO> series = lectureSeriesService.getAllLectureSeries(studentGroupId);
+        return ResponseEntity.ok(series);
+    }
+
+    /**
+     * Deletes a series and its occurrences without attendance. Occurrences with attendance are kept as one-off lectures.
+     * Requires ADMIN role.
+     * @param id The ID of the series to delete.
+     * @return ResponseEntity with the SeriesGenerationResultDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<SeriesGenerationResultDTO> deleteSeries(@PathVariable Long id) {
+        SeriesGenerationResultDTO result = lectureSeriesService.deleteSeries(id);
+        return ResponseEntity.ok(result);
+    }
+}
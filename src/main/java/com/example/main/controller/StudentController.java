@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.StudentDTO;
 import com.example.main.dto.UserRegisterRequest;
 import com.example.main.service.StudentService;
@@ -56,8 +57,9 @@ public class StudentController {
     }
 
     /**
-     * Retrieves all students, or students filtered by department, batch year, or section.
+     * Retrieves all students, or students filtered by student group, department, batch year, or section.
      * Requires ADMIN or STUDENT role. Students can only see relevant groups (e.g., their own batch/department).
+     * @param studentGroupId (Optional) Filter students by student group ID (ordered by roll number).
      * @param departmentId (Optional) Filter students by department ID.
      * @param batchYear (Optional) Filter students by batch year.
      * @param section (Optional) Filter students by section.
@@ -66,11 +68,14 @@ public class StudentController {
     @PreAuthorize("hasAnyRole('ADMIN', 'STUDENT')")
     @GetMapping
     public ResponseEntity<List<StudentDTO>> getAllStudents(
+            @RequestParam(required = false) Long studentGroupId,
             @RequestParam(required = false) Long departmentId,
             @RequestParam(required = false) Integer batchYear,
             @RequestParam(required = false) String section) {
         List<StudentDTO> students;
-        if (departmentId != null) {
+        if (studentGroupId != null) {
+            students = studentService.getStudentsByStudentGroup(studentGroupId);
+        } else if (departmentId != null) {
             students = studentService.getStudentsByDepartment(departmentId);
         } else if (batchYear != null) {
             students = studentService.getStudentsByBatchYearAndSection(batchYear, section);
@@ -98,12 +103,12 @@ public class StudentController {
      * Deletes a student by their ID.
      * Requires ADMIN role.
      * @param id The ID of the student to delete.
-     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     * @return ResponseEntity with the per-table deletion report and HTTP status 200 (OK).
      */
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteStudent(@PathVariable Long id) {
-        studentService.deleteStudent(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionReportDTO> deleteStudent(@PathVariable Long id) {
+        DeletionReportDTO report = studentService.deleteStudent(id);
+        return ResponseEntity.ok(report);
     }
 }
@@ -0,0 +1,101 @@
+package com.example.main.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.main.dto.StudentGroupDTO;
+import com.example.main.service.StudentGroupService;
+
+import java.util.List;
+
+/**
+ * REST Controller for managing Student Group resources.
+ * Creation, update, deletion requires ADMIN. Retrieval is for ADMIN, TEACHER, and STUDENT.
+ */
+@RestController
+@RequestMapping("/api/v1/student-groups") // Base path for student group endpoints
+public class StudentGroupController {
+
+    private final StudentGroupService studentGroupService;
+
+    public StudentGroupController(StudentGroupService studentGroupService) {
+        this.studentGroupService = studentGroupService;
+    }
+
+    /**
+     * Creates a new student group.
+     * Requires ADMIN role.
+     * @param studentGroupDTO The DTO containing student group details.
+     * @return ResponseEntity with the created StudentGroupDTO and HTTP status 201.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<StudentGroupDTO> createStudentGroup(@Valid @RequestBody StudentGroupDTO studentGroupDTO) {
+        StudentGroupDTO createdStudentGroup = studentGroupService.createStudentGroup(studentGroupDTO);
+        return new ResponseEntity<>(createdStudentGroup, HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves a student group by its ID.
+     * Requires ADMIN, TEACHER, or STUDENT role.
+     * @param id The ID of the student group.
+     * @return ResponseEntity with the StudentGroupDTO if found, and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'STUDENT')")
+    @GetMapping("/{id}")
+    public ResponseEntity<StudentGroupDTO> getStudentGroupById(@PathVariable Long id) {
+        StudentGroupDTO studentGroup = studentGroupService.getStudentGroupById(id);
+        return ResponseEntity.ok(studentGroup);
+    }
+
+    /**
+     * Retrieves all student groups, or groups filtered by department or term.
+     * Requires ADMIN, TEACHER, or STUDENT role.
+     * @param departmentId (Optional) Filter groups by department ID.
+     * @param term (Optional) Filter groups by academic term code.
+     * @return ResponseEntity with a list of StudentGroupDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'STUDENT')")
+    @GetMapping
+    public ResponseEntity<List<StudentGroupDTO>> getAllStudentGroups(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String term) {
+        List<StudentGroupDTO> studentGroups;
+        if (departmentId != null) {
+            studentGroups = studentGroupService.getStudentGroupsByDepartment(departmentId);
+        } else {
+            studentGroups = studentGroupService.getAllStudentGroups(term);
+        }
+        return ResponseEntity.ok(studentGroups);
+    }
+
+    /**
+     * Updates an existing student group.
+     * Requires ADMIN role.
+     * @param id The ID of the student group to update.
+     * @param studentGroupDTO The DTO containing updated student group details.
+     * @return ResponseEntity with the updated StudentGroupDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{id}")
+    public ResponseEntity<StudentGroupDTO> updateStudentGroup(@PathVariable Long id, @Valid @RequestBody StudentGroupDTO studentGroupDTO) {
+        StudentGroupDTO updatedStudentGroup = studentGroupService.updateStudentGroup(id, studentGroupDTO);
+        return ResponseEntity.ok(updatedStudentGroup);
+    }
+
+    /**
+     * Deletes a student group by its ID.
+     * Requires ADMIN role.
+     * @param id The ID of the student group to delete.
+     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteStudentGroup(@PathVariable Long id) {
+        studentGroupService.deleteStudentGroup(id);
+        return ResponseEntity.noContent().build();
+    }
+}
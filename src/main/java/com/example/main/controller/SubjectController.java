@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.SubjectDTO;
 import com.example.main.service.SubjectService;
 
@@ -85,12 +86,12 @@ public class SubjectController {
      * Deletes a subject by its ID.
      * Requires ADMIN role.
      * @param id The ID of the subject to delete.
-     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     * @return ResponseEntity with the per-table deletion report and HTTP status 200 (OK).
      */
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteSubject(@PathVariable Long id) {
-        subjectService.deleteSubject(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionReportDTO> deleteSubject(@PathVariable Long id) {
+        DeletionReportDTO report = subjectService.deleteSubject(id);
+        return ResponseEntity.ok(report);
     }
 }
@@ -0,0 +1,46 @@
+package com.example.main.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.main.dto.SyncResponseDTO;
+import com.example.main.security.CustomUserDetails;
+import com.example.main.service.SyncService;
+
+/**
+ * REST Controller for the delta sync of the mobile app.
+ */
+@RestController
+@RequestMapping("/api/v1/sync") // Base path for sync endpoints
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /**
+     * Retrieves the lectures, attendance records and reference data changed or deleted since a sync token.
+     * Requires TEACHER or ADMIN role. Teachers only receive their own lectures and the records of those lectures.
+     * @param since The syncToken of the previous response; omitted or 0 for a full sync.
+     * @param limit Optional maximum number of rows per entity type.
+     * @param currentUser The authenticated user's details.
+     * @return ResponseEntity with the SyncResponseDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    @GetMapping
+    public ResponseEntity<SyncResponseDTO> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        boolean isTeacher = currentUser.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_TEACHER"));
+        return ResponseEntity.ok(syncService.getChanges(since, limit, isTeacher ? currentUser.getUserId() : null));
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.TeacherDTO;
 import com.example.main.dto.UserRegisterRequest;
 import com.example.main.service.TeacherService;
@@ -92,12 +93,12 @@ public class TeacherController {
      * Deletes a teacher by their ID.
      * Requires ADMIN role.
      * @param id The ID of the teacher to delete.
-     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     * @return ResponseEntity with the per-table deletion report and HTTP status 200 (OK).
      */
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTeacher(@PathVariable Long id) {
-        teacherService.deleteTeacher(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<DeletionReportDTO> deleteTeacher(@PathVariable Long id) {
+        DeletionReportDTO report = teacherService.deleteTeacher(id);
+        return ResponseEntity.ok(report);
     }
 }
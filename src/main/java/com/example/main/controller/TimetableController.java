@@ -0,0 +1,41 @@
+package com.example.main.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.main.dto.TimetableSolutionDTO;
+import com.example.main.dto.TimetableSolveRequest;
+import com.example.main.service.TimetableService;
+
+/**
+ * REST Controller for building term timetables automatically.
+ * All endpoints require ADMIN.
+ */
+@RestController
+@RequestMapping("/api/v1/timetable") // Base path for timetable endpoints
+public class TimetableController {
+
+    private final TimetableService timetableService;
+
+    public TimetableController(TimetableService timetableService) {
+        this.timetableService = timetableService;
+    }
+
+    /**
+     * Builds a clash-free weekly timetable and saves it as lectures for every week of the term.
+     * Requires ADMIN role.
+     * @param request The courses, rooms, teacher availability, periods and term.
+     * @param preview If true, the timetable is only returned and nothing is saved.
+     * @return ResponseEntity with the TimetableSolutionDTO and HTTP status 201 if lectures were created, 200 otherwise.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/solve")
+    public ResponseEntity<TimetableSolutionDTO> solveTimetable(@Valid @RequestBody TimetableSolveRequest request,
+                                                               @RequestParam(defaultValue = "false") boolean preview) {
+        TimetableSolutionDTO solution = timetableService.solveTimetable(request, preview);
+        return new ResponseEntity<>(solution, solution.getLecturesCreated() > 0 ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+}
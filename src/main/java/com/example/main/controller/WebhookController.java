@@ -0,0 +1,130 @@
+package com.example.main.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.example.main.dto.WebhookDeliveryDTO;
+import com.example.main.dto.WebhookMetricsDTO;
+import com.example.main.dto.WebhookSubscriptionDTO;
+import com.example.main.service.WebhookDispatcherService;
+import com.example.main.service.WebhookSubscriptionService;
+
+import java.util.List;
+
+/**
+ * REST Controller for managing webhook subscriptions and monitoring their delivery.
+ */
+@RestController
+@RequestMapping("/api/v1/webhooks") // Base path for webhook endpoints
+public class WebhookController {
+
+    private final WebhookSubscriptionService webhookSubscriptionService;
+    private final WebhookDispatcherService webhookDispatcherService; // Delivery metrics
+
+    public WebhookController(WebhookSubscriptionService webhookSubscriptionService,
+                             WebhookDispatcherService webhookDispatcherService) {
+        this.webhookSubscriptionService = webhookSubscriptionService;
+        this.webhookDispatcherService = webhookDispatcherService;
+    }
+
+    /**
+     * Creates a new webhook subscription.
+     * Requires ADMIN role.
+     * @param subscriptionDTO The DTO containing the subscription's name, URL and limits.
+     * @return ResponseEntity with the created WebhookSubscriptionDTO and HTTP status 201.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<WebhookSubscriptionDTO> createSubscription(
+            @Valid @RequestBody WebhookSubscriptionDTO subscriptionDTO) {
+        WebhookSubscriptionDTO createdSubscription = webhookSubscriptionService.createSubscription(subscriptionDTO);
+        return new ResponseEntity<>(createdSubscription, HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves all webhook subscriptions.
+     * Requires ADMIN role.
+     * @return ResponseEntity with a list of all WebhookSubscriptionDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public ResponseEntity<List<WebhookSubscriptionDTO>> getAllSubscriptions() {
+        return ResponseEntity.ok(webhookSubscriptionService.getAllSubscriptions());
+    }
+
+    /**
+     * Activates a webhook subscription.
+     * Requires ADMIN role.
+     * @param id The ID of the subscription.
+     * @return ResponseEntity with the updated WebhookSubscriptionDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/activate")
+    public ResponseEntity<WebhookSubscriptionDTO> activateSubscription(@PathVariable Long id) {
+        return ResponseEntity.ok(webhookSubscriptionService.setActive(id, true));
+    }
+
+    /**
+     * Deactivates a webhook subscription; its queued batches wait until it is activated again.
+     * Requires ADMIN role.
+     * @param id The ID of the subscription.
+     * @return ResponseEntity with the updated WebhookSubscriptionDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/deactivate")
+    public ResponseEntity<WebhookSubscriptionDTO> deactivateSubscription(@PathVariable Long id) {
+        return ResponseEntity.ok(webhookSubscriptionService.setActive(id, false));
+    }
+
+    /**
+     * Deletes a webhook subscription and all of its batches.
+     * Requires ADMIN role.
+     * @param id The ID of the subscription to delete.
+     * @return ResponseEntity with HTTP status 204 (No Content) on successful deletion.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSubscription(@PathVariable Long id) {
+        webhookSubscriptionService.deleteSubscription(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Retrieves the dead-lettered batches.
+     * Requires ADMIN role.
+     * @param subscriptionId Optional ID of the subscription to filter by.
+     * @return ResponseEntity with a list of WebhookDeliveryDTOs and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<WebhookDeliveryDTO>> getDeadLetters(@RequestParam(required = false) Long subscriptionId) {
+        return ResponseEntity.ok(webhookSubscriptionService.getDeadLetters(subscriptionId));
+    }
+
+    /**
+     * Queues a dead-lettered batch for delivery again.
+     * Requires ADMIN role.
+     * @param id The ID of the dead-lettered batch.
+     * @return ResponseEntity with HTTP status 202 (Accepted).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/dead-letters/{id}/retry")
+    public ResponseEntity<Void> retryDeadLetter(@PathVariable Long id) {
+        webhookSubscriptionService.retryDeadLetter(id);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Retrieves the delivery throughput, lag and failure metrics of this node.
+     * Requires ADMIN role.
+     * @return ResponseEntity with the WebhookMetricsDTO and HTTP status 200.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/metrics")
+    public ResponseEntity<WebhookMetricsDTO> getMetrics() {
+        return ResponseEntity.ok(webhookDispatcherService.getMetrics());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for AcademicTerm data transfer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AcademicTermDTO {
+    private Long id;
+
+    @NotBlank(message = "Term name cannot be blank")
+    @Size(max = 100, message = "Term name cannot exceed 100 characters")
+    private String name;
+
+    @NotNull(message = "Start date cannot be null")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date cannot be null")
+    private LocalDate endDate;
+
+    private boolean closed; // Read-only; set by closing the term
+    private LocalDateTime archivedAt; // Read-only; set once all records of the term are archived
+    private LocalDateTime exportedAt; // Read-only; set when the archive file is written
+    private Long exportedRows; // Read-only; number of records in the archive file
+    private LocalDateTime purgedAt; // Read-only; set once the archived records are deleted from the database
+}
@@ -0,0 +1,23 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO reporting the cross-check of a term's archive file against the archived records in the database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveVerificationDTO {
+    private Long termId;
+    private boolean checksumValid; // False if the file is missing, truncated or corrupt
+    private long fileRows; // Records in the archive file
+    private long databaseRows; // Records of the term still in attendance_records_archive (0 once purged)
+    private List<Long> mismatchedLectureIds = new ArrayList<>(); // Lectures whose per-status counts differ
+    private boolean verified; // True if the file can replace the database rows
+}
@@ -0,0 +1,28 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * DTO for one entry of the attendance audit log.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceChangeDTO {
+    private Long recordId;
+    private Long studentId;
+    private AttendanceStatus oldStatus; // Null if the record was created by this change
+    private AttendanceStatus newStatus;
+    private Long changedByUserId; // Teacher (or admin user) who made the change
+    private AttendanceChangeSource source;
+    private String reason; // Only set for bulk corrections
+    private LocalDateTime changedAt;
+    private boolean archived; // True if read from a compacted month
+}
@@ -0,0 +1,34 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * DTO for correcting many attendance records at once, e.g. a whole class wrongly marked absent on a sports day.
+ * The records are selected by a filter: lecture IDs and/or a student group, optionally narrowed by a date range
+ * and the current status. At least lecture IDs or a student group is required.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceCorrectionRequest {
+    private List<Long> lectureIds; // Only records of these lectures
+    private Long studentGroupId; // Only records of lectures of this student group
+    private LocalDate startDate; // Optional: only lectures on or after this date
+    private LocalDate endDate; // Optional: only lectures on or before this date
+    private AttendanceStatus currentStatus; // Optional: only records with this status
+
+    @NotNull(message = "Target status cannot be null")
+    private AttendanceStatus targetStatus;
+
+    @Size(max = 255, message = "Reason cannot exceed 255 characters")
+    private String reason; // Stored with the audit rows
+}
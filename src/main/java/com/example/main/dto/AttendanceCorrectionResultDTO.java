@@ -0,0 +1,24 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * DTO reporting the outcome (or, in preview mode, the expected outcome) of a bulk attendance correction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceCorrectionResultDTO {
+    private boolean preview; // True if nothing was changed
+    private AttendanceStatus targetStatus;
+    private int lecturesAffected; // Lectures with at least one record changed
+    private int recordsMatched; // Records selected by the filter
+    private int recordsChanged; // Records whose status differed from the target status
+    private Map<AttendanceStatus, Integer> changedByStatus; // Changed records per previous status
+}
@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.main.model.AttendanceEventType;
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * DTO of an event relayed from the attendance event outbox to the event sinks.
+ * Delivery is at-least-once: consumers should skip event IDs they have already processed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceEventDTO {
+    private Long id; // Increasing outbox ID; events of a student are delivered in ID order
+    private AttendanceEventType type;
+    private Long lectureId;
+    private Long studentId; // Null for lecture events
+    private Long recordId; // Null for lecture events
+    private AttendanceStatus status; // New status; null for lecture events
+    private LocalDateTime occurredAt;
+}
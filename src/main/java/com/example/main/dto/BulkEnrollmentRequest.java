@@ -0,0 +1,26 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for enrolling (or withdrawing) several student groups in several subjects.
+ * Every group is paired with every subject.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentRequest {
+    @NotNull(message = "Student group IDs list cannot be null")
+    @Size(min = 1, message = "At least one student group ID is required")
+    private List<@NotNull(message = "Student group ID cannot be null") Long> studentGroupIds;
+
+    @NotNull(message = "Subject IDs list cannot be null")
+    @Size(min = 1, message = "At least one subject ID is required")
+    private List<@NotNull(message = "Subject ID cannot be null") Long> subjectIds;
+}
@@ -7,18 +7,23 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * DTO for marking attendance for multiple students in a single lecture.
+ * The lecture is given either by 'lectureId' or, for a virtual occurrence that has no Lecture row yet,
+ * by 'seriesId' and 'occurrenceDate'.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class BulkMarkAttendanceRequest {
-    @NotNull(message = "Lecture ID cannot be null")
     private Long lectureId;
 
+    private Long seriesId; // Virtual occurrence: the lecture series
+    private LocalDate occurrenceDate; // Virtual occurrence: the date of the occurrence
+
     @NotNull(message = "Attendance records list cannot be null")
     @Size(min = 1, message = "At least one attendance record is required")
     @Valid // Ensures validation is applied to each item in the list
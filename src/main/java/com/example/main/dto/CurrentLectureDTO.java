@@ -0,0 +1,19 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO answering "which lecture is happening now, and which one is next" for a teacher, student group or room.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrentLectureDTO {
+    private LocalDateTime at; // The moment the lookup was made for
+    private LectureSlotDTO current; // Null if no lecture is in progress
+    private LectureSlotDTO next; // Null if no lecture follows later that day
+}
@@ -0,0 +1,22 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DTO reporting the outcome of a bulk (set-based) deletion.
+ * Row counts are listed per table in the order the tables were deleted from.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletionReportDTO {
+    private String entity; // The deleted root entity (e.g., "Department")
+    private Long id; // ID of the deleted root entity
+    private Map<String, Long> deletedRows = new LinkedHashMap<>(); // Table name -> number of deleted rows
+    private long totalRows; // Sum of all deleted rows
+}
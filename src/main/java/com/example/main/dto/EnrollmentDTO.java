@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for Enrollment data transfer.
+ * Includes student group ID and subject ID for association.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentDTO {
+    private Long id;
+
+    @NotNull(message = "Student group ID cannot be null")
+    private Long studentGroupId;
+    private String studentGroupName; // For display
+    private String term; // For display, taken from the student group
+
+    @NotNull(message = "Subject ID cannot be null")
+    private Long subjectId;
+    private String subjectName; // For display
+    private String subjectCode; // For display
+}
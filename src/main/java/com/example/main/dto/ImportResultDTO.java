@@ -0,0 +1,23 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO summarizing a bulk student or teacher import.
+ * In dry-run mode nothing is written and 'importedRows' counts the rows that would have been imported.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+    private boolean dryRun;
+    private long totalRows; // Data rows read from the file
+    private long importedRows; // Rows written (or, in dry-run mode, rows that passed all checks)
+    private long failedRows; // Rows rejected with an error
+    private List<ImportRowErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,17 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO describing why a single row of a bulk import was rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowErrorDTO {
+    private long lineNumber; // Line of the row in the uploaded file (1-based, CSV header is line 1)
+    private String key; // Email of the row, if it could be read
+    private String message; // Reason the row was rejected
+}
@@ -0,0 +1,28 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for applying leave (e.g. a medical certificate) to all lectures of a student within a date range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveRequest {
+    @NotNull(message = "Student ID cannot be null")
+    private Long studentId;
+
+    @NotNull(message = "Start date cannot be null")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date cannot be null")
+    private LocalDate endDate; // Inclusive
+
+    private List<Long> subjectIds; // Optional: only lectures of these subjects
+}
@@ -0,0 +1,24 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO reporting the outcome of a leave application.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveResultDTO {
+    private Long studentId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int lecturesMatched; // Lectures of the student's group in the range (and subjects)
+    private int recordsCreated; // Lectures the student had not been marked for yet
+    private int recordsUpdated; // Existing PRESENT/ABSENT marks changed to LEAVE
+    private int recordsUnchanged; // Marks that already were LEAVE
+    private int occurrencesMaterialized; // Virtual series occurrences stored to hold the leave
+}
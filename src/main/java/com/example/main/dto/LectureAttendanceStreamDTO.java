@@ -0,0 +1,25 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO of a message on the live attendance stream of a lecture: the initial snapshot, or a delta.
+ * The counts always describe the whole lecture after the message.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LectureAttendanceStreamDTO {
+    private Long lectureId;
+    private int studentCount; // Students in the lecture's group
+    private int present;
+    private int absent;
+    private int leave;
+    // Status symbol (P, A, L) per student ID: every marked student in a snapshot, only the changed ones in a delta,
+    // where null means the student's record was removed
+    private Map<Long, Character> statuses;
+}
@@ -1,6 +1,5 @@
 package com.example.main.dto;
 
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,7 +11,7 @@ import java.time.LocalTime;
 
 /**
  * DTO for Lecture data transfer.
- * Includes subject ID and teacher ID for association.
+ * Includes subject ID, teacher ID and student group ID for association.
  */
 @Data
 @NoArgsConstructor
@@ -41,8 +40,12 @@ public class LectureDTO {
     @DateTimeFormat(iso = DateTimeFormat.ISO.TIME)
     private LocalTime endTime;
 
-    @NotBlank(message = "Student group cannot be blank")
-    private String studentGroup; // E.g., "B.Tech CSE 3rd Sem A"
+    @NotNull(message = "Student group ID cannot be null")
+    private Long studentGroupId;
+    private String studentGroupName; // For display, e.g. "CSE 2022 A"
 
     private String roomNumber; // Optional
+
+    private Long seriesId; // Read-only: the recurring series this lecture was generated from, if any
+    private boolean virtualOccurrence; // Read-only: true for a not yet stored occurrence of a virtual series (id is null)
 }
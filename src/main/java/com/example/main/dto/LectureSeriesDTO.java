@@ -0,0 +1,56 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * DTO for a recurring weekly lecture slot.
+ * Lectures are generated on every 'dayOfWeek' between 'startDate' and 'endDate' except the excluded dates.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LectureSeriesDTO {
+    private Long id;
+
+    @NotNull(message = "Subject ID cannot be null")
+    private Long subjectId;
+    private String subjectName; // For display
+
+    @NotNull(message = "Teacher ID cannot be null")
+    private Long teacherId;
+    private String teacherName; // For display
+
+    @NotNull(message = "Student group ID cannot be null")
+    private Long studentGroupId;
+    private String studentGroupName; // For display
+
+    @NotNull(message = "Day of week cannot be null")
+    private DayOfWeek dayOfWeek; // e.g. "MONDAY"
+
+    @NotNull(message = "Start time cannot be null")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time cannot be null")
+    private LocalTime endTime;
+
+    @NotNull(message = "Start date cannot be null")
+    private LocalDate startDate; // First day of the term (inclusive)
+
+    @NotNull(message = "End date cannot be null")
+    private LocalDate endDate; // Last day of the term (inclusive)
+
+    private String roomNumber; // Optional
+
+    private Set<LocalDate> excludedDates = new HashSet<>(); // Holidays and other dates without a lecture
+
+    private boolean materialized = true; // False: occurrences stay virtual until attendance is marked or they are edited
+}
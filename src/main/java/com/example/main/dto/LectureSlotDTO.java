@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Lightweight DTO for a lecture as held by the in-memory timetable index: IDs and times only, no display names.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LectureSlotDTO {
+    private Long lectureId; // Null for a virtual occurrence of a lecture series
+    private Long seriesId; // Null for a one-off lecture
+    private boolean virtualOccurrence;
+    private Long subjectId;
+    private Long teacherId;
+    private Long studentGroupId;
+    private String roomNumber;
+    private LocalDate lectureDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
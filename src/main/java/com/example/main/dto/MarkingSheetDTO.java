@@ -0,0 +1,19 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the marking screen of a lecture: the lecture header and the roster merged with the existing marks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkingSheetDTO {
+    private LectureDTO lecture;
+    private List<MarkingSheetEntryDTO> roster; // Ordered by roll number
+    private int markedCount; // Number of roster entries that already have a mark
+}
@@ -0,0 +1,25 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * DTO for one row of a marking sheet: a student of the roster and their current mark, if any.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarkingSheetEntryDTO {
+    private Long studentId;
+    private String rollNumber;
+    private String studentName; // For display
+    private Long recordId; // Null until the student is marked
+    private AttendanceStatus status; // Null until the student is marked
+    private Long markedByTeacherId;
+    private LocalDateTime markingTimestamp;
+}
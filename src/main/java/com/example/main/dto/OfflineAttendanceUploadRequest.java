@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for uploading the marks a teacher's device queued while offline, across any number of lectures.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineAttendanceUploadRequest {
+    @NotBlank(message = "Device ID cannot be blank")
+    @Size(max = 100, message = "Device ID cannot exceed 100 characters")
+    private String deviceId;
+
+    @NotEmpty(message = "Operations cannot be empty")
+    @Valid
+    private List<OfflineMarkOperation> operations;
+}
@@ -0,0 +1,25 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO reporting the outcome of an offline attendance upload, per operation in sequence order.
+ * Every operation has a final outcome, so the device can drop all operations up to highestSequenceNumber.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineAttendanceUploadResultDTO {
+    private String deviceId;
+    private Long highestSequenceNumber; // Highest sequence number of the batch
+    private int applied;
+    private int superseded;
+    private int rejected;
+    private int recordsChanged; // Records created or whose status changed
+    private List<OfflineMarkResultDTO> results = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * DTO for one mark queued on a teacher's device while offline.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineMarkOperation {
+    @NotNull(message = "Sequence number cannot be null")
+    private Long sequenceNumber; // Position in the device queue; operations are applied in this order
+
+    @NotNull(message = "Lecture ID cannot be null")
+    private Long lectureId;
+
+    @NotNull(message = "Student ID cannot be null")
+    private Long studentId;
+
+    @NotNull(message = "Attendance status cannot be null")
+    private AttendanceStatus status;
+
+    @NotNull(message = "Client timestamp cannot be null")
+    private LocalDateTime clientTimestamp; // When the teacher made the mark, by the device clock
+}
@@ -0,0 +1,25 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.main.model.AttendanceStatus;
+import com.example.main.model.OfflineMarkOutcome;
+
+/**
+ * DTO reporting the outcome of one uploaded offline mark, with the record's state on the server afterwards.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflineMarkResultDTO {
+    private Long sequenceNumber;
+    private OfflineMarkOutcome outcome;
+    private Long recordId; // Null if rejected
+    private AttendanceStatus status; // Current status of the record; null if rejected
+    private LocalDateTime markingTimestamp; // Timestamp of the current mark; null if rejected
+    private String message; // Reason for a rejection
+}
@@ -0,0 +1,35 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO for a past lecture whose attendance has not been (fully) marked yet.
+ * Occurrences of virtual series have no lecture ID until their attendance is first marked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingMarkingDTO {
+    private Long lectureId; // Null for a not yet stored occurrence of a virtual series
+    private LocalDate lectureDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String roomNumber;
+    private Long subjectId;
+    private String subjectCode; // For display
+    private String subjectName; // For display
+    private Long teacherId;
+    private String teacherName; // For display
+    private Long departmentId; // The teacher's department
+    private Long studentGroupId;
+    private String studentGroupName; // For display
+    private long markedCount; // Attendance records stored for the lecture
+    private long rosterSize; // Students currently in the lecture's student group
+    private Long seriesId; // The recurring series the lecture belongs to, if any
+    private boolean virtualOccurrence; // True for a not yet stored occurrence of a virtual series (nothing marked)
+}
@@ -0,0 +1,21 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a room available to the timetable solver.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomDTO {
+    @NotBlank(message = "Room number cannot be blank")
+    private String roomNumber;
+
+    @PositiveOrZero(message = "Room capacity cannot be negative")
+    private int capacity; // Number of students the room seats
+}
@@ -0,0 +1,32 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO describing the lectures generated (or, in preview mode, that would be generated) for a lecture series.
+ * Occurrences from 'fromDate' onward are reconciled with the series pattern:
+ * - missing occurrences are created;
+ * - occurrences whose time, room, subject or teacher differ from the series are updated;
+ * - occurrences no longer in the pattern are deleted, unless attendance was already marked for them,
+ *   in which case they are retained.
+ * In preview mode, 'conflicts' lists the double bookings that would make the generation fail.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesGenerationResultDTO {
+    private Long seriesId; // Null when previewing a series that has not been created yet
+    private boolean preview;
+    private LocalDate fromDate; // Occurrences before this date were left untouched
+    private int updated; // Existing occurrences changed to match the series
+    private List<LocalDate> createdDates = new ArrayList<>();
+    private List<LocalDate> deletedDates = new ArrayList<>();
+    private List<LocalDate> retainedDates = new ArrayList<>(); // Out-of-pattern occurrences kept because attendance exists
+    private List<String> conflicts = new ArrayList<>(); // Teacher, room or group double bookings (preview only)
+}
@@ -34,4 +34,7 @@ public class StudentDTO {
 
     @Size(max = 10, message = "Section cannot exceed 10 characters")
     private String section; // Optional
+
+    private Long studentGroupId; // Optional, the class the student currently attends lectures with
+    private String studentGroupName; // For display purposes in response
 }
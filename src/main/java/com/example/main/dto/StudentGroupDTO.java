@@ -0,0 +1,38 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for Student Group data transfer.
+ * Includes department ID for association.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentGroupDTO {
+    private Long id;
+
+    @NotNull(message = "Department ID cannot be null")
+    private Long departmentId; // Foreign key to Department
+    private String departmentName; // For display purposes in response
+
+    @NotNull(message = "Batch year cannot be null")
+    @Min(value = 1900, message = "Batch year must be a valid year")
+    private Integer batchYear;
+
+    @Size(max = 10, message = "Section cannot exceed 10 characters")
+    private String section; // Optional
+
+    @NotBlank(message = "Term cannot be blank")
+    @Size(max = 20, message = "Term cannot exceed 20 characters")
+    private String term;
+
+    @Size(max = 100, message = "Name cannot exceed 100 characters")
+    private String name; // Optional, derived from department code, batch year and section when blank
+}
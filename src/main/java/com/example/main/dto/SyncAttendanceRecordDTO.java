@@ -0,0 +1,24 @@
+package com.example.main.dto;
+
+import com.example.main.model.AttendanceStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an attendance record in a delta sync response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncAttendanceRecordDTO {
+    private Long id;
+    private Long lectureId;
+    private Long studentId;
+    private AttendanceStatus status;
+    private Long markedByTeacherId;
+    private LocalDateTime markingTimestamp;
+}
@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO for a lecture in a delta sync response.
+ * Names are left out; the device resolves them from the synced subjects, teachers and its student groups.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncLectureDTO {
+    private Long id;
+    private Long subjectId;
+    private Long teacherId;
+    private Long studentGroupId;
+    private LocalDate lectureDate;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private String roomNumber; // Optional
+    private Long seriesId; // The recurring series this lecture was generated from, if any
+}
@@ -0,0 +1,32 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for one page of a delta sync: the rows changed and deleted since the client's sync token.
+ * The client applies the page, stores syncToken and, while hasMore is true, asks again straight away.
+ * Rows can be repeated across pages, so applying them must be an idempotent upsert by ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+    private long syncToken; // Token for the next request
+    private boolean reset; // The given token was too old: this is a full sync and local data must be replaced
+    private boolean hasMore; // More changes are waiting beyond this page
+    private List<DepartmentDTO> departments = new ArrayList<>();
+    private List<SubjectDTO> subjects = new ArrayList<>();
+    private List<SyncTeacherDTO> teachers = new ArrayList<>();
+    private List<SyncLectureDTO> lectures = new ArrayList<>();
+    private List<SyncAttendanceRecordDTO> attendanceRecords = new ArrayList<>();
+    private List<Long> deletedDepartmentIds = new ArrayList<>();
+    private List<Long> deletedSubjectIds = new ArrayList<>();
+    private List<Long> deletedTeacherIds = new ArrayList<>();
+    private List<Long> deletedLectureIds = new ArrayList<>();
+    private List<Long> deletedAttendanceRecordIds = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a teacher in a delta sync response.
+ * A teacher counts as changed when either the teacher row or its user account (the name) changed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncTeacherDTO {
+    private Long id;
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private String employeeId;
+    private Long departmentId;
+}
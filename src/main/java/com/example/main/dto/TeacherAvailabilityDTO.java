@@ -0,0 +1,30 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * DTO for a weekly window in which a teacher can teach.
+ * A period is available to the teacher if it lies entirely within one of their windows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeacherAvailabilityDTO {
+    @NotNull(message = "Teacher ID cannot be null")
+    private Long teacherId;
+
+    @NotNull(message = "Day of week cannot be null")
+    private DayOfWeek dayOfWeek;
+
+    @NotNull(message = "Start time cannot be null")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time cannot be null")
+    private LocalTime endTime;
+}
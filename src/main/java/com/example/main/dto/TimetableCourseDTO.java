@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a course of the timetable solver: a subject taught to a student group by a teacher for a number of periods per week.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableCourseDTO {
+    @NotNull(message = "Student group ID cannot be null")
+    private Long studentGroupId;
+
+    @NotNull(message = "Subject ID cannot be null")
+    private Long subjectId;
+
+    @NotNull(message = "Teacher ID cannot be null")
+    private Long teacherId;
+
+    @Positive(message = "Hours per week must be positive")
+    private int hoursPerWeek; // Number of periods per week
+}
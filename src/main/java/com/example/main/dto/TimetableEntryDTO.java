@@ -0,0 +1,24 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * DTO for one weekly lecture of a solved timetable.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableEntryDTO {
+    private Long studentGroupId;
+    private Long subjectId;
+    private Long teacherId;
+    private String roomNumber;
+    private DayOfWeek dayOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+}
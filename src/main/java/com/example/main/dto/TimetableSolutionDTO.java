@@ -0,0 +1,28 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for a weekly timetable produced by the timetable solver.
+ * A timetable is only saved as lectures when it is 'solved' (free of clashes) and not a preview.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableSolutionDTO {
+    private boolean preview;
+    private boolean solved; // True if no teacher, room or student group is double-booked
+    private int hardConflicts; // Clashing pairs of lectures in the best timetable found
+    private int softPenalty; // Lectures sharing a day with another lecture of the same course
+    private int units; // Lectures per week
+    private int threads;
+    private long iterations; // Local search iterations over all threads
+    private long solveMillis;
+    private int lecturesCreated;
+    private List<TimetableEntryDTO> entries = new ArrayList<>();
+}
@@ -0,0 +1,55 @@
+package com.example.main.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO describing a term timetable to be built by the timetable solver.
+ * The week consists of 'days' x 'periodStartTimes' timeslots of 'periodMinutes' each. Every course is placed
+ * 'hoursPerWeek' times, and the weekly timetable is repeated on every week between 'startDate' and 'endDate'.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableSolveRequest {
+
+    @NotNull(message = "Start date cannot be null")
+    private LocalDate startDate; // First day of the term (inclusive)
+
+    @NotNull(message = "End date cannot be null")
+    private LocalDate endDate; // Last day of the term (inclusive)
+
+    @NotEmpty(message = "At least one teaching day is required")
+    private List<DayOfWeek> days = new ArrayList<>();
+
+    @NotEmpty(message = "At least one period is required")
+    private List<LocalTime> periodStartTimes = new ArrayList<>();
+
+    @Positive(message = "Period length must be positive")
+    private int periodMinutes;
+
+    @NotEmpty(message = "At least one course is required")
+    @Valid
+    private List<TimetableCourseDTO> courses = new ArrayList<>();
+
+    @NotEmpty(message = "At least one room is required")
+    @Valid
+    private List<RoomDTO> rooms = new ArrayList<>();
+
+    @Valid
+    private List<TeacherAvailabilityDTO> teacherAvailability = new ArrayList<>(); // Teachers without entries are always available
+
+    @Positive(message = "Time budget must be positive")
+    private Integer timeBudgetSeconds; // Optional; capped by app.timetable.solver.max-time-budget-seconds
+}
@@ -0,0 +1,29 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+import com.example.main.model.WebhookDeliveryStatus;
+
+/**
+ * DTO of a queued webhook batch (without its payload), e.g. in the dead-letter list.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookDeliveryDTO {
+    private Long id;
+    private Long subscriptionId;
+    private Long firstEventId; // Outbox ID of the first event in the batch
+    private Long lastEventId; // Outbox ID of the last event in the batch
+    private int eventCount;
+    private WebhookDeliveryStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError; // Failure of the last attempt, or null
+    private LocalDateTime createdAt;
+    private LocalDateTime deliveredAt;
+}
@@ -0,0 +1,27 @@
+package com.example.main.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO of the webhook dispatcher's delivery metrics since the node started (or since they were last reset).
+ * Lag is measured from the oldest event of a batch occurring to the batch being accepted by the receiver.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookMetricsDTO {
+    private LocalDateTime since; // Start of the measuring period
+    private long deliveredBatches;
+    private long deliveredEvents;
+    private double eventsPerSecond; // Delivered events per second over the measuring period
+    private long failedAttempts; // Attempts answered with non-2xx, or failed to connect or time out
+    private long deadLetters; // Batches whose retries were exhausted
+    private long inFlight; // Requests currently waiting for a response
+    private long averageLagMillis;
+    private long maxLagMillis;
+    private long pendingBatches; // Batches queued in the database (all nodes)
+}
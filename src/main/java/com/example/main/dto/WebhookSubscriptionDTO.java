@@ -0,0 +1,42 @@
+package com.example.main.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for WebhookSubscription data transfer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookSubscriptionDTO {
+    private Long id;
+
+    @NotBlank(message = "Subscription name cannot be blank")
+    @Size(max = 100, message = "Subscription name cannot exceed 100 characters")
+    private String name;
+
+    @NotBlank(message = "URL cannot be blank")
+    @Size(max = 500, message = "URL cannot exceed 500 characters")
+    @Pattern(regexp = "https?://.+", message = "URL must be an http or https URL")
+    private String url;
+
+    @Min(value = 1, message = "Maximum concurrency must be at least 1")
+    @Max(value = 32, message = "Maximum concurrency cannot exceed 32")
+    private int maxConcurrency;
+
+    @Min(value = 1, message = "Maximum batch size must be at least 1")
+    @Max(value = 1000, message = "Maximum batch size cannot exceed 1000")
+    private int maxBatchSize;
+
+    private boolean active; // Read-only; set on creation and cleared by deactivating
+    private LocalDateTime createdAt; // Read-only
+}
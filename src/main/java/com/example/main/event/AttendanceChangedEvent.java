@@ -0,0 +1,35 @@
+package com.example.main.event;
+
+import java.util.List;
+import java.util.Set;
+
+import com.example.main.service.AttendanceAuditService;
+
+/**
+ * Published by the marking path whenever attendance records change.
+ * Listeners that mirror live attendance apply it once the publishing transaction has committed.
+ * @param lectureIds The lectures whose records changed.
+ * @param changes The changes if they all belong to the single lecture in lectureIds; null for changes across
+ *                lectures (leave, bulk corrections), in which case listeners reload the lectures they mirror.
+ */
+public record AttendanceChangedEvent(Set<Long> lectureIds, List<AttendanceAuditService.Change> changes) {
+
+    /**
+     * Creates an event for changes to a single lecture.
+     * @param lectureId The ID of the lecture.
+     * @param changes The changes, as recorded in the audit log.
+     * @return The event.
+     */
+    public static AttendanceChangedEvent ofLecture(long lectureId, List<AttendanceAuditService.Change> changes) {
+        return new AttendanceChangedEvent(Set.of(lectureId), List.copyOf(changes));
+    }
+
+    /**
+     * Creates an event for changes across lectures whose details are not passed on.
+     * @param lectureIds The IDs of the lectures.
+     * @return The event.
+     */
+    public static AttendanceChangedEvent ofLectures(Set<Long> lectureIds) {
+        return new AttendanceChangedEvent(Set.copyOf(lectureIds), null);
+    }
+}
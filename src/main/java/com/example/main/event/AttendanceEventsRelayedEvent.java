@@ -0,0 +1,13 @@
+package com.example.main.event;
+
+import java.util.List;
+
+import com.example.main.dto.AttendanceEventDTO;
+
+/**
+ * Published in-process for every batch the attendance event relay delivers (see ApplicationAttendanceEventSink).
+ * Listeners run synchronously inside the relay; an exception makes the relay retry the batch later.
+ * @param events The batch, in outbox ID order.
+ */
+public record AttendanceEventsRelayedEvent(List<AttendanceEventDTO> events) {
+}
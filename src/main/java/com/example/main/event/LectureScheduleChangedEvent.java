@@ -0,0 +1,27 @@
+package com.example.main.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Published whenever lectures or lecture series are created, moved or deleted.
+ * Listeners that cache the timetable drop the affected dates once the publishing transaction has completed.
+ * @param dates The affected lecture dates, or null if any date may be affected.
+ */
+public record LectureScheduleChangedEvent(Set<LocalDate> dates) {
+
+    /**
+     * Creates an event for changes that may affect any date (e.g. deleting a department).
+     * @return The event.
+     */
+    public static LectureScheduleChangedEvent allDates() {
+        return new LectureScheduleChangedEvent(null);
+    }
+
+    /**
+     * @return True if any date may be affected.
+     */
+    public boolean affectsAllDates() {
+        return dates == null;
+    }
+}
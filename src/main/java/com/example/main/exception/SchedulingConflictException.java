@@ -0,0 +1,21 @@
+package com.example.main.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a lecture overlaps another lecture of the same teacher,
+ * in the same room or for the same student group.
+ * This exception will automatically result in an HTTP 409 Conflict response.
+ */
+@ResponseStatus(HttpStatus.CONFLICT) // Maps this exception to HTTP 409 Conflict status
+public class SchedulingConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new SchedulingConflictException with the specified detail message.
+     * @param message The detail message.
+     */
+    public SchedulingConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.main.mapper;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.AcademicTermDTO;
+import com.example.main.model.AcademicTerm;
+
+/**
+ * Mapper class for converting between AcademicTerm entity and AcademicTerm DTO.
+ */
+@Component
+public class AcademicTermMapper {
+
+    /**
+     * Converts an AcademicTerm entity to an AcademicTermDTO.
+     * @param term The AcademicTerm entity.
+     * @return The corresponding AcademicTermDTO.
+     */
+    public AcademicTermDTO toAcademicTermDTO(AcademicTerm term) {
+        if (term == null) {
+            return null;
+        }
+        return new AcademicTermDTO(term.getId(), term.getName(), term.getStartDate(), term.getEndDate(),
+                term.isClosed(), term.getArchivedAt(), term.getExportedAt(), term.getExportedRows(), term.getPurgedAt());
+    }
+
+    /**
+     * Converts an AcademicTermDTO to a new, open AcademicTerm entity.
+     * @param dto The AcademicTermDTO.
+     * @return The corresponding AcademicTerm entity.
+     */
+    public AcademicTerm toAcademicTerm(AcademicTermDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        AcademicTerm term = new AcademicTerm();
+        term.setId(dto.getId()); // ID might be null for new entities
+        term.setName(dto.getName());
+        term.setStartDate(dto.getStartDate());
+        term.setEndDate(dto.getEndDate());
+        return term;
+    }
+}
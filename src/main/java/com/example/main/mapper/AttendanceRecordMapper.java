@@ -3,6 +3,7 @@ import org.springframework.stereotype.Component;
 
 import com.example.main.dto.AttendanceRecordDTO;
 import com.example.main.dto.MarkAttendanceRequest;
+import com.example.main.model.ArchivedAttendanceRecord;
 import com.example.main.model.AttendanceRecord;
 
 import java.time.LocalDateTime;
@@ -51,6 +52,19 @@ public class AttendanceRecordMapper {
         return dto;
     }
 
+    /**
+     * Converts an archived attendance record to an AttendanceRecordDTO, in the same shape as a live record.
+     * @param record The ArchivedAttendanceRecord entity.
+     * @return The corresponding AttendanceRecordDTO.
+     */
+    public AttendanceRecordDTO toAttendanceRecordDTO(ArchivedAttendanceRecord record) {
+        if (record == null) {
+            return null;
+        }
+        return toAttendanceRecordDTO(new AttendanceRecord(record.getId(), record.getLecture(), record.getStudent(),
+                record.getStatus(), record.getMarkedByTeacher(), record.getMarkingTimestamp()));
+    }
+
     /**
      * Converts a MarkAttendanceRequest DTO to an AttendanceRecord entity.
      * Note: Lecture, Student, and MarkedByTeacher objects need to be fetched and set in the service layer.
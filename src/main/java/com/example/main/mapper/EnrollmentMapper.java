@@ -0,0 +1,53 @@
+package com.example.main.mapper;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.EnrollmentDTO;
+import com.example.main.model.Enrollment;
+
+/**
+ * Mapper class for converting between Enrollment entity and Enrollment DTO.
+ */
+@Component
+public class EnrollmentMapper {
+
+    /**
+     * Converts an Enrollment entity to an EnrollmentDTO.
+     * @param enrollment The Enrollment entity.
+     * @return The corresponding EnrollmentDTO.
+     */
+    public EnrollmentDTO toEnrollmentDTO(Enrollment enrollment) {
+        if (enrollment == null) {
+            return null;
+        }
+        EnrollmentDTO dto = new EnrollmentDTO();
+        dto.setId(enrollment.getId());
+        if (enrollment.getStudentGroup() != null) {
+            dto.setStudentGroupId(enrollment.getStudentGroup().getId());
+            dto.setStudentGroupName(enrollment.getStudentGroup().getName());
+            dto.setTerm(enrollment.getStudentGroup().getTerm());
+        }
+        if (enrollment.getSubject() != null) {
+            dto.setSubjectId(enrollment.getSubject().getId());
+            dto.setSubjectName(enrollment.getSubject().getName());
+            dto.setSubjectCode(enrollment.getSubject().getCode());
+        }
+        return dto;
+    }
+
+    /**
+     * Converts an EnrollmentDTO to an Enrollment entity.
+     * Note: The StudentGroup and Subject objects need to be fetched and set in the service layer,
+     * as the DTO only contains their IDs.
+     * @param dto The EnrollmentDTO.
+     * @return The corresponding Enrollment entity (with student group and subject set to null initially).
+     */
+    public Enrollment toEnrollment(EnrollmentDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        Enrollment enrollment = new Enrollment();
+        enrollment.setId(dto.getId()); // ID might be null for new entities
+        // Student Group and Subject will be set in the service layer after fetching them by ID
+        return enrollment;
+    }
+}
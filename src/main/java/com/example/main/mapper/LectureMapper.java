@@ -24,7 +24,6 @@ public class LectureMapper {
         dto.setLectureDate(lecture.getLectureDate());
         dto.setStartTime(lecture.getStartTime());
         dto.setEndTime(lecture.getEndTime());
-        dto.setStudentGroup(lecture.getStudentGroup());
         dto.setRoomNumber(lecture.getRoomNumber());
 
         if (lecture.getSubject() != null) {
@@ -32,19 +31,26 @@ public class LectureMapper {
             dto.setSubjectName(lecture.getSubject().getName());
             dto.setSubjectCode(lecture.getSubject().getCode());
         }
+        if (lecture.getStudentGroup() != null) {
+            dto.setStudentGroupId(lecture.getStudentGroup().getId());
+            dto.setStudentGroupName(lecture.getStudentGroup().getName());
+        }
         if (lecture.getTeacher() != null) {
             dto.setTeacherId(lecture.getTeacher().getId());
             dto.setTeacherName(lecture.getTeacher().getUser().getFirstName() + " " + lecture.getTeacher().getUser().getLastName());
         }
+        if (lecture.getSeries() != null) {
+            dto.setSeriesId(lecture.getSeries().getId());
+        }
         return dto;
     }
 
     /**
      * Converts a LectureDTO to a Lecture entity.
-     * Note: The Subject and Teacher objects need to be fetched and set in the service layer,
+     * Note: The Subject, Teacher and StudentGroup objects need to be fetched and set in the service layer,
      * as the DTO only contains their IDs.
      * @param dto The LectureDTO.
-     * @return The corresponding Lecture entity (with subject and teacher set to null initially).
+     * @return The corresponding Lecture entity (with subject, teacher and student group set to null initially).
      */
     public Lecture toLecture(LectureDTO dto) {
         if (dto == null) {
@@ -55,9 +61,8 @@ public class LectureMapper {
         lecture.setLectureDate(dto.getLectureDate());
         lecture.setStartTime(dto.getStartTime());
         lecture.setEndTime(dto.getEndTime());
-        lecture.setStudentGroup(dto.getStudentGroup());
         lecture.setRoomNumber(dto.getRoomNumber());
-        // Subject and Teacher will be set in the service layer after fetching them by ID
+        // Subject, Teacher and StudentGroup will be set in the service layer after fetching them by ID
         return lecture;
     }
 }
@@ -0,0 +1,69 @@
+package com.example.main.mapper;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.LectureSeriesDTO;
+import com.example.main.model.LectureSeries;
+
+import java.util.HashSet;
+
+/**
+ * Mapper class for converting between LectureSeries entity and LectureSeries DTO.
+ */
+@Component
+public class LectureSeriesMapper {
+
+    /**
+     * Converts a LectureSeries entity to a LectureSeriesDTO.
+     * @param series The LectureSeries entity.
+     * @return The corresponding LectureSeriesDTO.
+     */
+    public LectureSeriesDTO toLectureSeriesDTO(LectureSeries series) {
+        if (series == null) {
+            return null;
+        }
+        LectureSeriesDTO dto = new LectureSeriesDTO();
+        dto.setId(series.getId());
+        dto.setDayOfWeek(series.getDayOfWeek());
+        dto.setStartTime(series.getStartTime());
+        dto.setEndTime(series.getEndTime());
+        dto.setStartDate(series.getStartDate());
+        dto.setEndDate(series.getEndDate());
+        dto.setRoomNumber(series.getRoomNumber());
+        dto.setExcludedDates(new HashSet<>(series.getExcludedDates()));
+        dto.setMaterialized(series.isMaterialized());
+
+        if (series.getSubject() != null) {
+            dto.setSubjectId(series.getSubject().getId());
+            dto.setSubjectName(series.getSubject().getName());
+        }
+        if (series.getStudentGroup() != null) {
+            dto.setStudentGroupId(series.getStudentGroup().getId());
+            dto.setStudentGroupName(series.getStudentGroup().getName());
+        }
+        if (series.getTeacher() != null) {
+            dto.setTeacherId(series.getTeacher().getId());
+            dto.setTeacherName(series.getTeacher().getUser().getFirstName() + " " + series.getTeacher().getUser().getLastName());
+        }
+        return dto;
+    }
+
+    /**
+     * Copies the pattern fields of a LectureSeriesDTO onto a LectureSeries entity.
+     * Note: The Subject, Teacher and StudentGroup objects need to be fetched and set in the service layer.
+     * @param dto The LectureSeriesDTO.
+     * @param series The entity to update.
+     */
+    public void updateLectureSeries(LectureSeriesDTO dto, LectureSeries series) {
+        series.setDayOfWeek(dto.getDayOfWeek());
+        series.setStartTime(dto.getStartTime());
+        series.setEndTime(dto.getEndTime());
+        series.setStartDate(dto.getStartDate());
+        series.setEndDate(dto.getEndDate());
+        series.setRoomNumber(dto.getRoomNumber());
+        series.setMaterialized(dto.isMaterialized());
+        series.getExcludedDates().clear();
+        if (dto.getExcludedDates() != null) {
+            series.getExcludedDates().addAll(dto.getExcludedDates());
+        }
+    }
+}
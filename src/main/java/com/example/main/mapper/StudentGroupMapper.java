@@ -0,0 +1,55 @@
+package com.example.main.mapper;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.StudentGroupDTO;
+import com.example.main.model.StudentGroup;
+
+/**
+ * Mapper class for converting between StudentGroup entity and StudentGroup DTO.
+ */
+@Component
+public class StudentGroupMapper {
+
+    /**
+     * Converts a StudentGroup entity to a StudentGroupDTO.
+     * @param studentGroup The StudentGroup entity.
+     * @return The corresponding StudentGroupDTO.
+     */
+    public StudentGroupDTO toStudentGroupDTO(StudentGroup studentGroup) {
+        if (studentGroup == null) {
+            return null;
+        }
+        StudentGroupDTO dto = new StudentGroupDTO();
+        dto.setId(studentGroup.getId());
+        dto.setBatchYear(studentGroup.getBatchYear());
+        dto.setSection(studentGroup.getSection());
+        dto.setTerm(studentGroup.getTerm());
+        dto.setName(studentGroup.getName());
+        if (studentGroup.getDepartment() != null) {
+            dto.setDepartmentId(studentGroup.getDepartment().getId());
+            dto.setDepartmentName(studentGroup.getDepartment().getName());
+        }
+        return dto;
+    }
+
+    /**
+     * Converts a StudentGroupDTO to a StudentGroup entity.
+     * Note: The Department object needs to be fetched and set in the service layer,
+     * and the canonical name is resolved there as well.
+     * @param dto The StudentGroupDTO.
+     * @return The corresponding StudentGroup entity (with department set to null initially).
+     */
+    public StudentGroup toStudentGroup(StudentGroupDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        StudentGroup studentGroup = new StudentGroup();
+        studentGroup.setId(dto.getId()); // ID might be null for new entities
+        studentGroup.setBatchYear(dto.getBatchYear());
+        studentGroup.setSection(dto.getSection());
+        studentGroup.setTerm(dto.getTerm());
+        studentGroup.setName(dto.getName());
+        // Department will be set in the service layer after fetching it by ID
+        return studentGroup;
+    }
+}
@@ -38,12 +38,16 @@ public class StudentMapper {
             dto.setDepartmentId(student.getDepartment().getId());
             dto.setDepartmentName(student.getDepartment().getName());
         }
+        if (student.getStudentGroup() != null) {
+            dto.setStudentGroupId(student.getStudentGroup().getId());
+            dto.setStudentGroupName(student.getStudentGroup().getName());
+        }
         return dto;
     }
 
     /**
      * Converts a StudentDTO to a Student entity.
-     * Note: The User and Department objects need to be fetched and set in the service layer,
+     * Note: The User, Department and StudentGroup objects need to be fetched and set in the service layer,
      * as the DTO only contains their IDs.
      * @param dto The StudentDTO.
      * @return The corresponding Student entity (with user and department set to null initially).
@@ -57,7 +61,7 @@ public class StudentMapper {
         student.setRollNumber(dto.getRollNumber());
         student.setBatchYear(dto.getBatchYear());
         student.setSection(dto.getSection());
-        // User and Department will be set in the service layer after fetching them by ID
+        // User, Department and StudentGroup will be set in the service layer after fetching them by ID
         return student;
     }
 }
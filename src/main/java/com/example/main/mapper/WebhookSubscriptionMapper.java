@@ -0,0 +1,45 @@
+package com.example.main.mapper;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.WebhookSubscriptionDTO;
+import com.example.main.model.WebhookSubscription;
+
+/**
+ * Mapper class for converting between WebhookSubscription entity and WebhookSubscription DTO.
+ */
+@Component
+public class WebhookSubscriptionMapper {
+
+    /**
+     * Converts a WebhookSubscription entity to a WebhookSubscriptionDTO.
+     * @param subscription The WebhookSubscription entity.
+     * @return The corresponding WebhookSubscriptionDTO.
+     */
+    public WebhookSubscriptionDTO toWebhookSubscriptionDTO(WebhookSubscription subscription) {
+        if (subscription == null) {
+            return null;
+        }
+        return new WebhookSubscriptionDTO(subscription.getId(), subscription.getName(), subscription.getUrl(),
+                subscription.getMaxConcurrency(), subscription.getMaxBatchSize(), subscription.isActive(),
+                subscription.getCreatedAt());
+    }
+
+    /**
+     * Converts a WebhookSubscriptionDTO to a new, active WebhookSubscription entity.
+     * @param dto The WebhookSubscriptionDTO.
+     * @return The corresponding WebhookSubscription entity.
+     */
+    public WebhookSubscription toWebhookSubscription(WebhookSubscriptionDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        WebhookSubscription subscription = new WebhookSubscription();
+        subscription.setId(dto.getId()); // ID might be null for new entities
+        subscription.setName(dto.getName());
+        subscription.setUrl(dto.getUrl());
+        subscription.setMaxConcurrency(dto.getMaxConcurrency());
+        subscription.setMaxBatchSize(dto.getMaxBatchSize());
+        subscription.setActive(true);
+        return subscription;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.main.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versioned migration from the legacy free-text 'lectures.student_group' column to the 'student_groups' table.
+ * Runs on fresh databases right after V1 (with no rows to convert) and on databases adopted as V1 by the Flyway
+ * baseline, which still hold the labels.
+ * Distinct legacy labels are canonicalized (trimmed, whitespace collapsed, upper-cased), so labels that differ only
+ * in spacing or case end up in the same group. Each canonical label becomes one group per department in the
+ * "LEGACY" term, lectures are pointed at it by id, and students are attached to the legacy group matching their
+ * batch year and section. Blank labels are collected in an "UNASSIGNED" group, as every lecture needs a group.
+ * The canonicalization is copied here rather than shared with StudentGroupService, so that later changes to the
+ * service cannot change what this migration did.
+ */
+public class V1_1__NormalizeStudentGroups extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V1_1__NormalizeStudentGroups.class);
+
+    static final String LEGACY_TERM = "LEGACY";
+    static final String UNASSIGNED = "UNASSIGNED";
+    private static final Pattern BATCH_YEAR = Pattern.compile("\\b((?:19|20)\\d{2})\\b");
+    private static final Pattern SECTION = Pattern.compile("^[A-Z]{1,2}$");
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        jdbcTemplate.execute("CREATE TABLE student_groups ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "department_id BIGINT NOT NULL, "
+                + "batch_year INTEGER NOT NULL, "
+                + "section VARCHAR(10), "
+                + "term VARCHAR(20) NOT NULL, "
+                + "name VARCHAR(100) NOT NULL, "
+                + "CONSTRAINT uk_student_groups_department_term_name UNIQUE (department_id, term, name), "
+                + "CONSTRAINT fk_student_groups_department FOREIGN KEY (department_id) REFERENCES departments (id))");
+        jdbcTemplate.execute("CREATE TABLE enrollments ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "student_group_id BIGINT NOT NULL, "
+                + "subject_id BIGINT NOT NULL, "
+                + "CONSTRAINT uk_enrollments_group_subject UNIQUE (student_group_id, subject_id), "
+                + "CONSTRAINT fk_enrollments_student_group FOREIGN KEY (student_group_id) REFERENCES student_groups (id), "
+                + "CONSTRAINT fk_enrollments_subject FOREIGN KEY (subject_id) REFERENCES subjects (id))");
+        jdbcTemplate.execute("ALTER TABLE students ADD COLUMN student_group_id BIGINT");
+        jdbcTemplate.execute("ALTER TABLE lectures ADD COLUMN student_group_id BIGINT");
+
+        List<Map<String, Object>> legacyGroups = jdbcTemplate.queryForList(
+                "SELECT DISTINCT l.student_group AS label, s.department_id AS department_id "
+                + "FROM lectures l JOIN subjects s ON s.id = l.subject_id");
+        Map<String, Long> groupIds = new HashMap<>(); // "departmentId|canonical label" -> group id
+        int migratedLectures = 0;
+        for (Map<String, Object> row : legacyGroups) {
+            String label = (String) row.get("label");
+            Long departmentId = ((Number) row.get("department_id")).longValue();
+            String canonical = canonicalize(label);
+            Long groupId = groupIds.computeIfAbsent(departmentId + "|" + canonical,
+                    key -> findOrCreateLegacyGroup(jdbcTemplate, departmentId, canonical));
+            migratedLectures += jdbcTemplate.update(
+                    "UPDATE lectures SET student_group_id = ? "
+                    + "WHERE student_group = ? AND student_group_id IS NULL "
+                    + "AND subject_id IN (SELECT id FROM subjects WHERE department_id = ?)",
+                    groupId, label, departmentId);
+        }
+
+        int migratedStudents = jdbcTemplate.update(
+                "UPDATE students SET student_group_id = ("
+                + "  SELECT MIN(g.id) FROM student_groups g "
+                + "  WHERE g.department_id = students.department_id AND g.batch_year = students.batch_year "
+                + "  AND COALESCE(g.section, '') = UPPER(COALESCE(TRIM(students.section), '')) AND g.term = ?)",
+                LEGACY_TERM);
+
+        jdbcTemplate.execute("ALTER TABLE lectures DROP COLUMN student_group");
+        jdbcTemplate.execute("ALTER TABLE lectures ALTER COLUMN student_group_id SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE lectures ADD CONSTRAINT fk_lectures_student_group "
+                + "FOREIGN KEY (student_group_id) REFERENCES student_groups (id)");
+        jdbcTemplate.execute("ALTER TABLE students ADD CONSTRAINT fk_students_student_group "
+                + "FOREIGN KEY (student_group_id) REFERENCES student_groups (id)");
+
+        if (migratedLectures > 0 || migratedStudents > 0) {
+            log.info("Migrated {} lectures into {} canonical student groups; attached {} students",
+                    migratedLectures, groupIds.size(), migratedStudents);
+        }
+    }
+
+    /**
+     * Canonicalizes a free-text group label: trims, collapses inner whitespace and upper-cases it.
+     * @return The canonical label, or UNASSIGNED if the label is null or blank.
+     */
+    static String canonicalize(String label) {
+        if (label == null || label.isBlank()) {
+            return UNASSIGNED;
+        }
+        return label.trim().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the legacy group with the given canonical label in a department, creating it if needed.
+     * Batch year and section are parsed from the label on a best-effort basis.
+     */
+    private static Long findOrCreateLegacyGroup(JdbcTemplate jdbcTemplate, Long departmentId, String canonical) {
+        String name = canonical.length() > 100 ? canonical.substring(0, 100) : canonical;
+        List<Long> existing = jdbcTemplate.queryForList("SELECT id FROM student_groups "
+                + "WHERE department_id = ? AND term = ? AND name = ?", Long.class, departmentId, LEGACY_TERM, name);
+        if (!existing.isEmpty()) {
+            return existing.get(0); // Long labels can share their first 100 characters
+        }
+        Matcher year = BATCH_YEAR.matcher(canonical);
+        String[] tokens = canonical.split(" ");
+        String lastToken = tokens[tokens.length - 1];
+        jdbcTemplate.update("INSERT INTO student_groups (department_id, batch_year, section, term, name) "
+                + "VALUES (?, ?, ?, ?, ?)",
+                departmentId,
+                year.find() ? Integer.valueOf(year.group(1)) : 0, // 0 marks an unknown batch
+                tokens.length > 1 && SECTION.matcher(lastToken).matches() ? lastToken : null,
+                LEGACY_TERM, name);
+        return jdbcTemplate.queryForObject("SELECT id FROM student_groups "
+                + "WHERE department_id = ? AND term = ? AND name = ?", Long.class, departmentId, LEGACY_TERM, name);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.main.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents an academic term, a date range of the academic calendar.
+ * Once a term is closed its attendance can no longer be changed, and its attendance records are moved to the
+ * archive table. Archived terms can then be exported to a columnar archive file and purged from the database.
+ * This entity maps to the 'academic_terms' table.
+ */
+@Entity
+@Table(name = "academic_terms")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AcademicTerm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the term
+
+    @Column(nullable = false, unique = true, length = 100) // Term name cannot be null and must be unique
+    private String name; // E.g. "2025-26 Odd Semester"
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate; // First day of the term
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate; // Last day of the term
+
+    @Column(nullable = false)
+    private boolean closed; // True once the term is frozen for attendance changes
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt; // When the last attendance records of the term were archived, or null
+
+    @Column(name = "exported_at")
+    private LocalDateTime exportedAt; // When the term's archive file was last written, or null
+
+    @Column(name = "exported_rows")
+    private Long exportedRows; // Number of records in the archive file
+
+    @Column(name = "purged_at")
+    private LocalDateTime purgedAt; // When the archived records were deleted after verifying the file, or null
+}
@@ -0,0 +1,59 @@
+package com.example.main.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents an attendance record of a closed academic term, moved out of the live 'attendance_records' table.
+ * Archived records are read-only and keep the ID they had as live records.
+ * This entity maps to the 'attendance_records_archive' table.
+ */
+@Entity
+@Table(name = "attendance_records_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAttendanceRecord {
+
+    @Id
+    private Long id; // ID of the record in 'attendance_records' before it was archived
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "lecture_id", nullable = false)
+    private Lecture lecture; // The lecture this record is for
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student; // The student this record is for
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING) // Stores the enum name (e.g., "PRESENT", "ABSENT", "LEAVE") as a string
+    private AttendanceStatus status;
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "marked_by_teacher_id", nullable = false)
+    private Teacher markedByTeacher; // The teacher who last marked this attendance
+
+    @Column(name = "marking_timestamp", nullable = false)
+    private LocalDateTime markingTimestamp;
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "term_id", nullable = false)
+    private AcademicTerm term; // The term the record was archived with
+
+    @Column(name = "lecture_date", nullable = false)
+    private LocalDate lectureDate; // Copied from the lecture, for date range scans
+}
@@ -0,0 +1,36 @@
+package com.example.main.model;
+
+/**
+ * Enum to define what caused a change of an attendance record, as stored in the audit log.
+ */
+public enum AttendanceChangeSource {
+    MARK(1), // Bulk marking of a lecture
+    UPDATE(2), // Single record update
+    LEAVE(3), // Leave application over a date range
+    BULK_CORRECTION(4), // Admin correction by filter
+    OFFLINE_UPLOAD(5); // Marks queued on a teacher's device and uploaded later
+
+    private final int code; // Stable numeric code stored in the audit log (never reuse or renumber)
+
+    AttendanceChangeSource(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @param code A source code as returned by getCode().
+     * @return The source with that code.
+     * @throws IllegalArgumentException if no source has that code.
+     */
+    public static AttendanceChangeSource fromCode(int code) {
+        for (AttendanceChangeSource source : values()) {
+            if (source.code == code) {
+                return source;
+            }
+        }
+        throw new IllegalArgumentException("Unknown attendance change source code: " + code);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.main.model;
+
+/**
+ * Enum to define the kinds of change events relayed from the attendance event outbox.
+ */
+public enum AttendanceEventType {
+    ATTENDANCE_MARKED(1), // A student got a record for a lecture
+    ATTENDANCE_UPDATED(2), // The status of an existing record changed
+    LECTURE_SCHEDULED(3),
+    LECTURE_UPDATED(4), // Moved or otherwise edited
+    LECTURE_DELETED(5); // Deleted together with its attendance records
+
+    private final int code; // Stable numeric code stored in the outbox (never reuse or renumber)
+
+    AttendanceEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @param code An event type code as returned by getCode().
+     * @return The event type with that code.
+     * @throws IllegalArgumentException if no event type has that code.
+     */
+    public static AttendanceEventType fromCode(int code) {
+        for (AttendanceEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown attendance event type code: " + code);
+    }
+}
@@ -4,7 +4,37 @@ package com.example.main.model;
  * Enum to define the possible attendance statuses for a student in a lecture.
  */
 public enum AttendanceStatus {
-	   PRESENT,
-	    ABSENT,
-	    LEAVE // For approved leave
+	   PRESENT(1, 'P'),
+	    ABSENT(2, 'A'),
+	    LEAVE(3, 'L'); // For approved leave
+
+    private final int code; // Stable numeric code used by the compact audit log (never reuse or renumber)
+    private final char symbol; // Single letter used in printed registers and CSV exports
+
+    AttendanceStatus(int code, char symbol) {
+        this.code = code;
+        this.symbol = symbol;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @param code A status code as returned by getCode().
+     * @return The status with that code.
+     * @throws IllegalArgumentException if no status has that code.
+     */
+    public static AttendanceStatus fromCode(int code) {
+        for (AttendanceStatus status : values()) {
+            if (status.code == code) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown attendance status code: " + code);
+    }
 }
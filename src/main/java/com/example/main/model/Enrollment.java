@@ -0,0 +1,46 @@
+package com.example.main.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the enrollment of a student group in a subject. The academic term is that of the group.
+ * This entity maps to the 'enrollments' table and replaces the old assumption that
+ * every subject of a department is taken by every student of that department.
+ */
+@Entity
+@Table(name = "enrollments", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"student_group_id", "subject_id"}) // A group is enrolled in a subject once
+}, indexes = {
+    @Index(name = "idx_enrollments_subject", columnList = "subject_id") // Groups taking a subject
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Enrollment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the enrollment
+
+    // Many-to-One relationship: Many Enrollments belong to one Student Group
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "student_group_id", nullable = false) // Foreign key column in 'enrollments' table
+    private StudentGroup studentGroup; // The enrolled student group
+
+    // Many-to-One relationship: Many Enrollments refer to one Subject
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "subject_id", nullable = false) // Foreign key column in 'enrollments' table
+    private Subject subject; // The subject the group is enrolled in
+}
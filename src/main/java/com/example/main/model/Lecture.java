@@ -17,6 +17,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,7 +27,9 @@ import lombok.NoArgsConstructor;
  * This entity maps to the 'lectures' table.
  */
 @Entity
-@Table(name = "lectures") // Maps to the 'lectures' table
+@Table(name = "lectures", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"series_id", "lecture_date"}) // One occurrence per series and date
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,12 +58,19 @@ public class Lecture {
     @Column(name = "end_time", nullable = false) // End time of the lecture
     private LocalTime endTime;
 
-    @Column(name = "student_group", nullable = false, length = 100) // Describes the target student group
-    private String studentGroup; // E.g., "B.Tech CSE 3rd Sem A"
+    // Many-to-One relationship: Many Lectures are attended by one Student Group
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "student_group_id", nullable = false) // Foreign key column in 'lectures' table
+    private StudentGroup studentGroup; // The class attending this lecture
 
     @Column(name = "room_number", length = 50) // Optional room number
     private String roomNumber; // Optional: Lecture room number
 
+    // Many-to-One relationship: Lectures generated from a recurring series (null for one-off lectures)
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "series_id") // Foreign key column in 'lectures' table
+    private LectureSeries series; // The series this lecture was generated from
+
     // Bidirectional relationship: One Lecture can have many Attendance Records
     @OneToMany(mappedBy = "lecture", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore // Prevent infinite recursion in JSON serialization
@@ -0,0 +1,82 @@
+package com.example.main.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a recurring weekly lecture slot of a student group within a date range (typically a term).
+ * Lectures are generated from a series, one per matching weekday that is not an excluded date (e.g., a holiday).
+ * A virtual (non-materialized) series generates nothing up front: its occurrences are computed when queried
+ * and stored as Lecture rows only once attendance is marked or the occurrence is edited.
+ * This entity maps to the 'lecture_series' table.
+ */
+@Entity
+@Table(name = "lecture_series") // Maps to the 'lecture_series' table
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LectureSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the series
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "subject_id", nullable = false) // Foreign key column in 'lecture_series' table
+    private Subject subject; // The subject taught in every occurrence
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "teacher_id", nullable = false) // Foreign key column in 'lecture_series' table
+    private Teacher teacher; // The teacher conducting every occurrence
+
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "student_group_id", nullable = false) // Foreign key column in 'lecture_series' table
+    private StudentGroup studentGroup; // The class attending every occurrence
+
+    @Enumerated(EnumType.STRING) // Store the weekday as a String (e.g., "MONDAY")
+    @Column(name = "day_of_week", nullable = false, length = 10)
+    private DayOfWeek dayOfWeek; // Weekday the lecture takes place on
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "start_date", nullable = false) // First day of the series (inclusive)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false) // Last day of the series (inclusive)
+    private LocalDate endDate;
+
+    @Column(name = "room_number", length = 50) // Optional room number
+    private String roomNumber;
+
+    @Column(name = "materialized", nullable = false) // False for a virtual series
+    private boolean materialized = true; // Whether all occurrences are generated as Lecture rows up front
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "lecture_series_exclusions", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "excluded_date", nullable = false)
+    private Set<LocalDate> excludedDates = new HashSet<>(); // Holidays and other dates without an occurrence
+}
@@ -0,0 +1,11 @@
+package com.example.main.model;
+
+/**
+ * Enum to define the outcome of one uploaded offline mark. Every outcome is final: the device can drop the
+ * operation from its queue and take the returned status as the server's state.
+ */
+public enum OfflineMarkOutcome {
+    APPLIED, // The mark is the record's current state (written now, or already uploaded before)
+    SUPERSEDED, // A later mark, on the server or further on in the batch, won
+    REJECTED // The mark cannot be applied (unknown lecture or student, future lecture, closed term)
+}
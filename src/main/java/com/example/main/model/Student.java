@@ -48,4 +48,9 @@ public class Student {
     @Column(length = 10) // Section, max 10 chars, can be null
     private String section; // Student's section (e.g., 'A', 'B'), optional
 
+    // Many-to-One relationship: Many Students belong to one (current) Student Group
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "student_group_id") // Foreign key column in 'students' table, can be null
+    private StudentGroup studentGroup; // The class the student currently attends lectures with
+
 }
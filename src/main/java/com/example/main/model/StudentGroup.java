@@ -0,0 +1,55 @@
+package com.example.main.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a class of students that attends lectures together during one academic term
+ * (e.g., CSE batch 2022, section A, odd semester 2025).
+ * This entity maps to the 'student_groups' table and is referenced by id from lectures,
+ * students and enrollments.
+ */
+@Entity
+@Table(name = "student_groups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"department_id", "term", "name"}) // Canonical name is unique per department and term
+}, indexes = {
+    @Index(name = "idx_student_groups_batch_section", columnList = "batch_year, section") // Lookup of a student's group
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentGroup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the student group
+
+    // Many-to-One relationship: Many Student Groups belong to one Department
+    @ManyToOne(fetch = FetchType.LAZY) // Lazy fetching for performance
+    @JoinColumn(name = "department_id", nullable = false) // Foreign key column in 'student_groups' table
+    private Department department; // The department the group belongs to
+
+    @Column(name = "batch_year", nullable = false) // Academic year the group joined, 0 if unknown (legacy groups)
+    private Integer batchYear; // E.g., 2022
+
+    @Column(length = 10) // Section, max 10 chars, can be null
+    private String section; // E.g., 'A'
+
+    @Column(nullable = false, length = 20) // Academic term code, max 20 chars
+    private String term; // E.g., "2025-ODD"
+
+    @Column(nullable = false, length = 100) // Canonical display name, max 100 chars
+    private String name; // E.g., "CSE 2022 A"
+}
@@ -0,0 +1,36 @@
+package com.example.main.model;
+
+/**
+ * Enum to define the kinds of rows tracked for the mobile delta sync, as stored in the sync tombstones.
+ */
+public enum SyncEntityType {
+    DEPARTMENT(1),
+    SUBJECT(2),
+    TEACHER(3),
+    LECTURE(4),
+    ATTENDANCE_RECORD(5);
+
+    private final int code; // Stable numeric code stored in the tombstones (never reuse or renumber)
+
+    SyncEntityType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @param code An entity type code as returned by getCode().
+     * @return The entity type with that code.
+     * @throws IllegalArgumentException if no entity type has that code.
+     */
+    public static SyncEntityType fromCode(int code) {
+        for (SyncEntityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sync entity type code: " + code);
+    }
+}
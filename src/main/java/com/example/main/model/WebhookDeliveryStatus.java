@@ -0,0 +1,10 @@
+package com.example.main.model;
+
+/**
+ * Enum to define the states of a queued webhook delivery (stored by name in webhook_deliveries.status).
+ */
+public enum WebhookDeliveryStatus {
+    PENDING, // Waiting for its first or next attempt
+    DELIVERED, // Accepted by the receiver with a 2xx response
+    DEAD // Retries exhausted; kept until an administrator retries it
+}
@@ -0,0 +1,47 @@
+package com.example.main.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents an integration receiving the attendance events as batched webhook calls.
+ * This entity maps to the 'webhook_subscriptions' table.
+ */
+@Entity
+@Table(name = "webhook_subscriptions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookSubscription {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Unique identifier for the subscription
+
+    @Column(nullable = false, unique = true, length = 100) // Subscription name cannot be null and must be unique
+    private String name; // E.g. "ERP attendance sync"
+
+    @Column(nullable = false, length = 500)
+    private String url; // Endpoint receiving the POSTed batches
+
+    @Column(name = "max_concurrency", nullable = false)
+    private int maxConcurrency; // Maximum number of requests in flight to this endpoint
+
+    @Column(name = "max_batch_size", nullable = false)
+    private int maxBatchSize; // Maximum number of events per request
+
+    @Column(nullable = false)
+    private boolean active; // Inactive subscriptions get no new batches and their queued batches wait
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt; // When the subscription was created; it receives events relayed from then on
+}
@@ -0,0 +1,57 @@
+package com.example.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.main.model.AcademicTerm;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for AcademicTerm entities.
+ * Provides standard CRUD operations and custom query methods for academic terms.
+ */
+@Repository
+public interface AcademicTermRepository extends JpaRepository<AcademicTerm, Long> {
+
+    /**
+     * Checks if a term exists with the given name.
+     * @param name The name to check.
+     * @return True if a term with the name exists, false otherwise.
+     */
+    boolean existsByName(String name);
+
+    /**
+     * Finds all terms ordered by their start date.
+     * @return A list of all terms, earliest first.
+     */
+    List<AcademicTerm> findAllByOrderByStartDateAsc();
+
+    /**
+     * Finds the terms overlapping a date range.
+     * @param startDate The first date of the range.
+     * @param endDate The last date of the range.
+     * @return A list of the overlapping terms.
+     */
+    @Query("SELECT t FROM AcademicTerm t WHERE t.startDate <= :endDate AND t.endDate >= :startDate")
+    List<AcademicTerm> findOverlapping(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Checks if a closed term overlaps a date range.
+     * @param startDate The first date of the range.
+     * @param endDate The last date of the range.
+     * @return True if attendance within the range belongs to a closed term.
+     */
+    @Query("SELECT COUNT(t) > 0 FROM AcademicTerm t WHERE t.closed = true "
+            + "AND t.startDate <= :endDate AND t.endDate >= :startDate")
+    boolean existsClosedOverlapping(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Finds the closed terms whose attendance records have not all been archived yet.
+     * @return A list of the terms, earliest first.
+     */
+    List<AcademicTerm> findByClosedTrueAndArchivedAtIsNullOrderByStartDateAsc();
+}
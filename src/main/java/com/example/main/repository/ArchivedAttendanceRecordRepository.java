@@ -0,0 +1,56 @@
+package com.example.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.main.model.ArchivedAttendanceRecord;
+import com.example.main.model.Lecture;
+import com.example.main.model.Student;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for ArchivedAttendanceRecord entities.
+ * Mirrors the read queries of AttendanceRecordRepository for the archive table.
+ */
+@Repository
+public interface ArchivedAttendanceRecordRepository extends JpaRepository<ArchivedAttendanceRecord, Long> {
+
+    /**
+     * Finds all archived records of a specific Student.
+     * @param student The Student entity.
+     * @return A list of archived records for the given student.
+     */
+    List<ArchivedAttendanceRecord> findByStudent(Student student);
+
+    /**
+     * Finds all archived records of a specific Lecture.
+     * @param lecture The Lecture entity.
+     * @return A list of archived records for the given lecture.
+     */
+    List<ArchivedAttendanceRecord> findByLecture(Lecture lecture);
+
+    /**
+     * Finds the archived records of a specific Student within a given date range, using the copied lecture date.
+     * @param student The Student entity.
+     * @param startDate The start date of the range (inclusive).
+     * @param endDate The end date of the range (inclusive).
+     * @return A list of archived records for the student within the date range.
+     */
+    List<ArchivedAttendanceRecord> findByStudentAndLectureDateBetween(Student student, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Counts the archived records in which a student was present for lectures of a specific subject.
+     * @param studentId The ID of the student.
+     * @param subjectId The ID of the subject.
+     * @return The count of archived 'PRESENT' records for the student in that subject.
+     */
+    @Query("SELECT COUNT(ar) FROM ArchivedAttendanceRecord ar " +
+            "WHERE ar.student.id = :studentId " +
+            "AND ar.lecture.subject.id = :subjectId " +
+            "AND ar.status = 'PRESENT'")
+    long countPresentByStudentAndSubject(@Param("studentId") Long studentId, @Param("subjectId") Long subjectId);
+}
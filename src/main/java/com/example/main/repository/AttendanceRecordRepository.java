@@ -78,17 +78,20 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
      * For simplicity, this query counts all lectures for a subject up to a certain date.
      * A more robust solution might require fetching all lectures for the student's *specific* group.
      * @param subjectId The ID of the subject.
-     * @param studentGroup The student group identifier (e.g., "B.Tech CSE 3rd Sem A").
+     * @param studentGroupId The ID of the student group.
+     * Stored occurrences of virtual lecture series are not counted; those series are counted by rule arithmetic
+     * (see LectureSeriesService.countVirtualLectures).
      * @param upToDate The maximum date for lectures to be considered.
      * @return The total count of lectures for that subject.
      */
-    @Query("SELECT COUNT(l) FROM Lecture l " +
+    @Query("SELECT COUNT(l) FROM Lecture l LEFT JOIN l.series s " +
             "WHERE l.subject.id = :subjectId " +
-            "AND l.studentGroup = :studentGroup " +
-            "AND l.lectureDate <= :upToDate")
+            "AND l.studentGroup.id = :studentGroupId " +
+            "AND l.lectureDate <= :upToDate " +
+            "AND (s IS NULL OR s.materialized = true)")
     long countTotalLecturesForSubjectAndStudentGroup(
             @Param("subjectId") Long subjectId,
-            @Param("studentGroup") String studentGroup,
+            @Param("studentGroupId") Long studentGroupId,
             @Param("upToDate") LocalDate upToDate
     );
 }
\ No newline at end of file
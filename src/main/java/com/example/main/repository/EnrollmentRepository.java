@@ -0,0 +1,76 @@
+package com.example.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.main.model.Enrollment;
+import com.example.main.model.StudentGroup;
+import com.example.main.model.Subject;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for Enrollment entities.
+ * Provides standard CRUD operations and indexed lookups of the subjects a student group takes.
+ */
+@Repository
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
+
+    /**
+     * Finds the subjects a student group is enrolled in.
+     * Served by the (student_group_id, subject_id) unique index.
+     * @param studentGroupId The ID of the student group.
+     * @return A list of Subjects the group is enrolled in.
+     */
+    @Query("SELECT e.subject FROM Enrollment e WHERE e.studentGroup.id = :studentGroupId")
+    List<Subject> findSubjectsByStudentGroupId(@Param("studentGroupId") Long studentGroupId);
+
+    /**
+     * Finds all enrollments of a student group.
+     * @param studentGroup The StudentGroup entity.
+     * @return A list of Enrollments for the group.
+     */
+    List<Enrollment> findByStudentGroup(StudentGroup studentGroup);
+
+    /**
+     * Finds the student groups enrolled in a subject.
+     * Served by the subject_id index.
+     * @param subjectId The ID of the subject.
+     * @return A list of StudentGroups enrolled in the subject.
+     */
+    @Query("SELECT e.studentGroup FROM Enrollment e WHERE e.subject.id = :subjectId")
+    List<StudentGroup> findStudentGroupsBySubjectId(@Param("subjectId") Long subjectId);
+
+    /**
+     * Finds existing enrollments for any of the given groups and subjects.
+     * Used by bulk enrollment to skip pairs that are already enrolled with a single query.
+     * @param studentGroupIds The student group IDs to check.
+     * @param subjectIds The subject IDs to check.
+     * @return A list of matching Enrollments.
+     */
+    @Query("SELECT e FROM Enrollment e WHERE e.studentGroup.id IN :studentGroupIds " +
+            "AND e.subject.id IN :subjectIds")
+    List<Enrollment> findExisting(
+            @Param("studentGroupIds") Collection<Long> studentGroupIds,
+            @Param("subjectIds") Collection<Long> subjectIds
+    );
+
+    /**
+     * Removes the enrollments of the given groups in the given subjects
+     * with a single set-based delete.
+     * @param studentGroupIds The student group IDs to withdraw.
+     * @param subjectIds The subject IDs to withdraw from.
+     * @return The number of enrollments removed.
+     */
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.studentGroup.id IN :studentGroupIds " +
+            "AND e.subject.id IN :subjectIds")
+    int deleteEnrollments(
+            @Param("studentGroupIds") Collection<Long> studentGroupIds,
+            @Param("subjectIds") Collection<Long> subjectIds
+    );
+}
@@ -4,11 +4,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import com.example.main.model.Lecture;
+import com.example.main.model.LectureSeries;
+import com.example.main.model.StudentGroup;
 import com.example.main.model.Subject;
 import com.example.main.model.Teacher;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for Lecture entities.
@@ -40,10 +43,10 @@ public interface LectureRepository extends JpaRepository<Lecture,Long>{
 
     /**
      * Finds all Lectures for a specific student group.
-     * @param studentGroup The student group identifier (e.g., "B.Tech CSE 3rd Sem A").
+     * @param studentGroup The StudentGroup entity.
      * @return A list of Lectures for the specified student group.
      */
-    List<Lecture> findByStudentGroup(String studentGroup);
+    List<Lecture> findByStudentGroup(StudentGroup studentGroup);
 
     /**
      * Finds all Lectures conducted by a specific Teacher on a specific date.
@@ -57,10 +60,18 @@ public interface LectureRepository extends JpaRepository<Lecture,Long>{
     /**
      * Finds all Lectures for a specific student group on a specific date.
      * This will be useful for students to see their daily schedule.
-     * @param studentGroup The student group identifier.
+     * @param studentGroup The StudentGroup entity.
      * @param lectureDate The date of the lectures.
      * @return A list of Lectures for the specified student group on the given date.
      */
-    List<Lecture> findByStudentGroupAndLectureDate(String studentGroup, LocalDate lectureDate);
+    List<Lecture> findByStudentGroupAndLectureDate(StudentGroup studentGroup, LocalDate lectureDate);
 
+    /**
+     * Finds the stored occurrence of a lecture series on a given date.
+     * Served by the (series_id, lecture_date) unique index.
+     * @param series The lecture series.
+     * @param lectureDate The date of the occurrence.
+     * @return An Optional containing the lecture if it was materialized.
+     */
+    Optional<Lecture> findBySeriesAndLectureDate(LectureSeries series, LocalDate lectureDate);
 }
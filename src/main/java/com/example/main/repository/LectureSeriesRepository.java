@@ -0,0 +1,87 @@
+package com.example.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.main.model.LectureSeries;
+import com.example.main.model.StudentGroup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for LectureSeries entities.
+ * Provides standard CRUD operations and lookups of the recurring slots of a student group.
+ * The virtual series queries fetch everything needed to render occurrences in one statement.
+ */
+@Repository
+public interface LectureSeriesRepository extends JpaRepository<LectureSeries, Long> {
+
+    /**
+     * Finds all lecture series of a student group.
+     * @param studentGroup The student group.
+     * @return A list of lecture series of the group.
+     */
+    List<LectureSeries> findByStudentGroup(StudentGroup studentGroup);
+
+    /**
+     * Finds the virtual series of a teacher that overlap a date range.
+     * @param teacherId The ID of the teacher.
+     * @param fromDate First day of the range (inclusive).
+     * @param toDate Last day of the range (inclusive).
+     * @return A list of virtual lecture series, with excluded dates loaded.
+     */
+    @Query("SELECT DISTINCT s FROM LectureSeries s LEFT JOIN FETCH s.excludedDates " +
+            "JOIN FETCH s.subject JOIN FETCH s.studentGroup JOIN FETCH s.teacher t JOIN FETCH t.user " +
+            "WHERE s.materialized = false AND t.id = :teacherId " +
+            "AND s.startDate <= :toDate AND s.endDate >= :fromDate")
+    List<LectureSeries> findVirtualByTeacher(@Param("teacherId") Long teacherId,
+                                             @Param("fromDate") LocalDate fromDate,
+                                             @Param("toDate") LocalDate toDate);
+
+    /**
+     * Finds the virtual series that overlap a date range, optionally only those of a teacher or department.
+     * @param teacherId (Optional) Only series of this teacher.
+     * @param departmentId (Optional) Only series of teachers in this department.
+     * @param fromDate First day of the range (inclusive).
+     * @param toDate Last day of the range (inclusive).
+     * @return A list of virtual lecture series, with excluded dates loaded.
+     */
+    @Query("SELECT DISTINCT s FROM LectureSeries s LEFT JOIN FETCH s.excludedDates " +
+            "JOIN FETCH s.subject JOIN FETCH s.studentGroup JOIN FETCH s.teacher t JOIN FETCH t.user " +
+            "WHERE s.materialized = false AND (:teacherId IS NULL OR t.id = :teacherId) " +
+            "AND (:departmentId IS NULL OR t.department.id = :departmentId) " +
+            "AND s.startDate <= :toDate AND s.endDate >= :fromDate")
+    List<LectureSeries> findVirtualBetween(@Param("teacherId") Long teacherId,
+                                           @Param("departmentId") Long departmentId,
+                                           @Param("fromDate") LocalDate fromDate,
+                                           @Param("toDate") LocalDate toDate);
+
+    /**
+     * Finds the virtual series of a student group that overlap a date range.
+     * @param studentGroupId The ID of the student group.
+     * @param fromDate First day of the range (inclusive).
+     * @param toDate Last day of the range (inclusive).
+     * @return A list of virtual lecture series, with excluded dates loaded.
+     */
+    @Query("SELECT DISTINCT s FROM LectureSeries s LEFT JOIN FETCH s.excludedDates " +
+            "JOIN FETCH s.subject JOIN FETCH s.studentGroup g JOIN FETCH s.teacher t JOIN FETCH t.user " +
+            "WHERE s.materialized = false AND g.id = :studentGroupId " +
+            "AND s.startDate <= :toDate AND s.endDate >= :fromDate")
+    List<LectureSeries> findVirtualByStudentGroup(@Param("studentGroupId") Long studentGroupId,
+                                                  @Param("fromDate") LocalDate fromDate,
+                                                  @Param("toDate") LocalDate toDate);
+
+    /**
+     * Finds the virtual series of a subject taught to a student group.
+     * @param subjectId The ID of the subject.
+     * @param studentGroupId The ID of the student group.
+     * @return A list of virtual lecture series, with excluded dates loaded.
+     */
+    @Query("SELECT DISTINCT s FROM LectureSeries s LEFT JOIN FETCH s.excludedDates " +
+            "WHERE s.materialized = false AND s.subject.id = :subjectId AND s.studentGroup.id = :studentGroupId")
+    List<LectureSeries> findVirtualBySubjectAndStudentGroup(@Param("subjectId") Long subjectId,
+                                                            @Param("studentGroupId") Long studentGroupId);
+}
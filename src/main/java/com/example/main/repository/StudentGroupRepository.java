@@ -0,0 +1,50 @@
+package com.example.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.main.model.Department;
+import com.example.main.model.StudentGroup;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for StudentGroup entities.
+ * Provides standard CRUD operations and custom query methods for Student Group data.
+ */
+@Repository
+public interface StudentGroupRepository extends JpaRepository<StudentGroup, Long> {
+
+    /**
+     * Finds a Student Group by its department, term and canonical name.
+     * @param department The Department entity.
+     * @param term The academic term code.
+     * @param name The canonical group name.
+     * @return An Optional containing the StudentGroup if found, or empty.
+     */
+    Optional<StudentGroup> findByDepartmentAndTermAndName(Department department, String term, String name);
+
+    /**
+     * Finds all Student Groups belonging to a specific Department.
+     * @param department The Department entity.
+     * @return A list of StudentGroups associated with the given department.
+     */
+    List<StudentGroup> findByDepartment(Department department);
+
+    /**
+     * Finds all Student Groups for a specific term.
+     * @param term The academic term code.
+     * @return A list of StudentGroups for the given term.
+     */
+    List<StudentGroup> findByTerm(String term);
+
+    /**
+     * Checks if a student group exists with the given department, term and canonical name.
+     * @param department The Department entity.
+     * @param term The academic term code.
+     * @param name The canonical group name.
+     * @return True if such a group exists, false otherwise.
+     */
+    boolean existsByDepartmentAndTermAndName(Department department, String term, String name);
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Repository;
 
 import com.example.main.model.Department;
 import com.example.main.model.Student;
+import com.example.main.model.StudentGroup;
 import com.example.main.model.User;
 
 import java.util.List;
@@ -46,6 +47,13 @@ public interface StudentRepository extends JpaRepository<Student,Long>{
      */
     List<Student> findByBatchYearAndSection(Integer batchYear, String section);
 
+    /**
+     * Finds all Students currently in a specific Student Group, ordered by roll number.
+     * @param studentGroup The StudentGroup entity.
+     * @return A list of Students in the given group.
+     */
+    List<Student> findByStudentGroupOrderByRollNumberAsc(StudentGroup studentGroup);
+
     /**
      * Checks if a student exists with the given roll number.
      * @param rollNumber The roll number to check.
@@ -0,0 +1,29 @@
+package com.example.main.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.main.model.WebhookSubscription;
+
+import java.util.List;
+
+/**
+ * Repository interface for WebhookSubscription entities.
+ * Provides standard CRUD operations and custom query methods for WebhookSubscription data.
+ */
+@Repository
+public interface WebhookSubscriptionRepository extends JpaRepository<WebhookSubscription, Long> {
+
+    /**
+     * Finds all active subscriptions.
+     * @return The subscriptions that receive new batches.
+     */
+    List<WebhookSubscription> findByActiveTrue();
+
+    /**
+     * Checks if a subscription exists with the given name.
+     * @param name The name to check.
+     * @return True if a subscription with the name exists, false otherwise.
+     */
+    boolean existsByName(String name);
+}
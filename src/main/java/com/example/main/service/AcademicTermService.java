@@ -0,0 +1,130 @@
+package com.example.main.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.dto.AcademicTermDTO;
+import com.example.main.exception.DuplicateEntryException;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.mapper.AcademicTermMapper;
+import com.example.main.model.AcademicTerm;
+import com.example.main.repository.AcademicTermRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for managing AcademicTerm entities.
+ * Terms do not overlap. A term can be closed once it has ended; attendance within a closed term can no longer be
+ * marked or changed, which lets AttendanceArchiveService move its records out of the live table.
+ */
+@Service
+@Transactional
+public class AcademicTermService {
+
+    private final AcademicTermRepository academicTermRepository;
+    private final AcademicTermMapper academicTermMapper;
+
+    public AcademicTermService(AcademicTermRepository academicTermRepository, AcademicTermMapper academicTermMapper) {
+        this.academicTermRepository = academicTermRepository;
+        this.academicTermMapper = academicTermMapper;
+    }
+
+    /**
+     * Creates a new, open academic term.
+     * @param termDTO The DTO containing the term's name and date range.
+     * @return The created AcademicTermDTO.
+     * @throws DuplicateEntryException if a term with the same name already exists.
+     * @throws InvalidOperationException if the date range is invalid or overlaps another term.
+     */
+    public AcademicTermDTO createTerm(AcademicTermDTO termDTO) {
+        if (termDTO.getEndDate().isBefore(termDTO.getStartDate())) {
+            throw new InvalidOperationException("End date cannot be before start date.");
+        }
+        if (academicTermRepository.existsByName(termDTO.getName())) {
+            throw new DuplicateEntryException("Academic term with name '" + termDTO.getName() + "' already exists.");
+        }
+        List<AcademicTerm> overlapping = academicTermRepository.findOverlapping(termDTO.getStartDate(), termDTO.getEndDate());
+        if (!overlapping.isEmpty()) {
+            throw new InvalidOperationException("Academic term overlaps term '" + overlapping.get(0).getName() + "'.");
+        }
+        AcademicTerm savedTerm = academicTermRepository.save(academicTermMapper.toAcademicTerm(termDTO));
+        return academicTermMapper.toAcademicTermDTO(savedTerm);
+    }
+
+    /**
+     * Retrieves an academic term by its ID.
+     * @param id The ID of the term.
+     * @return The AcademicTermDTO if found.
+     * @throws ResourceNotFoundException if the term is not found.
+     */
+    @Transactional(readOnly = true)
+    public AcademicTermDTO getTermById(Long id) {
+        return academicTermMapper.toAcademicTermDTO(getTermEntityById(id));
+    }
+
+    /**
+     * Retrieves an academic term entity by its ID. Used internally by other services.
+     * @param id The ID of the term.
+     * @return The AcademicTerm entity if found.
+     * @throws ResourceNotFoundException if the term is not found.
+     */
+    @Transactional(readOnly = true)
+    public AcademicTerm getTermEntityById(Long id) {
+        return academicTermRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Academic term not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves all academic terms.
+     * @return A list of all AcademicTermDTOs, earliest first.
+     */
+    @Transactional(readOnly = true)
+    public List<AcademicTermDTO> getAllTerms() {
+        return academicTermRepository.findAllByOrderByStartDateAsc().stream()
+                .map(academicTermMapper::toAcademicTermDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Closes an academic term: its attendance is frozen and becomes eligible for archival.
+     * @param id The ID of the term.
+     * @return The updated AcademicTermDTO.
+     * @throws ResourceNotFoundException if the term is not found.
+     * @throws InvalidOperationException if the term has not ended yet.
+     */
+    public AcademicTermDTO closeTerm(Long id) {
+        AcademicTerm term = getTermEntityById(id);
+        if (!term.getEndDate().isBefore(LocalDate.now())) {
+            throw new InvalidOperationException("Academic term '" + term.getName() + "' has not ended yet.");
+        }
+        term.setClosed(true);
+        return academicTermMapper.toAcademicTermDTO(academicTermRepository.save(term));
+    }
+
+    /**
+     * Checks if any date of a range belongs to a closed term, i.e. if its records may be archived.
+     * @param startDate The first date of the range.
+     * @param endDate The last date of the range.
+     * @return True if a closed term overlaps the range.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasClosedTerm(LocalDate startDate, LocalDate endDate) {
+        return academicTermRepository.existsClosedOverlapping(startDate, endDate);
+    }
+
+    /**
+     * Ensures that attendance within a date range can still be changed.
+     * @param startDate The first date of the range.
+     * @param endDate The last date of the range.
+     * @throws InvalidOperationException if a closed term overlaps the range.
+     */
+    @Transactional(readOnly = true)
+    public void requireOpen(LocalDate startDate, LocalDate endDate) {
+        if (hasClosedTerm(startDate, endDate)) {
+            throw new InvalidOperationException("Attendance of a closed academic term can no longer be changed.");
+        }
+    }
+}
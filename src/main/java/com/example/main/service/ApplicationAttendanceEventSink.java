@@ -0,0 +1,33 @@
+package com.example.main.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.AttendanceEventDTO;
+import com.example.main.event.AttendanceEventsRelayedEvent;
+
+import java.util.List;
+
+/**
+ * Event sink for in-process listeners: publishes each batch as an AttendanceEventsRelayedEvent.
+ * Always enabled; without listeners it does nothing.
+ */
+@Component
+public class ApplicationAttendanceEventSink implements AttendanceEventSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ApplicationAttendanceEventSink(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return "in-process";
+    }
+
+    @Override
+    public void publish(List<AttendanceEventDTO> events) {
+        eventPublisher.publishEvent(new AttendanceEventsRelayedEvent(List.copyOf(events)));
+    }
+}
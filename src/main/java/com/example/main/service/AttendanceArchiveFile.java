@@ -0,0 +1,428 @@
+package com.example.main.service;
+
+import com.example.main.model.AttendanceStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Column-oriented file holding the attendance of one archived academic term, read back through a memory mapping.
+ * Layout (integers are unsigned varints unless noted, strings are length-prefixed UTF-8):
+ * <pre>
+ *   header     magic "ATAR", format version (byte), term ID, row count
+ *   subjects   count, then per subject: ID delta, code, name
+ *   students   count, then per student: ID delta, student group ID, roll number
+ *   lectures   count, then per lecture: ID delta, subject ordinal, student group ID, date (epoch day), row count
+ *   totals     count, then per subject and student group: subject ordinal, student group ID, lectures held
+ *   students   run count, then runs of (ordinal delta, length)
+ *   statuses   run count, then runs of (length &lt;&lt; 2 | status code)
+ *   record IDs per row: zigzag-encoded difference to the previous row's record ID (since version 2)
+ *   trailer    CRC32 of everything before it (4 bytes, big-endian)
+ * </pre>
+ * Rows are sorted by lecture and student. The lecture column is the lecture dictionary itself, run-length-encoded
+ * by the row count of each lecture. The student column holds ordinals into the student dictionary, delta-encoded
+ * within a lecture and then run-length-encoded, so a lecture with a complete roster is a handful of runs. The
+ * status column is run-length-encoded. The record ID column stays in the mapped file and is decoded while walking
+ * the rows. Queries walk the runs without expanding them.
+ */
+final class AttendanceArchiveFile {
+
+    private static final byte[] MAGIC = { 'A', 'T', 'A', 'R' };
+    private static final int VERSION = 2;
+    private static final int FIRST_VERSION_WITH_RECORD_IDS = 2;
+
+    record Subject(long id, String code, String name) {
+    }
+
+    record Student(long id, long studentGroupId, String rollNumber) {
+    }
+
+    record Lecture(long id, int subject, long studentGroupId, LocalDate date, int rowCount) {
+    }
+
+    record LectureTotal(int subject, long studentGroupId, long lectures) {
+    }
+
+    /**
+     * Receives the rows of the file in lecture and student order.
+     * The record ID is 0 in version 1 files, which did not store record IDs.
+     */
+    interface RowVisitor {
+        void visit(Lecture lecture, int student, AttendanceStatus status, long recordId);
+    }
+
+    private final long termId;
+    private final long rowCount;
+    private final Subject[] subjects;
+    private final Student[] students; // Sorted by ID; the index is the student's ordinal
+    private final Lecture[] lectures;
+    private final LectureTotal[] totals;
+    private final int[] studentRunDeltas;
+    private final int[] studentRunLengths;
+    private final int[] statusRuns; // length << 2 | status code
+    private final ByteBuffer recordIds; // The mapped record ID column; null in version 1 files
+
+    private AttendanceArchiveFile(long termId, long rowCount, Subject[] subjects, Student[] students, Lecture[] lectures,
+                                  LectureTotal[] totals, int[] studentRunDeltas, int[] studentRunLengths, int[] statusRuns,
+                                  ByteBuffer recordIds) {
+        this.termId = termId;
+        this.rowCount = rowCount;
+        this.subjects = subjects;
+        this.students = students;
+        this.lectures = lectures;
+        this.totals = totals;
+        this.studentRunDeltas = studentRunDeltas;
+        this.studentRunLengths = studentRunLengths;
+        this.statusRuns = statusRuns;
+        this.recordIds = recordIds;
+    }
+
+    long getTermId() {
+        return termId;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    int getSubjectCount() {
+        return subjects.length;
+    }
+
+    Subject getSubject(int ordinal) {
+        return subjects[ordinal];
+    }
+
+    Student getStudent(int ordinal) {
+        return students[ordinal];
+    }
+
+    List<Lecture> getLectures() {
+        return Arrays.asList(lectures);
+    }
+
+    List<LectureTotal> getTotals() {
+        return Arrays.asList(totals);
+    }
+
+    /**
+     * @param studentId The ID of the student.
+     * @return The student's ordinal, or -1 if the student has no records in the file.
+     */
+    int findStudent(long studentId) {
+        int low = 0;
+        int high = students.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (students[mid].id() < studentId) {
+                low = mid + 1;
+            } else if (students[mid].id() > studentId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Walks all rows, decoding the student and status runs and the record IDs as it goes.
+     * @param visitor Receives each row.
+     */
+    void forEachRow(RowVisitor visitor) {
+        ByteBuffer ids = recordIds != null ? recordIds.duplicate() : null; // Own position, safe for concurrent walks
+        long recordId = 0;
+        AttendanceStatus[] statuses = new AttendanceStatus[4];
+        for (AttendanceStatus status : AttendanceStatus.values()) {
+            statuses[status.getCode()] = status;
+        }
+        int studentRun = -1;
+        int studentLeft = 0;
+        int statusRun = -1;
+        int statusLeft = 0;
+        for (Lecture lecture : lectures) {
+            int student = -1;
+            for (int row = 0; row < lecture.rowCount(); row++) {
+                while (studentLeft == 0) {
+                    studentLeft = studentRunLengths[++studentRun];
+                }
+                student += studentRunDeltas[studentRun];
+                studentLeft--;
+                while (statusLeft == 0) {
+                    statusLeft = statusRuns[++statusRun] >>> 2;
+                }
+                statusLeft--;
+                if (ids != null) {
+                    recordId += zigzagDecode(nextVarLong(ids));
+                }
+                visitor.visit(lecture, student, statuses[statusRuns[statusRun] & 0x3], recordId);
+            }
+        }
+    }
+
+    /**
+     * Writes a file atomically: to a temporary file in the same directory, which then replaces the target.
+     * @param file The target path.
+     * @param studentOrdinals The student ordinal of each row, rows sorted by lecture and student.
+     * @param statuses The status of each row.
+     * @param recordIds The attendance record ID of each row.
+     * @throws IOException if writing fails.
+     */
+    static void write(Path file, long termId, List<Subject> subjects, List<Student> students, List<Lecture> lectures,
+                      List<LectureTotal> totals, int[] studentOrdinals, AttendanceStatus[] statuses, long[] recordIds)
+            throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                CheckedOutputStream checked = new CheckedOutputStream(out, crc);
+                checked.write(MAGIC);
+                checked.write(VERSION);
+                writeVarLong(checked, termId);
+                writeVarLong(checked, studentOrdinals.length);
+
+                writeVarLong(checked, subjects.size());
+                long previous = 0;
+                for (Subject subject : subjects) {
+                    writeVarLong(checked, subject.id() - previous);
+                    writeString(checked, subject.code());
+                    writeString(checked, subject.name());
+                    previous = subject.id();
+                }
+                writeVarLong(checked, students.size());
+                previous = 0;
+                for (Student student : students) {
+                    writeVarLong(checked, student.id() - previous);
+                    writeVarLong(checked, student.studentGroupId());
+                    writeString(checked, student.rollNumber());
+                    previous = student.id();
+                }
+                writeVarLong(checked, lectures.size());
+                previous = 0;
+                for (Lecture lecture : lectures) {
+                    writeVarLong(checked, lecture.id() - previous);
+                    writeVarLong(checked, lecture.subject());
+                    writeVarLong(checked, lecture.studentGroupId());
+                    writeVarLong(checked, lecture.date().toEpochDay());
+                    writeVarLong(checked, lecture.rowCount());
+                    previous = lecture.id();
+                }
+                writeVarLong(checked, totals.size());
+                for (LectureTotal total : totals) {
+                    writeVarLong(checked, total.subject());
+                    writeVarLong(checked, total.studentGroupId());
+                    writeVarLong(checked, total.lectures());
+                }
+
+                writeRuns(checked, studentDeltaRuns(lectures, studentOrdinals), 2); // (delta, length) pairs
+                writeRuns(checked, statusRuns(statuses), 1);
+                long previousRecordId = 0;
+                for (long recordId : recordIds) {
+                    writeVarLong(checked, zigzagEncode(recordId - previousRecordId));
+                    previousRecordId = recordId;
+                }
+                out.writeInt((int) crc.getValue()); // Past the checked stream, so not part of the checksum
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps a file into memory and decodes its dictionaries and runs.
+     * @param file The path of the file.
+     * @return The decoded file.
+     * @throws IOException if the file cannot be read, or its checksum or structure is invalid.
+     */
+    static AttendanceArchiveFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAGIC.length + 5 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an attendance archive file: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                throw new IOException("Checksum mismatch in attendance archive file: " + file);
+            }
+            buffer.limit((int) size - 4);
+            return decode(buffer, file);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt attendance archive file: " + file, e);
+        }
+    }
+
+    private static AttendanceArchiveFile decode(ByteBuffer in, Path file) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.get(magic);
+        int version = in.get();
+        if (!Arrays.equals(magic, MAGIC) || version < 1 || version > VERSION) {
+            throw new IOException("Not an attendance archive file (or an unsupported version): " + file);
+        }
+        long termId = readVarLong(in);
+        long rowCount = readVarLong(in);
+
+        Subject[] subjects = new Subject[(int) readVarLong(in)];
+        long id = 0;
+        for (int i = 0; i < subjects.length; i++) {
+            id += readVarLong(in);
+            subjects[i] = new Subject(id, readString(in), readString(in));
+        }
+        Student[] students = new Student[(int) readVarLong(in)];
+        id = 0;
+        for (int i = 0; i < students.length; i++) {
+            id += readVarLong(in);
+            students[i] = new Student(id, readVarLong(in), readString(in));
+        }
+        Lecture[] lectures = new Lecture[(int) readVarLong(in)];
+        id = 0;
+        for (int i = 0; i < lectures.length; i++) {
+            id += readVarLong(in);
+            lectures[i] = new Lecture(id, (int) readVarLong(in), readVarLong(in), LocalDate.ofEpochDay(readVarLong(in)),
+                    (int) readVarLong(in));
+        }
+        LectureTotal[] totals = new LectureTotal[(int) readVarLong(in)];
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] = new LectureTotal((int) readVarLong(in), readVarLong(in), readVarLong(in));
+        }
+
+        int studentRunCount = (int) readVarLong(in);
+        int[] studentRunDeltas = new int[studentRunCount];
+        int[] studentRunLengths = new int[studentRunCount];
+        for (int i = 0; i < studentRunCount; i++) {
+            studentRunDeltas[i] = (int) readVarLong(in);
+            studentRunLengths[i] = (int) readVarLong(in);
+        }
+        int[] statusRuns = new int[(int) readVarLong(in)];
+        for (int i = 0; i < statusRuns.length; i++) {
+            statusRuns[i] = (int) readVarLong(in);
+        }
+        ByteBuffer recordIds = null;
+        if (version >= FIRST_VERSION_WITH_RECORD_IDS) {
+            recordIds = in.slice();
+            for (long row = 0; row < rowCount; row++) { // Validated once here, so walks cannot run off the column
+                readVarLong(recordIds);
+            }
+            recordIds.rewind();
+        }
+        return new AttendanceArchiveFile(termId, rowCount, subjects, students, lectures, totals, studentRunDeltas,
+                studentRunLengths, statusRuns, recordIds);
+    }
+
+    // Runs of the student ordinal deltas as (delta, length) pairs; the delta restarts from -1 at each lecture, so
+    // it is always positive
+    private static int[] studentDeltaRuns(List<Lecture> lectures, int[] studentOrdinals) {
+        int[] runs = new int[16];
+        int count = 0;
+        int row = 0;
+        for (Lecture lecture : lectures) {
+            int previous = -1;
+            for (int i = 0; i < lecture.rowCount(); i++, row++) {
+                int delta = studentOrdinals[row] - previous;
+                previous = studentOrdinals[row];
+                if (count > 0 && runs[count - 2] == delta) {
+                    runs[count - 1]++;
+                } else {
+                    if (count == runs.length) {
+                        runs = Arrays.copyOf(runs, count * 2);
+                    }
+                    runs[count++] = delta;
+                    runs[count++] = 1;
+                }
+            }
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    private static int[] statusRuns(AttendanceStatus[] statuses) {
+        int[] runs = new int[16];
+        int count = 0;
+        for (int row = 0; row < statuses.length; row++) {
+            int run = 1;
+            while (row + 1 < statuses.length && statuses[row + 1] == statuses[row]) {
+                run++;
+                row++;
+            }
+            if (count == runs.length) {
+                runs = Arrays.copyOf(runs, count * 2);
+            }
+            runs[count++] = run << 2 | statuses[row].getCode();
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    private static void writeRuns(OutputStream out, int[] runs, int valuesPerRun) throws IOException {
+        writeVarLong(out, runs.length / valuesPerRun);
+        for (int value : runs) {
+            writeVarLong(out, value);
+        }
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // For columns already validated by read(), where a malformed varint cannot occur
+    private static long nextVarLong(ByteBuffer in) {
+        try {
+            return readVarLong(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,506 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.config.ReadWriteRoutingDataSource;
+import com.example.main.dto.ArchiveVerificationDTO;
+import com.example.main.dto.AttendanceRecordDTO;
+import com.example.main.dto.LectureDTO;
+import com.example.main.dto.StudentAttendanceSummaryDTO;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.model.AcademicTerm;
+import com.example.main.model.AttendanceStatus;
+import com.example.main.repository.AcademicTermRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service exporting archived academic terms into columnar archive files (see AttendanceArchiveFile), one file per
+ * term, and serving historical summaries and exports from them without touching the database.
+ * A term goes through export, verification (the file is cross-checked against attendance_records_archive per
+ * lecture and status) and purge (the archived rows are deleted, only right after a successful verification).
+ * Once purged, the attendance of the term is only in its file: the overall student summaries add the present
+ * counts from the files of purged terms, and a student's record history and point-in-time queries read the
+ * purged records (with their record IDs, but without marking teacher and time) from the files.
+ * Decoded files are cached; they are immutable once the term is purged.
+ * Export and purge must not run inside a surrounding transaction.
+ */
+@Service
+public class AttendanceArchiveFileService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceArchiveFileService.class);
+
+    private static final String EXPORT_ROWS = "SELECT id, lecture_id, student_id, status FROM attendance_records_archive "
+            + "WHERE term_id = :termId ORDER BY lecture_id, student_id";
+
+    private static final String EXPORT_LECTURES = "SELECT id, subject_id, student_group_id, lecture_date FROM lectures "
+            + "WHERE id IN (SELECT lecture_id FROM attendance_records_archive WHERE term_id = :termId) ORDER BY id";
+
+    private static final String EXPORT_STUDENTS = "SELECT id, student_group_id, roll_number FROM students "
+            + "WHERE id IN (SELECT student_id FROM attendance_records_archive WHERE term_id = :termId) ORDER BY id";
+
+    // Lectures held per subject and student group within the term, counted like the live summaries do: stored
+    // lectures of materialized (or no) series here, virtual series occurrences by rule arithmetic
+    private static final String STORED_TOTALS = "SELECT l.subject_id, l.student_group_id, COUNT(*) AS lectures "
+            + "FROM lectures l LEFT JOIN lecture_series s ON s.id = l.series_id "
+            + "WHERE l.lecture_date BETWEEN :startDate AND :endDate AND (s.id IS NULL OR s.materialized = TRUE) "
+            + "GROUP BY l.subject_id, l.student_group_id";
+
+    private static final String VERIFY_COUNTS = "SELECT lecture_id, status, COUNT(*) AS records "
+            + "FROM attendance_records_archive WHERE term_id = :termId GROUP BY lecture_id, status";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AcademicTermRepository academicTermRepository;
+    private final LectureSeriesService lectureSeriesService; // Counts the virtual series occurrences of a term
+    private final TransactionTemplate readTransaction; // One consistent read of a term for the export
+    private final TransactionTemplate chunkTransaction;
+    private final Path directory;
+    private final int chunkSize;
+    private final Map<Long, AttendanceArchiveFile> files = new ConcurrentHashMap<>(); // Decoded files by term ID
+
+    public AttendanceArchiveFileService(NamedParameterJdbcTemplate jdbcTemplate,
+                                        AcademicTermRepository academicTermRepository,
+                                        LectureSeriesService lectureSeriesService,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.attendance.archive.directory:attendance-archive}") String directory,
+                                        @Value("${app.attendance.archive.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.academicTermRepository = academicTermRepository;
+        this.lectureSeriesService = lectureSeriesService;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.directory = Paths.get(directory);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes the archive file of an archived term, replacing an earlier export.
+     * @param termId The ID of the term.
+     * @return The number of records written.
+     * @throws ResourceNotFoundException if the term is not found.
+     * @throws InvalidOperationException if the term is not archived yet, or already purged.
+     */
+    public long exportTerm(Long termId) {
+        AcademicTerm term = getTerm(termId);
+        if (term.getArchivedAt() == null) {
+            throw new InvalidOperationException("Academic term '" + term.getName() + "' must be archived before it is exported.");
+        }
+        if (term.getPurgedAt() != null) {
+            throw new InvalidOperationException("Academic term '" + term.getName()
+                    + "' has been purged; its archive file can no longer be rewritten.");
+        }
+        Long rows;
+        try {
+            Files.createDirectories(directory);
+            // The file replaces the database rows once purged, so it is read from the primary, never a lagging replica
+            rows = ReadWriteRoutingDataSource.onPrimary(() -> readTransaction.execute(status -> writeFile(term)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the archive file of academic term " + termId, e);
+        }
+        files.remove(termId);
+        chunkTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE academic_terms SET exported_at = :now, exported_rows = :rows WHERE id = :termId",
+                new MapSqlParameterSource("termId", termId).addValue("rows", rows)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()))));
+        log.info("Exported {} attendance records of academic term {} to {}", rows, term.getName(), fileOf(termId));
+        return rows;
+    }
+
+    private long writeFile(AcademicTerm term) {
+        MapSqlParameterSource params = new MapSqlParameterSource("termId", term.getId())
+                .addValue("startDate", Date.valueOf(term.getStartDate()))
+                .addValue("endDate", Date.valueOf(term.getEndDate()));
+
+        List<AttendanceArchiveFile.Student> students = jdbcTemplate.query(EXPORT_STUDENTS, params,
+                (rs, rowNum) -> new AttendanceArchiveFile.Student(rs.getLong("id"), rs.getLong("student_group_id"),
+                        rs.getString("roll_number")));
+        Map<Long, Integer> studentOrdinals = new HashMap<>();
+        for (int i = 0; i < students.size(); i++) {
+            studentOrdinals.put(students.get(i).id(), i);
+        }
+
+        // Lectures held per (subject, group); the subject dictionary covers these and the lectures with records
+        Map<List<Long>, Long> heldLectures = new LinkedHashMap<>();
+        jdbcTemplate.query(STORED_TOTALS, params, rs -> {
+            heldLectures.merge(List.of(rs.getLong("subject_id"), rs.getLong("student_group_id")), rs.getLong("lectures"),
+                    Long::sum);
+        });
+        jdbcTemplate.getJdbcOperations().query(
+                "SELECT DISTINCT subject_id, student_group_id FROM lecture_series WHERE materialized = FALSE", rs -> {
+                    long subjectId = rs.getLong("subject_id");
+                    long groupId = rs.getLong("student_group_id");
+                    long virtual = lectureSeriesService.countVirtualLectures(subjectId, groupId, term.getEndDate())
+                            - lectureSeriesService.countVirtualLectures(subjectId, groupId, term.getStartDate().minusDays(1));
+                    if (virtual > 0) {
+                        heldLectures.merge(List.of(subjectId, groupId), virtual, Long::sum);
+                    }
+                });
+        List<long[]> lectureRows = jdbcTemplate.query(EXPORT_LECTURES, params, (rs, rowNum) -> new long[] {
+                rs.getLong("id"), rs.getLong("subject_id"), rs.getLong("student_group_id"),
+                rs.getDate("lecture_date").toLocalDate().toEpochDay() });
+        TreeSet<Long> subjectIds = new TreeSet<>();
+        heldLectures.keySet().forEach(key -> subjectIds.add(key.get(0)));
+        lectureRows.forEach(lecture -> subjectIds.add(lecture[1]));
+        List<AttendanceArchiveFile.Subject> subjects = subjectIds.isEmpty() ? List.of() : jdbcTemplate.query(
+                "SELECT id, code, name FROM subjects WHERE id IN (:ids) ORDER BY id",
+                new MapSqlParameterSource("ids", subjectIds), (rs, rowNum) -> new AttendanceArchiveFile.Subject(
+                        rs.getLong("id"), rs.getString("code"), rs.getString("name")));
+        Map<Long, Integer> subjectOrdinals = new HashMap<>();
+        for (int i = 0; i < subjects.size(); i++) {
+            subjectOrdinals.put(subjects.get(i).id(), i);
+        }
+        List<AttendanceArchiveFile.LectureTotal> totals = new ArrayList<>();
+        heldLectures.forEach((key, lectures) -> totals.add(new AttendanceArchiveFile.LectureTotal(
+                subjectOrdinals.get(key.get(0)), key.get(1), lectures)));
+
+        // The row columns; the rows come sorted by lecture and student
+        Map<Long, Integer> rowCounts = new HashMap<>();
+        int[][] ordinals = { new int[1024] };
+        AttendanceStatus[][] statuses = { new AttendanceStatus[1024] };
+        long[][] recordIds = { new long[1024] };
+        int[] rowCount = { 0 };
+        jdbcTemplate.query(EXPORT_ROWS, params, rs -> {
+            if (rowCount[0] == ordinals[0].length) {
+                ordinals[0] = Arrays.copyOf(ordinals[0], rowCount[0] * 2);
+                statuses[0] = Arrays.copyOf(statuses[0], rowCount[0] * 2);
+                recordIds[0] = Arrays.copyOf(recordIds[0], rowCount[0] * 2);
+            }
+            ordinals[0][rowCount[0]] = studentOrdinals.get(rs.getLong("student_id"));
+            statuses[0][rowCount[0]] = AttendanceStatus.valueOf(rs.getString("status"));
+            recordIds[0][rowCount[0]] = rs.getLong("id");
+            rowCount[0]++;
+            rowCounts.merge(rs.getLong("lecture_id"), 1, Integer::sum);
+        });
+        List<AttendanceArchiveFile.Lecture> lectures = new ArrayList<>(lectureRows.size());
+        for (long[] lecture : lectureRows) {
+            lectures.add(new AttendanceArchiveFile.Lecture(lecture[0], subjectOrdinals.get(lecture[1]), lecture[2],
+                    LocalDate.ofEpochDay(lecture[3]), rowCounts.getOrDefault(lecture[0], 0)));
+        }
+
+        try {
+            AttendanceArchiveFile.write(fileOf(term.getId()), term.getId(), subjects, students, lectures, totals,
+                    Arrays.copyOf(ordinals[0], rowCount[0]), Arrays.copyOf(statuses[0], rowCount[0]),
+                    Arrays.copyOf(recordIds[0], rowCount[0]));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the archive file of academic term " + term.getId(), e);
+        }
+        return rowCount[0];
+    }
+
+    /**
+     * Cross-checks the archive file of a term against its archived records: the file checksum, the record count
+     * recorded at export and, unless the term is purged, the number of records per lecture and status.
+     * @param termId The ID of the term.
+     * @return The verification report.
+     * @throws ResourceNotFoundException if the term is not found.
+     * @throws InvalidOperationException if the term has not been exported.
+     */
+    public ArchiveVerificationDTO verifyTerm(Long termId) {
+        AcademicTerm term = getTerm(termId);
+        if (term.getExportedAt() == null) {
+            throw new InvalidOperationException("Academic term '" + term.getName() + "' has not been exported.");
+        }
+        ArchiveVerificationDTO report = new ArchiveVerificationDTO();
+        report.setTermId(termId);
+        AttendanceArchiveFile file;
+        try {
+            file = AttendanceArchiveFile.read(fileOf(termId));
+        } catch (IOException e) {
+            log.warn("Archive file of academic term {} failed verification: {}", term.getName(), e.getMessage());
+            return report; // Not valid, not verified
+        }
+        report.setChecksumValid(file.getTermId() == termId);
+        report.setFileRows(file.getRowCount());
+
+        // Per-lecture status counts: [PRESENT, ABSENT, LEAVE] by lecture ID, file counts minus database counts
+        Map<Long, long[]> differences = new TreeMap<>();
+        file.forEachRow((lecture, student, status, recordId) -> differences.computeIfAbsent(lecture.id(),
+                id -> new long[AttendanceStatus.values().length])[status.ordinal()]++);
+        long[] databaseRows = { 0 };
+        jdbcTemplate.query(VERIFY_COUNTS, new MapSqlParameterSource("termId", termId), rs -> {
+            long records = rs.getLong("records");
+            databaseRows[0] += records;
+            differences.computeIfAbsent(rs.getLong("lecture_id"), id -> new long[AttendanceStatus.values().length])
+                    [AttendanceStatus.valueOf(rs.getString("status")).ordinal()] -= records;
+        });
+        report.setDatabaseRows(databaseRows[0]);
+        if (term.getPurgedAt() == null) {
+            differences.forEach((lectureId, counts) -> {
+                if (Arrays.stream(counts).anyMatch(count -> count != 0)) {
+                    report.getMismatchedLectureIds().add(lectureId);
+                }
+            });
+        }
+        report.setVerified(report.isChecksumValid()
+                && term.getExportedRows() != null && term.getExportedRows() == file.getRowCount()
+                && report.getMismatchedLectureIds().isEmpty()
+                && (term.getPurgedAt() != null || databaseRows[0] == file.getRowCount()));
+        return report;
+    }
+
+    /**
+     * Deletes the archived records of an exported term from the database, in chunks, after verifying its file.
+     * Lecture-level record reads no longer see the term's records afterwards; summaries, exports, a student's
+     * record history and point-in-time queries come from the file.
+     * @param termId The ID of the term.
+     * @return The number of records deleted.
+     * @throws ResourceNotFoundException if the term is not found.
+     * @throws InvalidOperationException if the term has not been exported or its file does not match the database.
+     */
+    public long purgeTerm(Long termId) {
+        ArchiveVerificationDTO report = verifyTerm(termId);
+        AcademicTerm term = getTerm(termId);
+        if (term.getPurgedAt() != null) {
+            throw new InvalidOperationException("Academic term '" + term.getName() + "' has already been purged.");
+        }
+        if (!report.isVerified()) {
+            throw new InvalidOperationException("The archive file of academic term '" + term.getName()
+                    + "' does not match the archived records; export it again before purging.");
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("termId", termId).addValue("limit", chunkSize);
+        long deleted = 0;
+        int chunk;
+        do {
+            Integer rows = chunkTransaction.execute(status -> jdbcTemplate.update("DELETE FROM attendance_records_archive "
+                    + "WHERE id IN (SELECT id FROM attendance_records_archive WHERE term_id = :termId LIMIT :limit)", params));
+            chunk = rows == null ? 0 : rows;
+            deleted += chunk;
+        } while (chunk == chunkSize);
+        chunkTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE academic_terms SET purged_at = :now WHERE id = :termId",
+                new MapSqlParameterSource("termId", termId).addValue("now", Timestamp.valueOf(LocalDateTime.now()))));
+        log.info("Purged {} archived attendance records of academic term {}", deleted, term.getName());
+        return deleted;
+    }
+
+    /**
+     * Calculates a student's attendance per subject within an exported term, from the term's archive file only.
+     * Lectures are counted for the student group the student was in at export time.
+     * @param termId The ID of the term.
+     * @param studentId The ID of the student.
+     * @return The summary per subject the student's group had lectures in.
+     * @throws ResourceNotFoundException if the term has no archive file, or the student has no records in it.
+     */
+    public List<StudentAttendanceSummaryDTO> getTermSummary(Long termId, Long studentId) {
+        AttendanceArchiveFile file = getFile(termId);
+        int student = file.findStudent(studentId);
+        if (student < 0) {
+            throw new ResourceNotFoundException("No archived attendance for student " + studentId + " in academic term "
+                    + termId);
+        }
+        long studentGroupId = file.getStudent(student).studentGroupId();
+        long[] attended = new long[file.getSubjectCount()]; // By subject ordinal
+        file.forEachRow((lecture, rowStudent, status, recordId) -> {
+            if (rowStudent == student && status == AttendanceStatus.PRESENT) {
+                attended[lecture.subject()]++;
+            }
+        });
+        List<StudentAttendanceSummaryDTO> summaries = new ArrayList<>();
+        for (AttendanceArchiveFile.LectureTotal total : file.getTotals()) {
+            if (total.studentGroupId() != studentGroupId) {
+                continue;
+            }
+            AttendanceArchiveFile.Subject subject = file.getSubject(total.subject());
+            long lecturesAttended = attended[total.subject()];
+            summaries.add(new StudentAttendanceSummaryDTO(subject.id(), subject.name(), subject.code(), total.lectures(),
+                    lecturesAttended, total.lectures() > 0 ? ((double) lecturesAttended / total.lectures()) * 100 : 0.0));
+        }
+        return summaries;
+    }
+
+    /**
+     * Loads the archive file of a term, so that a missing file is reported before a response starts streaming.
+     * @param termId The ID of the term.
+     * @throws ResourceNotFoundException if the term has no archive file.
+     */
+    public void requireArchiveFile(Long termId) {
+        getFile(termId);
+    }
+
+    /**
+     * Writes the records of an exported term as CSV (one row per record), from the term's archive file only.
+     * @param termId The ID of the term.
+     * @param out The writer to write to; not closed.
+     * @throws ResourceNotFoundException if the term has no archive file.
+     * @throws IOException if writing fails.
+     */
+    public void writeTermCsv(Long termId, Writer out) throws IOException {
+        AttendanceArchiveFile file = getFile(termId);
+        out.write("Lecture ID,Lecture date,Subject code,Roll number,Status\r\n");
+        StringBuilder line = new StringBuilder(64);
+        try {
+            file.forEachRow((lecture, student, status, recordId) -> {
+                line.setLength(0);
+                line.append(lecture.id()).append(',').append(lecture.date()).append(',')
+                        .append(csvField(file.getSubject(lecture.subject()).code())).append(',')
+                        .append(csvField(file.getStudent(student).rollNumber())).append(',')
+                        .append(status.name()).append("\r\n");
+                try {
+                    out.write(line.toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counts a student's present records per subject in the archive files of all purged terms.
+     * @param studentId The ID of the student.
+     * @return The number of present records by subject ID.
+     */
+    public Map<Long, Long> countPresentInPurgedTerms(Long studentId) {
+        Map<Long, Long> presentBySubject = new HashMap<>();
+        for (Long termId : getPurgedTermIds(null)) {
+            AttendanceArchiveFile file = getFile(termId);
+            int student = file.findStudent(studentId);
+            if (student < 0) {
+                continue;
+            }
+            file.forEachRow((lecture, rowStudent, status, recordId) -> {
+                if (rowStudent == student && status == AttendanceStatus.PRESENT) {
+                    presentBySubject.merge(file.getSubject(lecture.subject()).id(), 1L, Long::sum);
+                }
+            });
+        }
+        return presentBySubject;
+    }
+
+    /**
+     * Retrieves a student's records in the archive files of all purged terms, optionally within a date range.
+     * The records carry their lecture's subject, date and group; the marking teacher and time are not archived
+     * and left empty, as is the record ID of terms exported before the files stored record IDs.
+     * @param studentId The ID of the student.
+     * @param startDate (Optional) Start date of the range.
+     * @param endDate (Optional) End date of the range.
+     * @return The records, in term, lecture and student order.
+     */
+    public List<AttendanceRecordDTO> getPurgedRecords(Long studentId, LocalDate startDate, LocalDate endDate) {
+        List<AttendanceRecordDTO> records = new ArrayList<>();
+        for (Long termId : getPurgedTermIds(null)) {
+            AttendanceArchiveFile file = getFile(termId);
+            int student = file.findStudent(studentId);
+            if (student < 0) {
+                continue;
+            }
+            file.forEachRow((lecture, rowStudent, status, recordId) -> {
+                if (rowStudent != student || (startDate != null && lecture.date().isBefore(startDate))
+                        || (endDate != null && lecture.date().isAfter(endDate))) {
+                    return;
+                }
+                AttendanceArchiveFile.Subject subject = file.getSubject(lecture.subject());
+                LectureDTO lectureDTO = new LectureDTO();
+                lectureDTO.setId(lecture.id());
+                lectureDTO.setSubjectId(subject.id());
+                lectureDTO.setSubjectName(subject.name());
+                lectureDTO.setSubjectCode(subject.code());
+                lectureDTO.setLectureDate(lecture.date());
+                lectureDTO.setStudentGroupId(lecture.studentGroupId());
+                AttendanceRecordDTO record = new AttendanceRecordDTO();
+                record.setId(recordId != 0 ? recordId : null);
+                record.setLectureId(lecture.id());
+                record.setLecture(lectureDTO);
+                record.setStudentId(studentId);
+                record.setStatus(status);
+                records.add(record);
+            });
+        }
+        return records;
+    }
+
+    /**
+     * Retrieves the final status of a student's records in the archive files of purged terms.
+     * Records of files without record IDs are left out.
+     * @param studentId The ID of the student.
+     * @param archivedBy (Optional) Only terms archived at or before this moment; all purged terms if null.
+     * @return The status by record ID.
+     */
+    public Map<Long, AttendanceStatus> getPurgedStatuses(Long studentId, LocalDateTime archivedBy) {
+        Map<Long, AttendanceStatus> statuses = new HashMap<>();
+        for (Long termId : getPurgedTermIds(archivedBy)) {
+            AttendanceArchiveFile file = getFile(termId);
+            int student = file.findStudent(studentId);
+            if (student < 0) {
+                continue;
+            }
+            file.forEachRow((lecture, rowStudent, status, recordId) -> {
+                if (rowStudent == student && recordId != 0) {
+                    statuses.put(recordId, status);
+                }
+            });
+        }
+        return statuses;
+    }
+
+    private List<Long> getPurgedTermIds(LocalDateTime archivedBy) {
+        if (archivedBy == null) {
+            return jdbcTemplate.getJdbcOperations().queryForList(
+                    "SELECT id FROM academic_terms WHERE purged_at IS NOT NULL ORDER BY start_date, id", Long.class);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM academic_terms WHERE purged_at IS NOT NULL "
+                + "AND archived_at <= :archivedBy ORDER BY start_date, id",
+                new MapSqlParameterSource("archivedBy", Timestamp.valueOf(archivedBy)), Long.class);
+    }
+
+    private AttendanceArchiveFile getFile(Long termId) {
+        return files.computeIfAbsent(termId, id -> {
+            Path path = fileOf(id);
+            if (!Files.exists(path)) {
+                throw new ResourceNotFoundException("No archive file for academic term " + id);
+            }
+            try {
+                return AttendanceArchiveFile.read(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private AcademicTerm getTerm(Long termId) {
+        return academicTermRepository.findById(termId)
+                .orElseThrow(() -> new ResourceNotFoundException("Academic term not found with ID: " + termId));
+    }
+
+    private Path fileOf(Long termId) {
+        return directory.resolve("term-" + termId + ".atar");
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.model.AcademicTerm;
+import com.example.main.repository.AcademicTermRepository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service moving the attendance records of closed academic terms into attendance_records_archive.
+ * The live table then only holds open terms, so the per-student and per-lecture queries on it stay as fast as in
+ * the first term; reads that span terms (student history and summaries) add the archive.
+ * Records are moved in chunks of 'INSERT ... SELECT' plus 'DELETE' by ID, each chunk in its own short transaction,
+ * so a record is always in exactly one of the two tables. An interrupted run is finished by the next one.
+ * Callers must not run inside a surrounding transaction.
+ */
+@Service
+public class AttendanceArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceArchiveService.class);
+
+    // Next chunk of live records within the term, by lecture date
+    private static final String CHUNK_IDS = "SELECT r.id FROM attendance_records r JOIN lectures l ON l.id = r.lecture_id "
+            + "WHERE l.lecture_date BETWEEN :startDate AND :endDate ORDER BY r.id LIMIT :limit";
+
+    private static final String ARCHIVE_CHUNK = "INSERT INTO attendance_records_archive (id, lecture_id, student_id, "
+            + "status, marked_by_teacher_id, marking_timestamp, term_id, lecture_date) "
+            + "SELECT r.id, r.lecture_id, r.student_id, r.status, r.marked_by_teacher_id, r.marking_timestamp, :termId, "
+            + "l.lecture_date FROM attendance_records r JOIN lectures l ON l.id = r.lecture_id WHERE r.id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AcademicTermRepository academicTermRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public AttendanceArchiveService(NamedParameterJdbcTemplate jdbcTemplate, AcademicTermRepository academicTermRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.attendance.archive.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.academicTermRepository = academicTermRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Scheduled job archiving every closed term that still has records in the live table.
+     */
+    @Scheduled(cron = "${app.attendance.archive.cron:0 0 4 * * *}")
+    public void archiveClosedTerms() {
+        for (AcademicTerm term : academicTermRepository.findByClosedTrueAndArchivedAtIsNullOrderByStartDateAsc()) {
+            archive(term);
+        }
+    }
+
+    /**
+     * Moves the attendance records of a closed term into the archive.
+     * @param termId The ID of the term.
+     * @return The number of records moved.
+     * @throws ResourceNotFoundException if the term is not found.
+     * @throws InvalidOperationException if the term is not closed.
+     */
+    public long archiveTerm(Long termId) {
+        AcademicTerm term = academicTermRepository.findById(termId)
+                .orElseThrow(() -> new ResourceNotFoundException("Academic term not found with ID: " + termId));
+        if (!term.isClosed()) {
+            throw new InvalidOperationException("Academic term '" + term.getName() + "' must be closed before it is archived.");
+        }
+        return archive(term);
+    }
+
+    private long archive(AcademicTerm term) {
+        MapSqlParameterSource params = new MapSqlParameterSource("termId", term.getId())
+                .addValue("startDate", Date.valueOf(term.getStartDate()))
+                .addValue("endDate", Date.valueOf(term.getEndDate()))
+                .addValue("limit", chunkSize);
+        long moved = 0;
+        int chunk;
+        do {
+            Integer rows = chunkTransaction.execute(status -> moveChunk(params));
+            chunk = rows == null ? 0 : rows;
+            moved += chunk;
+        } while (chunk == chunkSize);
+        chunkTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE academic_terms SET archived_at = :now WHERE id = :termId",
+                new MapSqlParameterSource("termId", term.getId()).addValue("now", Timestamp.valueOf(LocalDateTime.now()))));
+        log.info("Archived {} attendance records of academic term {}", moved, term.getName());
+        return moved;
+    }
+
+    private int moveChunk(MapSqlParameterSource params) {
+        List<Long> ids = jdbcTemplate.queryForList(CHUNK_IDS, params, Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource chunk = new MapSqlParameterSource("ids", ids).addValue("termId", params.getValue("termId"));
+        jdbcTemplate.update(ARCHIVE_CHUNK, chunk);
+        jdbcTemplate.update("DELETE FROM attendance_records WHERE id IN (:ids)", chunk);
+        return ids.size();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.main.service;
+
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary format of the archived audit chunks (one chunk per student and month).
+ * The changes are sorted by record and time and stored as deltas: the record ID as a varint delta to the previous
+ * change, old status, new status and source packed into one byte, the changing user as a varint, and the time as a
+ * zig-zag varint delta in epoch milliseconds. The result is deflated. Times keep millisecond precision.
+ * Attendance snapshots (the statuses of all records of a student) use the same building blocks: one varint per
+ * record holding the record ID delta and the status code.
+ */
+final class AttendanceAuditCodec {
+
+    private static final int HAS_REASON = 0x80; // Flag bit of the packed byte: a length-prefixed reason follows
+
+    private AttendanceAuditCodec() {
+    }
+
+    /**
+     * Encodes the changes of one student.
+     * @param changes The changes, sorted by record ID and then by time.
+     * @return The deflated chunk.
+     */
+    static byte[] encode(List<AttendanceAuditService.Change> changes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(changes.size() * 4 + 16);
+        try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION))) {
+            writeVarLong(out, changes.size());
+            long previousRecord = 0;
+            long previousMillis = 0;
+            for (AttendanceAuditService.Change change : changes) {
+                long millis = change.changedAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+                writeVarLong(out, change.recordId() - previousRecord);
+                int packed = (change.oldStatus() != null ? change.oldStatus().getCode() : 0)
+                        | change.newStatus().getCode() << 2
+                        | change.source().getCode() << 4
+                        | (change.reason() != null ? HAS_REASON : 0);
+                out.write(packed);
+                writeVarLong(out, change.changedBy());
+                writeVarLong(out, zigZag(millis - previousMillis));
+                if (change.reason() != null) {
+                    byte[] reason = change.reason().getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(out, reason.length);
+                    out.write(reason);
+                }
+                previousRecord = change.recordId();
+                previousMillis = millis;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a chunk written by encode.
+     * @param studentId The student the chunk belongs to (not stored in the chunk itself).
+     * @param chunk The deflated chunk.
+     * @return The changes, in the order they were encoded.
+     */
+    static List<AttendanceAuditService.Change> decode(long studentId, byte[] chunk) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(chunk))) {
+            int count = (int) readVarLong(in);
+            List<AttendanceAuditService.Change> changes = new ArrayList<>(count);
+            long recordId = 0;
+            long millis = 0;
+            for (int i = 0; i < count; i++) {
+                recordId += readVarLong(in);
+                int packed = readByte(in);
+                long changedBy = readVarLong(in);
+                millis += unZigZag(readVarLong(in));
+                String reason = null;
+                if ((packed & HAS_REASON) != 0) {
+                    reason = new String(in.readNBytes((int) readVarLong(in)), StandardCharsets.UTF_8);
+                }
+                int oldCode = packed & 0x3;
+                changes.add(new AttendanceAuditService.Change(recordId, studentId,
+                        oldCode == 0 ? null : AttendanceStatus.fromCode(oldCode),
+                        AttendanceStatus.fromCode(packed >> 2 & 0x3),
+                        changedBy,
+                        AttendanceChangeSource.fromCode(packed >> 4 & 0x7),
+                        reason,
+                        LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC)));
+            }
+            return changes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt attendance audit archive chunk", e);
+        }
+    }
+
+    /**
+     * Encodes the record statuses of one student.
+     * @param statuses The status per record ID; iterated in ascending record ID order.
+     * @return The deflated snapshot.
+     */
+    static byte[] encodeStatuses(SortedMap<Long, AttendanceStatus> statuses) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(statuses.size() * 2 + 16);
+        try (OutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION))) {
+            writeVarLong(out, statuses.size());
+            long previousRecord = 0;
+            for (Map.Entry<Long, AttendanceStatus> entry : statuses.entrySet()) {
+                writeVarLong(out, (entry.getKey() - previousRecord) << 2 | entry.getValue().getCode());
+                previousRecord = entry.getKey();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a snapshot written by encodeStatuses.
+     * @param snapshot The deflated snapshot.
+     * @return The status per record ID.
+     */
+    static SortedMap<Long, AttendanceStatus> decodeStatuses(byte[] snapshot) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(snapshot))) {
+            long count = readVarLong(in);
+            SortedMap<Long, AttendanceStatus> statuses = new TreeMap<>();
+            long recordId = 0;
+            for (long i = 0; i < count; i++) {
+                long packed = readVarLong(in);
+                recordId += packed >>> 2;
+                statuses.put(recordId, AttendanceStatus.fromCode((int) (packed & 0x3)));
+            }
+            return statuses;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt attendance snapshot", e);
+        }
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new IOException("Unexpected end of chunk");
+        }
+        return b;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
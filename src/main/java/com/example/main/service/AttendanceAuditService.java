@@ -0,0 +1,344 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.dto.AttendanceChangeDTO;
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceStatus;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for the append-only attendance audit log.
+ * Every status change of an attendance record is stored as a compact delta (record, student, old/new status code,
+ * changing user, source code, time), written in one JDBC batch together with the change itself.
+ * History can be read per record, per student and per changing teacher.
+ * Months older than the retention period are compacted by a scheduled job into one deflated chunk per student and
+ * month (see AttendanceAuditCodec); history reads merge the live rows with the decoded chunks.
+ */
+@Service
+@Transactional
+public class AttendanceAuditService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceAuditService.class);
+
+    private static final String INSERT = "INSERT INTO attendance_audit (record_id, student_id, old_status, new_status, "
+            + "changed_by_user_id, source, reason, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_TYPES = { Types.BIGINT, Types.BIGINT, Types.SMALLINT, Types.SMALLINT,
+            Types.BIGINT, Types.SMALLINT, Types.VARCHAR, Types.TIMESTAMP };
+    private static final String COLUMNS = "record_id, student_id, old_status, new_status, changed_by_user_id, source, "
+            + "reason, changed_at";
+    private static final int ARCHIVE_BATCH_SIZE = 500; // Chunks inserted per JDBC batch during compaction
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate monthTransaction; // Each month is compacted in its own transaction
+    private final int retentionMonths;
+
+    public AttendanceAuditService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  @Value("${app.attendance.audit.retention-months:6}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthTransaction = new TransactionTemplate(transactionManager);
+        this.monthTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * One status change of an attendance record.
+     * @param oldStatus The status before the change, or null if the record was created by it.
+     * @param changedBy The ID of the teacher (or admin user) who made the change.
+     * @param reason An optional free-text reason (bulk corrections).
+     */
+    public record Change(long recordId, long studentId, AttendanceStatus oldStatus, AttendanceStatus newStatus,
+                         long changedBy, AttendanceChangeSource source, String reason, LocalDateTime changedAt) {
+    }
+
+    /**
+     * Appends changes to the audit log in one JDBC batch, in the caller's transaction.
+     * @param changes The changes; an empty list writes nothing.
+     */
+    public void recordChanges(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            rows.add(new Object[] { change.recordId(), change.studentId(),
+                    change.oldStatus() != null ? change.oldStatus().getCode() : null, change.newStatus().getCode(),
+                    change.changedBy(), change.source().getCode(), change.reason(), Timestamp.valueOf(change.changedAt()) });
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT, rows, INSERT_TYPES);
+    }
+
+    /**
+     * SQL expression mapping a status name column (as stored in attendance_records) to its audit status code.
+     * @param column The column, e.g. "r.status".
+     * @return A CASE expression.
+     */
+    static String statusCode(String column) {
+        StringBuilder sql = new StringBuilder("CASE ").append(column);
+        for (AttendanceStatus status : AttendanceStatus.values()) {
+            sql.append(" WHEN '").append(status.name()).append("' THEN ").append(status.getCode());
+        }
+        return sql.append(" END").toString();
+    }
+
+    /**
+     * Retrieves the full change history of an attendance record, oldest first.
+     * @param recordId The ID of the attendance record.
+     * @return A list of AttendanceChangeDTOs; empty if the record was never changed.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceChangeDTO> getRecordHistory(Long recordId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("recordId", recordId);
+        List<AttendanceChangeDTO> history = new ArrayList<>(jdbcTemplate.query("SELECT " + COLUMNS
+                + " FROM attendance_audit WHERE record_id = :recordId", params, (rs, rowNum) -> toDTO(change(rs), false)));
+        // Archived changes are filed under the record's student
+        List<Long> students = jdbcTemplate.queryForList("SELECT student_id FROM attendance_records WHERE id = :recordId "
+                + "UNION ALL SELECT student_id FROM attendance_records_archive WHERE id = :recordId", params, Long.class);
+        Long studentId = !students.isEmpty() ? students.get(0) : !history.isEmpty() ? history.get(0).getStudentId() : null;
+        if (studentId != null) {
+            for (Change change : archived("student_id = :studentId", new MapSqlParameterSource("studentId", studentId))) {
+                if (change.recordId() == recordId) {
+                    history.add(toDTO(change, true));
+                }
+            }
+        }
+        return sorted(history);
+    }
+
+    /**
+     * Retrieves the changes of a student's attendance records, oldest first.
+     * @param studentId The ID of the student.
+     * @param from (Optional) Only changes on or after this date.
+     * @param to (Optional) Only changes on or before this date.
+     * @return A list of AttendanceChangeDTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceChangeDTO> getStudentHistory(Long studentId, LocalDate from, LocalDate to) {
+        return history("student_id = :id", studentId, from, to);
+    }
+
+    /**
+     * Retrieves the changes made by a teacher (or admin user), oldest first.
+     * Archived months in the range are decoded in full, so a bounded date range is much cheaper.
+     * @param teacherId The ID of the teacher or admin user.
+     * @param from (Optional) Only changes on or after this date.
+     * @param to (Optional) Only changes on or before this date.
+     * @return A list of AttendanceChangeDTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceChangeDTO> getTeacherHistory(Long teacherId, LocalDate from, LocalDate to) {
+        return history("changed_by_user_id = :id", teacherId, from, to);
+    }
+
+    /**
+     * Retrieves the changes of a student's attendance records in a time range, live and archived.
+     * @param studentId The ID of the student.
+     * @param after Only changes after this moment (exclusive).
+     * @param until (Optional) Only changes up to this moment (inclusive).
+     * @return The changes, oldest first; changes with the same time keep the order they were written in.
+     */
+    List<Change> getStudentChanges(long studentId, LocalDateTime after, LocalDateTime until) {
+        MapSqlParameterSource params = new MapSqlParameterSource("studentId", studentId)
+                .addValue("after", Timestamp.valueOf(after))
+                .addValue("afterMonth", Date.valueOf(after.toLocalDate().withDayOfMonth(1)));
+        String range = "changed_at > :after";
+        String archiveRange = "month_start >= :afterMonth";
+        if (until != null) {
+            range += " AND changed_at <= :until";
+            archiveRange += " AND month_start <= :untilMonth";
+            params.addValue("until", Timestamp.valueOf(until))
+                    .addValue("untilMonth", Date.valueOf(until.toLocalDate().withDayOfMonth(1)));
+        }
+        List<Change> changes = new ArrayList<>();
+        for (Change change : archived("student_id = :studentId AND " + archiveRange, params)) {
+            if (change.changedAt().isAfter(after) && (until == null || !change.changedAt().isAfter(until))) {
+                changes.add(change);
+            }
+        }
+        changes.addAll(jdbcTemplate.query("SELECT " + COLUMNS + " FROM attendance_audit WHERE student_id = :studentId "
+                + "AND " + range + " ORDER BY changed_at, id", params, (rs, rowNum) -> change(rs)));
+        changes.sort(Comparator.comparing(Change::changedAt)); // Stable: archived rows stay before live ones
+        return changes;
+    }
+
+    /**
+     * Scheduled job compacting the audit rows of months older than the retention period.
+     */
+    @Scheduled(cron = "${app.attendance.audit.compaction-cron:0 30 2 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void compactAuditLog() {
+        compactBefore(YearMonth.now().minusMonths(retentionMonths));
+    }
+
+    /**
+     * Moves the live audit rows of every month before a given month into archive chunks, one month per
+     * transaction. Chunks that already exist for a student and month are merged with the new rows.
+     * Must not run inside a surrounding transaction.
+     * @param firstKeptMonth The oldest month whose rows stay in the live table.
+     * @return The number of audit rows compacted.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long compactBefore(YearMonth firstKeptMonth) {
+        LocalDateTime oldest = jdbcTemplate.getJdbcOperations().queryForObject(
+                "SELECT MIN(changed_at) FROM attendance_audit", LocalDateTime.class);
+        long compacted = 0;
+        for (YearMonth month = oldest != null ? YearMonth.from(oldest) : firstKeptMonth; month.isBefore(firstKeptMonth);
+             month = month.plusMonths(1)) {
+            YearMonth current = month;
+            Long rows = monthTransaction.execute(status -> compactMonth(current));
+            compacted += rows != null ? rows : 0;
+        }
+        if (compacted > 0) {
+            log.info("Compacted {} attendance audit rows before {}", compacted, firstKeptMonth);
+        }
+        return compacted;
+    }
+
+    private long compactMonth(YearMonth month) {
+        MapSqlParameterSource params = new MapSqlParameterSource("monthStart", Date.valueOf(month.atDay(1)))
+                .addValue("start", Timestamp.valueOf(month.atDay(1).atStartOfDay()))
+                .addValue("end", Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+        // Normally empty: only set if rows of an already compacted month appeared afterwards
+        Map<Long, byte[]> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT student_id, payload FROM attendance_audit_archive WHERE month_start = :monthStart",
+                params, rs -> {
+                    existing.put(rs.getLong("student_id"), rs.getBytes("payload"));
+                });
+
+        List<MapSqlParameterSource> inserts = new ArrayList<>();
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        List<Change> student = new ArrayList<>();
+        long[] rows = new long[1];
+        Runnable flushStudent = () -> {
+            long studentId = student.get(0).studentId();
+            byte[] previous = existing.get(studentId);
+            if (previous != null) {
+                student.addAll(AttendanceAuditCodec.decode(studentId, previous));
+                student.sort(Comparator.comparingLong(Change::recordId).thenComparing(Change::changedAt));
+            }
+            MapSqlParameterSource chunk = new MapSqlParameterSource("studentId", studentId)
+                    .addValue("monthStart", params.getValue("monthStart"))
+                    .addValue("rowCount", student.size())
+                    .addValue("payload", AttendanceAuditCodec.encode(student));
+            (previous != null ? updates : inserts).add(chunk);
+            student.clear();
+            if (inserts.size() >= ARCHIVE_BATCH_SIZE) {
+                insertChunks(inserts);
+            }
+        };
+        jdbcTemplate.query("SELECT " + COLUMNS + " FROM attendance_audit WHERE changed_at >= :start AND changed_at < :end "
+                + "ORDER BY student_id, record_id, changed_at, id", params, rs -> {
+                    Change change = change(rs);
+                    if (!student.isEmpty() && student.get(0).studentId() != change.studentId()) {
+                        flushStudent.run();
+                    }
+                    student.add(change);
+                    rows[0]++;
+                });
+        if (!student.isEmpty()) {
+            flushStudent.run();
+        }
+        insertChunks(inserts);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE attendance_audit_archive SET row_count = :rowCount, payload = :payload "
+                    + "WHERE student_id = :studentId AND month_start = :monthStart",
+                    updates.toArray(new MapSqlParameterSource[0]));
+        }
+        jdbcTemplate.update("DELETE FROM attendance_audit WHERE changed_at >= :start AND changed_at < :end", params);
+        return rows[0];
+    }
+
+    private void insertChunks(List<MapSqlParameterSource> chunks) {
+        if (!chunks.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO attendance_audit_archive (student_id, month_start, row_count, payload) "
+                    + "VALUES (:studentId, :monthStart, :rowCount, :payload)", chunks.toArray(new MapSqlParameterSource[0]));
+            chunks.clear();
+        }
+    }
+
+    private List<AttendanceChangeDTO> history(String condition, Long id, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        StringBuilder range = new StringBuilder();
+        StringBuilder archiveRange = new StringBuilder();
+        if (from != null) {
+            range.append(" AND changed_at >= :from");
+            archiveRange.append(" AND month_start >= :fromMonth");
+            params.addValue("from", Timestamp.valueOf(from.atStartOfDay()))
+                    .addValue("fromMonth", Date.valueOf(from.withDayOfMonth(1)));
+        }
+        if (to != null) {
+            range.append(" AND changed_at < :to");
+            archiveRange.append(" AND month_start <= :toMonth");
+            params.addValue("to", Timestamp.valueOf(to.plusDays(1).atStartOfDay()))
+                    .addValue("toMonth", Date.valueOf(to.withDayOfMonth(1)));
+        }
+        List<AttendanceChangeDTO> history = new ArrayList<>(jdbcTemplate.query("SELECT " + COLUMNS
+                + " FROM attendance_audit WHERE " + condition + range, params, (rs, rowNum) -> toDTO(change(rs), false)));
+
+        // Archive chunks are filed per student; by changing user, every chunk of the months in range is searched
+        boolean byStudent = condition.startsWith("student_id");
+        String chunks = (byStudent ? "student_id = :id" : "1 = 1") + archiveRange;
+        for (Change change : archived(chunks, params)) {
+            if ((byStudent || change.changedBy() == id)
+                    && (from == null || !change.changedAt().toLocalDate().isBefore(from))
+                    && (to == null || !change.changedAt().toLocalDate().isAfter(to))) {
+                history.add(toDTO(change, true));
+            }
+        }
+        return sorted(history);
+    }
+
+    private List<Change> archived(String condition, MapSqlParameterSource params) {
+        List<Change> changes = new ArrayList<>();
+        jdbcTemplate.query("SELECT student_id, payload FROM attendance_audit_archive WHERE " + condition, params, rs -> {
+            changes.addAll(AttendanceAuditCodec.decode(rs.getLong("student_id"), rs.getBytes("payload")));
+        });
+        return changes;
+    }
+
+    private static Change change(ResultSet rs) throws SQLException {
+        int oldStatus = rs.getInt("old_status");
+        AttendanceStatus old = rs.wasNull() ? null : AttendanceStatus.fromCode(oldStatus);
+        return new Change(rs.getLong("record_id"), rs.getLong("student_id"), old,
+                AttendanceStatus.fromCode(rs.getInt("new_status")), rs.getLong("changed_by_user_id"),
+                AttendanceChangeSource.fromCode(rs.getInt("source")), rs.getString("reason"),
+                rs.getTimestamp("changed_at").toLocalDateTime());
+    }
+
+    private static AttendanceChangeDTO toDTO(Change change, boolean archived) {
+        return new AttendanceChangeDTO(change.recordId(), change.studentId(), change.oldStatus(), change.newStatus(),
+                change.changedBy(), change.source(), change.reason(), change.changedAt(), archived);
+    }
+
+    private static List<AttendanceChangeDTO> sorted(List<AttendanceChangeDTO> history) {
+        return history.stream()
+                .sorted(Comparator.comparing(AttendanceChangeDTO::getChangedAt)
+                        .thenComparing(AttendanceChangeDTO::getRecordId))
+                .collect(Collectors.toList());
+    }
+}
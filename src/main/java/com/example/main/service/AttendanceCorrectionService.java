@@ -0,0 +1,161 @@
+package com.example.main.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.config.RecentWriteTracker;
+import com.example.main.dto.AttendanceCorrectionRequest;
+import com.example.main.dto.AttendanceCorrectionResultDTO;
+import com.example.main.event.AttendanceChangedEvent;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceEventType;
+import com.example.main.model.AttendanceStatus;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for correcting many attendance records at once.
+ * The records selected by a filter are locked with SELECT ... FOR UPDATE first. The audit rows, the outbox events
+ * and the UPDATE are then driven by the IDs of the locked records, in chunks and in the same transaction, so a
+ * record changed concurrently cannot be audited without being updated or the other way round, and the reported
+ * counts are those of the records actually changed.
+ * The marking teacher of corrected records is kept; the admin who made the correction is recorded in the audit.
+ */
+@Service
+@Transactional
+public class AttendanceCorrectionService {
+
+    private static final int ID_CHUNK = 1000; // Record IDs per statement, well below the bind parameter limits
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final RecentWriteTracker recentWriteTracker; // Pins reads of corrected lectures to the primary
+    private final ApplicationEventPublisher eventPublisher; // Change notifications for live attendance streams
+
+    public AttendanceCorrectionService(NamedParameterJdbcTemplate jdbcTemplate, RecentWriteTracker recentWriteTracker,
+                                       ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recentWriteTracker = recentWriteTracker;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Changes the status of all attendance records selected by a filter, or previews the change.
+     * Records that already have the target status are matched but not changed (nor audited).
+     * @param request The filter, the target status and an optional reason.
+     * @param userId The ID of the user making the correction (stored in the audit rows).
+     * @param preview If true, only counts the records that would change.
+     * @return An AttendanceCorrectionResultDTO with the affected counts.
+     * @throws InvalidOperationException if the filter selects neither lectures nor a student group, or the date range is invalid.
+     */
+    public AttendanceCorrectionResultDTO correctAttendance(AttendanceCorrectionRequest request, Long userId, boolean preview) {
+        MapSqlParameterSource params = new MapSqlParameterSource("targetStatus", request.getTargetStatus().name());
+        String filter = filter(request, params);
+
+        // Counts per status; also the lectures to pin to the primary afterwards
+        Map<AttendanceStatus, Integer> changedByStatus = new EnumMap<>(AttendanceStatus.class);
+        Set<Long> changedLectures = new HashSet<>();
+        int[] matched = new int[1];
+        if (preview) {
+            jdbcTemplate.query("SELECT r.lecture_id, r.status, COUNT(*) AS records FROM attendance_records r WHERE "
+                    + filter + " GROUP BY r.lecture_id, r.status", params, rs -> {
+                        AttendanceStatus status = AttendanceStatus.valueOf(rs.getString("status"));
+                        int records = rs.getInt("records");
+                        matched[0] += records;
+                        if (status != request.getTargetStatus()) {
+                            changedByStatus.merge(status, records, Integer::sum);
+                            changedLectures.add(rs.getLong("lecture_id"));
+                        }
+                    });
+            return new AttendanceCorrectionResultDTO(true, request.getTargetStatus(), changedLectures.size(),
+                    matched[0], changedByStatus.values().stream().mapToInt(Integer::intValue).sum(), changedByStatus);
+        }
+
+        // Locked in ID order, so concurrent corrections of overlapping records queue up instead of deadlocking
+        List<Long> changedIds = new ArrayList<>();
+        jdbcTemplate.query("SELECT r.id, r.lecture_id, r.status FROM attendance_records r WHERE " + filter
+                + " ORDER BY r.id FOR UPDATE", params, rs -> {
+                    AttendanceStatus status = AttendanceStatus.valueOf(rs.getString("status"));
+                    matched[0]++;
+                    if (status != request.getTargetStatus()) {
+                        changedIds.add(rs.getLong("id"));
+                        changedByStatus.merge(status, 1, Integer::sum);
+                        changedLectures.add(rs.getLong("lecture_id"));
+                    }
+                });
+
+        if (!changedIds.isEmpty()) {
+            MapSqlParameterSource changeParams = new MapSqlParameterSource("userId", userId)
+                    .addValue("targetStatus", request.getTargetStatus().name())
+                    .addValue("targetCode", request.getTargetStatus().getCode())
+                    .addValue("source", AttendanceChangeSource.BULK_CORRECTION.getCode())
+                    .addValue("reason", request.getReason())
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                    .addValue("eventType", AttendanceEventType.ATTENDANCE_UPDATED.getCode());
+            for (int i = 0; i < changedIds.size(); i += ID_CHUNK) {
+                changeParams.addValue("ids", changedIds.subList(i, Math.min(i + ID_CHUNK, changedIds.size())));
+                jdbcTemplate.update("INSERT INTO attendance_audit (record_id, student_id, old_status, new_status, "
+                        + "changed_by_user_id, source, reason, changed_at) "
+                        + "SELECT r.id, r.student_id, " + AttendanceAuditService.statusCode("r.status") + ", :targetCode, "
+                        + ":userId, :source, :reason, :now FROM attendance_records r WHERE r.id IN (:ids)", changeParams);
+                jdbcTemplate.update("INSERT INTO attendance_events (event_type, lecture_id, student_id, record_id, "
+                        + "status, occurred_at) SELECT :eventType, r.lecture_id, r.student_id, r.id, :targetCode, :now "
+                        + "FROM attendance_records r WHERE r.id IN (:ids) ORDER BY r.id", changeParams);
+                jdbcTemplate.update("UPDATE attendance_records SET status = :targetStatus, marking_timestamp = :now "
+                        + "WHERE id IN (:ids)", changeParams);
+            }
+            changedLectures.forEach(lectureId -> recentWriteTracker.recordWrite(AttendanceService.lectureKey(lectureId)));
+            eventPublisher.publishEvent(AttendanceChangedEvent.ofLectures(changedLectures));
+        }
+        return new AttendanceCorrectionResultDTO(false, request.getTargetStatus(), changedLectures.size(), matched[0],
+                changedIds.size(), changedByStatus);
+    }
+
+    private static String filter(AttendanceCorrectionRequest request, MapSqlParameterSource params) {
+        boolean hasLectures = request.getLectureIds() != null && !request.getLectureIds().isEmpty();
+        if (!hasLectures && request.getStudentGroupId() == null) {
+            throw new InvalidOperationException("A correction needs lecture IDs or a student group to select records.");
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new InvalidOperationException("End date cannot be before start date.");
+        }
+        List<String> lectureConditions = new ArrayList<>();
+        if (hasLectures) {
+            lectureConditions.add("l.id IN (:lectureIds)");
+            params.addValue("lectureIds", request.getLectureIds());
+        }
+        if (request.getStudentGroupId() != null) {
+            lectureConditions.add("l.student_group_id = :studentGroupId");
+            params.addValue("studentGroupId", request.getStudentGroupId());
+        }
+        if (request.getStartDate() != null) {
+            lectureConditions.add("l.lecture_date >= :startDate");
+            params.addValue("startDate", Date.valueOf(request.getStartDate()));
+        }
+        if (request.getEndDate() != null) {
+            lectureConditions.add("l.lecture_date <= :endDate");
+            params.addValue("endDate", Date.valueOf(request.getEndDate()));
+        }
+        // Closed terms are frozen; their records are left out rather than rejected
+        lectureConditions.add("NOT EXISTS (SELECT 1 FROM academic_terms t WHERE t.closed = TRUE "
+                + "AND l.lecture_date BETWEEN t.start_date AND t.end_date)");
+        String filter = "r.lecture_id IN (SELECT l.id FROM lectures l WHERE " + String.join(" AND ", lectureConditions) + ")";
+        if (request.getCurrentStatus() != null) {
+            filter += " AND r.status = :currentStatus";
+            params.addValue("currentStatus", request.getCurrentStatus().name());
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.main.service;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.model.AttendanceEventType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service writing attendance and lecture change events to the outbox table (attendance_events).
+ * Events are written in the caller's transaction, so an event exists if and only if its change was committed;
+ * the AttendanceEventRelayService delivers them afterwards.
+ */
+@Service
+@Transactional
+public class AttendanceEventOutboxService {
+
+    // The lecture of a record event is looked up from the record, which the same transaction has just written
+    private static final String INSERT_RECORD_EVENT = "INSERT INTO attendance_events (event_type, lecture_id, "
+            + "student_id, record_id, status, occurred_at) "
+            + "SELECT :type, r.lecture_id, :studentId, :recordId, :status, :occurredAt FROM attendance_records r "
+            + "WHERE r.id = :recordId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AttendanceEventOutboxService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Writes an event per attendance change: ATTENDANCE_MARKED for new records, ATTENDANCE_UPDATED otherwise.
+     * @param changes The changes, as recorded in the audit log.
+     */
+    public void recordAttendanceChanges(List<AttendanceAuditService.Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource[] rows = new MapSqlParameterSource[changes.size()];
+        for (int i = 0; i < rows.length; i++) {
+            AttendanceAuditService.Change change = changes.get(i);
+            AttendanceEventType type = change.oldStatus() == null
+                    ? AttendanceEventType.ATTENDANCE_MARKED
+                    : AttendanceEventType.ATTENDANCE_UPDATED;
+            rows[i] = new MapSqlParameterSource("type", type.getCode())
+                    .addValue("studentId", change.studentId())
+                    .addValue("recordId", change.recordId())
+                    .addValue("status", change.newStatus().getCode())
+                    .addValue("occurredAt", Timestamp.valueOf(change.changedAt()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_RECORD_EVENT, rows);
+    }
+
+    /**
+     * Writes a lecture event.
+     * @param type LECTURE_SCHEDULED, LECTURE_UPDATED or LECTURE_DELETED.
+     * @param lectureId The ID of the lecture.
+     */
+    public void recordLectureEvent(AttendanceEventType type, Long lectureId) {
+        jdbcTemplate.update("INSERT INTO attendance_events (event_type, lecture_id, occurred_at) "
+                + "VALUES (:type, :lectureId, :occurredAt)", new MapSqlParameterSource("type", type.getCode())
+                .addValue("lectureId", lectureId)
+                .addValue("occurredAt", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Writes one lecture event per lecture selected by a query, for set-based writes that do not load the lectures.
+     * Deletions must be recorded before the rows are deleted, insertions after they are inserted.
+     * @param type LECTURE_SCHEDULED, LECTURE_UPDATED or LECTURE_DELETED.
+     * @param lectureIdQuery A query selecting the IDs of the lectures, in a column named 'id'.
+     * @param params The parameters of the query.
+     * @return The number of events written.
+     */
+    public int recordLectureEvents(AttendanceEventType type, String lectureIdQuery, MapSqlParameterSource params) {
+        MapSqlParameterSource eventParams = new MapSqlParameterSource(params.getValues())
+                .addValue("eventType", type.getCode())
+                .addValue("occurredAt", Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.update("INSERT INTO attendance_events (event_type, lecture_id, occurred_at) "
+                + "SELECT :eventType, l.id, :occurredAt FROM (" + lectureIdQuery + ") l", eventParams);
+    }
+}
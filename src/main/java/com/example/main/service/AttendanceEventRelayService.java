@@ -0,0 +1,140 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.dto.AttendanceEventDTO;
+import com.example.main.model.AttendanceEventType;
+import com.example.main.model.AttendanceStatus;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service relaying the outbox events (attendance_events) to every AttendanceEventSink, in batches.
+ * Each batch is read in ID order and locked, offered to all sinks, and stamped as published in the same
+ * transaction. If any sink fails, the batch stays unpublished and the run stops, so no later event overtakes it:
+ * delivery is at-least-once (sinks that accepted the failed batch get it again) and in ID order, which keeps the
+ * events of each student in order. Events are only picked up once they are a few moments old, so that a change
+ * committing slightly after a later-numbered one is still relayed before it. Callers must not run inside a
+ * surrounding transaction.
+ */
+@Service
+public class AttendanceEventRelayService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceEventRelayService.class);
+
+    private static final String NEXT_BATCH = "SELECT id, event_type, lecture_id, student_id, record_id, status, "
+            + "occurred_at FROM attendance_events WHERE published_at IS NULL AND occurred_at <= :settled "
+            + "ORDER BY id LIMIT :limit FOR UPDATE";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final List<AttendanceEventSink> sinks;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+    private final Duration settle; // Minimum age of an event before it is relayed
+    private final int retentionDays;
+
+    public AttendanceEventRelayService(NamedParameterJdbcTemplate jdbcTemplate, List<AttendanceEventSink> sinks,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.events.relay.batch-size:500}") int batchSize,
+                                       @Value("${app.events.relay.settle-millis:2000}") long settleMillis,
+                                       @Value("${app.events.retention-days:7}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sinks = sinks;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.settle = Duration.ofMillis(settleMillis);
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Scheduled job relaying the outbox (see relay).
+     */
+    @Scheduled(fixedDelayString = "${app.events.relay.interval-millis:5000}")
+    public void relayScheduled() {
+        relay();
+    }
+
+    /**
+     * Relays the settled events of the outbox, batch by batch, until it is drained or a sink fails.
+     * @return The number of events published.
+     */
+    public int relay() {
+        int published = 0;
+        int batch;
+        do {
+            try {
+                Integer events = batchTransaction.execute(status -> relayBatch());
+                batch = events == null ? 0 : events;
+            } catch (SinkFailedException e) {
+                log.warn("Attendance event relay stopped: {} failed; the batch is retried on the next run",
+                        e.getMessage(), e.getCause());
+                break;
+            }
+            published += batch;
+        } while (batch == batchSize);
+        return published;
+    }
+
+    private int relayBatch() {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", batchSize)
+                .addValue("settled", Timestamp.valueOf(LocalDateTime.now().minus(settle)));
+        List<AttendanceEventDTO> events = jdbcTemplate.query(NEXT_BATCH, params, (rs, rowNum) -> {
+            long studentId = rs.getLong("student_id");
+            boolean recordEvent = !rs.wasNull();
+            return new AttendanceEventDTO(rs.getLong("id"),
+                    AttendanceEventType.fromCode(rs.getInt("event_type")),
+                    rs.getLong("lecture_id"),
+                    recordEvent ? studentId : null,
+                    recordEvent ? rs.getLong("record_id") : null,
+                    recordEvent ? AttendanceStatus.fromCode(rs.getInt("status")) : null,
+                    rs.getTimestamp("occurred_at").toLocalDateTime());
+        });
+        if (events.isEmpty()) {
+            return 0;
+        }
+        for (AttendanceEventSink sink : sinks) {
+            try {
+                sink.publish(events);
+            } catch (IOException | RuntimeException e) {
+                throw new SinkFailedException(sink.getName(), e); // Rolls back: the batch stays unpublished
+            }
+        }
+        jdbcTemplate.update("UPDATE attendance_events SET published_at = :now WHERE id IN (:ids)",
+                new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now()))
+                        .addValue("ids", events.stream().map(AttendanceEventDTO::getId).collect(Collectors.toList())));
+        return events.size();
+    }
+
+    /**
+     * Scheduled job deleting published events older than the retention period.
+     */
+    @Scheduled(cron = "${app.events.cleanup-cron:0 45 3 * * *}")
+    public void deletePublishedEvents() {
+        int deleted = jdbcTemplate.update("DELETE FROM attendance_events WHERE published_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays))));
+        if (deleted > 0) {
+            log.info("Deleted {} published attendance events", deleted);
+        }
+    }
+
+    private static final class SinkFailedException extends RuntimeException {
+        SinkFailedException(String sink, Throwable cause) {
+            super(sink, cause);
+        }
+    }
+}
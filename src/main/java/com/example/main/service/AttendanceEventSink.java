@@ -0,0 +1,26 @@
+package com.example.main.service;
+
+import com.example.main.dto.AttendanceEventDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the events relayed from the attendance event outbox.
+ * A sink accepts a whole batch or throws; a failed batch is offered again (to all sinks) on the next relay run,
+ * so sinks and their consumers must tolerate duplicates, identified by the event ID.
+ */
+public interface AttendanceEventSink {
+
+    /**
+     * @return A short name of the sink for log messages.
+     */
+    String getName();
+
+    /**
+     * Delivers a batch of events.
+     * @param events The events, in outbox ID order.
+     * @throws IOException if the batch could not be delivered.
+     */
+    void publish(List<AttendanceEventDTO> events) throws IOException;
+}
@@ -0,0 +1,269 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.example.main.model.AttendanceStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Monthly attendance register of a subject and student group: a student x lecture matrix of marks.
+ * The cells live in one row-major byte array (0 = not marked, otherwise the AttendanceStatus ordinal + 1), and the
+ * per-student and per-lecture totals in int arrays that are counted while the matrix is filled.
+ * The register is written out as a compact JSON document or a CSV grid with a totals column per status and a
+ * totals row per status. Occurrences of virtual series that are not stored yet are columns without a lecture ID.
+ */
+public final class AttendanceRegister {
+
+    private static final AttendanceStatus[] STATUSES = AttendanceStatus.values();
+    private static final char UNMARKED = '-'; // Symbol of an unmarked cell in the JSON marks string
+
+    private final Long subjectId;
+    private final Long studentGroupId;
+    private final YearMonth month;
+    private final long[] lectureIds; // 0 for a not yet stored occurrence of a virtual series
+    private final LocalDate[] lectureDates;
+    private final LocalTime[] startTimes;
+    private final long[] studentIds;
+    private final String[] rollNumbers;
+    private final String[] studentNames;
+    private final byte[] cells; // [student * lectureCount + lecture]
+    private final int[] studentTotals; // [student * STATUSES.length + status ordinal]
+    private final int[] lectureTotals; // [lecture * STATUSES.length + status ordinal]
+
+    private AttendanceRegister(Long subjectId, Long studentGroupId, YearMonth month, Builder builder) {
+        this.subjectId = subjectId;
+        this.studentGroupId = studentGroupId;
+        this.month = month;
+        this.lectureIds = Arrays.copyOf(builder.lectureIds, builder.lectures);
+        this.lectureDates = Arrays.copyOf(builder.lectureDates, builder.lectures);
+        this.startTimes = Arrays.copyOf(builder.startTimes, builder.lectures);
+        this.studentIds = Arrays.copyOf(builder.studentIds, builder.students);
+        this.rollNumbers = Arrays.copyOf(builder.rollNumbers, builder.students);
+        this.studentNames = Arrays.copyOf(builder.studentNames, builder.students);
+        this.cells = Arrays.copyOf(builder.cells, builder.cellCount);
+        this.studentTotals = Arrays.copyOf(builder.studentTotals, builder.students * STATUSES.length);
+        this.lectureTotals = Arrays.copyOf(builder.lectureTotals, builder.lectures * STATUSES.length);
+    }
+
+    public int getLectureCount() {
+        return lectureIds.length;
+    }
+
+    public int getStudentCount() {
+        return studentIds.length;
+    }
+
+    /**
+     * @param student The row (student) index.
+     * @param lecture The column (lecture) index.
+     * @return The mark of the student in the lecture, or null if not marked.
+     */
+    public AttendanceStatus getStatus(int student, int lecture) {
+        byte cell = cells[student * lectureIds.length + lecture];
+        return cell == 0 ? null : STATUSES[cell - 1];
+    }
+
+    public int getStudentTotal(int student, AttendanceStatus status) {
+        return studentTotals[student * STATUSES.length + status.ordinal()];
+    }
+
+    public int getLectureTotal(int lecture, AttendanceStatus status) {
+        return lectureTotals[lecture * STATUSES.length + status.ordinal()];
+    }
+
+    /**
+     * Writes the register as a CSV grid: one row per student with a column per lecture ("P", "A", "L" or empty)
+     * and a total column per status, followed by a total row per status.
+     * @param out The writer to write to; not closed.
+     * @throws IOException if writing fails.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write("Roll number,Student");
+        for (int lecture = 0; lecture < lectureIds.length; lecture++) {
+            out.write(',');
+            out.write(lectureDates[lecture] + " " + startTimes[lecture]);
+        }
+        for (AttendanceStatus status : STATUSES) {
+            out.write(',');
+            out.write(label(status));
+        }
+        out.write("\r\n");
+
+        for (int student = 0; student < studentIds.length; student++) {
+            out.write(csvField(rollNumbers[student]));
+            out.write(',');
+            out.write(csvField(studentNames[student]));
+            int row = student * lectureIds.length;
+            for (int lecture = 0; lecture < lectureIds.length; lecture++) {
+                out.write(',');
+                byte cell = cells[row + lecture];
+                if (cell != 0) {
+                    out.write(STATUSES[cell - 1].getSymbol());
+                }
+            }
+            for (AttendanceStatus status : STATUSES) {
+                out.write(',');
+                out.write(Integer.toString(getStudentTotal(student, status)));
+            }
+            out.write("\r\n");
+        }
+
+        for (AttendanceStatus status : STATUSES) {
+            out.write(label(status));
+            out.write(',');
+            for (int lecture = 0; lecture < lectureIds.length; lecture++) {
+                out.write(',');
+                out.write(Integer.toString(getLectureTotal(lecture, status)));
+            }
+            out.write(",".repeat(STATUSES.length));
+            out.write("\r\n");
+        }
+    }
+
+    /**
+     * Writes the register as a compact JSON document. The marks of a student are one string with a character per
+     * lecture, in column order ("P", "A", "L" or "-" when not marked).
+     * @param json The generator to write to; flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public void writeJson(JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("subjectId", subjectId);
+        json.writeNumberField("studentGroupId", studentGroupId);
+        json.writeStringField("month", month.toString());
+
+        json.writeArrayFieldStart("lectures");
+        for (int lecture = 0; lecture < lectureIds.length; lecture++) {
+            json.writeStartObject();
+            if (lectureIds[lecture] == 0) {
+                json.writeNullField("id");
+            } else {
+                json.writeNumberField("id", lectureIds[lecture]);
+            }
+            json.writeStringField("date", lectureDates[lecture].toString());
+            json.writeStringField("startTime", startTimes[lecture].toString());
+            writeTotals(json, lectureTotals, lecture);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("students");
+        char[] marks = new char[lectureIds.length];
+        for (int student = 0; student < studentIds.length; student++) {
+            int row = student * lectureIds.length;
+            for (int lecture = 0; lecture < marks.length; lecture++) {
+                byte cell = cells[row + lecture];
+                marks[lecture] = cell == 0 ? UNMARKED : STATUSES[cell - 1].getSymbol();
+            }
+            json.writeStartObject();
+            json.writeNumberField("id", studentIds[student]);
+            json.writeStringField("rollNumber", rollNumbers[student]);
+            json.writeStringField("name", studentNames[student]);
+            json.writeStringField("marks", new String(marks));
+            writeTotals(json, studentTotals, student);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private static void writeTotals(JsonGenerator json, int[] totals, int index) throws IOException {
+        for (AttendanceStatus status : STATUSES) {
+            json.writeNumberField(status.name().toLowerCase(Locale.ROOT), totals[index * STATUSES.length + status.ordinal()]);
+        }
+    }
+
+    private static String label(AttendanceStatus status) {
+        String name = status.name();
+        return name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Fills a register from the rows of a (student x lecture) query ordered by student, then by lecture, so that
+     * every student's block lists the same lectures in the same order.
+     */
+    static final class Builder {
+
+        private long[] lectureIds = new long[16];
+        private LocalDate[] lectureDates = new LocalDate[16];
+        private LocalTime[] startTimes = new LocalTime[16];
+        private int lectures;
+        private long[] studentIds = new long[64];
+        private String[] rollNumbers = new String[64];
+        private String[] studentNames = new String[64];
+        private int students;
+        private byte[] cells = new byte[1024];
+        private int cellCount;
+        private int[] studentTotals = new int[64 * STATUSES.length];
+        private int[] lectureTotals = new int[16 * STATUSES.length];
+        private int column; // Position within the current student's block
+
+        /**
+         * Adds one cell.
+         * @param lectureId The ID of the lecture, or 0 for a not yet stored occurrence of a virtual series.
+         * @param status The mark, or null if the student has not been marked for the lecture.
+         */
+        void add(long studentId, String rollNumber, String studentName, long lectureId, LocalDate lectureDate,
+                 LocalTime startTime, AttendanceStatus status) {
+            if (students == 0 || studentIds[students - 1] != studentId) {
+                if (students == studentIds.length) {
+                    studentIds = Arrays.copyOf(studentIds, students * 2);
+                    rollNumbers = Arrays.copyOf(rollNumbers, students * 2);
+                    studentNames = Arrays.copyOf(studentNames, students * 2);
+                    studentTotals = Arrays.copyOf(studentTotals, students * 2 * STATUSES.length);
+                }
+                studentIds[students] = studentId;
+                rollNumbers[students] = rollNumber;
+                studentNames[students] = studentName;
+                students++;
+                column = 0;
+            }
+            if (students == 1) {
+                // The first student's block defines the columns
+                if (lectures == lectureIds.length) {
+                    lectureIds = Arrays.copyOf(lectureIds, lectures * 2);
+                    lectureDates = Arrays.copyOf(lectureDates, lectures * 2);
+                    startTimes = Arrays.copyOf(startTimes, lectures * 2);
+                    lectureTotals = Arrays.copyOf(lectureTotals, lectures * 2 * STATUSES.length);
+                }
+                lectureIds[lectures] = lectureId;
+                lectureDates[lectures] = lectureDate;
+                startTimes[lectures] = startTime;
+                lectures++;
+            }
+            if (cellCount == cells.length) {
+                cells = Arrays.copyOf(cells, cellCount * 2);
+            }
+            if (status == null) {
+                cells[cellCount++] = 0;
+            } else {
+                cells[cellCount++] = (byte) (status.ordinal() + 1);
+                studentTotals[(students - 1) * STATUSES.length + status.ordinal()]++;
+                lectureTotals[column * STATUSES.length + status.ordinal()]++;
+            }
+            column++;
+        }
+
+        AttendanceRegister build(Long subjectId, Long studentGroupId, YearMonth month) {
+            return new AttendanceRegister(subjectId, studentGroupId, month, this);
+        }
+    }
+}
@@ -1,30 +1,55 @@
 package com.example.main.service;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.main.config.ReadWriteRoutingDataSource;
+import com.example.main.config.RecentWriteTracker;
 import com.example.main.dto.AttendanceRecordDTO;
 import com.example.main.dto.BulkMarkAttendanceRequest;
+import com.example.main.dto.LeaveRequest;
+import com.example.main.dto.LeaveResultDTO;
+import com.example.main.dto.LectureDTO;
+import com.example.main.dto.MarkingSheetDTO;
+import com.example.main.dto.MarkingSheetEntryDTO;
 import com.example.main.dto.MarkAttendanceRequest;
 import com.example.main.dto.OverallStudentAttendanceDTO;
 import com.example.main.dto.StudentAttendanceSummaryDTO;
 import com.example.main.dto.UserDTO;
+import com.example.main.event.AttendanceChangedEvent;
 import com.example.main.exception.InvalidOperationException;
 import com.example.main.exception.ResourceNotFoundException;
 import com.example.main.mapper.AttendanceRecordMapper;
+import com.example.main.model.ArchivedAttendanceRecord;
+import com.example.main.model.AttendanceChangeSource;
 import com.example.main.model.AttendanceRecord;
 import com.example.main.model.AttendanceStatus;
 import com.example.main.model.Lecture;
 import com.example.main.model.Student;
 import com.example.main.model.Subject; // Ensure this imports the Subject entity
 import com.example.main.model.Teacher;
+import com.example.main.repository.ArchivedAttendanceRecordRepository;
 import com.example.main.repository.AttendanceRecordRepository;
 
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 // import java.time.LocalDateTime; // No longer needed for direct parameter passing
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -35,56 +60,159 @@ import java.util.stream.Collectors;
 @Transactional
 public class AttendanceService {
 
+    // Lecture header of the marking sheet, with the names the LectureMapper would load lazily
+    private static final String SHEET_HEADER = "SELECT l.id, l.series_id, l.lecture_date, l.start_time, l.end_time, "
+            + "l.room_number, l.subject_id, sub.name AS subject_name, sub.code AS subject_code, l.teacher_id, "
+            + "u.first_name, u.last_name, l.student_group_id, g.name AS group_name "
+            + "FROM lectures l JOIN subjects sub ON sub.id = l.subject_id JOIN teachers t ON t.id = l.teacher_id "
+            + "JOIN users u ON u.id = t.user_id JOIN student_groups g ON g.id = l.student_group_id "
+            + "WHERE l.id = :lectureId";
+
+    // Roster merged with the marks: the lecture's group, plus students marked before they moved to another group.
+    // '%1$s' takes the records table (see recordsTable)
+    private static final String SHEET_ROSTER = "SELECT s.id, s.roll_number, u.first_name, u.last_name, a.id AS record_id, "
+            + "a.status, a.marked_by_teacher_id, a.marking_timestamp "
+            + "FROM students s JOIN users u ON u.id = s.user_id "
+            + "LEFT JOIN %1$s a ON a.lecture_id = :lectureId AND a.student_id = s.id "
+            + "WHERE s.student_group_id = :groupId "
+            + "OR s.id IN (SELECT r.student_id FROM %1$s r WHERE r.lecture_id = :lectureId) "
+            + "ORDER BY s.roll_number";
+
+    // Register cells: every lecture of the month crossed with the group's students (plus students marked in those
+    // lectures before they moved to another group), ordered by student, then by lecture. '%1$s' as in SHEET_ROSTER;
+    // '%2$s' takes the not yet stored occurrences of virtual series (REGISTER_VIRTUAL_COLUMN each), which have no ID
+    private static final String REGISTER_CELLS = "SELECT s.id AS student_id, s.roll_number, u.first_name, u.last_name, "
+            + "l.id AS lecture_id, l.lecture_date, l.start_time, a.status "
+            + "FROM (SELECT id, lecture_date, start_time, series_id FROM lectures WHERE subject_id = :subjectId "
+            + "AND student_group_id = :groupId AND lecture_date BETWEEN :fromDate AND :toDate%2$s) l "
+            + "CROSS JOIN students s JOIN users u ON u.id = s.user_id "
+            + "LEFT JOIN %1$s a ON a.lecture_id = l.id AND a.student_id = s.id "
+            + "WHERE s.student_group_id = :groupId OR s.id IN (SELECT r.student_id FROM %1$s r "
+            + "JOIN lectures rl ON rl.id = r.lecture_id WHERE rl.subject_id = :subjectId "
+            + "AND rl.student_group_id = :groupId AND rl.lecture_date BETWEEN :fromDate AND :toDate) "
+            + "ORDER BY s.roll_number, s.id, l.lecture_date, l.start_time, l.id, l.series_id";
+
+    // One virtual occurrence column of REGISTER_CELLS; '%1$d' numbers its parameters
+    private static final String REGISTER_VIRTUAL_COLUMN = " UNION ALL SELECT CAST(NULL AS BIGINT), "
+            + "CAST(:virtualDate%1$d AS DATE), CAST(:virtualTime%1$d AS TIME), CAST(:virtualSeries%1$d AS BIGINT)";
+
+    // Live and archived records, for dates in closed terms whose records may be partly archived already
+    private static final String ALL_RECORDS = "(SELECT id, lecture_id, student_id, status, marked_by_teacher_id, "
+            + "marking_timestamp FROM attendance_records UNION ALL SELECT id, lecture_id, student_id, status, "
+            + "marked_by_teacher_id, marking_timestamp FROM attendance_records_archive)";
+
+    private static final int MAX_LEAVE_DAYS = 366; // Longest date range a single leave application may cover
+
+    // Lectures a leave applies to; '%s' takes the optional subject filter
+    private static final String LEAVE_LECTURES = "l.student_group_id = :groupId "
+            + "AND l.lecture_date BETWEEN :fromDate AND :toDate%s";
+
+    // Upserts LEAVE for the student in every matching lecture. Leave applied by an admin is recorded as marked by
+    // the lecture's teacher; marks that already are LEAVE are left untouched
+    private static final String LEAVE_MERGE = "MERGE INTO attendance_records r "
+            + "USING (SELECT l.id AS lecture_id, l.teacher_id FROM lectures l WHERE " + LEAVE_LECTURES + ") src "
+            + "ON (r.lecture_id = src.lecture_id AND r.student_id = :studentId) "
+            + "WHEN MATCHED AND r.status <> 'LEAVE' THEN UPDATE SET status = 'LEAVE', "
+            + "marked_by_teacher_id = COALESCE(CAST(:teacherId AS BIGINT), src.teacher_id), marking_timestamp = :now "
+            + "WHEN NOT MATCHED THEN INSERT (lecture_id, student_id, status, marked_by_teacher_id, marking_timestamp) "
+            + "VALUES (src.lecture_id, :studentId, 'LEAVE', COALESCE(CAST(:teacherId AS BIGINT), src.teacher_id), :now)";
+
     private final AttendanceRecordRepository attendanceRecordRepository;
     private final LectureService lectureService;
     private final StudentService studentService;
     private final TeacherService teacherService;
-    private final SubjectService subjectService; // Now configured to provide Subject entities when needed
+    private final EnrollmentService enrollmentService; // Provides the subjects a student group is enrolled in
     private final AttendanceRecordMapper attendanceRecordMapper;
+    private final RecentWriteTracker recentWriteTracker; // Pins reads of freshly marked lectures to the primary
+    private final LectureSeriesService lectureSeriesService; // Virtual lecture occurrences
+    private final NamedParameterJdbcTemplate jdbcTemplate; // Marking sheet reads
+    private final AttendanceAuditService attendanceAuditService; // Append-only log of status changes
+    private final AttendanceSnapshotService attendanceSnapshotService; // Point-in-time reconstruction
+    private final ArchivedAttendanceRecordRepository archivedAttendanceRecordRepository; // Records of closed terms
+    private final AcademicTermService academicTermService; // Closed terms are frozen and may be archived
+    private final AttendanceArchiveFileService attendanceArchiveFileService; // Attendance of purged terms
+    private final AttendanceEventOutboxService attendanceEventOutboxService; // Change events for external consumers
+    private final ApplicationEventPublisher eventPublisher; // Change notifications for live attendance streams
 
     public AttendanceService(AttendanceRecordRepository attendanceRecordRepository,
                              LectureService lectureService,
                              StudentService studentService,
                              TeacherService teacherService,
-                             SubjectService subjectService,
-                             AttendanceRecordMapper attendanceRecordMapper) {
+                             EnrollmentService enrollmentService,
+                             AttendanceRecordMapper attendanceRecordMapper,
+                             RecentWriteTracker recentWriteTracker,
+                             LectureSeriesService lectureSeriesService,
+                             NamedParameterJdbcTemplate jdbcTemplate,
+                             AttendanceAuditService attendanceAuditService,
+                             AttendanceSnapshotService attendanceSnapshotService,
+                             ArchivedAttendanceRecordRepository archivedAttendanceRecordRepository,
+                             AcademicTermService academicTermService,
+                             AttendanceArchiveFileService attendanceArchiveFileService,
+                             AttendanceEventOutboxService attendanceEventOutboxService,
+                             ApplicationEventPublisher eventPublisher) {
         this.attendanceRecordRepository = attendanceRecordRepository;
         this.lectureService = lectureService;
         this.studentService = studentService;
         this.teacherService = teacherService;
-        this.subjectService = subjectService;
+        this.enrollmentService = enrollmentService;
         this.attendanceRecordMapper = attendanceRecordMapper;
+        this.recentWriteTracker = recentWriteTracker;
+        this.lectureSeriesService = lectureSeriesService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.attendanceAuditService = attendanceAuditService;
+        this.attendanceSnapshotService = attendanceSnapshotService;
+        this.archivedAttendanceRecordRepository = archivedAttendanceRecordRepository;
+        this.academicTermService = academicTermService;
+        this.attendanceArchiveFileService = attendanceArchiveFileService;
+        this.attendanceEventOutboxService = attendanceEventOutboxService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Marks attendance for multiple students in a specific lecture.
      * This is typically used by a teacher for a class.
-     * @param request The DTO containing lecture ID and a list of student attendance statuses.
+     * A virtual occurrence of a lecture series (given by series ID and date) is stored as a Lecture first.
+     * @param request The DTO containing the lecture (or series occurrence) and a list of student attendance statuses.
      * @param teacherId The ID of the teacher marking attendance (for audit trail).
      * @return A list of AttendanceRecordDTOs of the marked records.
      * @throws ResourceNotFoundException if lecture, student, or teacher is not found.
-     * @throws InvalidOperationException if the lecture date is in the future.
+     * @throws InvalidOperationException if the lecture date is in the future or no lecture is given.
      */
     public List<AttendanceRecordDTO> markBulkAttendance(BulkMarkAttendanceRequest request, Long teacherId) {
-        Lecture lecture = lectureService.getLectureEntityById(request.getLectureId());
         Teacher markedByTeacher = teacherService.getTeacherEntityById(teacherId);
+        Lecture lecture;
+        if (request.getLectureId() != null) {
+            lecture = lectureService.getLectureEntityById(request.getLectureId());
+        } else if (request.getSeriesId() != null && request.getOccurrenceDate() != null) {
+            // Checked before materializing, so future occurrences are never stored by a rejected request
+            if (request.getOccurrenceDate().isAfter(LocalDate.now())) {
+                throw new InvalidOperationException("Cannot mark attendance for a future lecture.");
+            }
+            lecture = lectureSeriesService.materializeOccurrence(request.getSeriesId(), request.getOccurrenceDate());
+        } else {
+            throw new InvalidOperationException("Either a lecture ID or a series ID with an occurrence date is required.");
+        }
 
         // Ensure attendance is not marked for future lectures
         if (lecture.getLectureDate().isAfter(LocalDate.now())) {
             throw new InvalidOperationException("Cannot mark attendance for a future lecture.");
         }
+        academicTermService.requireOpen(lecture.getLectureDate(), lecture.getLectureDate());
 
         List<AttendanceRecordDTO> markedRecords = new ArrayList<>();
+        List<AttendanceAuditService.Change> changes = new ArrayList<>();
 
         for (MarkAttendanceRequest markRequest : request.getAttendanceRecords()) {
             Student student = studentService.getStudentEntityById(markRequest.getStudentId());
 
             Optional<AttendanceRecord> existingRecordOptional = attendanceRecordRepository.findByLectureAndStudent(lecture, student);
             AttendanceRecord attendanceRecord;
+            AttendanceStatus previousStatus = null;
 
             if (existingRecordOptional.isPresent()) {
                 // Update existing record
                 attendanceRecord = existingRecordOptional.get();
+                previousStatus = attendanceRecord.getStatus();
                 attendanceRecord.setStatus(markRequest.getStatus());
                 attendanceRecord.setMarkingTimestamp(java.time.LocalDateTime.now()); // Keep LocalDateTime here if appropriate for marking timestamp
                 attendanceRecord.setMarkedByTeacher(markedByTeacher); // Update who marked it if it changed
@@ -99,10 +227,116 @@ public class AttendanceService {
             }
             AttendanceRecord savedRecord = attendanceRecordRepository.save(attendanceRecord);
             markedRecords.add(attendanceRecordMapper.toAttendanceRecordDTO(savedRecord));
+            if (previousStatus != savedRecord.getStatus()) { // Re-submitting an unchanged mark is not audited
+                changes.add(new AttendanceAuditService.Change(savedRecord.getId(), student.getId(), previousStatus,
+                        savedRecord.getStatus(), teacherId, AttendanceChangeSource.MARK, null,
+                        savedRecord.getMarkingTimestamp()));
+            }
         }
+        attendanceAuditService.recordChanges(changes);
+        attendanceEventOutboxService.recordAttendanceChanges(changes);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(AttendanceChangedEvent.ofLecture(lecture.getId(), changes));
+        }
+        recentWriteTracker.recordWrite(lectureKey(lecture.getId()));
         return markedRecords;
     }
 
+    /**
+     * Applies leave to a student for every lecture of their group within a date range, optionally limited to
+     * some subjects: unmarked lectures get a LEAVE record and existing marks are changed to LEAVE.
+     * Occurrences of virtual series in the range are stored first, then all records are upserted by a single
+     * MERGE statement. Future lectures are included, so leave can be applied in advance.
+     * @param request The student, date range and optional subjects.
+     * @param teacherId The ID of the teacher applying the leave, or null for an admin (the lecture's teacher is
+     *                  then recorded as the marking teacher).
+     * @param changedByUserId The ID of the user applying the leave, recorded in the audit log.
+     * @return A LeaveResultDTO with the affected counts.
+     * @throws ResourceNotFoundException if the student or teacher is not found.
+     * @throws InvalidOperationException if the date range is invalid or the student has no student group.
+     */
+    public LeaveResultDTO applyLeave(LeaveRequest request, Long teacherId, Long changedByUserId) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new InvalidOperationException("End date cannot be before start date.");
+        }
+        if (ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) >= MAX_LEAVE_DAYS) {
+            throw new InvalidOperationException("A leave application can cover at most " + MAX_LEAVE_DAYS + " days.");
+        }
+        academicTermService.requireOpen(request.getStartDate(), request.getEndDate());
+        Student student = studentService.getStudentEntityById(request.getStudentId());
+        if (student.getStudentGroup() == null) {
+            throw new InvalidOperationException("Student " + student.getId() + " is not assigned to a student group.");
+        }
+        if (teacherId != null) {
+            teacherService.getTeacherEntityById(teacherId);
+        }
+        Long groupId = student.getStudentGroup().getId();
+        List<Long> subjectIds = request.getSubjectIds() != null && !request.getSubjectIds().isEmpty()
+                ? request.getSubjectIds() : null;
+
+        // Virtual occurrences have no lecture row to hold a record yet
+        int materialized = 0;
+        for (LectureDTO occurrence : lectureSeriesService.getVirtualOccurrencesByStudentGroup(groupId, null)) {
+            if (!occurrence.getLectureDate().isBefore(request.getStartDate())
+                    && !occurrence.getLectureDate().isAfter(request.getEndDate())
+                    && (subjectIds == null || subjectIds.contains(occurrence.getSubjectId()))) {
+                lectureSeriesService.materializeOccurrence(occurrence.getSeriesId(), occurrence.getLectureDate());
+                materialized++;
+            }
+        }
+
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource("groupId", groupId)
+                .addValue("studentId", student.getId())
+                .addValue("teacherId", teacherId, Types.BIGINT)
+                .addValue("fromDate", Date.valueOf(request.getStartDate()))
+                .addValue("toDate", Date.valueOf(request.getEndDate()))
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("subjectIds", subjectIds);
+        String subjectFilter = subjectIds != null ? " AND l.subject_id IN (:subjectIds)" : "";
+
+        // Current marks of the matching lectures, for the counts, the audit log and the read-your-writes tracker
+        List<Long> lectureIds = new ArrayList<>();
+        List<Long> createdLectureIds = new ArrayList<>();
+        List<AttendanceAuditService.Change> changes = new ArrayList<>();
+        int[] counts = new int[3]; // created, updated, unchanged
+        jdbcTemplate.query("SELECT l.id, a.id AS record_id, a.status FROM lectures l LEFT JOIN attendance_records a "
+                + "ON a.lecture_id = l.id AND a.student_id = :studentId WHERE " + String.format(LEAVE_LECTURES, subjectFilter),
+                params, rs -> {
+                    lectureIds.add(rs.getLong("id"));
+                    String status = rs.getString("status");
+                    if (status == null) {
+                        createdLectureIds.add(rs.getLong("id"));
+                        counts[0]++;
+                    } else if (AttendanceStatus.LEAVE.name().equals(status)) {
+                        counts[2]++;
+                    } else {
+                        changes.add(new AttendanceAuditService.Change(rs.getLong("record_id"), student.getId(),
+                                AttendanceStatus.valueOf(status), AttendanceStatus.LEAVE, changedByUserId,
+                                AttendanceChangeSource.LEAVE, null, now));
+                        counts[1]++;
+                    }
+                });
+        jdbcTemplate.update(String.format(LEAVE_MERGE, subjectFilter), params);
+        if (!createdLectureIds.isEmpty()) {
+            jdbcTemplate.query("SELECT id FROM attendance_records WHERE student_id = :studentId "
+                    + "AND lecture_id IN (:lectureIds)",
+                    new MapSqlParameterSource("studentId", student.getId()).addValue("lectureIds", createdLectureIds),
+                    rs -> {
+                        changes.add(new AttendanceAuditService.Change(rs.getLong("id"), student.getId(), null,
+                                AttendanceStatus.LEAVE, changedByUserId, AttendanceChangeSource.LEAVE, null, now));
+                    });
+        }
+        attendanceAuditService.recordChanges(changes);
+        attendanceEventOutboxService.recordAttendanceChanges(changes);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(AttendanceChangedEvent.ofLectures(new HashSet<>(lectureIds)));
+        }
+        lectureIds.forEach(lectureId -> recentWriteTracker.recordWrite(lectureKey(lectureId)));
+        return new LeaveResultDTO(student.getId(), request.getStartDate(), request.getEndDate(), lectureIds.size(),
+                counts[0], counts[1], counts[2], materialized);
+    }
+
     /**
      * Updates a single attendance record.
      * This can be used for correcting a mistake by a teacher.
@@ -118,6 +352,8 @@ public class AttendanceService {
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found with ID: " + recordId));
 
         Teacher teacher = teacherService.getTeacherEntityById(teacherId);
+        LocalDate lectureDate = existingRecord.getLecture().getLectureDate();
+        academicTermService.requireOpen(lectureDate, lectureDate);
 
         // Optional: Implement a grace period for modifications, e.g., 24 hours after lecture or marking
         // For example:
@@ -126,83 +362,307 @@ public class AttendanceService {
         //      throw new InvalidOperationException("Attendance record can no longer be modified.");
         // }
 
+        AttendanceStatus previousStatus = existingRecord.getStatus();
         existingRecord.setStatus(updatedStatus);
         existingRecord.setMarkingTimestamp(java.time.LocalDateTime.now()); // Update timestamp of last modification
         existingRecord.setMarkedByTeacher(teacher); // Update who modified it
 
         AttendanceRecord savedRecord = attendanceRecordRepository.save(existingRecord);
+        if (previousStatus != updatedStatus) {
+            List<AttendanceAuditService.Change> changes = List.of(new AttendanceAuditService.Change(recordId,
+                    savedRecord.getStudent().getId(), previousStatus, updatedStatus, teacherId,
+                    AttendanceChangeSource.UPDATE, null, savedRecord.getMarkingTimestamp()));
+            attendanceAuditService.recordChanges(changes);
+            attendanceEventOutboxService.recordAttendanceChanges(changes);
+            eventPublisher.publishEvent(AttendanceChangedEvent.ofLecture(savedRecord.getLecture().getId(), changes));
+        }
+        recentWriteTracker.recordWrite(lectureKey(savedRecord.getLecture().getId()));
         return attendanceRecordMapper.toAttendanceRecordDTO(savedRecord);
     }
 
     /**
      * Retrieves all attendance records for a specific lecture.
+     * Lectures marked within the read-your-writes window are read from the primary, so a teacher
+     * never sees the sheet they just submitted without their changes.
      * @param lectureId The ID of the lecture.
      * @return A list of AttendanceRecordDTOs for the lecture.
      * @throws ResourceNotFoundException if the lecture is not found.
      */
+    @Transactional(readOnly = true)
     public List<AttendanceRecordDTO> getAttendanceByLecture(Long lectureId) {
+        if (recentWriteTracker.wasRecentlyWritten(lectureKey(lectureId))) {
+            return ReadWriteRoutingDataSource.onPrimary(() -> findAttendanceByLecture(lectureId));
+        }
+        return findAttendanceByLecture(lectureId);
+    }
+
+    private List<AttendanceRecordDTO> findAttendanceByLecture(Long lectureId) {
         Lecture lecture = lectureService.getLectureEntityById(lectureId);
-        return attendanceRecordRepository.findByLecture(lecture).stream()
+        List<AttendanceRecordDTO> records = attendanceRecordRepository.findByLecture(lecture).stream()
                 .map(attendanceRecordMapper::toAttendanceRecordDTO)
                 .collect(Collectors.toList());
+        if (academicTermService.hasClosedTerm(lecture.getLectureDate(), lecture.getLectureDate())) {
+            archivedAttendanceRecordRepository.findByLecture(lecture).stream()
+                    .map(attendanceRecordMapper::toAttendanceRecordDTO)
+                    .forEach(records::add);
+        }
+        return records;
+    }
+
+    /**
+     * Retrieves the marking sheet of a lecture: the lecture header and its roster, ordered by roll number,
+     * merged with the existing marks. Built from two SQL statements instead of the lazy loads of the mappers.
+     * Read from the primary within the read-your-writes window, like getAttendanceByLecture.
+     * @param lectureId The ID of the lecture.
+     * @return The MarkingSheetDTO.
+     * @throws ResourceNotFoundException if the lecture is not found.
+     */
+    @Transactional(readOnly = true)
+    public MarkingSheetDTO getMarkingSheet(Long lectureId) {
+        if (recentWriteTracker.wasRecentlyWritten(lectureKey(lectureId))) {
+            return ReadWriteRoutingDataSource.onPrimary(() -> loadMarkingSheet(lectureId));
+        }
+        return loadMarkingSheet(lectureId);
+    }
+
+    private MarkingSheetDTO loadMarkingSheet(Long lectureId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("lectureId", lectureId);
+        List<LectureDTO> headers = jdbcTemplate.query(SHEET_HEADER, params, (rs, rowNum) -> {
+            LectureDTO lecture = new LectureDTO();
+            lecture.setId(rs.getLong("id"));
+            long seriesId = rs.getLong("series_id");
+            lecture.setSeriesId(rs.wasNull() ? null : seriesId);
+            lecture.setLectureDate(rs.getDate("lecture_date").toLocalDate());
+            lecture.setStartTime(rs.getTime("start_time").toLocalTime());
+            lecture.setEndTime(rs.getTime("end_time").toLocalTime());
+            lecture.setRoomNumber(rs.getString("room_number"));
+            lecture.setSubjectId(rs.getLong("subject_id"));
+            lecture.setSubjectName(rs.getString("subject_name"));
+            lecture.setSubjectCode(rs.getString("subject_code"));
+            lecture.setTeacherId(rs.getLong("teacher_id"));
+            lecture.setTeacherName(rs.getString("first_name") + " " + rs.getString("last_name"));
+            lecture.setStudentGroupId(rs.getLong("student_group_id"));
+            lecture.setStudentGroupName(rs.getString("group_name"));
+            return lecture;
+        });
+        if (headers.isEmpty()) {
+            throw new ResourceNotFoundException("Lecture not found with ID: " + lectureId);
+        }
+        LectureDTO lecture = headers.get(0);
+
+        params.addValue("groupId", lecture.getStudentGroupId());
+        String records = recordsTable(lecture.getLectureDate(), lecture.getLectureDate());
+        List<MarkingSheetEntryDTO> roster = jdbcTemplate.query(String.format(SHEET_ROSTER, records), params, (rs, rowNum) -> {
+            long recordId = rs.getLong("record_id");
+            boolean marked = !rs.wasNull();
+            return new MarkingSheetEntryDTO(
+                    rs.getLong("id"),
+                    rs.getString("roll_number"),
+                    rs.getString("first_name") + " " + rs.getString("last_name"),
+                    marked ? recordId : null,
+                    marked ? AttendanceStatus.valueOf(rs.getString("status")) : null,
+                    marked ? rs.getLong("marked_by_teacher_id") : null,
+                    marked ? rs.getTimestamp("marking_timestamp").toLocalDateTime() : null);
+        });
+        int markedCount = (int) roster.stream().filter(entry -> entry.getRecordId() != null).count();
+        return new MarkingSheetDTO(lecture, roster, markedCount);
+    }
+
+    /**
+     * Builds the monthly attendance register of a subject for a student group: students as rows, the month's
+     * lectures as columns, with totals per student and per lecture. Filled from a single query.
+     * The not yet stored occurrences of virtual series are columns too, with nothing marked, so the register has as
+     * many lectures as the attendance summary counts. Unknown subject or group IDs yield an empty register.
+     * @param subjectId The ID of the subject.
+     * @param studentGroupId The ID of the student group.
+     * @param month The month.
+     * @return The AttendanceRegister.
+     */
+    @Transactional(readOnly = true)
+    public AttendanceRegister getAttendanceRegister(Long subjectId, Long studentGroupId, YearMonth month) {
+        MapSqlParameterSource params = new MapSqlParameterSource("subjectId", subjectId)
+                .addValue("groupId", studentGroupId)
+                .addValue("fromDate", Date.valueOf(month.atDay(1)))
+                .addValue("toDate", Date.valueOf(month.atEndOfMonth()));
+        StringBuilder virtualColumns = new StringBuilder();
+        int column = 0;
+        for (LectureDTO occurrence : lectureSeriesService.getVirtualOccurrencesByStudentGroup(studentGroupId,
+                month.atDay(1), month.atEndOfMonth())) {
+            if (occurrence.getSubjectId().equals(subjectId)) {
+                virtualColumns.append(String.format(REGISTER_VIRTUAL_COLUMN, column));
+                params.addValue("virtualDate" + column, Date.valueOf(occurrence.getLectureDate()))
+                        .addValue("virtualTime" + column, Time.valueOf(occurrence.getStartTime()))
+                        .addValue("virtualSeries" + column, occurrence.getSeriesId());
+                column++;
+            }
+        }
+        AttendanceRegister.Builder register = new AttendanceRegister.Builder();
+        jdbcTemplate.query(String.format(REGISTER_CELLS, recordsTable(month.atDay(1), month.atEndOfMonth()),
+                virtualColumns), params, rs -> {
+            String status = rs.getString("status");
+            register.add(rs.getLong("student_id"), rs.getString("roll_number"),
+                    rs.getString("first_name") + " " + rs.getString("last_name"), rs.getLong("lecture_id"),
+                    rs.getDate("lecture_date").toLocalDate(), rs.getTime("start_time").toLocalTime(),
+                    status != null ? AttendanceStatus.valueOf(status) : null);
+        });
+        return register.build(subjectId, studentGroupId, month);
     }
 
     /**
      * Retrieves all attendance records for a specific student, optionally within a date range.
+     * Archived records of closed terms are included, those of purged terms from their archive files (without
+     * marking teacher and time).
      * @param studentId The ID of the student.
      * @param startDate (Optional) Start date for the report.
      * @param endDate (Optional) End date for the report.
      * @return A list of AttendanceRecordDTOs for the student.
      * @throws ResourceNotFoundException if the student is not found.
      */
+    @Transactional(readOnly = true)
     public List<AttendanceRecordDTO> getAttendanceByStudent(Long studentId, LocalDate startDate, LocalDate endDate) {
         Student student = studentService.getStudentEntityById(studentId);
         List<AttendanceRecord> records;
+        List<ArchivedAttendanceRecord> archivedRecords; // Records of closed terms, listed first
 
         if (startDate != null && endDate != null) {
             // FIX: Pass LocalDate directly to the repository method
             records = attendanceRecordRepository.findByStudentAndLectureDateBetween(
                     student, startDate, endDate); // Changed from startDate.atStartOfDay(), endDate.atTime(23, 59, 59)
+            archivedRecords = archivedAttendanceRecordRepository.findByStudentAndLectureDateBetween(
+                    student, startDate, endDate);
         } else {
             records = attendanceRecordRepository.findByStudent(student);
+            archivedRecords = archivedAttendanceRecordRepository.findByStudent(student);
         }
-        return records.stream()
+        // Purged terms are the oldest, then the archived ones, then the live records
+        List<AttendanceRecordDTO> recordDTOs = attendanceArchiveFileService.getPurgedRecords(studentId, startDate, endDate);
+        archivedRecords.stream()
                 .map(attendanceRecordMapper::toAttendanceRecordDTO)
-                .collect(Collectors.toList());
+                .forEach(recordDTOs::add);
+        records.stream()
+                .map(attendanceRecordMapper::toAttendanceRecordDTO)
+                .forEach(recordDTOs::add);
+        return recordDTOs;
+    }
+
+    /**
+     * Retrieves the attendance records of a student as they were at a past moment, reconstructed from the audit
+     * log. Records created after that moment are left out and changed records get their status at that moment;
+     * the marking teacher and timestamp of a record marked again since are unknown and left empty.
+     * Records of purged terms exported without record IDs cannot be replayed and keep their final status.
+     * @param studentId The ID of the student.
+     * @param startDate (Optional) Start date for the report.
+     * @param endDate (Optional) End date for the report.
+     * @param asOf The moment to reconstruct.
+     * @return A list of AttendanceRecordDTOs for the student.
+     * @throws ResourceNotFoundException if the student is not found.
+     * @throws InvalidOperationException if the moment is in the future.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceRecordDTO> getAttendanceByStudentAsOf(Long studentId, LocalDate startDate, LocalDate endDate,
+                                                                java.time.LocalDateTime asOf) {
+        validateAsOf(asOf);
+        List<AttendanceRecordDTO> records = getAttendanceByStudent(studentId, startDate, endDate);
+        SortedMap<Long, AttendanceStatus> statuses = attendanceSnapshotService.getStatusesAsOf(studentId, asOf);
+        List<AttendanceRecordDTO> recordsAsOf = new ArrayList<>();
+        for (AttendanceRecordDTO record : records) {
+            if (record.getId() == null) {
+                recordsAsOf.add(record);
+                continue;
+            }
+            AttendanceStatus status = statuses.get(record.getId());
+            if (status == null) {
+                continue;
+            }
+            if (record.getMarkingTimestamp() != null && record.getMarkingTimestamp().isAfter(asOf)) {
+                record.setStatus(status);
+                record.setMarkedByTeacherId(null);
+                record.setMarkedByTeacherName(null);
+                record.setMarkingTimestamp(null);
+            }
+            recordsAsOf.add(record);
+        }
+        return recordsAsOf;
     }
 
     /**
      * Calculates the overall attendance summary for a specific student.
+     * Only subjects the student's current group is enrolled in are included. Present records of purged terms are
+     * counted from their archive files.
      * @param studentId The ID of the student.
      * @return OverallStudentAttendanceDTO containing summary per subject and overall percentage.
      * @throws ResourceNotFoundException if the student is not found.
      */
+    @Transactional(readOnly = true)
     public OverallStudentAttendanceDTO getStudentOverallAttendanceSummary(Long studentId) {
         Student student = studentService.getStudentEntityById(studentId);
+        Map<Long, Long> presentInPurgedTerms = attendanceArchiveFileService.countPresentInPurgedTerms(studentId);
+        return buildSummary(student, LocalDate.now(),
+                subjectId -> attendanceRecordRepository.countPresentByStudentAndSubject(studentId, subjectId)
+                        + archivedAttendanceRecordRepository.countPresentByStudentAndSubject(studentId, subjectId)
+                        + presentInPurgedTerms.getOrDefault(subjectId, 0L));
+    }
 
-        // FIX: Now calling getAllSubjectEntities() which returns List<Subject>
-        List<Subject> subjectsStudentIsEnrolledIn = subjectService.getAllSubjectEntities().stream()
-                .filter(subject -> {
-                    // Line 189: 'subject' is now a Subject entity, so getDepartment() is valid
-                    return subject.getDepartment() != null && subject.getDepartment().getId().equals(student.getDepartment().getId());
-                })
-                .collect(Collectors.toList());
-        // Line 183: The type mismatch error is resolved because subjectsStudentIsEnrolledIn is correctly List<Subject>
+    /**
+     * Calculates the overall attendance summary of a student as it was at a past moment: the marks are
+     * reconstructed from the audit log and only lectures up to that date are counted. Records of purged terms are
+     * read from their archive files.
+     * The student's current group and its enrollments are used, as group changes are not historized.
+     * @param studentId The ID of the student.
+     * @param asOf The moment to reconstruct.
+     * @return OverallStudentAttendanceDTO containing summary per subject and overall percentage.
+     * @throws ResourceNotFoundException if the student is not found.
+     * @throws InvalidOperationException if the moment is in the future.
+     */
+    @Transactional(readOnly = true)
+    public OverallStudentAttendanceDTO getStudentOverallAttendanceSummaryAsOf(Long studentId, java.time.LocalDateTime asOf) {
+        validateAsOf(asOf);
+        Student student = studentService.getStudentEntityById(studentId);
+        SortedMap<Long, AttendanceStatus> statuses = attendanceSnapshotService.getStatusesAsOf(studentId, asOf);
+        Map<Long, Long> presentBySubject = new HashMap<>();
+        jdbcTemplate.query("SELECT r.id, l.subject_id FROM attendance_records r JOIN lectures l ON l.id = r.lecture_id "
+                + "WHERE r.student_id = :studentId UNION ALL SELECT r.id, l.subject_id FROM attendance_records_archive r "
+                + "JOIN lectures l ON l.id = r.lecture_id WHERE r.student_id = :studentId",
+                new MapSqlParameterSource("studentId", studentId), rs -> {
+                    if (statuses.get(rs.getLong("id")) == AttendanceStatus.PRESENT) {
+                        presentBySubject.merge(rs.getLong("subject_id"), 1L, Long::sum);
+                    }
+                });
+        for (AttendanceRecordDTO record : attendanceArchiveFileService.getPurgedRecords(studentId, null, null)) {
+            if (record.getId() != null && statuses.get(record.getId()) == AttendanceStatus.PRESENT) {
+                presentBySubject.merge(record.getLecture().getSubjectId(), 1L, Long::sum);
+            }
+        }
+        return buildSummary(student, asOf.toLocalDate(), subjectId -> presentBySubject.getOrDefault(subjectId, 0L));
+    }
 
+    private static void validateAsOf(java.time.LocalDateTime asOf) {
+        if (asOf.isAfter(java.time.LocalDateTime.now())) {
+            throw new InvalidOperationException("The as-of time cannot be in the future.");
+        }
+    }
+
+    private OverallStudentAttendanceDTO buildSummary(Student student, LocalDate upToDate,
+                                                    ToLongFunction<Long> attendedBySubject) {
         List<StudentAttendanceSummaryDTO> subjectSummaries = new ArrayList<>();
         long overallTotalLectures = 0;
         long overallLecturesAttended = 0;
 
-        // Assuming studentGroup is a combination of Batch Year and Section
-        String studentGroup = student.getBatchYear() + (student.getSection() != null && !student.getSection().isEmpty() ? " " + student.getSection() : "");
+        // Only the subjects the student's group is actually enrolled in (indexed lookup on enrollments)
+        Long studentGroupId = student.getStudentGroup() != null ? student.getStudentGroup().getId() : null;
+        List<Subject> subjectsStudentIsEnrolledIn = studentGroupId != null
+                ? enrollmentService.getEnrolledSubjectEntities(studentGroupId)
+                : List.of(); // A student without a group has no enrollments yet
 
         for (Subject subject : subjectsStudentIsEnrolledIn) {
             // Count lectures attended (PRESENT) for this student in this subject
-            long lecturesAttended = attendanceRecordRepository.countPresentByStudentAndSubject(studentId, subject.getId());
+            long lecturesAttended = attendedBySubject.applyAsLong(subject.getId());
 
-            // Count total lectures for this subject up to today's date for this student's group
+            // Count total lectures for this subject up to the date (today, unless as-of) for this student's group:
+            // stored lectures by row count, virtual series by rule arithmetic
             long totalLectures = attendanceRecordRepository.countTotalLecturesForSubjectAndStudentGroup(
-                    subject.getId(), studentGroup, LocalDate.now()); // Pass today's date to only count past/current lectures
+                    subject.getId(), studentGroupId, upToDate)
+                    + lectureSeriesService.countVirtualLectures(subject.getId(), studentGroupId, upToDate);
 
             double attendancePercentage = (totalLectures > 0) ? ((double) lecturesAttended / totalLectures) * 100 : 0.0;
 
@@ -233,4 +693,16 @@ public class AttendanceService {
 
         return overallDTO;
     }
-}
\ No newline at end of file
+
+    /**
+     * The records table to read for lectures within a date range: the live table, plus the archive if a closed
+     * term overlaps the range.
+     */
+    private String recordsTable(LocalDate startDate, LocalDate endDate) {
+        return academicTermService.hasClosedTerm(startDate, endDate) ? ALL_RECORDS : "attendance_records";
+    }
+
+    static String lectureKey(Long lectureId) {
+        return "lecture:" + lectureId;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.model.AttendanceStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Service class reconstructing the attendance of a student at a past moment.
+ * The state at time T is rebuilt by replaying the audit log backwards: starting from the first snapshot taken at or
+ * after T (or from the current records if there is none), every change after T is undone, newest first.
+ * A scheduled job snapshots the students whose records changed since the previous run, so a point-in-time query
+ * reads at most one snapshot plus the changes of one snapshot interval.
+ */
+@Service
+@Transactional
+public class AttendanceSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttendanceSnapshotService.class);
+
+    // Current (live and archived) records of the students with audit rows after the previous snapshot run
+    private static final String CHANGED_RECORDS = "SELECT r.student_id, r.id, r.status FROM ("
+            + "SELECT student_id, id, status FROM attendance_records UNION ALL "
+            + "SELECT student_id, id, status FROM attendance_records_archive) r "
+            + "WHERE r.student_id IN (SELECT a.student_id FROM attendance_audit a WHERE a.changed_at > :since) "
+            + "ORDER BY r.student_id, r.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AttendanceAuditService attendanceAuditService; // Source of the changes to replay
+    private final AttendanceArchiveFileService attendanceArchiveFileService; // Records of purged terms
+
+    public AttendanceSnapshotService(NamedParameterJdbcTemplate jdbcTemplate,
+                                     AttendanceAuditService attendanceAuditService,
+                                     AttendanceArchiveFileService attendanceArchiveFileService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.attendanceAuditService = attendanceAuditService;
+        this.attendanceArchiveFileService = attendanceArchiveFileService;
+    }
+
+    /**
+     * Scheduled job taking the periodic snapshots (see takeSnapshots).
+     */
+    @Scheduled(cron = "${app.attendance.snapshot.cron:0 0 3 * * SUN}")
+    public void takeScheduledSnapshots() {
+        takeSnapshots();
+    }
+
+    /**
+     * Snapshots the record statuses of every student with changes since the previous run.
+     * The snapshot time is taken after the records were read, so every change it contains is at or before it;
+     * a change committed concurrently with an earlier time is missing from the snapshot, which is harmless, as
+     * undoing it during a replay leaves the status it had before.
+     * @return The number of snapshots written.
+     */
+    public int takeSnapshots() {
+        LocalDateTime previousRun = jdbcTemplate.getJdbcOperations().queryForObject(
+                "SELECT MAX(taken_at) FROM attendance_snapshots", LocalDateTime.class);
+        MapSqlParameterSource params = new MapSqlParameterSource("since",
+                Timestamp.valueOf(previousRun != null ? previousRun : LocalDateTime.of(1970, 1, 1, 0, 0)));
+
+        List<Long> students = new ArrayList<>();
+        List<SortedMap<Long, AttendanceStatus>> statuses = new ArrayList<>();
+        jdbcTemplate.query(CHANGED_RECORDS, params, rs -> {
+            long studentId = rs.getLong("student_id");
+            if (students.isEmpty() || students.get(students.size() - 1) != studentId) {
+                students.add(studentId);
+                statuses.add(new TreeMap<>());
+            }
+            statuses.get(statuses.size() - 1).put(rs.getLong("id"), AttendanceStatus.valueOf(rs.getString("status")));
+        });
+        Timestamp takenAt = Timestamp.valueOf(LocalDateTime.now());
+
+        MapSqlParameterSource[] rows = new MapSqlParameterSource[students.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new MapSqlParameterSource("studentId", students.get(i))
+                    .addValue("takenAt", takenAt)
+                    .addValue("recordCount", statuses.get(i).size())
+                    .addValue("payload", AttendanceAuditCodec.encodeStatuses(statuses.get(i)));
+        }
+        if (rows.length > 0) {
+            jdbcTemplate.batchUpdate("INSERT INTO attendance_snapshots (student_id, taken_at, record_count, payload) "
+                    + "VALUES (:studentId, :takenAt, :recordCount, :payload)", rows);
+            log.info("Took {} attendance snapshots", rows.length);
+        }
+        return rows.length;
+    }
+
+    /**
+     * Reconstructs the statuses of a student's attendance records at a past moment.
+     * Records created after that moment are left out. Records that predate the audit log are assumed to have
+     * existed with their oldest known status. Records of purged terms are missing from the tables and from
+     * snapshots taken after the purge; they are added from the archive files when replaying from the current
+     * records, or from a snapshot taken once their term was archived (closed terms no longer change).
+     * @param studentId The ID of the student.
+     * @param asOf The moment to reconstruct.
+     * @return The status per record ID at that moment.
+     */
+    @Transactional(readOnly = true)
+    SortedMap<Long, AttendanceStatus> getStatusesAsOf(long studentId, LocalDateTime asOf) {
+        MapSqlParameterSource params = new MapSqlParameterSource("studentId", studentId)
+                .addValue("asOf", Timestamp.valueOf(asOf));
+        SortedMap<Long, AttendanceStatus> statuses = new TreeMap<>();
+        LocalDateTime[] replayFrom = new LocalDateTime[1]; // Null: replay from the current records
+        jdbcTemplate.query("SELECT taken_at, payload FROM attendance_snapshots WHERE student_id = :studentId "
+                + "AND taken_at >= :asOf ORDER BY taken_at LIMIT 1", params, rs -> {
+                    replayFrom[0] = rs.getTimestamp("taken_at").toLocalDateTime();
+                    statuses.putAll(AttendanceAuditCodec.decodeStatuses(rs.getBytes("payload")));
+                });
+        if (replayFrom[0] == null) {
+            jdbcTemplate.query("SELECT id, status FROM attendance_records WHERE student_id = :studentId "
+                    + "UNION ALL SELECT id, status FROM attendance_records_archive WHERE student_id = :studentId",
+                    params, rs -> {
+                statuses.put(rs.getLong("id"), AttendanceStatus.valueOf(rs.getString("status")));
+            });
+        }
+        attendanceArchiveFileService.getPurgedStatuses(studentId, replayFrom[0]).forEach(statuses::putIfAbsent);
+
+        List<AttendanceAuditService.Change> changes = attendanceAuditService.getStudentChanges(studentId, asOf,
+                replayFrom[0]);
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            AttendanceAuditService.Change change = changes.get(i);
+            if (change.oldStatus() == null) {
+                statuses.remove(change.recordId()); // Created after the moment
+            } else {
+                statuses.put(change.recordId(), change.oldStatus());
+            }
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.dto.DeletionReportDTO;
+import com.example.main.model.AttendanceEventType;
+import com.example.main.model.SyncEntityType;
+
+import java.util.List;
+
+/**
+ * Service performing set-based cascading deletes with plain SQL.
+ * This replaces loading whole object graphs through JPA cascades. Each table is cleared child-first with
+ * 'DELETE ... WHERE id IN (SELECT id ... LIMIT n)' statements. Every chunk commits in its own short
+ * transaction, so locks are only held for one chunk at a time.
+ * Because chunks commit independently, a failed deletion can leave the children of the root already deleted.
+ * The child-first order keeps the data consistent, and repeating the deletion finishes the job.
+ * Rows of the tables tracked by the mobile delta sync leave a tombstone, written in the chunk that deletes them.
+ * Deleted lectures get their LECTURE_DELETED outbox event in that chunk as well.
+ * Deleted attendance records take their audit rows with them, and the snapshots of their students are dropped whole;
+ * point-in-time reads of those students then replay from the current records.
+ * Callers must not run inside a surrounding transaction.
+ */
+@Service
+public class BulkDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkDeletionService.class);
+
+    // Reusable sub-selects describing everything that hangs off a department
+    private static final String DEPARTMENT_SUBJECTS = "SELECT id FROM subjects WHERE department_id = :id";
+    private static final String DEPARTMENT_TEACHERS = "SELECT id FROM teachers WHERE department_id = :id";
+    private static final String DEPARTMENT_STUDENTS = "SELECT id FROM students WHERE department_id = :id";
+    private static final String DEPARTMENT_GROUPS = "SELECT id FROM student_groups WHERE department_id = :id";
+    private static final String DEPARTMENT_SERIES = "SELECT id FROM lecture_series WHERE subject_id IN (" + DEPARTMENT_SUBJECTS
+            + ") OR teacher_id IN (" + DEPARTMENT_TEACHERS + ") OR student_group_id IN (" + DEPARTMENT_GROUPS + ")";
+    private static final String DEPARTMENT_LECTURES = "SELECT id FROM lectures WHERE subject_id IN (" + DEPARTMENT_SUBJECTS
+            + ") OR teacher_id IN (" + DEPARTMENT_TEACHERS + ") OR student_group_id IN (" + DEPARTMENT_GROUPS + ")";
+    // Records of the department's lectures and students, and those its teachers marked (marked_by_teacher_id is NOT NULL)
+    private static final String DEPARTMENT_RECORDS = "lecture_id IN (" + DEPARTMENT_LECTURES + ") OR student_id IN ("
+            + DEPARTMENT_STUDENTS + ") OR marked_by_teacher_id IN (" + DEPARTMENT_TEACHERS + ")";
+
+    // Lectures and series of a subject; occurrences of its series are included even if they were moved to another subject
+    private static final String SUBJECT_SERIES = "SELECT id FROM lecture_series WHERE subject_id = :id";
+    private static final String SUBJECT_LECTURES = "SELECT id FROM lectures WHERE subject_id = :id OR series_id IN ("
+            + SUBJECT_SERIES + ")";
+    private static final String SUBJECT_RECORDS = "lecture_id IN (" + SUBJECT_LECTURES + ")";
+    // Lectures and series of a teacher, and the records of their lectures and those they marked elsewhere
+    private static final String TEACHER_SERIES = "SELECT id FROM lecture_series WHERE teacher_id = :id";
+    private static final String TEACHER_LECTURES = "SELECT id FROM lectures WHERE teacher_id = :id OR series_id IN ("
+            + TEACHER_SERIES + ")";
+    private static final String TEACHER_RECORDS = "lecture_id IN (" + TEACHER_LECTURES + ") OR marked_by_teacher_id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final SyncService syncService; // Tombstones of deleted synced rows
+    private final AttendanceEventOutboxService attendanceEventOutboxService; // Events of deleted lectures
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public BulkDeletionService(NamedParameterJdbcTemplate jdbcTemplate, SyncService syncService,
+                               AttendanceEventOutboxService attendanceEventOutboxService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.bulk-delete.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncService = syncService;
+        this.attendanceEventOutboxService = attendanceEventOutboxService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Deletes a department together with its subjects, teachers, students, student groups,
+     * their enrollments, lecture series, lectures and attendance records.
+     * Records the department's teachers marked in other departments' lectures are deleted as well, since a record
+     * cannot outlive the teacher who marked it, and their audit rows go with them.
+     * User accounts of the deleted teachers and students are kept.
+     * @param departmentId The ID of the department.
+     * @return The per-table deletion report.
+     */
+    public DeletionReportDTO deleteDepartment(Long departmentId) {
+        return delete("Department", departmentId, List.of(
+                new Step("attendance_audit", "student_id IN (" + DEPARTMENT_STUDENTS + ") OR record_id IN ("
+                        + recordsWhere("id", DEPARTMENT_RECORDS) + ")"),
+                new Step("attendance_audit_archive", "student_id IN (" + DEPARTMENT_STUDENTS + ")"),
+                new Step("attendance_snapshots", "student_id IN (" + DEPARTMENT_STUDENTS + ") OR student_id IN ("
+                        + recordsWhere("student_id", DEPARTMENT_RECORDS) + ")"),
+                new Step("attendance_records", DEPARTMENT_RECORDS, SyncEntityType.ATTENDANCE_RECORD),
+                new Step("attendance_records_archive", DEPARTMENT_RECORDS),
+                new Step("lectures", "id IN (" + DEPARTMENT_LECTURES + ")", SyncEntityType.LECTURE),
+                new Step("lecture_series_exclusions", "series_id IN (" + DEPARTMENT_SERIES + ")", false),
+                new Step("lecture_series", "id IN (" + DEPARTMENT_SERIES + ")"),
+                new Step("enrollments", "subject_id IN (" + DEPARTMENT_SUBJECTS + ") OR student_group_id IN ("
+                        + DEPARTMENT_GROUPS + ")"),
+                new Step("students", "department_id = :id"),
+                new Step("teachers", "department_id = :id", SyncEntityType.TEACHER),
+                new Step("subjects", "department_id = :id", SyncEntityType.SUBJECT),
+                new Step("student_groups", "department_id = :id"),
+                new Step("departments", "id = :id", SyncEntityType.DEPARTMENT)));
+    }
+
+    /**
+     * Deletes a lecture together with its attendance records.
+     * @param lectureId The ID of the lecture.
+     * @return The per-table deletion report.
+     */
+    public DeletionReportDTO deleteLecture(Long lectureId) {
+        return delete("Lecture", lectureId, List.of(
+                new Step("attendance_audit", "record_id IN (" + recordsWhere("id", "lecture_id = :id") + ")"),
+                new Step("attendance_snapshots", "student_id IN (" + recordsWhere("student_id", "lecture_id = :id") + ")"),
+                new Step("attendance_records", "lecture_id = :id", SyncEntityType.ATTENDANCE_RECORD),
+                new Step("attendance_records_archive", "lecture_id = :id"),
+                new Step("lectures", "id = :id", SyncEntityType.LECTURE)));
+    }
+
+    /**
+     * Deletes a subject together with its lecture series, lectures, their attendance records and the
+     * enrollments of student groups in it.
+     * @param subjectId The ID of the subject.
+     * @return The per-table deletion report.
+     */
+    public DeletionReportDTO deleteSubject(Long subjectId) {
+        return delete("Subject", subjectId, List.of(
+                new Step("attendance_audit", "record_id IN (" + recordsWhere("id", SUBJECT_RECORDS) + ")"),
+                new Step("attendance_snapshots", "student_id IN (" + recordsWhere("student_id", SUBJECT_RECORDS) + ")"),
+                new Step("attendance_records", SUBJECT_RECORDS, SyncEntityType.ATTENDANCE_RECORD),
+                new Step("attendance_records_archive", SUBJECT_RECORDS),
+                new Step("lectures", "id IN (" + SUBJECT_LECTURES + ")", SyncEntityType.LECTURE),
+                new Step("lecture_series_exclusions", "series_id IN (" + SUBJECT_SERIES + ")", false),
+                new Step("lecture_series", "id IN (" + SUBJECT_SERIES + ")"),
+                new Step("enrollments", "subject_id = :id"),
+                new Step("subjects", "id = :id", SyncEntityType.SUBJECT)));
+    }
+
+    /**
+     * Deletes a teacher together with their lecture series, lectures and the lectures' attendance records.
+     * Records the teacher marked in other teachers' lectures are deleted as well, since a record cannot outlive the
+     * teacher who marked it. The teacher's user account is kept.
+     * @param teacherId The ID of the teacher.
+     * @return The per-table deletion report.
+     */
+    public DeletionReportDTO deleteTeacher(Long teacherId) {
+        return delete("Teacher", teacherId, List.of(
+                new Step("attendance_audit", "record_id IN (" + recordsWhere("id", TEACHER_RECORDS) + ")"),
+                new Step("attendance_snapshots", "student_id IN (" + recordsWhere("student_id", TEACHER_RECORDS) + ")"),
+                new Step("attendance_records", TEACHER_RECORDS, SyncEntityType.ATTENDANCE_RECORD),
+                new Step("attendance_records_archive", TEACHER_RECORDS),
+                new Step("lectures", "id IN (" + TEACHER_LECTURES + ")", SyncEntityType.LECTURE),
+                new Step("lecture_series_exclusions", "series_id IN (" + TEACHER_SERIES + ")", false),
+                new Step("lecture_series", "id IN (" + TEACHER_SERIES + ")"),
+                new Step("teachers", "id = :id", SyncEntityType.TEACHER)));
+    }
+
+    /**
+     * Deletes a student together with their attendance records. The student's user account is kept.
+     * @param studentId The ID of the student.
+     * @return The per-table deletion report.
+     */
+    public DeletionReportDTO deleteStudent(Long studentId) {
+        return delete("Student", studentId, List.of(
+                new Step("attendance_audit", "student_id = :id"),
+                new Step("attendance_audit_archive", "student_id = :id"),
+                new Step("attendance_snapshots", "student_id = :id"),
+                new Step("attendance_records", "student_id = :id", SyncEntityType.ATTENDANCE_RECORD),
+                new Step("attendance_records_archive", "student_id = :id"),
+                new Step("students", "id = :id")));
+    }
+
+    /**
+     * Selects a column of the live and archived attendance records matching a condition.
+     * Audit and snapshot steps select their rows through the records, so they run before the records' steps.
+     */
+    private static String recordsWhere(String column, String condition) {
+        return "SELECT " + column + " FROM attendance_records WHERE " + condition
+                + " UNION ALL SELECT " + column + " FROM attendance_records_archive WHERE " + condition;
+    }
+
+    private DeletionReportDTO delete(String entity, Long id, List<Step> steps) {
+        DeletionReportDTO report = new DeletionReportDTO();
+        report.setEntity(entity);
+        report.setId(id);
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id).addValue("limit", chunkSize);
+        for (Step step : steps) {
+            // Rows are re-selected per chunk, so rows deleted by the previous chunk are never revisited. Synced
+            // tables are chunked in ID order, so the tombstones and the delete select the same rows.
+            String chunkIds = "SELECT id FROM " + step.table() + " WHERE " + step.condition()
+                    + (step.syncType() != null ? " ORDER BY id" : "") + " LIMIT :limit";
+            String sql = step.chunked()
+                    ? "DELETE FROM " + step.table() + " WHERE id IN (" + chunkIds + ")"
+                    : "DELETE FROM " + step.table() + " WHERE " + step.condition();
+            long deleted = 0;
+            int chunk;
+            do {
+                Integer rows = chunkTransaction.execute(status -> {
+                    if (step.syncType() != null) {
+                        syncService.recordDeletions(step.syncType(), chunkIds, params);
+                    }
+                    if (step.syncType() == SyncEntityType.LECTURE) {
+                        attendanceEventOutboxService.recordLectureEvents(AttendanceEventType.LECTURE_DELETED,
+                                chunkIds, params);
+                    }
+                    return jdbcTemplate.update(sql, params);
+                });
+                chunk = rows == null ? 0 : rows;
+                deleted += chunk;
+            } while (step.chunked() && chunk == chunkSize);
+            report.getDeletedRows().put(step.table(), deleted);
+            report.setTotalRows(report.getTotalRows() + deleted);
+        }
+        log.info("Deleted {} {} with {} rows: {}", entity, id, report.getTotalRows(), report.getDeletedRows());
+        return report;
+    }
+
+    /**
+     * One table of a cascading delete and the condition selecting its rows.
+     * Tables without an 'id' column (small collection tables) are deleted in one statement.
+     * Tables tracked by the delta sync name their entity type, so their deleted rows leave tombstones.
+     */
+    private record Step(String table, String condition, boolean chunked, SyncEntityType syncType) {
+
+        Step(String table, String condition) {
+            this(table, condition, true, null);
+        }
+
+        Step(String table, String condition, boolean chunked) {
+            this(table, condition, chunked, null);
+        }
+
+        Step(String table, String condition, SyncEntityType syncType) {
+            this(table, condition, true, syncType);
+        }
+    }
+}
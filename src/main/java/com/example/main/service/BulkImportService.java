@@ -0,0 +1,435 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.dto.ImportResultDTO;
+import com.example.main.dto.ImportRowErrorDTO;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.model.Role;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Service for bulk importing students and teachers from CSV or NDJSON files.
+ * The file is read as a stream and processed in chunks. For each chunk:
+ * - duplicates are checked with one set-based IN query per unique column, emails case-insensitively;
+ * - passwords are BCrypt-hashed in parallel on a bounded pool;
+ * - users and students/teachers are inserted with JDBC batches in one transaction. If the batch fails (e.g. a row
+ *   inserted concurrently since the checks), the chunk is retried row by row.
+ * Rows failing a check are reported individually and do not stop the import.
+ * In dry-run mode all checks run but nothing is hashed or written.
+ *
+ * Expected fields (CSV header or JSON keys):
+ * - students: email, password, firstName, lastName, rollNumber, departmentId, batchYear, section, studentGroupId
+ * - teachers: email, password, firstName, lastName, employeeId, departmentId
+ * section and studentGroupId are optional.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    /**
+     * The kind of record being imported and where its unique business key lives.
+     */
+    private enum Kind {
+        STUDENT(Role.STUDENT, "students", "roll_number", "rollNumber"),
+        TEACHER(Role.TEACHER, "teachers", "employee_id", "employeeId");
+
+        private final Role role;
+        private final String table;
+        private final String keyColumn;
+        private final String keyField;
+
+        Kind(Role role, String table, String keyColumn, String keyField) {
+            this.role = role;
+            this.table = table;
+            this.keyColumn = keyColumn;
+            this.keyField = keyField;
+        }
+    }
+
+    /**
+     * A row that passed field validation and is waiting for the set-based checks of its chunk.
+     */
+    private static class Candidate {
+        long lineNumber;
+        String email;
+        String password;
+        String firstName;
+        String lastName;
+        String key; // Roll number or employee ID
+        Long departmentId;
+        Integer batchYear;
+        String section;
+        Long studentGroupId;
+        String passwordHash;
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingPool;
+    private final int chunkSize;
+
+    public BulkImportService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             PasswordEncoder passwordEncoder, ObjectMapper objectMapper,
+                             @Value("${app.import.chunk-size:500}") int chunkSize,
+                             @Value("${app.import.hashing-threads:4}") int hashingThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue + caller-runs: a large import can never queue unbounded work or starve other requests
+        this.hashingPool = new ThreadPoolExecutor(hashingThreads, hashingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingThreads * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    /**
+     * Imports students (and their user accounts) from a CSV or NDJSON stream.
+     * @param inputStream The uploaded file.
+     * @param contentType The file's media type: text/csv or application/x-ndjson.
+     * @param dryRun If true, only validates the rows.
+     * @return The import result with per-row errors.
+     * @throws InvalidOperationException if the media type is unsupported or the file cannot be read.
+     */
+    public ImportResultDTO importStudents(InputStream inputStream, MediaType contentType, boolean dryRun) {
+        return importRows(Kind.STUDENT, inputStream, contentType, dryRun);
+    }
+
+    /**
+     * Imports teachers (and their user accounts) from a CSV or NDJSON stream.
+     * @param inputStream The uploaded file.
+     * @param contentType The file's media type: text/csv or application/x-ndjson.
+     * @param dryRun If true, only validates the rows.
+     * @return The import result with per-row errors.
+     * @throws InvalidOperationException if the media type is unsupported or the file cannot be read.
+     */
+    public ImportResultDTO importTeachers(InputStream inputStream, MediaType contentType, boolean dryRun) {
+        return importRows(Kind.TEACHER, inputStream, contentType, dryRun);
+    }
+
+    private ImportResultDTO importRows(Kind kind, InputStream inputStream, MediaType contentType, boolean dryRun) {
+        ImportRowReader.Format format = resolveFormat(contentType);
+        ImportResultDTO result = new ImportResultDTO();
+        result.setDryRun(dryRun);
+
+        // Keys seen earlier in the same file, to reject in-file duplicates
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenKeys = new HashSet<>();
+        Set<Long> knownDepartments = new HashSet<>();
+        Map<Long, Long> groupDepartments = new HashMap<>();
+
+        try (ImportRowReader reader = new ImportRowReader(inputStream, format, objectMapper)) {
+            List<Candidate> chunk = new ArrayList<>(chunkSize);
+            while (reader.hasNext()) {
+                ImportRowReader.Row row = reader.next();
+                result.setTotalRows(result.getTotalRows() + 1);
+                Candidate candidate = parse(kind, row, result);
+                if (candidate == null) {
+                    continue;
+                }
+                if (!seenEmails.add(candidate.email.toLowerCase(Locale.ROOT))) {
+                    reject(result, candidate, "Duplicate email in file");
+                    continue;
+                }
+                if (!seenKeys.add(candidate.key)) {
+                    reject(result, candidate, "Duplicate " + kind.keyField + " in file");
+                    continue;
+                }
+                chunk.add(candidate);
+                if (chunk.size() == chunkSize) {
+                    processChunk(kind, chunk, dryRun, result, knownDepartments, groupDepartments);
+                    chunk.clear();
+                }
+            }
+            processChunk(kind, chunk, dryRun, result, knownDepartments, groupDepartments);
+        } catch (IOException | UncheckedIOException e) {
+            throw new InvalidOperationException("Could not read the import file: " + e.getMessage(), e);
+        }
+
+        result.getErrors().sort(Comparator.comparingLong(ImportRowErrorDTO::getLineNumber));
+        log.info("{} import of {} rows finished: {} imported, {} failed (dry run: {})", kind, result.getTotalRows(),
+                result.getImportedRows(), result.getFailedRows(), dryRun);
+        return result;
+    }
+
+    private ImportRowReader.Format resolveFormat(MediaType contentType) {
+        if (contentType != null && TEXT_CSV.includes(contentType)) {
+            return ImportRowReader.Format.CSV;
+        }
+        if (contentType != null && (MediaType.APPLICATION_NDJSON.includes(contentType)
+                || MediaType.APPLICATION_JSON.includes(contentType))) {
+            return ImportRowReader.Format.NDJSON;
+        }
+        throw new InvalidOperationException("Unsupported import format: " + contentType
+                + ". Use text/csv or application/x-ndjson.");
+    }
+
+    /**
+     * Validates the fields of a single row.
+     * @return The candidate, or null if the row was rejected.
+     */
+    private Candidate parse(Kind kind, ImportRowReader.Row row, ImportResultDTO result) {
+        Candidate candidate = new Candidate();
+        candidate.lineNumber = row.lineNumber();
+        candidate.email = row.get("email");
+        if (row.error() != null) {
+            reject(result, candidate, row.error());
+            return null;
+        }
+
+        List<String> problems = new ArrayList<>();
+        if (candidate.email == null || !EMAIL.matcher(candidate.email).matches()) {
+            problems.add("email is missing or invalid");
+        }
+        candidate.password = row.get("password");
+        if (candidate.password == null || candidate.password.length() < 6) {
+            problems.add("password must be at least 6 characters long");
+        }
+        candidate.firstName = required(row, "firstName", problems);
+        candidate.lastName = required(row, "lastName", problems);
+        candidate.key = required(row, kind.keyField, problems);
+        candidate.departmentId = number(row, "departmentId", true, problems);
+        if (kind == Kind.STUDENT) {
+            Long batchYear = number(row, "batchYear", true, problems);
+            candidate.batchYear = batchYear == null ? null : batchYear.intValue();
+            candidate.section = row.get("section");
+            if (candidate.section != null && candidate.section.length() > 10) {
+                problems.add("section must be at most 10 characters");
+            }
+            candidate.studentGroupId = number(row, "studentGroupId", false, problems);
+        }
+        if (candidate.key != null && candidate.key.length() > 50) {
+            problems.add(kind.keyField + " must be at most 50 characters");
+        }
+
+        if (!problems.isEmpty()) {
+            reject(result, candidate, String.join("; ", problems));
+            return null;
+        }
+        return candidate;
+    }
+
+    private static String required(ImportRowReader.Row row, String field, List<String> problems) {
+        String value = row.get(field);
+        if (value == null) {
+            problems.add(field + " is required");
+        }
+        return value;
+    }
+
+    private static Long number(ImportRowReader.Row row, String field, boolean required, List<String> problems) {
+        String value = row.get(field);
+        if (value == null) {
+            if (required) {
+                problems.add(field + " is required");
+            }
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            problems.add(field + " must be a number");
+            return null;
+        }
+    }
+
+    /**
+     * Runs the set-based checks for a chunk and, unless this is a dry run, hashes and inserts the surviving rows.
+     */
+    private void processChunk(Kind kind, List<Candidate> chunk, boolean dryRun, ImportResultDTO result,
+                              Set<Long> knownDepartments, Map<Long, Long> groupDepartments) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Emails differing only in case count as the same address, in the file and against the database
+        Set<String> existingEmails = existing("SELECT LOWER(email) FROM users WHERE LOWER(email) IN (:values)",
+                chunk.stream().map(c -> c.email.toLowerCase(Locale.ROOT)).toList());
+        Set<String> existingKeys = existing("SELECT " + kind.keyColumn + " FROM " + kind.table
+                + " WHERE " + kind.keyColumn + " IN (:values)", chunk.stream().map(c -> c.key).toList());
+        loadDepartments(chunk, knownDepartments);
+        if (kind == Kind.STUDENT) {
+            loadStudentGroups(chunk, groupDepartments);
+        }
+
+        List<Candidate> valid = new ArrayList<>(chunk.size());
+        for (Candidate candidate : chunk) {
+            if (existingEmails.contains(candidate.email.toLowerCase(Locale.ROOT))) {
+                reject(result, candidate, "User with email " + candidate.email + " already exists");
+            } else if (existingKeys.contains(candidate.key)) {
+                reject(result, candidate, kind.keyField + " '" + candidate.key + "' already exists");
+            } else if (!knownDepartments.contains(candidate.departmentId)) {
+                reject(result, candidate, "Department not found with ID: " + candidate.departmentId);
+            } else if (candidate.studentGroupId != null && !groupDepartments.containsKey(candidate.studentGroupId)) {
+                reject(result, candidate, "Student group not found with ID: " + candidate.studentGroupId);
+            } else if (candidate.studentGroupId != null
+                    && !groupDepartments.get(candidate.studentGroupId).equals(candidate.departmentId)) {
+                reject(result, candidate, "Student group " + candidate.studentGroupId
+                        + " does not belong to department " + candidate.departmentId);
+            } else {
+                valid.add(candidate);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        if (dryRun) {
+            result.setImportedRows(result.getImportedRows() + valid.size());
+            return;
+        }
+
+        hashPasswords(valid);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(kind, valid));
+            result.setImportedRows(result.getImportedRows() + valid.size());
+        } catch (DataAccessException e) {
+            // Typically a concurrent insert of the same email or key between the pre-check and the batch; retried
+            // row by row, so only the clashing rows fail
+            log.warn("Import chunk of {} rows rolled back, retrying row by row: {}", valid.size(),
+                    e.getMostSpecificCause().getMessage());
+            for (Candidate candidate : valid) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(kind, List.of(candidate)));
+                    result.setImportedRows(result.getImportedRows() + 1);
+                } catch (DataAccessException rowFailure) {
+                    reject(result, candidate, "Could not be inserted: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private Set<String> existing(String sql, Collection<String> values) {
+        return new HashSet<>(jdbcTemplate.queryForList(sql, new MapSqlParameterSource("values", values), String.class));
+    }
+
+    private void loadDepartments(List<Candidate> chunk, Set<Long> knownDepartments) {
+        Set<Long> unknown = new HashSet<>();
+        for (Candidate candidate : chunk) {
+            if (!knownDepartments.contains(candidate.departmentId)) {
+                unknown.add(candidate.departmentId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            knownDepartments.addAll(jdbcTemplate.queryForList("SELECT id FROM departments WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", unknown), Long.class));
+        }
+    }
+
+    private void loadStudentGroups(List<Candidate> chunk, Map<Long, Long> groupDepartments) {
+        Set<Long> unknown = new HashSet<>();
+        for (Candidate candidate : chunk) {
+            if (candidate.studentGroupId != null && !groupDepartments.containsKey(candidate.studentGroupId)) {
+                unknown.add(candidate.studentGroupId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            jdbcTemplate.query("SELECT id, department_id FROM student_groups WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", unknown),
+                    rs -> {
+                        groupDepartments.put(rs.getLong("id"), rs.getLong("department_id"));
+                    });
+        }
+    }
+
+    private void hashPasswords(List<Candidate> candidates) {
+        List<CompletableFuture<Void>> hashes = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            hashes.add(CompletableFuture.runAsync(() -> {
+                candidate.passwordHash = passwordEncoder.encode(candidate.password);
+                candidate.password = null;
+            }, hashingPool));
+        }
+        CompletableFuture.allOf(hashes.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void insert(Kind kind, List<Candidate> candidates) {
+        SqlParameterSource[] users = candidates.stream()
+                .map(c -> new MapSqlParameterSource()
+                        .addValue("email", c.email)
+                        .addValue("password", c.passwordHash)
+                        .addValue("role", kind.role.name())
+                        .addValue("firstName", c.firstName)
+                        .addValue("lastName", c.lastName))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO users (email, password, role, first_name, last_name, is_active) "
+                + "VALUES (:email, :password, :role, :firstName, :lastName, TRUE)", users);
+
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, email FROM users WHERE email IN (:emails)",
+                new MapSqlParameterSource("emails", candidates.stream().map(c -> c.email).toList()),
+                rs -> {
+                    userIds.put(rs.getString("email"), rs.getLong("id"));
+                });
+
+        SqlParameterSource[] rows = candidates.stream()
+                .map(c -> new MapSqlParameterSource()
+                        .addValue("userId", userIds.get(c.email))
+                        .addValue("key", c.key)
+                        .addValue("departmentId", c.departmentId)
+                        .addValue("batchYear", c.batchYear)
+                        .addValue("section", c.section)
+                        .addValue("studentGroupId", c.studentGroupId))
+                .toArray(SqlParameterSource[]::new);
+        if (kind == Kind.STUDENT) {
+            jdbcTemplate.batchUpdate("INSERT INTO students (user_id, roll_number, department_id, batch_year, section, "
+                    + "student_group_id) VALUES (:userId, :key, :departmentId, :batchYear, :section, :studentGroupId)", rows);
+        } else {
+            jdbcTemplate.batchUpdate("INSERT INTO teachers (user_id, employee_id, department_id) "
+                    + "VALUES (:userId, :key, :departmentId)", rows);
+        }
+    }
+
+    private static void reject(ImportResultDTO result, Candidate candidate, String message) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        result.getErrors().add(new ImportRowErrorDTO(candidate.lineNumber, candidate.email, message));
+    }
+}
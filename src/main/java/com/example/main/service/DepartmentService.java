@@ -1,8 +1,12 @@
 package com.example.main.service;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.DepartmentDTO;
+import com.example.main.event.LectureScheduleChangedEvent;
 import com.example.main.exception.DuplicateEntryException;
 import com.example.main.exception.ResourceNotFoundException;
 import com.example.main.mapper.DepartmentMapper;
@@ -22,10 +26,15 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final DepartmentMapper departmentMapper;
+    private final BulkDeletionService bulkDeletionService; // Set-based cascading deletes
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DepartmentService(DepartmentRepository departmentRepository, DepartmentMapper departmentMapper) {
+    public DepartmentService(DepartmentRepository departmentRepository, DepartmentMapper departmentMapper,
+                             BulkDeletionService bulkDeletionService, ApplicationEventPublisher eventPublisher) {
         this.departmentRepository = departmentRepository;
         this.departmentMapper = departmentMapper;
+        this.bulkDeletionService = bulkDeletionService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -53,6 +62,7 @@ public class DepartmentService {
      * @return The DepartmentDTO if found.
      * @throws ResourceNotFoundException if the department is not found.
      */
+    @Transactional(readOnly = true)
     public DepartmentDTO getDepartmentById(Long id) {
         Department department = departmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Department not found with ID: " + id));
@@ -65,6 +75,7 @@ public class DepartmentService {
      * @return The Department entity if found.
      * @throws ResourceNotFoundException if the department is not found.
      */
+    @Transactional(readOnly = true)
     public Department getDepartmentEntityById(Long id) {
         return departmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Department not found with ID: " + id));
@@ -74,6 +85,7 @@ public class DepartmentService {
      * Retrieves all departments.
      * @return A list of all DepartmentDTOs.
      */
+    @Transactional(readOnly = true)
     public List<DepartmentDTO> getAllDepartments() {
         return departmentRepository.findAll().stream()
                 .map(departmentMapper::toDepartmentDTO)
@@ -109,17 +121,20 @@ public class DepartmentService {
     }
 
     /**
-     * Deletes a department by its ID.
-     * NOTE: Consider implementing checks for associated subjects, teachers, or students
-     * before allowing deletion, or cascade deletion if appropriate for business rules.
-     * For now, cascade is configured in entities.
+     * Deletes a department by its ID, together with its subjects, teachers, students, student groups,
+     * enrollments, lectures and attendance records.
+     * The deletion is set-based and committed in chunks (see BulkDeletionService), so it runs outside a transaction.
      * @param id The ID of the department to delete.
+     * @return The per-table deletion report.
      * @throws ResourceNotFoundException if the department is not found.
      */
-    public void deleteDepartment(Long id) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeletionReportDTO deleteDepartment(Long id) {
         if (!departmentRepository.existsById(id)) {
             throw new ResourceNotFoundException("Department not found with ID: " + id);
         }
-        departmentRepository.deleteById(id);
+        DeletionReportDTO report = bulkDeletionService.deleteDepartment(id);
+        eventPublisher.publishEvent(LectureScheduleChangedEvent.allDates()); // Its lectures may fall on any date
+        return report;
     }
 }
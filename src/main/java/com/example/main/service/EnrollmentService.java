@@ -0,0 +1,192 @@
+package com.example.main.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.dto.BulkEnrollmentRequest;
+import com.example.main.dto.EnrollmentDTO;
+import com.example.main.exception.DuplicateEntryException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.mapper.EnrollmentMapper;
+import com.example.main.model.Enrollment;
+import com.example.main.model.StudentGroup;
+import com.example.main.model.Subject;
+import com.example.main.repository.EnrollmentRepository;
+import com.example.main.repository.StudentGroupRepository;
+import com.example.main.repository.SubjectRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for managing Enrollment entities.
+ * Handles business logic related to enrolling student groups in subjects.
+ */
+@Service
+@Transactional
+public class EnrollmentService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final SubjectRepository subjectRepository; // Used to resolve all requested subjects in one query
+    private final StudentGroupRepository studentGroupRepository; // Used to resolve all requested groups in one query
+    private final SubjectService subjectService; // Inject SubjectService to fetch Subject entity
+    private final StudentGroupService studentGroupService; // Inject StudentGroupService to fetch StudentGroup entity
+    private final EnrollmentMapper enrollmentMapper;
+
+    public EnrollmentService(EnrollmentRepository enrollmentRepository, SubjectRepository subjectRepository,
+                             StudentGroupRepository studentGroupRepository, SubjectService subjectService,
+                             StudentGroupService studentGroupService, EnrollmentMapper enrollmentMapper) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.subjectRepository = subjectRepository;
+        this.studentGroupRepository = studentGroupRepository;
+        this.subjectService = subjectService;
+        this.studentGroupService = studentGroupService;
+        this.enrollmentMapper = enrollmentMapper;
+    }
+
+    /**
+     * Enrolls a single student group in a subject.
+     * @param enrollmentDTO The DTO containing enrollment details.
+     * @return The created EnrollmentDTO.
+     * @throws ResourceNotFoundException if the student group or subject is not found.
+     * @throws DuplicateEntryException if the group is already enrolled in the subject.
+     */
+    public EnrollmentDTO createEnrollment(EnrollmentDTO enrollmentDTO) {
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(enrollmentDTO.getStudentGroupId());
+        Subject subject = subjectService.getSubjectEntityById(enrollmentDTO.getSubjectId());
+
+        if (!enrollmentRepository.findExisting(List.of(studentGroup.getId()), List.of(subject.getId())).isEmpty()) {
+            throw new DuplicateEntryException("Student group '" + studentGroup.getName()
+                    + "' is already enrolled in subject '" + subject.getCode() + "'.");
+        }
+
+        Enrollment enrollment = enrollmentMapper.toEnrollment(enrollmentDTO);
+        enrollment.setStudentGroup(studentGroup);
+        enrollment.setSubject(subject);
+
+        Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        return enrollmentMapper.toEnrollmentDTO(savedEnrollment);
+    }
+
+    /**
+     * Enrolls every requested student group in every requested subject.
+     * Groups, subjects and existing enrollments are each resolved with one query,
+     * and pairs that are already enrolled are skipped rather than rejected.
+     * @param request The DTO containing the student group IDs and subject IDs.
+     * @return A list of the newly created EnrollmentDTOs.
+     * @throws ResourceNotFoundException if any of the student groups or subjects is not found.
+     */
+    public List<EnrollmentDTO> bulkEnroll(BulkEnrollmentRequest request) {
+        Map<Long, StudentGroup> studentGroups = resolveAll(request.getStudentGroupIds(),
+                studentGroupRepository::findAllById, StudentGroup::getId, "Student group");
+        Map<Long, Subject> subjects = resolveAll(request.getSubjectIds(),
+                subjectRepository::findAllById, Subject::getId, "Subject");
+
+        Set<String> existingPairs = new HashSet<>();
+        for (Enrollment existing : enrollmentRepository.findExisting(studentGroups.keySet(), subjects.keySet())) {
+            existingPairs.add(existing.getStudentGroup().getId() + "|" + existing.getSubject().getId());
+        }
+
+        List<Enrollment> newEnrollments = new ArrayList<>();
+        for (StudentGroup studentGroup : studentGroups.values()) {
+            for (Subject subject : subjects.values()) {
+                if (existingPairs.contains(studentGroup.getId() + "|" + subject.getId())) {
+                    continue; // Already enrolled, nothing to do
+                }
+                newEnrollments.add(new Enrollment(null, studentGroup, subject));
+            }
+        }
+
+        return enrollmentRepository.saveAll(newEnrollments).stream()
+                .map(enrollmentMapper::toEnrollmentDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Withdraws every requested student group from every requested subject.
+     * @param request The DTO containing the student group IDs and subject IDs.
+     * @return The number of enrollments removed.
+     */
+    public int bulkWithdraw(BulkEnrollmentRequest request) {
+        return enrollmentRepository.deleteEnrollments(
+                new HashSet<>(request.getStudentGroupIds()), new HashSet<>(request.getSubjectIds()));
+    }
+
+    /**
+     * Retrieves the enrollments of a student group.
+     * @param studentGroupId The ID of the student group.
+     * @return A list of EnrollmentDTOs for the group.
+     * @throws ResourceNotFoundException if the student group is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<EnrollmentDTO> getEnrollmentsByStudentGroup(Long studentGroupId) {
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(studentGroupId);
+        return enrollmentRepository.findByStudentGroup(studentGroup).stream()
+                .map(enrollmentMapper::toEnrollmentDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the IDs of the student groups enrolled in a subject.
+     * @param subjectId The ID of the subject.
+     * @return A list of student group IDs.
+     * @throws ResourceNotFoundException if the subject is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getEnrolledStudentGroupIds(Long subjectId) {
+        subjectService.getSubjectEntityById(subjectId); // Ensure the subject exists
+        return enrollmentRepository.findStudentGroupsBySubjectId(subjectId).stream()
+                .map(StudentGroup::getId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the subject entities a student group is enrolled in. Used internally by other services.
+     * @param studentGroupId The ID of the student group.
+     * @return A list of Subject entities.
+     */
+    @Transactional(readOnly = true)
+    public List<Subject> getEnrolledSubjectEntities(Long studentGroupId) {
+        return enrollmentRepository.findSubjectsByStudentGroupId(studentGroupId);
+    }
+
+    /**
+     * Deletes an enrollment by its ID.
+     * @param id The ID of the enrollment to delete.
+     * @throws ResourceNotFoundException if the enrollment is not found.
+     */
+    public void deleteEnrollment(Long id) {
+        if (!enrollmentRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Enrollment not found with ID: " + id);
+        }
+        enrollmentRepository.deleteById(id);
+    }
+
+    /**
+     * Loads all requested entities with a single query, failing if any ID is unknown.
+     * @return The entities keyed by ID, in request order.
+     * @throws ResourceNotFoundException if any of the entities is not found.
+     */
+    private <T> Map<Long, T> resolveAll(List<Long> ids, Function<Set<Long>, List<T>> loader,
+                                        Function<T, Long> idOf, String entityName) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        Map<Long, T> found = loader.apply(requestedIds).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        Map<Long, T> ordered = new LinkedHashMap<>();
+        for (Long id : requestedIds) {
+            T entity = found.get(id);
+            if (entity == null) {
+                throw new ResourceNotFoundException(entityName + " not found with ID: " + id);
+            }
+            ordered.put(id, entity);
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.AttendanceEventDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Event sink appending each event as one JSON line to a local file (newline-delimited JSON), e.g. for the
+ * analytics jobs. Enabled by setting app.events.file.path. A batch is forced to disk before it counts as delivered.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.file.path")
+public class FileAttendanceEventSink implements AttendanceEventSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileAttendanceEventSink(ObjectMapper objectMapper, @Value("${app.events.file.path}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Paths.get(path);
+    }
+
+    @Override
+    public String getName() {
+        return "file " + path;
+    }
+
+    @Override
+    public synchronized void publish(List<AttendanceEventDTO> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 160);
+        for (AttendanceEventDTO event : events) {
+            lines.write(objectMapper.writeValueAsBytes(event));
+            lines.write('\n');
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.example.main.dto.AttendanceEventDTO;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Event sink posting each batch as a JSON array to an HTTP receiver (e.g. the ERP integration endpoint).
+ * Enabled by setting app.events.http.url. Any response other than 2xx fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.http.url")
+public class HttpAttendanceEventSink implements AttendanceEventSink {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+
+    public HttpAttendanceEventSink(ObjectMapper objectMapper,
+                                   @Value("${app.events.http.url}") String url,
+                                   @Value("${app.events.http.timeout-millis:5000}") long timeoutMillis) {
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+    }
+
+    @Override
+    public String getName() {
+        return "http " + url;
+    }
+
+    @Override
+    public void publish(List<AttendanceEventDTO> events) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while posting attendance events to " + url);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Attendance event receiver " + url + " answered HTTP " + response.statusCode());
+        }
+    }
+}
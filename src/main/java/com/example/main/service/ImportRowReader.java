@@ -0,0 +1,207 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader for bulk import files. Rows are parsed one at a time, so the whole file is never held in memory.
+ * CSV files need a header row naming the fields. Quoted values may contain commas, doubled quotes and line breaks.
+ * NDJSON files hold one JSON object per line. Blank lines are skipped in both formats.
+ * Field names are matched case-insensitively. A malformed row is returned with a parse error
+ * instead of aborting the import.
+ */
+class ImportRowReader implements Iterator<ImportRowReader.Row>, Closeable {
+
+    /**
+     * Supported file formats.
+     */
+    enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * One data row of the import file.
+     * @param lineNumber The 1-based line the row starts on.
+     * @param values Field values keyed by lower-cased field name, blank values omitted.
+     * @param error Parse error of the row, or null if it was read successfully.
+     */
+    record Row(long lineNumber, Map<String, String> values, String error) {
+
+        String get(String field) {
+            return values.get(field.toLowerCase());
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private long lineNumber;
+    private Row next;
+
+    ImportRowReader(InputStream inputStream, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = format == Format.CSV ? readCsvRow() : readJsonRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row readJsonRow() {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (!node.isObject()) {
+                return new Row(lineNumber, Map.of(), "Line is not a JSON object");
+            }
+            Map<String, String> values = new HashMap<>();
+            node.fields().forEachRemaining(field -> {
+                if (!field.getValue().isNull() && !field.getValue().asText().isBlank()) {
+                    values.put(field.getKey().toLowerCase(), field.getValue().asText().trim());
+                }
+            });
+            return new Row(lineNumber, values, null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, Map.of(), "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row readCsvRow() {
+        if (header == null) {
+            List<String> names = readCsvRecord();
+            if (names == null) {
+                return null;
+            }
+            header = names.stream().map(name -> name.trim().toLowerCase()).toList();
+        }
+        List<String> fields;
+        long startLine;
+        do {
+            startLine = lineNumber + 1;
+            fields = readCsvRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank());
+
+        if (fields.size() != header.size()) {
+            return new Row(startLine, Map.of(), "Expected " + header.size() + " columns but found " + fields.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String value = fields.get(i).trim();
+            if (!value.isEmpty()) {
+                values.put(header.get(i), value);
+            }
+        }
+        return new Row(startLine, values, null);
+    }
+
+    /**
+     * Reads one CSV record, which may span several physical lines if a quoted value contains line breaks.
+     * @return The fields of the record, or null at end of input.
+     */
+    private List<String> readCsvRecord() {
+        String line = readLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String continuation = readLine();
+                if (continuation == null) {
+                    break; // Unterminated quote: keep what was read
+                }
+                field.append('\n');
+                line = continuation;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String readLine() {
+        try {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1); // Strip UTF-8 byte order mark
+                }
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.main.dto.LectureAttendanceStreamDTO;
+import com.example.main.event.AttendanceChangedEvent;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.model.AttendanceStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service streaming the live attendance of lectures as server-sent events.
+ * Every watched lecture has one shared stream holding its current marks in memory: a new subscriber gets a compact
+ * snapshot from it (no database query), and every committed change from the marking path is applied once and sent
+ * to all subscribers as one pre-serialized delta. Changes without per-record details (leave, bulk corrections) and
+ * a periodic reconciliation reload the lecture with a single query, which also picks up changes made on other
+ * nodes and deletions. Connections are held by the servlet container's async support, not by threads; the work of
+ * a stream (loading, applying, sending) is queued and run one task at a time on a small shared pool, so the marking
+ * request only enqueues. Lectures nobody watches cost nothing.
+ */
+@Service
+public class LectureAttendanceStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(LectureAttendanceStreamService.class);
+
+    private static final String LECTURE_MARKS = "SELECT r.student_id, r.status, r.marking_timestamp "
+            + "FROM attendance_records r WHERE r.lecture_id = :lectureId";
+
+    private static final String STUDENT_COUNT = "SELECT COUNT(*) FROM students s "
+            + "JOIN lectures l ON l.student_group_id = s.student_group_id WHERE l.id = :lectureId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final LectureService lectureService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService fanOut; // Shared by all streams
+    private final long timeoutMillis;
+    private final Map<Long, LectureStream> streams = new ConcurrentHashMap<>(); // Watched lectures only
+    private final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("keep-alive").build();
+
+    public LectureAttendanceStreamService(NamedParameterJdbcTemplate jdbcTemplate, LectureService lectureService,
+                                          ObjectMapper objectMapper,
+                                          @Value("${app.attendance.live.fan-out-threads:4}") int fanOutThreads,
+                                          @Value("${app.attendance.live.timeout-millis:1800000}") long timeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lectureService = lectureService;
+        this.objectMapper = objectMapper;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("attendance-stream-");
+        threadFactory.setDaemon(true);
+        this.fanOut = Executors.newFixedThreadPool(fanOutThreads, threadFactory);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Opens a live attendance stream of a lecture. The first event ('snapshot') holds every mark; the following
+     * ones ('delta') hold the changed marks. After a timeout the stream ends and clients reconnect for a new snapshot.
+     * @param lectureId The ID of the lecture.
+     * @return The emitter of the stream.
+     * @throws ResourceNotFoundException if the lecture is not found.
+     */
+    public SseEmitter subscribe(Long lectureId) {
+        if (!streams.containsKey(lectureId)) {
+            lectureService.getLectureEntityById(lectureId);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onTimeout(emitter::complete);
+        emitter.onCompletion(() -> {
+            LectureStream stream = streams.get(lectureId);
+            if (stream != null) {
+                stream.submit(() -> stream.remove(emitter));
+            }
+        });
+        join(lectureId, emitter);
+        return emitter;
+    }
+
+    /**
+     * @return The number of lectures currently watched on this node.
+     */
+    public int getWatchedLectureCount() {
+        return streams.size();
+    }
+
+    private void join(long lectureId, SseEmitter emitter) {
+        LectureStream stream = streams.computeIfAbsent(lectureId, id -> {
+            LectureStream opened = new LectureStream(id);
+            opened.submit(opened::load);
+            return opened;
+        });
+        stream.submit(() -> stream.add(emitter));
+    }
+
+    /**
+     * Forwards committed attendance changes to the streams of the affected lectures, if watched.
+     * @param event The change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAttendanceChanged(AttendanceChangedEvent event) {
+        for (Long lectureId : event.lectureIds()) {
+            LectureStream stream = streams.get(lectureId);
+            if (stream != null) {
+                stream.submit(event.changes() != null ? () -> stream.apply(event.changes()) : stream::load);
+            }
+        }
+    }
+
+    /**
+     * Scheduled job sending a comment to every subscriber, which keeps proxies from closing idle streams and
+     * detects disconnected clients.
+     */
+    @Scheduled(fixedDelayString = "${app.attendance.live.heartbeat-millis:20000}")
+    public void sendHeartbeats() {
+        streams.values().forEach(stream -> stream.submit(stream::sendHeartbeat));
+    }
+
+    /**
+     * Scheduled job reloading every watched lecture and sending the differences.
+     */
+    @Scheduled(fixedDelayString = "${app.attendance.live.reconcile-millis:30000}")
+    public void reconcile() {
+        streams.values().forEach(stream -> stream.submit(stream::load));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    private record Mark(AttendanceStatus status, LocalDateTime markedAt) {
+    }
+
+    /**
+     * The shared stream of one lecture. Tasks are queued and run one at a time, so the fields below the queue need
+     * no locking.
+     */
+    private final class LectureStream {
+
+        private final long lectureId;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(); // A drain is queued or running
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private final Map<Long, Mark> marks = new HashMap<>(); // Per student ID
+        private int studentCount;
+        private Set<ResponseBodyEmitter.DataWithMediaType> snapshot; // Serialized snapshot, until the next change
+        private boolean closed; // Removed from the watched lectures; late subscribers join a new stream
+
+        LectureStream(long lectureId) {
+            this.lectureId = lectureId;
+        }
+
+        void submit(Runnable task) {
+            tasks.add(task);
+            if (scheduled.compareAndSet(false, true)) {
+                fanOut.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Live attendance stream task of lecture {} failed", lectureId, e);
+                }
+            }
+            scheduled.set(false);
+            if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+                fanOut.execute(this::drain); // A task was queued after the last poll
+            }
+        }
+
+        void add(SseEmitter emitter) {
+            if (closed) {
+                join(lectureId, emitter);
+                return;
+            }
+            if (send(emitter, snapshot())) {
+                emitters.add(emitter);
+            }
+        }
+
+        void remove(SseEmitter emitter) {
+            emitters.remove(emitter);
+            closeIfIdle();
+        }
+
+        /**
+         * Reloads the marks from the database, which is authoritative, and sends what differs.
+         */
+        void load() {
+            MapSqlParameterSource params = new MapSqlParameterSource("lectureId", lectureId);
+            Map<Long, Mark> loaded = new HashMap<>();
+            jdbcTemplate.query(LECTURE_MARKS, params, rs -> {
+                loaded.put(rs.getLong("student_id"), new Mark(AttendanceStatus.valueOf(rs.getString("status")),
+                        rs.getTimestamp("marking_timestamp").toLocalDateTime()));
+            });
+            Integer students = jdbcTemplate.queryForObject(STUDENT_COUNT, params, Integer.class);
+            Map<Long, Character> changed = new LinkedHashMap<>();
+            loaded.forEach((studentId, mark) -> {
+                Mark current = marks.get(studentId);
+                if (current == null || current.status() != mark.status()) {
+                    changed.put(studentId, mark.status().getSymbol());
+                }
+            });
+            marks.keySet().stream().filter(studentId -> !loaded.containsKey(studentId))
+                    .forEach(studentId -> changed.put(studentId, null));
+            boolean countChanged = students != null && students != studentCount;
+            marks.clear();
+            marks.putAll(loaded);
+            studentCount = students != null ? students : 0;
+            if (!changed.isEmpty() || countChanged) {
+                broadcast(changed);
+            }
+        }
+
+        /**
+         * Applies changes of this lecture. A change older than the mark already known (events of concurrent
+         * transactions can arrive out of order) is skipped.
+         */
+        void apply(List<AttendanceAuditService.Change> changes) {
+            Map<Long, Character> changed = new LinkedHashMap<>();
+            for (AttendanceAuditService.Change change : changes) {
+                Mark current = marks.get(change.studentId());
+                if (current == null || !change.changedAt().isBefore(current.markedAt())) {
+                    marks.put(change.studentId(), new Mark(change.newStatus(), change.changedAt()));
+                    changed.put(change.studentId(), change.newStatus().getSymbol());
+                }
+            }
+            if (!changed.isEmpty()) {
+                broadcast(changed);
+            }
+        }
+
+        void sendHeartbeat() {
+            emitters.removeIf(emitter -> !send(emitter, heartbeat));
+            closeIfIdle();
+        }
+
+        private void broadcast(Map<Long, Character> changed) {
+            snapshot = null;
+            if (emitters.isEmpty()) {
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> delta = frame("delta", changed);
+            emitters.removeIf(emitter -> !send(emitter, delta));
+            closeIfIdle();
+        }
+
+        private Set<ResponseBodyEmitter.DataWithMediaType> snapshot() {
+            if (snapshot == null) {
+                Map<Long, Character> statuses = new TreeMap<>();
+                marks.forEach((studentId, mark) -> statuses.put(studentId, mark.status().getSymbol()));
+                snapshot = frame("snapshot", statuses);
+            }
+            return snapshot;
+        }
+
+        private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Map<Long, Character> statuses) {
+            int[] counts = new int[AttendanceStatus.values().length + 1]; // Indexed by status code
+            marks.values().forEach(mark -> counts[mark.status().getCode()]++);
+            LectureAttendanceStreamDTO message = new LectureAttendanceStreamDTO(lectureId, studentCount,
+                    counts[AttendanceStatus.PRESENT.getCode()], counts[AttendanceStatus.ABSENT.getCode()],
+                    counts[AttendanceStatus.LEAVE.getCode()], statuses);
+            try {
+                return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(message)).build();
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e); // Not thrown for plain DTOs
+            }
+        }
+
+        private boolean send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            try {
+                emitter.send(frame);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false; // Disconnected or already completed; the container completes the emitter
+            }
+        }
+
+        private void closeIfIdle() {
+            if (emitters.isEmpty() && !closed) {
+                closed = true;
+                streams.remove(lectureId, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,705 @@
+package com.example.main.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.dto.LectureDTO;
+import com.example.main.dto.LectureSeriesDTO;
+import com.example.main.dto.SeriesGenerationResultDTO;
+import com.example.main.event.LectureScheduleChangedEvent;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.exception.SchedulingConflictException;
+import com.example.main.mapper.LectureSeriesMapper;
+import com.example.main.model.AttendanceEventType;
+import com.example.main.model.Lecture;
+import com.example.main.model.LectureSeries;
+import com.example.main.model.StudentGroup;
+import com.example.main.model.SyncEntityType;
+import com.example.main.model.Subject;
+import com.example.main.model.Teacher;
+import com.example.main.repository.LectureRepository;
+import com.example.main.repository.LectureSeriesRepository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for managing recurring lecture series (the weekly timetable).
+ * A series expands into one Lecture per matching weekday of its date range, skipping excluded dates.
+ * Generation resolves the subject, teacher and student group once and writes the lectures with JDBC batches.
+ * Regeneration is idempotent: occurrences are reconciled with the pattern by date (a series has at most
+ * one lecture per date), so re-running it changes nothing.
+ * Virtual series are never expanded up front. Their occurrences are computed for date queries and counted by
+ * rule arithmetic. An occurrence is stored as a Lecture only when attendance is marked for it or it is edited.
+ * Every occurrence, stored or virtual, is reserved in the ScheduleConflictIndex, so a series cannot double-book
+ * its teacher, room or student group.
+ */
+@Service
+@Transactional
+public class LectureSeriesService {
+
+    private static final long MAX_SERIES_DAYS = 366; // Guard against accidental multi-year expansions
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1); // Date range used when no date filter is given
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    // Occurrences on the given dates whose slot no longer matches the series
+    private static final String OUTDATED = "series_id = :seriesId AND lecture_date IN (:dates) AND ("
+            + "start_time <> :startTime OR end_time <> :endTime OR subject_id <> :subjectId OR teacher_id <> :teacherId "
+            + "OR student_group_id <> :studentGroupId OR COALESCE(room_number, '') <> :roomNumber)";
+
+    private final LectureSeriesRepository lectureSeriesRepository;
+    private final LectureRepository lectureRepository; // Materializes occurrences of virtual series
+    private final SubjectService subjectService;
+    private final TeacherService teacherService;
+    private final StudentGroupService studentGroupService;
+    private final LectureSeriesMapper lectureSeriesMapper;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncService syncService; // Tombstones of deleted lectures
+    private final AttendanceEventOutboxService attendanceEventOutboxService; // Events of the written lectures
+    private final int batchSize;
+
+    public LectureSeriesService(LectureSeriesRepository lectureSeriesRepository, LectureRepository lectureRepository,
+                                SubjectService subjectService,
+                                TeacherService teacherService, StudentGroupService studentGroupService,
+                                LectureSeriesMapper lectureSeriesMapper, NamedParameterJdbcTemplate jdbcTemplate,
+                                ScheduleConflictIndex scheduleConflictIndex, ApplicationEventPublisher eventPublisher,
+                                SyncService syncService, AttendanceEventOutboxService attendanceEventOutboxService,
+                                @Value("${app.timetable.batch-size:500}") int batchSize) {
+        this.lectureSeriesRepository = lectureSeriesRepository;
+        this.lectureRepository = lectureRepository;
+        this.subjectService = subjectService;
+        this.teacherService = teacherService;
+        this.studentGroupService = studentGroupService;
+        this.lectureSeriesMapper = lectureSeriesMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scheduleConflictIndex = scheduleConflictIndex;
+        this.eventPublisher = eventPublisher;
+        this.syncService = syncService;
+        this.attendanceEventOutboxService = attendanceEventOutboxService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Expands a weekly pattern into its occurrence dates.
+     * @param dayOfWeek The weekday of the occurrences.
+     * @param startDate The first day of the range (inclusive).
+     * @param endDate The last day of the range (inclusive).
+     * @param excludedDates Dates without an occurrence.
+     * @return The occurrence dates in ascending order.
+     */
+    public static List<LocalDate> occurrences(DayOfWeek dayOfWeek, LocalDate startDate, LocalDate endDate,
+                                              Set<LocalDate> excludedDates) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate.with(TemporalAdjusters.nextOrSame(dayOfWeek)); !date.isAfter(endDate);
+             date = date.plusWeeks(1)) {
+            if (excludedDates == null || !excludedDates.contains(date)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Counts the occurrences of a series up to a date by arithmetic on the rule, without expanding it.
+     * @param series The lecture series.
+     * @param upToDate The last date to count (inclusive).
+     * @return The number of occurrences between the series start and min(series end, upToDate).
+     */
+    public static long countOccurrences(LectureSeries series, LocalDate upToDate) {
+        LocalDate first = series.getStartDate().with(TemporalAdjusters.nextOrSame(series.getDayOfWeek()));
+        LocalDate last = series.getEndDate().isBefore(upToDate) ? series.getEndDate() : upToDate;
+        if (first.isAfter(last)) {
+            return 0;
+        }
+        long count = ChronoUnit.DAYS.between(first, last) / 7 + 1;
+        for (LocalDate excluded : series.getExcludedDates()) {
+            if (excluded.getDayOfWeek() == series.getDayOfWeek() && !excluded.isBefore(first) && !excluded.isAfter(last)) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a date is an occurrence of a series.
+     * @param series The lecture series.
+     * @param date The date to check.
+     * @return True if the series takes place on that date.
+     */
+    public static boolean isOccurrence(LectureSeries series, LocalDate date) {
+        return date.getDayOfWeek() == series.getDayOfWeek()
+                && !date.isBefore(series.getStartDate())
+                && !date.isAfter(series.getEndDate())
+                && !series.getExcludedDates().contains(date);
+    }
+
+    /**
+     * Previews the lectures a new series would generate, without saving anything.
+     * @param seriesDTO The DTO containing the series details.
+     * @return The generation result in preview mode.
+     * @throws ResourceNotFoundException if the associated subject, teacher or student group is not found.
+     * @throws InvalidOperationException if the times or dates are inconsistent.
+     */
+    @Transactional(readOnly = true)
+    public SeriesGenerationResultDTO previewSeries(LectureSeriesDTO seriesDTO) {
+        validate(seriesDTO);
+        subjectService.getSubjectEntityById(seriesDTO.getSubjectId());
+        teacherService.getTeacherEntityById(seriesDTO.getTeacherId());
+        studentGroupService.getStudentGroupEntityById(seriesDTO.getStudentGroupId());
+
+        SeriesGenerationResultDTO result = new SeriesGenerationResultDTO();
+        result.setPreview(true);
+        result.setFromDate(seriesDTO.getStartDate());
+        List<LocalDate> dates = occurrences(seriesDTO.getDayOfWeek(), seriesDTO.getStartDate(), seriesDTO.getEndDate(),
+                seriesDTO.getExcludedDates());
+        if (seriesDTO.isMaterialized()) { // A virtual series stores nothing up front
+            result.setCreatedDates(dates);
+        }
+        addConflicts(result, dates, new ScheduleConflictIndex.Slot(null, null, seriesDTO.getSubjectId(),
+                seriesDTO.getTeacherId(), seriesDTO.getRoomNumber(), seriesDTO.getStudentGroupId(),
+                seriesDTO.getStartTime(), seriesDTO.getEndTime()));
+        return result;
+    }
+
+    /**
+     * Creates a series and generates all of its lectures (none for a virtual series).
+     * @param seriesDTO The DTO containing the series details.
+     * @return The generation result.
+     * @throws ResourceNotFoundException if the associated subject, teacher or student group is not found.
+     * @throws InvalidOperationException if the times or dates are inconsistent.
+     * @throws SchedulingConflictException if an occurrence double-books the teacher, room or student group.
+     */
+    public SeriesGenerationResultDTO createSeries(LectureSeriesDTO seriesDTO) {
+        validate(seriesDTO);
+        LectureSeries series = new LectureSeries();
+        applyDefinition(seriesDTO, series);
+        LectureSeries savedSeries = lectureSeriesRepository.saveAndFlush(series); // Lectures reference it by ID
+        return reconcile(savedSeries, savedSeries.getStartDate(), false);
+    }
+
+    /**
+     * Replaces the definition of a series and regenerates its occurrences from a given date onward.
+     * Earlier occurrences are left as they are. A virtual series has no rows for its unmarked past occurrences
+     * (they and the lecture totals are computed from its rule), so if the old or the new definition is virtual and
+     * the series started before that date, it is split instead of changed: the series ends the day before, and a
+     * new series with the new definition takes over from that date, together with the occurrences already stored.
+     * @param id The ID of the series.
+     * @param seriesDTO The new series details.
+     * @param fromDate First date whose occurrences are replaced; defaults to today.
+     * @param preview If true, only reports what would change.
+     * @return The generation result, naming the new series if the series was split.
+     * @throws ResourceNotFoundException if the series, subject, teacher or student group is not found.
+     * @throws InvalidOperationException if the times or dates are inconsistent.
+     * @throws SchedulingConflictException if an occurrence double-books the teacher, room or student group.
+     */
+    public SeriesGenerationResultDTO updateSeries(Long id, LectureSeriesDTO seriesDTO, LocalDate fromDate, boolean preview) {
+        validate(seriesDTO);
+        LectureSeries series = getLectureSeriesEntityById(id);
+        LocalDate effectiveFrom = fromDate != null ? fromDate : LocalDate.now();
+        boolean split = (!series.isMaterialized() || !seriesDTO.isMaterialized())
+                && series.getStartDate().isBefore(effectiveFrom);
+        if (preview) {
+            // Reconcile against a detached copy so the managed entity is never modified
+            LectureSeries proposed = new LectureSeries();
+            proposed.setId(series.getId());
+            applyDefinition(seriesDTO, proposed);
+            if (split && proposed.getStartDate().isBefore(effectiveFrom)) {
+                proposed.setStartDate(effectiveFrom);
+            }
+            return reconcile(proposed, effectiveFrom, true);
+        }
+        // Virtual occurrences of the old definition have no rows to report; drop them from the index explicitly
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(new HashSet<>(occurrences(series.getDayOfWeek(),
+                effectiveFrom.isAfter(series.getStartDate()) ? effectiveFrom : series.getStartDate(), series.getEndDate(),
+                series.getExcludedDates()))));
+        if (split) {
+            return splitSeries(series, seriesDTO, effectiveFrom);
+        }
+        applyDefinition(seriesDTO, series);
+        LectureSeries savedSeries = lectureSeriesRepository.saveAndFlush(series);
+        return reconcile(savedSeries, effectiveFrom, false);
+    }
+
+    /**
+     * Regenerates the occurrences of a series from its stored definition, e.g. after lectures were deleted
+     * or edited by hand. Idempotent: running it twice in a row reports no changes the second time.
+     * @param id The ID of the series.
+     * @param fromDate First date to regenerate; defaults to today so past occurrences stay as they were held.
+     * @param preview If true, only reports what would change.
+     * @return The generation result.
+     * @throws ResourceNotFoundException if the series is not found.
+     * @throws SchedulingConflictException if an occurrence double-books the teacher, room or student group.
+     */
+    public SeriesGenerationResultDTO regenerateSeries(Long id, LocalDate fromDate, boolean preview) {
+        LectureSeries series = getLectureSeriesEntityById(id);
+        return reconcile(series, fromDate != null ? fromDate : LocalDate.now(), preview);
+    }
+
+    /**
+     * Computes the not yet stored occurrences of a teacher's virtual series.
+     * @param teacherId The ID of the teacher.
+     * @param date (Optional) Only occurrences on this date; if null, all occurrences.
+     * @return A list of virtual LectureDTOs (without ID).
+     */
+    @Transactional(readOnly = true)
+    public List<LectureDTO> getVirtualOccurrencesByTeacher(Long teacherId, LocalDate date) {
+        LocalDate fromDate = date != null ? date : EARLIEST;
+        LocalDate toDate = date != null ? date : LATEST;
+        return virtualOccurrences(lectureSeriesRepository.findVirtualByTeacher(teacherId, fromDate, toDate),
+                fromDate, toDate);
+    }
+
+    /**
+     * Computes the not yet stored occurrences of a student group's virtual series.
+     * @param studentGroupId The ID of the student group.
+     * @param date (Optional) Only occurrences on this date; if null, all occurrences.
+     * @return A list of virtual LectureDTOs (without ID).
+     */
+    @Transactional(readOnly = true)
+    public List<LectureDTO> getVirtualOccurrencesByStudentGroup(Long studentGroupId, LocalDate date) {
+        LocalDate fromDate = date != null ? date : EARLIEST;
+        LocalDate toDate = date != null ? date : LATEST;
+        return virtualOccurrences(lectureSeriesRepository.findVirtualByStudentGroup(studentGroupId, fromDate, toDate),
+                fromDate, toDate);
+    }
+
+    /**
+     * Computes the not yet stored occurrences of a student group's virtual series in a date range.
+     * @param studentGroupId The ID of the student group.
+     * @param fromDate The first day of the range (inclusive).
+     * @param toDate The last day of the range (inclusive).
+     * @return A list of virtual LectureDTOs (without ID), by date and start time.
+     */
+    @Transactional(readOnly = true)
+    public List<LectureDTO> getVirtualOccurrencesByStudentGroup(Long studentGroupId, LocalDate fromDate,
+                                                                LocalDate toDate) {
+        return virtualOccurrences(lectureSeriesRepository.findVirtualByStudentGroup(studentGroupId, fromDate, toDate),
+                fromDate, toDate);
+    }
+
+    /**
+     * Computes the not yet stored occurrences of virtual series in a date range.
+     * @param teacherId (Optional) Only occurrences of this teacher.
+     * @param departmentId (Optional) Only occurrences of teachers in this department.
+     * @param fromDate The first day of the range (inclusive).
+     * @param toDate The last day of the range (inclusive).
+     * @return A list of virtual LectureDTOs (without ID), by date and start time.
+     */
+    @Transactional(readOnly = true)
+    public List<LectureDTO> getVirtualOccurrencesBetween(Long teacherId, Long departmentId, LocalDate fromDate,
+                                                         LocalDate toDate) {
+        return virtualOccurrences(lectureSeriesRepository.findVirtualBetween(teacherId, departmentId, fromDate, toDate),
+                fromDate, toDate);
+    }
+
+    /**
+     * Counts the lectures of a subject for a student group that come from virtual series, up to a date.
+     * Counted by rule arithmetic, whether or not the occurrences have been stored.
+     * @param subjectId The ID of the subject.
+     * @param studentGroupId The ID of the student group.
+     * @param upToDate The last date to count (inclusive).
+     * @return The number of virtual series occurrences.
+     */
+    @Transactional(readOnly = true)
+    public long countVirtualLectures(Long subjectId, Long studentGroupId, LocalDate upToDate) {
+        long count = 0;
+        for (LectureSeries series : lectureSeriesRepository.findVirtualBySubjectAndStudentGroup(subjectId, studentGroupId)) {
+            count += countOccurrences(series, upToDate);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the stored Lecture of a series occurrence, creating it first if the occurrence is still virtual.
+     * Used before marking attendance for or editing an occurrence.
+     * @param seriesId The ID of the series.
+     * @param date The date of the occurrence.
+     * @return The Lecture entity of the occurrence.
+     * @throws ResourceNotFoundException if the series is not found.
+     * @throws InvalidOperationException if the series does not take place on that date.
+     */
+    public Lecture materializeOccurrence(Long seriesId, LocalDate date) {
+        LectureSeries series = getLectureSeriesEntityById(seriesId);
+        return lectureRepository.findBySeriesAndLectureDate(series, date).orElseGet(() -> {
+            if (!isOccurrence(series, date)) {
+                throw new InvalidOperationException("Lecture series " + seriesId + " has no occurrence on " + date + ".");
+            }
+            Lecture lecture = new Lecture();
+            lecture.setSeries(series);
+            lecture.setSubject(series.getSubject());
+            lecture.setTeacher(series.getTeacher());
+            lecture.setStudentGroup(series.getStudentGroup());
+            lecture.setLectureDate(date);
+            lecture.setStartTime(series.getStartTime());
+            lecture.setEndTime(series.getEndTime());
+            lecture.setRoomNumber(series.getRoomNumber());
+            // The (series_id, lecture_date) unique index rejects a concurrent second materialization
+            Lecture savedLecture = lectureRepository.saveAndFlush(lecture);
+            attendanceEventOutboxService.recordLectureEvent(AttendanceEventType.LECTURE_SCHEDULED, savedLecture.getId());
+            eventPublisher.publishEvent(new LectureScheduleChangedEvent(Set.of(date)));
+            return savedLecture;
+        });
+    }
+
+    /**
+     * Retrieves a series by its ID.
+     * @param id The ID of the series.
+     * @return The LectureSeriesDTO if found.
+     * @throws ResourceNotFoundException if the series is not found.
+     */
+    @Transactional(readOnly = true)
+    public LectureSeriesDTO getLectureSeriesById(Long id) {
+        return lectureSeriesMapper.toLectureSeriesDTO(getLectureSeriesEntityById(id));
+    }
+
+    /**
+     * Retrieves a series entity by its ID (for internal service use).
+     * @param id The ID of the series.
+     * @return The LectureSeries entity.
+     * @throws ResourceNotFoundException if the series is not found.
+     */
+    @Transactional(readOnly = true)
+    public LectureSeries getLectureSeriesEntityById(Long id) {
+        return lectureSeriesRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Lecture series not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves all series, optionally only those of one student group.
+     * @param studentGroupId (Optional) The ID of the student group.
+     * @return A list of LectureSeriesDTOs.
+     * @throws ResourceNotFoundException if the student group is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<LectureSeriesDTO> getAllLectureSeries(Long studentGroupId) {
+        List<LectureSeries> series = studentGroupId != null
+                ? lectureSeriesRepository.findByStudentGroup(studentGroupService.getStudentGroupEntityById(studentGroupId))
+                : lectureSeriesRepository.findAll();
+        return series.stream()
+                .map(lectureSeriesMapper::toLectureSeriesDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Deletes a series. Its occurrences without attendance are deleted; occurrences with attendance
+     * are kept as one-off lectures.
+     * @param id The ID of the series.
+     * @return The generation result listing deleted and retained occurrences.
+     * @throws ResourceNotFoundException if the series is not found.
+     */
+    public SeriesGenerationResultDTO deleteSeries(Long id) {
+        LectureSeries series = getLectureSeriesEntityById(id);
+        SeriesGenerationResultDTO result = new SeriesGenerationResultDTO();
+        result.setSeriesId(id);
+        result.setFromDate(series.getStartDate());
+
+        List<Long> staleIds = new ArrayList<>();
+        for (Occurrence occurrence : loadOccurrences(id, null)) {
+            if (occurrence.marked()) {
+                result.getRetainedDates().add(occurrence.date());
+            } else {
+                staleIds.add(occurrence.id());
+                result.getDeletedDates().add(occurrence.date());
+            }
+        }
+        deleteLectures(staleIds);
+        jdbcTemplate.update("UPDATE lectures SET series_id = NULL WHERE series_id = :seriesId",
+                new MapSqlParameterSource("seriesId", id));
+        lectureSeriesRepository.delete(series);
+
+        Set<LocalDate> changed = new HashSet<>(occurrences(series.getDayOfWeek(), series.getStartDate(),
+                series.getEndDate(), series.getExcludedDates()));
+        changed.addAll(result.getDeletedDates());
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(changed));
+        return result;
+    }
+
+    /**
+     * Ends a series the day before a date and continues it from that date as a new series with a new definition.
+     * The stored occurrences from that date on move to the new series and are reconciled with its definition.
+     * If the new definition has no dates left from then on, no series is created and the old one just ends.
+     */
+    private SeriesGenerationResultDTO splitSeries(LectureSeries series, LectureSeriesDTO seriesDTO, LocalDate fromDate) {
+        LectureSeries successor = new LectureSeries();
+        applyDefinition(seriesDTO, successor);
+        if (successor.getStartDate().isBefore(fromDate)) {
+            successor.setStartDate(fromDate);
+        }
+        if (!series.getEndDate().isBefore(fromDate)) {
+            series.setEndDate(fromDate.minusDays(1));
+        }
+        LectureSeries endedSeries = lectureSeriesRepository.saveAndFlush(series);
+        if (successor.getStartDate().isAfter(successor.getEndDate())) {
+            return reconcile(endedSeries, fromDate, false);
+        }
+        LectureSeries savedSuccessor = lectureSeriesRepository.saveAndFlush(successor); // Lectures reference it by ID
+        jdbcTemplate.update("UPDATE lectures SET series_id = :successorId "
+                + "WHERE series_id = :seriesId AND lecture_date >= :fromDate",
+                new MapSqlParameterSource("successorId", savedSuccessor.getId())
+                        .addValue("seriesId", series.getId())
+                        .addValue("fromDate", Date.valueOf(fromDate)));
+        return reconcile(savedSuccessor, fromDate, false);
+    }
+
+    private List<LectureDTO> virtualOccurrences(List<LectureSeries> seriesList, LocalDate fromDate, LocalDate toDate) {
+        if (seriesList.isEmpty()) {
+            return List.of();
+        }
+        // Occurrences already stored as Lecture rows are returned by the regular lecture queries
+        Set<String> stored = new HashSet<>();
+        MapSqlParameterSource params = new MapSqlParameterSource("seriesIds",
+                seriesList.stream().map(LectureSeries::getId).collect(Collectors.toList()))
+                .addValue("fromDate", Date.valueOf(fromDate))
+                .addValue("toDate", Date.valueOf(toDate));
+        jdbcTemplate.query("SELECT series_id, lecture_date FROM lectures WHERE series_id IN (:seriesIds) "
+                + "AND lecture_date BETWEEN :fromDate AND :toDate", params, rs -> {
+            stored.add(rs.getLong("series_id") + "|" + rs.getDate("lecture_date").toLocalDate());
+        });
+
+        List<LectureDTO> occurrences = new ArrayList<>();
+        for (LectureSeries series : seriesList) {
+            List<LocalDate> dates = occurrences(series.getDayOfWeek(),
+                    series.getStartDate().isAfter(fromDate) ? series.getStartDate() : fromDate,
+                    series.getEndDate().isBefore(toDate) ? series.getEndDate() : toDate, series.getExcludedDates());
+            for (LocalDate occurrenceDate : dates) {
+                if (!stored.contains(series.getId() + "|" + occurrenceDate)) {
+                    occurrences.add(toOccurrenceDTO(series, occurrenceDate));
+                }
+            }
+        }
+        occurrences.sort(Comparator.comparing(LectureDTO::getLectureDate).thenComparing(LectureDTO::getStartTime));
+        return occurrences;
+    }
+
+    private LectureDTO toOccurrenceDTO(LectureSeries series, LocalDate date) {
+        LectureDTO dto = new LectureDTO();
+        dto.setLectureDate(date);
+        dto.setStartTime(series.getStartTime());
+        dto.setEndTime(series.getEndTime());
+        dto.setRoomNumber(series.getRoomNumber());
+        dto.setSubjectId(series.getSubject().getId());
+        dto.setSubjectName(series.getSubject().getName());
+        dto.setSubjectCode(series.getSubject().getCode());
+        dto.setStudentGroupId(series.getStudentGroup().getId());
+        dto.setStudentGroupName(series.getStudentGroup().getName());
+        dto.setTeacherId(series.getTeacher().getId());
+        dto.setTeacherName(series.getTeacher().getUser().getFirstName() + " " + series.getTeacher().getUser().getLastName());
+        dto.setSeriesId(series.getId());
+        dto.setVirtualOccurrence(true);
+        return dto;
+    }
+
+    /**
+     * Reconciles the stored occurrences of a series from a given date onward with its pattern.
+     * Virtual series only reconcile occurrences that are already stored; missing ones are never created.
+     */
+    private SeriesGenerationResultDTO reconcile(LectureSeries series, LocalDate fromDate, boolean preview) {
+        SeriesGenerationResultDTO result = new SeriesGenerationResultDTO();
+        result.setSeriesId(series.getId());
+        result.setPreview(preview);
+        result.setFromDate(fromDate);
+
+        List<LocalDate> expected = occurrences(series.getDayOfWeek(), series.getStartDate(), series.getEndDate(),
+                series.getExcludedDates()).stream()
+                .filter(date -> !date.isBefore(fromDate))
+                .collect(Collectors.toList());
+        Set<LocalDate> expectedSet = new HashSet<>(expected);
+
+        Map<LocalDate, Occurrence> existing = new HashMap<>();
+        List<Long> staleIds = new ArrayList<>();
+        if (series.getId() != null) {
+            for (Occurrence occurrence : loadOccurrences(series.getId(), fromDate)) {
+                existing.put(occurrence.date(), occurrence);
+                if (expectedSet.contains(occurrence.date())) {
+                    continue;
+                }
+                if (occurrence.marked()) {
+                    result.getRetainedDates().add(occurrence.date());
+                } else {
+                    staleIds.add(occurrence.id());
+                    result.getDeletedDates().add(occurrence.date());
+                }
+            }
+        }
+        for (LocalDate date : expected) {
+            if (series.isMaterialized() && !existing.containsKey(date)) {
+                result.getCreatedDates().add(date);
+            }
+        }
+        List<LocalDate> kept = expected.stream().filter(existing::containsKey).collect(Collectors.toList());
+        ScheduleConflictIndex.Slot slot = new ScheduleConflictIndex.Slot(null, series.getId(),
+                series.getSubject().getId(), series.getTeacher().getId(), series.getRoomNumber(),
+                series.getStudentGroup().getId(), series.getStartTime(), series.getEndTime());
+
+        if (preview) {
+            result.setUpdated(kept.isEmpty() ? 0 : countOutdated(series, kept));
+            addConflicts(result, expected, slot);
+            return result;
+        }
+        // Drops the cached copies of these dates once this transaction completes
+        Set<LocalDate> changed = new HashSet<>(expected);
+        changed.addAll(result.getDeletedDates());
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(changed));
+        // Virtual occurrences are bookings too, so every expected date is reserved, not only the created ones
+        scheduleConflictIndex.reserveAll(expected.stream().collect(Collectors.toMap(date -> date, date -> List.of(slot))));
+
+        deleteLectures(staleIds);
+        result.setUpdated(kept.isEmpty() ? 0 : updateOutdated(series, kept));
+        insertLectures(series, result.getCreatedDates());
+        return result;
+    }
+
+    private record Occurrence(Long id, LocalDate date, boolean marked) {
+    }
+
+    private void addConflicts(SeriesGenerationResultDTO result, List<LocalDate> dates, ScheduleConflictIndex.Slot slot) {
+        for (LocalDate date : dates) {
+            for (String conflict : scheduleConflictIndex.findConflicts(date, slot)) {
+                result.getConflicts().add(date + ": " + conflict);
+            }
+        }
+    }
+
+    /**
+     * Loads the stored occurrences of a series, flagging those that already have attendance.
+     * @param fromDate First date to load, or null for all occurrences.
+     */
+    private List<Occurrence> loadOccurrences(Long seriesId, LocalDate fromDate) {
+        return jdbcTemplate.query(
+                "SELECT l.id, l.lecture_date, "
+                        + "CASE WHEN EXISTS (SELECT 1 FROM attendance_records ar WHERE ar.lecture_id = l.id) "
+                        + "OR EXISTS (SELECT 1 FROM attendance_records_archive ar WHERE ar.lecture_id = l.id) "
+                        + "THEN 1 ELSE 0 END AS marked "
+                        + "FROM lectures l WHERE l.series_id = :seriesId"
+                        + (fromDate != null ? " AND l.lecture_date >= :fromDate" : ""),
+                new MapSqlParameterSource("seriesId", seriesId)
+                        .addValue("fromDate", fromDate != null ? Date.valueOf(fromDate) : null),
+                (rs, rowNum) -> new Occurrence(rs.getLong("id"), rs.getDate("lecture_date").toLocalDate(),
+                        rs.getInt("marked") == 1));
+    }
+
+    private int countOutdated(LectureSeries series, List<LocalDate> dates) {
+        int outdated = 0;
+        for (List<LocalDate> chunk : chunks(dates)) {
+            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lectures WHERE " + OUTDATED,
+                    slotParameters(series, chunk), Integer.class);
+            outdated += count == null ? 0 : count;
+        }
+        return outdated;
+    }
+
+    private int updateOutdated(LectureSeries series, List<LocalDate> dates) {
+        int updated = 0;
+        for (List<LocalDate> chunk : chunks(dates)) {
+            MapSqlParameterSource params = slotParameters(series, chunk);
+            // Selected before the update, which makes the rows match the series again
+            attendanceEventOutboxService.recordLectureEvents(AttendanceEventType.LECTURE_UPDATED,
+                    "SELECT id FROM lectures WHERE " + OUTDATED, params);
+            updated += jdbcTemplate.update("UPDATE lectures SET start_time = :startTime, end_time = :endTime, "
+                    + "subject_id = :subjectId, teacher_id = :teacherId, student_group_id = :studentGroupId, "
+                    + "room_number = :room WHERE " + OUTDATED, params);
+        }
+        return updated;
+    }
+
+    private MapSqlParameterSource slotParameters(LectureSeries series, List<LocalDate> dates) {
+        return new MapSqlParameterSource("seriesId", series.getId())
+                .addValue("dates", dates.stream().map(Date::valueOf).collect(Collectors.toList()))
+                .addValue("startTime", Time.valueOf(series.getStartTime()))
+                .addValue("endTime", Time.valueOf(series.getEndTime()))
+                .addValue("subjectId", series.getSubject().getId())
+                .addValue("teacherId", series.getTeacher().getId())
+                .addValue("studentGroupId", series.getStudentGroup().getId())
+                .addValue("roomNumber", series.getRoomNumber() != null ? series.getRoomNumber() : "")
+                .addValue("room", series.getRoomNumber());
+    }
+
+    private void insertLectures(LectureSeries series, List<LocalDate> dates) {
+        // Subject, teacher and group were resolved once when the series was loaded; only the date varies per row
+        Time startTime = Time.valueOf(series.getStartTime());
+        Time endTime = Time.valueOf(series.getEndTime());
+        for (List<LocalDate> chunk : chunks(dates)) {
+            SqlParameterSource[] rows = chunk.stream()
+                    .map(date -> new MapSqlParameterSource()
+                            .addValue("subjectId", series.getSubject().getId())
+                            .addValue("teacherId", series.getTeacher().getId())
+                            .addValue("lectureDate", Date.valueOf(date))
+                            .addValue("startTime", startTime)
+                            .addValue("endTime", endTime)
+                            .addValue("studentGroupId", series.getStudentGroup().getId())
+                            .addValue("roomNumber", series.getRoomNumber())
+                            .addValue("seriesId", series.getId()))
+                    .toArray(SqlParameterSource[]::new);
+            jdbcTemplate.batchUpdate("INSERT INTO lectures (subject_id, teacher_id, lecture_date, start_time, end_time, "
+                    + "student_group_id, room_number, series_id) VALUES (:subjectId, :teacherId, :lectureDate, "
+                    + ":startTime, :endTime, :studentGroupId, :roomNumber, :seriesId)", rows);
+            // Only dates without a stored occurrence are inserted, so these are exactly the new rows
+            attendanceEventOutboxService.recordLectureEvents(AttendanceEventType.LECTURE_SCHEDULED,
+                    "SELECT id FROM lectures WHERE series_id = :seriesId AND lecture_date IN (:dates)",
+                    new MapSqlParameterSource("seriesId", series.getId())
+                            .addValue("dates", chunk.stream().map(Date::valueOf).collect(Collectors.toList())));
+        }
+    }
+
+    private void deleteLectures(List<Long> lectureIds) {
+        for (List<Long> chunk : chunks(lectureIds)) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", chunk);
+            syncService.recordDeletions(SyncEntityType.LECTURE, "SELECT id FROM lectures WHERE id IN (:ids)", params);
+            attendanceEventOutboxService.recordLectureEvents(AttendanceEventType.LECTURE_DELETED,
+                    "SELECT id FROM lectures WHERE id IN (:ids)", params);
+            jdbcTemplate.update("DELETE FROM lectures WHERE id IN (:ids)", params);
+        }
+    }
+
+    private <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += batchSize) {
+            chunks.add(list.subList(i, Math.min(i + batchSize, list.size())));
+        }
+        return chunks;
+    }
+
+    private void applyDefinition(LectureSeriesDTO seriesDTO, LectureSeries series) {
+        Subject subject = subjectService.getSubjectEntityById(seriesDTO.getSubjectId());
+        Teacher teacher = teacherService.getTeacherEntityById(seriesDTO.getTeacherId());
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(seriesDTO.getStudentGroupId());
+        lectureSeriesMapper.updateLectureSeries(seriesDTO, series);
+        series.setSubject(subject);
+        series.setTeacher(teacher);
+        series.setStudentGroup(studentGroup);
+    }
+
+    private void validate(LectureSeriesDTO seriesDTO) {
+        if (!seriesDTO.getEndTime().isAfter(seriesDTO.getStartTime())) {
+            throw new InvalidOperationException("Lecture end time must be after start time.");
+        }
+        if (seriesDTO.getEndDate().isBefore(seriesDTO.getStartDate())) {
+            throw new InvalidOperationException("Series end date cannot be before start date.");
+        }
+        if (ChronoUnit.DAYS.between(seriesDTO.getStartDate(), seriesDTO.getEndDate()) > MAX_SERIES_DAYS) {
+            throw new InvalidOperationException("A lecture series cannot span more than " + MAX_SERIES_DAYS + " days.");
+        }
+    }
+}
@@ -1,23 +1,37 @@
 package com.example.main.service;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.main.dto.CurrentLectureDTO;
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.LectureDTO;
+import com.example.main.dto.LectureSlotDTO;
+import com.example.main.event.LectureScheduleChangedEvent;
 import com.example.main.exception.InvalidOperationException;
 import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.exception.SchedulingConflictException;
 import com.example.main.mapper.LectureMapper;
+import com.example.main.model.AttendanceEventType;
 import com.example.main.model.Lecture;
+import com.example.main.model.StudentGroup;
 import com.example.main.model.Subject;
 import com.example.main.model.Teacher;
 import com.example.main.repository.LectureRepository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing Lecture entities.
  * Handles business logic related to lecture scheduling, retrieval, and updates.
+ * Scheduling and moving a lecture is checked against the ScheduleConflictIndex for double bookings.
  */
 @Service
 @Transactional
@@ -26,35 +40,61 @@ public class LectureService {
     private final LectureRepository lectureRepository;
     private final SubjectService subjectService; // Inject SubjectService to fetch Subject entity
     private final TeacherService teacherService; // Inject TeacherService to fetch Teacher entity
+    private final StudentGroupService studentGroupService; // Inject StudentGroupService to fetch StudentGroup entity
     private final LectureMapper lectureMapper;
+    private final BulkDeletionService bulkDeletionService; // Set-based cascading deletes
+    private final LectureSeriesService lectureSeriesService; // Computes occurrences of virtual lecture series
+    private final ScheduleConflictIndex scheduleConflictIndex; // Detects teacher, room and group double bookings
+    private final ApplicationEventPublisher eventPublisher;
+    private final AttendanceEventOutboxService attendanceEventOutboxService; // Change events for external consumers
 
-    public LectureService(LectureRepository lectureRepository, SubjectService subjectService, TeacherService teacherService, LectureMapper lectureMapper) {
+    public LectureService(LectureRepository lectureRepository, SubjectService subjectService, TeacherService teacherService,
+                          StudentGroupService studentGroupService, LectureMapper lectureMapper,
+                          BulkDeletionService bulkDeletionService, LectureSeriesService lectureSeriesService,
+                          ScheduleConflictIndex scheduleConflictIndex, ApplicationEventPublisher eventPublisher,
+                          AttendanceEventOutboxService attendanceEventOutboxService) {
         this.lectureRepository = lectureRepository;
         this.subjectService = subjectService;
         this.teacherService = teacherService;
+        this.studentGroupService = studentGroupService;
         this.lectureMapper = lectureMapper;
+        this.bulkDeletionService = bulkDeletionService;
+        this.lectureSeriesService = lectureSeriesService;
+        this.scheduleConflictIndex = scheduleConflictIndex;
+        this.eventPublisher = eventPublisher;
+        this.attendanceEventOutboxService = attendanceEventOutboxService;
     }
 
     /**
      * Schedules a new lecture.
      * @param lectureDTO The DTO containing lecture details.
      * @return The scheduled LectureDTO.
-     * @throws ResourceNotFoundException if the associated subject or teacher is not found.
+     * @throws ResourceNotFoundException if the associated subject, teacher or student group is not found.
      * @throws InvalidOperationException if end time is before start time.
+     * @throws SchedulingConflictException if the teacher, room or student group is already booked at that time.
      */
     public LectureDTO scheduleLecture(LectureDTO lectureDTO) {
         Subject subject = subjectService.getSubjectEntityById(lectureDTO.getSubjectId());
         Teacher teacher = teacherService.getTeacherEntityById(lectureDTO.getTeacherId());
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(lectureDTO.getStudentGroupId());
 
         if (lectureDTO.getEndTime().isBefore(lectureDTO.getStartTime())) {
             throw new InvalidOperationException("Lecture end time cannot be before start time.");
         }
 
+        // Drops the cached copy of the date once this transaction completes
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(Set.of(lectureDTO.getLectureDate())));
+        scheduleConflictIndex.reserve(lectureDTO.getLectureDate(), new ScheduleConflictIndex.Slot(null, null,
+                subject.getId(), teacher.getId(), lectureDTO.getRoomNumber(), studentGroup.getId(),
+                lectureDTO.getStartTime(), lectureDTO.getEndTime()));
+
         Lecture lecture = lectureMapper.toLecture(lectureDTO);
         lecture.setSubject(subject);
         lecture.setTeacher(teacher);
+        lecture.setStudentGroup(studentGroup);
 
         Lecture savedLecture = lectureRepository.save(lecture);
+        attendanceEventOutboxService.recordLectureEvent(AttendanceEventType.LECTURE_SCHEDULED, savedLecture.getId());
         return lectureMapper.toLectureDTO(savedLecture);
     }
 
@@ -64,6 +104,7 @@ public class LectureService {
      * @return The LectureDTO if found.
      * @throws ResourceNotFoundException if the lecture is not found.
      */
+    @Transactional(readOnly = true)
     public LectureDTO getLectureById(Long id) {
         Lecture lecture = lectureRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Lecture not found with ID: " + id));
@@ -76,6 +117,7 @@ public class LectureService {
      * @return The Lecture entity if found.
      * @throws ResourceNotFoundException if the lecture is not found.
      */
+    @Transactional(readOnly = true)
     public Lecture getLectureEntityById(Long id) {
         return lectureRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Lecture not found with ID: " + id));
@@ -85,6 +127,7 @@ public class LectureService {
      * Retrieves all lectures.
      * @return A list of all LectureDTOs.
      */
+    @Transactional(readOnly = true)
     public List<LectureDTO> getAllLectures() {
         return lectureRepository.findAll().stream()
                 .map(lectureMapper::toLectureDTO)
@@ -92,12 +135,13 @@ public class LectureService {
     }
 
     /**
-     * Retrieves lectures by teacher.
+     * Retrieves lectures by teacher, including the computed occurrences of virtual lecture series.
      * @param teacherId The ID of the teacher.
      * @param date (Optional) Filter by date. If null, returns all for teacher.
-     * @return A list of LectureDTOs for the specified teacher.
+     * @return A list of LectureDTOs for the specified teacher, ordered by date and start time.
      * @throws ResourceNotFoundException if the teacher is not found.
      */
+    @Transactional(readOnly = true)
     public List<LectureDTO> getLecturesByTeacher(Long teacherId, LocalDate date) {
         Teacher teacher = teacherService.getTeacherEntityById(teacherId);
         List<Lecture> lectures;
@@ -106,27 +150,44 @@ public class LectureService {
         } else {
             lectures = lectureRepository.findByTeacher(teacher);
         }
-        return lectures.stream()
-                .map(lectureMapper::toLectureDTO)
-                .collect(Collectors.toList());
+        return withVirtualOccurrences(lectures, lectureSeriesService.getVirtualOccurrencesByTeacher(teacherId, date));
     }
 
     /**
-     * Retrieves lectures by student group and optionally by date.
-     * @param studentGroup The student group identifier.
+     * Retrieves lectures by student group and optionally by date, including the computed occurrences
+     * of virtual lecture series.
+     * @param studentGroupId The ID of the student group.
      * @param date (Optional) Filter by date. If null, returns all for student group.
-     * @return A list of LectureDTOs for the specified student group.
+     * @return A list of LectureDTOs for the specified student group, ordered by date and start time.
+     * @throws ResourceNotFoundException if the student group is not found.
      */
-    public List<LectureDTO> getLecturesByStudentGroup(String studentGroup, LocalDate date) {
+    @Transactional(readOnly = true)
+    public List<LectureDTO> getLecturesByStudentGroup(Long studentGroupId, LocalDate date) {
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(studentGroupId);
         List<Lecture> lectures;
         if (date != null) {
             lectures = lectureRepository.findByStudentGroupAndLectureDate(studentGroup, date);
         } else {
             lectures = lectureRepository.findByStudentGroup(studentGroup);
         }
-        return lectures.stream()
-                .map(lectureMapper::toLectureDTO)
-                .collect(Collectors.toList());
+        return withVirtualOccurrences(lectures,
+                lectureSeriesService.getVirtualOccurrencesByStudentGroup(studentGroupId, date));
+    }
+
+    /**
+     * Finds the lecture in progress and the next lecture of the day for a teacher, student group or room.
+     * Served from the in-memory timetable index, without a transaction; virtual series occurrences are included.
+     * @param resource Whether 'id' is a teacher ID, a student group ID or a room number.
+     * @param id The teacher or student group ID, or the room number.
+     * @param at The moment to look up.
+     * @return The current and next lecture (either may be null).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CurrentLectureDTO getCurrentAndNextLecture(ScheduleConflictIndex.Resource resource, Object id, LocalDateTime at) {
+        ScheduleConflictIndex.CurrentAndNext lookup = scheduleConflictIndex.findCurrentAndNext(at.toLocalDate(), resource,
+                id, at.toLocalTime());
+        return new CurrentLectureDTO(at, toLectureSlotDTO(lookup.current(), at.toLocalDate()),
+                toLectureSlotDTO(lookup.next(), at.toLocalDate()));
     }
 
     /**
@@ -134,8 +195,9 @@ public class LectureService {
      * @param id The ID of the lecture to update.
      * @param lectureDTO The DTO containing updated lecture details.
      * @return The updated LectureDTO.
-     * @throws ResourceNotFoundException if the lecture, subject, or teacher is not found.
+     * @throws ResourceNotFoundException if the lecture, subject, teacher or student group is not found.
      * @throws InvalidOperationException if end time is before start time.
+     * @throws SchedulingConflictException if the teacher, room or student group is already booked at that time.
      */
     public LectureDTO updateLecture(Long id, LectureDTO lectureDTO) {
         Lecture existingLecture = lectureRepository.findById(id)
@@ -143,34 +205,93 @@ public class LectureService {
 
         Subject subject = subjectService.getSubjectEntityById(lectureDTO.getSubjectId());
         Teacher teacher = teacherService.getTeacherEntityById(lectureDTO.getTeacherId());
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(lectureDTO.getStudentGroupId());
 
         if (lectureDTO.getEndTime().isBefore(lectureDTO.getStartTime())) {
             throw new InvalidOperationException("Lecture end time cannot be before start time.");
         }
 
+        Long seriesId = existingLecture.getSeries() != null ? existingLecture.getSeries().getId() : null;
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(
+                Stream.of(existingLecture.getLectureDate(), lectureDTO.getLectureDate()).collect(Collectors.toSet())));
+        scheduleConflictIndex.reserve(lectureDTO.getLectureDate(), new ScheduleConflictIndex.Slot(id, seriesId,
+                subject.getId(), teacher.getId(), lectureDTO.getRoomNumber(), studentGroup.getId(),
+                lectureDTO.getStartTime(), lectureDTO.getEndTime()));
+
         existingLecture.setSubject(subject);
         existingLecture.setTeacher(teacher);
         existingLecture.setLectureDate(lectureDTO.getLectureDate());
         existingLecture.setStartTime(lectureDTO.getStartTime());
         existingLecture.setEndTime(lectureDTO.getEndTime());
-        existingLecture.setStudentGroup(lectureDTO.getStudentGroup());
+        existingLecture.setStudentGroup(studentGroup);
         existingLecture.setRoomNumber(lectureDTO.getRoomNumber());
 
         Lecture updatedLecture = lectureRepository.save(existingLecture);
+        attendanceEventOutboxService.recordLectureEvent(AttendanceEventType.LECTURE_UPDATED, id);
         return lectureMapper.toLectureDTO(updatedLecture);
     }
 
+    /**
+     * Stores a virtual occurrence of a lecture series as a Lecture (no-op if it is already stored).
+     * @param seriesId The ID of the lecture series.
+     * @param occurrenceDate The date of the occurrence.
+     * @return The LectureDTO of the stored occurrence.
+     * @throws ResourceNotFoundException if the series is not found.
+     * @throws InvalidOperationException if the series has no occurrence on that date.
+     */
+    public LectureDTO materializeOccurrence(Long seriesId, LocalDate occurrenceDate) {
+        return lectureMapper.toLectureDTO(lectureSeriesService.materializeOccurrence(seriesId, occurrenceDate));
+    }
+
+    /**
+     * Updates a single occurrence of a lecture series, storing it as a Lecture first if it is still virtual.
+     * @param seriesId The ID of the lecture series.
+     * @param occurrenceDate The date of the occurrence.
+     * @param lectureDTO The DTO containing updated lecture details.
+     * @return The updated LectureDTO.
+     * @throws ResourceNotFoundException if the series, subject, teacher or student group is not found.
+     * @throws InvalidOperationException if the series has no occurrence on that date or end time is before start time.
+     * @throws SchedulingConflictException if the teacher, room or student group is already booked at that time.
+     */
+    public LectureDTO updateOccurrence(Long seriesId, LocalDate occurrenceDate, LectureDTO lectureDTO) {
+        Lecture lecture = lectureSeriesService.materializeOccurrence(seriesId, occurrenceDate);
+        return updateLecture(lecture.getId(), lectureDTO);
+    }
+
     /**
      * Deletes a lecture by its ID.
-     * NOTE: Deleting a lecture will typically cascade delete associated attendance records.
+     * NOTE: Deleting a lecture also deletes its attendance records.
      * Consider implications for historical data.
      * @param id The ID of the lecture to delete.
+     * @return The per-table deletion report.
      * @throws ResourceNotFoundException if the lecture is not found.
      */
-    public void deleteLecture(Long id) {
-        if (!lectureRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Lecture not found with ID: " + id);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeletionReportDTO deleteLecture(Long id) {
+        Lecture lecture = lectureRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Lecture not found with ID: " + id));
+        DeletionReportDTO report = bulkDeletionService.deleteLecture(id);
+        // The LECTURE_DELETED outbox event is written by the chunk that deletes the lecture row
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(Set.of(lecture.getLectureDate())));
+        return report;
+    }
+
+    private static LectureSlotDTO toLectureSlotDTO(ScheduleConflictIndex.Slot slot, LocalDate date) {
+        if (slot == null) {
+            return null;
+        }
+        return new LectureSlotDTO(slot.lectureId(), slot.seriesId(), slot.lectureId() == null, slot.subjectId(),
+                slot.teacherId(), slot.studentGroupId(), slot.roomNumber(), date, slot.startTime(), slot.endTime());
+    }
+
+    private List<LectureDTO> withVirtualOccurrences(List<Lecture> lectures, List<LectureDTO> virtualOccurrences) {
+        List<LectureDTO> result = lectures.stream()
+                .map(lectureMapper::toLectureDTO)
+                .collect(Collectors.toList());
+        if (!virtualOccurrences.isEmpty()) {
+            result.addAll(virtualOccurrences);
+            result.sort(Comparator.comparing(LectureDTO::getLectureDate).thenComparing(LectureDTO::getStartTime));
         }
-        lectureRepository.deleteById(id);
+        return result;
     }
 }
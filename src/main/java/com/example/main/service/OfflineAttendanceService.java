@@ -0,0 +1,393 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.config.RecentWriteTracker;
+import com.example.main.dto.OfflineAttendanceUploadRequest;
+import com.example.main.dto.OfflineAttendanceUploadResultDTO;
+import com.example.main.dto.OfflineMarkOperation;
+import com.example.main.dto.OfflineMarkResultDTO;
+import com.example.main.event.AttendanceChangedEvent;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceStatus;
+import com.example.main.model.OfflineMarkOutcome;
+
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Service class applying the attendance marks that teachers' devices queued while offline.
+ * The operations of an upload are applied in device sequence order with last-writer-wins by client timestamp: a mark
+ * only replaces a record last marked at an earlier moment, whether that mark came from another upload, the marking
+ * sheet or a correction. The existing records of the uploaded (lecture, student) keys are read and locked once, the
+ * winner per key is decided in memory, and the winners are written in batches: updates by record ID, which repeat the
+ * timestamp check, and inserts of the new keys. New keys cannot be locked in advance, so another transaction may
+ * insert one meanwhile; the insert batch is then rolled back to a savepoint and retried key by key, and a key taken
+ * meanwhile is locked and decided again against the record now stored. Only marks actually written produce audit
+ * rows, outbox events and live stream notifications, as for any other mark; they carry the server time at which the
+ * change took effect, not the client timestamp.
+ */
+@Service
+@Transactional
+public class OfflineAttendanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(OfflineAttendanceService.class);
+
+    // Uploaded lectures with their date and whether a closed term freezes them
+    private static final String LECTURES = "SELECT l.id, l.lecture_date, CASE WHEN EXISTS (SELECT 1 FROM academic_terms t "
+            + "WHERE t.closed = TRUE AND l.lecture_date BETWEEN t.start_date AND t.end_date) THEN 1 ELSE 0 END AS frozen "
+            + "FROM lectures l WHERE l.id IN (:ids)";
+    private static final String RECORDS = "SELECT id, lecture_id, student_id, status, marking_timestamp "
+            + "FROM attendance_records WHERE lecture_id IN (:lectureIds) AND student_id IN (:studentIds)";
+    // Replaces the mark of a locked record, unless it already holds a later one
+    private static final String UPDATE = "UPDATE attendance_records SET status = :status, "
+            + "marked_by_teacher_id = :teacherId, marking_timestamp = :markedAt "
+            + "WHERE id = :id AND marking_timestamp < :markedAt";
+    private static final String INSERT = "INSERT INTO attendance_records (lecture_id, student_id, status, "
+            + "marked_by_teacher_id, marking_timestamp) VALUES (:lectureId, :studentId, :status, :teacherId, :markedAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TeacherService teacherService;
+    private final AttendanceAuditService attendanceAuditService; // Append-only log of status changes
+    private final AttendanceEventOutboxService attendanceEventOutboxService; // Change events for external consumers
+    private final RecentWriteTracker recentWriteTracker; // Pins reads of freshly marked lectures to the primary
+    private final ApplicationEventPublisher eventPublisher; // Change notifications for live attendance streams
+    private final int maxOperations;
+    private final int batchSize;
+
+    public OfflineAttendanceService(NamedParameterJdbcTemplate jdbcTemplate, TeacherService teacherService,
+                                    AttendanceAuditService attendanceAuditService,
+                                    AttendanceEventOutboxService attendanceEventOutboxService,
+                                    RecentWriteTracker recentWriteTracker, ApplicationEventPublisher eventPublisher,
+                                    @Value("${app.attendance.offline.max-operations:5000}") int maxOperations,
+                                    @Value("${app.attendance.offline.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.teacherService = teacherService;
+        this.attendanceAuditService = attendanceAuditService;
+        this.attendanceEventOutboxService = attendanceEventOutboxService;
+        this.recentWriteTracker = recentWriteTracker;
+        this.eventPublisher = eventPublisher;
+        this.maxOperations = maxOperations;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Applies a batch of marks queued on a teacher's device.
+     * Operations that cannot be applied are rejected one by one; the rest of the batch still applies. Client
+     * timestamps ahead of the server clock count as the server time, so a device clock running fast cannot make a
+     * mark win over every later one. Uploading the same batch again is harmless: marks already stored with the same
+     * timestamp and status are reported as applied without writing them again.
+     * @param request The device ID and its queued operations.
+     * @param teacherId The ID of the teacher the device belongs to, recorded as the marking teacher.
+     * @return An OfflineAttendanceUploadResultDTO with the outcome of every operation, in sequence order.
+     * @throws ResourceNotFoundException if the teacher is not found.
+     * @throws InvalidOperationException if the batch exceeds the maximum number of operations.
+     */
+    public OfflineAttendanceUploadResultDTO uploadMarks(OfflineAttendanceUploadRequest request, Long teacherId) {
+        teacherService.getTeacherEntityById(teacherId);
+        if (request.getOperations().size() > maxOperations) {
+            throw new InvalidOperationException("An upload can contain at most " + maxOperations + " operations.");
+        }
+        List<OfflineMarkOperation> operations = new ArrayList<>(request.getOperations());
+        operations.sort(Comparator.comparing(OfflineMarkOperation::getSequenceNumber));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        Map<Long, LocalDate> lectureDates = new HashMap<>();
+        Set<Long> frozenLectures = new HashSet<>();
+        for (List<Long> chunk : chunks(operations.stream().map(OfflineMarkOperation::getLectureId)
+                .collect(Collectors.toSet()))) {
+            jdbcTemplate.query(LECTURES, new MapSqlParameterSource("ids", chunk), rs -> {
+                lectureDates.put(rs.getLong("id"), rs.getDate("lecture_date").toLocalDate());
+                if (rs.getInt("frozen") == 1) {
+                    frozenLectures.add(rs.getLong("id"));
+                }
+            });
+        }
+        Set<Long> knownStudents = new HashSet<>();
+        for (List<Long> chunk : chunks(operations.stream().map(OfflineMarkOperation::getStudentId)
+                .collect(Collectors.toSet()))) {
+            knownStudents.addAll(jdbcTemplate.queryForList("SELECT id FROM students WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk), Long.class));
+        }
+
+        // Current marks of the uploaded keys, locked until the upload commits
+        Set<Key> keys = operations.stream().map(op -> new Key(op.getLectureId(), op.getStudentId()))
+                .collect(Collectors.toSet());
+        Map<Key, Mark> stored = new HashMap<>();
+        Map<Key, Long> recordIds = new HashMap<>();
+        loadRecords(lectureDates.keySet(), knownStudents, true, rs -> {
+            Key key = new Key(rs.getLong("lecture_id"), rs.getLong("student_id"));
+            if (keys.contains(key)) {
+                stored.put(key, new Mark(AttendanceStatus.valueOf(rs.getString("status")),
+                        rs.getTimestamp("marking_timestamp").toLocalDateTime(), -1));
+                recordIds.put(key, rs.getLong("id"));
+            }
+        });
+
+        // Replay the queue: per key, the latest mark wins; on equal timestamps the later operation wins over an
+        // earlier one of the batch, while a stored mark is only matched by an identical one
+        LocalDate today = LocalDate.now();
+        Map<Key, Mark> winners = new HashMap<>(stored);
+        String[] rejections = new String[operations.size()];
+        Set<Long> sequenceNumbers = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            OfflineMarkOperation op = operations.get(i);
+            LocalDate lectureDate = lectureDates.get(op.getLectureId());
+            if (!sequenceNumbers.add(op.getSequenceNumber())) {
+                rejections[i] = "Duplicate sequence number " + op.getSequenceNumber() + " in the upload.";
+            } else if (lectureDate == null) {
+                rejections[i] = "Lecture not found with ID: " + op.getLectureId();
+            } else if (lectureDate.isAfter(today)) {
+                rejections[i] = "Cannot mark attendance for a future lecture.";
+            } else if (frozenLectures.contains(op.getLectureId())) {
+                rejections[i] = "Lecture " + op.getLectureId() + " lies in a closed academic term.";
+            } else if (!knownStudents.contains(op.getStudentId())) {
+                rejections[i] = "Student not found with ID: " + op.getStudentId();
+            }
+            if (rejections[i] != null) {
+                continue;
+            }
+            Key key = new Key(op.getLectureId(), op.getStudentId());
+            LocalDateTime markedAt = op.getClientTimestamp().truncatedTo(ChronoUnit.MICROS);
+            if (markedAt.isAfter(now)) {
+                markedAt = now;
+            }
+            Mark current = winners.get(key);
+            if (current == null || markedAt.isAfter(current.markedAt()) || markedAt.equals(current.markedAt())
+                    && (current.operation() >= 0 || current.status() == op.getStatus())) {
+                winners.put(key, new Mark(op.getStatus(), markedAt, i));
+            }
+        }
+
+        // Write the winners that differ from the stored marks, in key order
+        Map<Key, Mark> writes = new TreeMap<>(Comparator.comparing(Key::lectureId).thenComparing(Key::studentId));
+        winners.forEach((key, mark) -> {
+            if (mark.operation() >= 0 && !mark.sameAs(stored.get(key))) {
+                writes.put(key, mark);
+            }
+        });
+        List<Key> updates = new ArrayList<>();
+        List<Key> inserts = new ArrayList<>();
+        writes.keySet().forEach(key -> (recordIds.containsKey(key) ? updates : inserts).add(key));
+        Set<Key> contested = new HashSet<>(); // Keys whose write did not apply, to decide again under lock
+        contested.addAll(update(updates, writes, recordIds, teacherId));
+        for (List<Key> chunk : chunks(inserts)) {
+            if (!insert(chunk, writes, teacherId)) {
+                for (Key key : chunk) {
+                    if (!insert(List.of(key), writes, teacherId)) {
+                        contested.add(key);
+                    }
+                }
+            }
+        }
+        if (!contested.isEmpty()) {
+            resolveContested(contested, writes, winners, stored, recordIds, teacherId);
+        }
+
+        Set<Long> createdLectures = writes.keySet().stream().filter(key -> !recordIds.containsKey(key))
+                .map(Key::lectureId).collect(Collectors.toSet());
+        Set<Long> createdStudents = writes.keySet().stream().filter(key -> !recordIds.containsKey(key))
+                .map(Key::studentId).collect(Collectors.toSet());
+        loadRecords(createdLectures, createdStudents, false, rs -> {
+            Key key = new Key(rs.getLong("lecture_id"), rs.getLong("student_id"));
+            if (writes.containsKey(key)) {
+                recordIds.putIfAbsent(key, rs.getLong("id"));
+            }
+        });
+
+        // Status changes, for the audit log, the outbox and the live streams of each lecture
+        Map<Long, List<AttendanceAuditService.Change>> changesByLecture = new TreeMap<>();
+        writes.forEach((key, mark) -> {
+            Mark before = stored.get(key);
+            if (before == null || before.status() != mark.status()) {
+                changesByLecture.computeIfAbsent(key.lectureId(), lectureId -> new ArrayList<>())
+                        .add(new AttendanceAuditService.Change(recordIds.get(key), key.studentId(),
+                                before != null ? before.status() : null, mark.status(), teacherId,
+                                AttendanceChangeSource.OFFLINE_UPLOAD, null, now));
+            }
+        });
+        List<AttendanceAuditService.Change> changes = changesByLecture.values().stream()
+                .flatMap(List::stream).collect(Collectors.toList());
+        attendanceAuditService.recordChanges(changes);
+        attendanceEventOutboxService.recordAttendanceChanges(changes);
+        changesByLecture.forEach((lectureId, lectureChanges) ->
+                eventPublisher.publishEvent(AttendanceChangedEvent.ofLecture(lectureId, lectureChanges)));
+        writes.keySet().stream().map(Key::lectureId).distinct()
+                .forEach(lectureId -> recentWriteTracker.recordWrite(AttendanceService.lectureKey(lectureId)));
+
+        OfflineAttendanceUploadResultDTO result = new OfflineAttendanceUploadResultDTO();
+        result.setDeviceId(request.getDeviceId());
+        result.setHighestSequenceNumber(operations.get(operations.size() - 1).getSequenceNumber());
+        result.setRecordsChanged(changes.size());
+        for (int i = 0; i < operations.size(); i++) {
+            OfflineMarkOperation op = operations.get(i);
+            if (rejections[i] != null) {
+                result.getResults().add(new OfflineMarkResultDTO(op.getSequenceNumber(), OfflineMarkOutcome.REJECTED,
+                        null, null, null, rejections[i]));
+                result.setRejected(result.getRejected() + 1);
+                continue;
+            }
+            Key key = new Key(op.getLectureId(), op.getStudentId());
+            Mark winner = winners.get(key);
+            boolean applied = winner.operation() == i;
+            result.getResults().add(new OfflineMarkResultDTO(op.getSequenceNumber(),
+                    applied ? OfflineMarkOutcome.APPLIED : OfflineMarkOutcome.SUPERSEDED, recordIds.get(key),
+                    winner.status(), winner.markedAt(), null));
+            if (applied) {
+                result.setApplied(result.getApplied() + 1);
+            } else {
+                result.setSuperseded(result.getSuperseded() + 1);
+            }
+        }
+        log.info("Offline upload from device {} of teacher {}: {} applied, {} superseded, {} rejected, {} records changed",
+                request.getDeviceId(), teacherId, result.getApplied(), result.getSuperseded(), result.getRejected(),
+                result.getRecordsChanged());
+        return result;
+    }
+
+    /**
+     * Updates locked records by ID.
+     * @return The keys whose record already held a later mark, so the update did not apply.
+     */
+    private List<Key> update(List<Key> keys, Map<Key, Mark> writes, Map<Key, Long> recordIds, Long teacherId) {
+        List<Key> notApplied = new ArrayList<>();
+        for (List<Key> chunk : chunks(keys)) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE, chunk.stream()
+                    .map(key -> markParams(key, writes.get(key), teacherId).addValue("id", recordIds.get(key)))
+                    .toArray(MapSqlParameterSource[]::new));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    notApplied.add(chunk.get(i));
+                }
+            }
+        }
+        return notApplied;
+    }
+
+    /**
+     * Inserts records for new keys, all or none: if another transaction inserted one of the keys meanwhile, the
+     * batch is rolled back to a savepoint, which keeps the upload's transaction usable.
+     * @return False if a key was taken meanwhile and nothing was inserted.
+     */
+    private boolean insert(List<Key> keys, Map<Key, Mark> writes, Long teacherId) {
+        MapSqlParameterSource[] rows = keys.stream().map(key -> markParams(key, writes.get(key), teacherId))
+                .toArray(MapSqlParameterSource[]::new);
+        Boolean inserted = jdbcTemplate.getJdbcOperations().execute((ConnectionCallback<Boolean>) connection -> {
+            Savepoint savepoint = connection.setSavepoint(); // On the upload transaction's connection
+            try {
+                jdbcTemplate.batchUpdate(INSERT, rows);
+            } catch (DuplicateKeyException e) {
+                connection.rollback(savepoint);
+                return false;
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        });
+        return Boolean.TRUE.equals(inserted);
+    }
+
+    /**
+     * Decides the contested keys again against their records, now stored and locked: a mark is written only if it
+     * is still later than the stored one, and is superseded by it otherwise.
+     */
+    private void resolveContested(Set<Key> contested, Map<Key, Mark> writes, Map<Key, Mark> winners,
+                                  Map<Key, Mark> stored, Map<Key, Long> recordIds, Long teacherId) {
+        loadRecords(contested.stream().map(Key::lectureId).collect(Collectors.toSet()),
+                contested.stream().map(Key::studentId).collect(Collectors.toSet()), true, rs -> {
+            Key key = new Key(rs.getLong("lecture_id"), rs.getLong("student_id"));
+            if (contested.contains(key)) {
+                stored.put(key, new Mark(AttendanceStatus.valueOf(rs.getString("status")),
+                        rs.getTimestamp("marking_timestamp").toLocalDateTime(), -1));
+                recordIds.put(key, rs.getLong("id"));
+            }
+        });
+        List<Key> updates = new ArrayList<>();
+        for (Key key : contested) {
+            Mark mark = writes.get(key);
+            Mark current = stored.get(key);
+            if (current == null) {
+                // Deleted again since the insert clashed; retried once
+                if (!insert(List.of(key), writes, teacherId)) {
+                    throw new ConcurrencyFailureException("Attendance of lecture " + key.lectureId() + " and student "
+                            + key.studentId() + " keeps changing concurrently.");
+                }
+            } else if (mark.markedAt().isAfter(current.markedAt())) {
+                updates.add(key);
+            } else {
+                writes.remove(key);
+                if (!mark.sameAs(current)) {
+                    winners.put(key, current); // Reported as superseded by the stored mark
+                }
+            }
+        }
+        if (!update(updates, writes, recordIds, teacherId).isEmpty()) {
+            throw new IllegalStateException("A locked attendance record changed during an offline upload");
+        }
+    }
+
+    private static MapSqlParameterSource markParams(Key key, Mark mark, Long teacherId) {
+        return new MapSqlParameterSource("lectureId", key.lectureId())
+                .addValue("studentId", key.studentId())
+                .addValue("status", mark.status().name())
+                .addValue("teacherId", teacherId)
+                .addValue("markedAt", Timestamp.valueOf(mark.markedAt()));
+    }
+
+    private void loadRecords(Collection<Long> lectureIds, Collection<Long> studentIds, boolean lock,
+                             RowCallbackHandler handler) {
+        if (lectureIds.isEmpty() || studentIds.isEmpty()) {
+            return;
+        }
+        for (List<Long> chunk : chunks(lectureIds)) {
+            jdbcTemplate.query(RECORDS + (lock ? " FOR UPDATE" : ""),
+                    new MapSqlParameterSource("lectureIds", chunk).addValue("studentIds", studentIds), handler);
+        }
+    }
+
+    private <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += batchSize) {
+            chunks.add(list.subList(i, Math.min(i + batchSize, list.size())));
+        }
+        return chunks;
+    }
+
+    private record Key(long lectureId, long studentId) {
+    }
+
+    /**
+     * The mark a key holds: the stored one (operation -1) or the winning operation of the upload.
+     */
+    private record Mark(AttendanceStatus status, LocalDateTime markedAt, int operation) {
+
+        boolean sameAs(Mark other) {
+            return other != null && other.status == status && other.markedAt.equals(markedAt);
+        }
+    }
+}
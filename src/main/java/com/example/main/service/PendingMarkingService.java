@@ -0,0 +1,280 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.dto.LectureDTO;
+import com.example.main.dto.PendingMarkingDTO;
+import com.example.main.exception.InvalidOperationException;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for the pending marking queue: past lectures with no or only part of their attendance marked.
+ * The queue is computed with a single aggregate query over lectures and attendance_records (marked count versus
+ * roster size per lecture), and a scheduled job writes a daily digest per teacher into the notification outbox.
+ * Past occurrences of virtual lecture series have no lecture row until they are first marked; they are computed
+ * from the series rules by LectureSeriesService and listed with nothing marked.
+ */
+@Service
+@Transactional
+public class PendingMarkingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingMarkingService.class);
+
+    static final String DIGEST_KIND = "PENDING_MARKING_DIGEST"; // notification_outbox.kind of the digests
+    private static final int DIGEST_MAX_LINES = 15; // Lectures listed in one digest (keeps the body within 4000 chars)
+
+    // Past lectures in the window with fewer attendance records than students in their group.
+    // Both counts are correlated aggregates answered from indexes (the unique keys of attendance_records and its
+    // archive, and idx_students_group_roll); '%s' takes the teacher or department filter.
+    private static final String PENDING = "SELECT * FROM ("
+            + "SELECT l.id, l.series_id, l.lecture_date, l.start_time, l.end_time, l.room_number, l.subject_id, "
+            + "sub.code AS subject_code, sub.name AS subject_name, l.teacher_id, t.user_id AS teacher_user_id, "
+            + "t.department_id, u.first_name, u.last_name, l.student_group_id, g.name AS group_name, "
+            + "(SELECT COUNT(*) FROM attendance_records a WHERE a.lecture_id = l.id) "
+            + "+ (SELECT COUNT(*) FROM attendance_records_archive a WHERE a.lecture_id = l.id) AS marked_count, "
+            + "(SELECT COUNT(*) FROM students s WHERE s.student_group_id = l.student_group_id) AS roster_size "
+            + "FROM lectures l JOIN teachers t ON t.id = l.teacher_id JOIN users u ON u.id = t.user_id "
+            + "JOIN subjects sub ON sub.id = l.subject_id JOIN student_groups g ON g.id = l.student_group_id "
+            + "WHERE l.lecture_date BETWEEN :fromDate AND :today AND (l.lecture_date < :today OR l.end_time <= :now)%s"
+            + ") p WHERE p.marked_count < p.roster_size ORDER BY p.lecture_date, p.start_time, p.id";
+
+    // Oldest first; a virtual occurrence (no ID) after a stored lecture at the same time
+    private static final Comparator<PendingLecture> OLDEST_FIRST = Comparator
+            .comparing((PendingLecture pending) -> pending.lecture().getLectureDate())
+            .thenComparing(pending -> pending.lecture().getStartTime())
+            .thenComparing(pending -> pending.lecture().getLectureId(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final LectureSeriesService lectureSeriesService; // Computes the occurrences of virtual series
+    private final int lookbackDays;
+
+    public PendingMarkingService(NamedParameterJdbcTemplate jdbcTemplate, LectureSeriesService lectureSeriesService,
+                                 @Value("${app.attendance.pending.lookback-days:30}") int lookbackDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lectureSeriesService = lectureSeriesService;
+        this.lookbackDays = lookbackDays;
+    }
+
+    /**
+     * A pending lecture together with the user account of its teacher, the recipient of the digest.
+     */
+    private record PendingLecture(PendingMarkingDTO lecture, long teacherUserId) {
+    }
+
+    /**
+     * The user account and department of a teacher with pending virtual occurrences.
+     */
+    private record TeacherAccount(long userId, long departmentId) {
+    }
+
+    /**
+     * Lists the past lectures of a teacher or department whose attendance is unmarked or partially marked,
+     * including the past occurrences of virtual series, which are unmarked until they are stored.
+     * @param teacherId (Optional) Only lectures of this teacher.
+     * @param departmentId (Optional) Only lectures of teachers in this department.
+     * @param fromDate (Optional) The earliest lecture date to include; defaults to the configured lookback.
+     * @return The pending lectures, oldest first.
+     * @throws InvalidOperationException if the start date is in the future.
+     */
+    @Transactional(readOnly = true)
+    public List<PendingMarkingDTO> getPendingLectures(Long teacherId, Long departmentId, LocalDate fromDate) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate from = fromDate != null ? fromDate : now.toLocalDate().minusDays(lookbackDays);
+        if (from.isAfter(now.toLocalDate())) {
+            throw new InvalidOperationException("The start date cannot be in the future.");
+        }
+        return findPending(teacherId, departmentId, from, now).stream()
+                .map(PendingLecture::lecture)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Scheduled job writing the daily pending marking digests (see writePendingMarkingDigests).
+     */
+    @Scheduled(cron = "${app.attendance.pending-digest.cron:0 0 18 * * *}")
+    public void sendPendingMarkingDigests() {
+        writePendingMarkingDigests(LocalDateTime.now());
+    }
+
+    /**
+     * Writes one digest per teacher with pending lectures into the notification outbox.
+     * Idempotent per day: a teacher who already has a digest for that date is skipped, and a digest written
+     * concurrently by another node makes this run roll back instead of duplicating it.
+     * @param now The moment of the run; its date is the digest's dedup key.
+     * @return The number of digests written.
+     */
+    public int writePendingMarkingDigests(LocalDateTime now) {
+        Map<Long, List<PendingMarkingDTO>> byRecipient = new LinkedHashMap<>();
+        for (PendingLecture pending : findPending(null, null, now.toLocalDate().minusDays(lookbackDays), now)) {
+            byRecipient.computeIfAbsent(pending.teacherUserId(), k -> new ArrayList<>()).add(pending.lecture());
+        }
+        String dedupKey = now.toLocalDate().toString();
+        Set<Long> alreadySent = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT recipient_user_id FROM notification_outbox WHERE kind = :kind AND dedup_key = :dedupKey",
+                new MapSqlParameterSource("kind", DIGEST_KIND).addValue("dedupKey", dedupKey), Long.class));
+
+        List<SqlParameterSource> rows = new ArrayList<>();
+        byRecipient.forEach((recipient, lectures) -> {
+            if (!alreadySent.contains(recipient)) {
+                rows.add(new MapSqlParameterSource("kind", DIGEST_KIND)
+                        .addValue("recipient", recipient)
+                        .addValue("dedupKey", dedupKey)
+                        .addValue("subject", lectures.size() + (lectures.size() == 1 ? " lecture" : " lectures")
+                                + " awaiting attendance")
+                        .addValue("body", digestBody(lectures))
+                        .addValue("createdAt", Timestamp.valueOf(now)));
+            }
+        });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            jdbcTemplate.batchUpdate("INSERT INTO notification_outbox (kind, recipient_user_id, dedup_key, subject, "
+                    + "body, created_at) VALUES (:kind, :recipient, :dedupKey, :subject, :body, :createdAt)",
+                    rows.toArray(new SqlParameterSource[0]));
+        } catch (DuplicateKeyException e) {
+            log.info("Pending marking digests for {} were written by another node", dedupKey);
+            throw e;
+        }
+        log.info("Wrote {} pending marking digests for {}", rows.size(), dedupKey);
+        return rows.size();
+    }
+
+    private List<PendingLecture> findPending(Long teacherId, Long departmentId, LocalDate fromDate, LocalDateTime now) {
+        MapSqlParameterSource params = new MapSqlParameterSource("fromDate", Date.valueOf(fromDate))
+                .addValue("today", Date.valueOf(now.toLocalDate()))
+                .addValue("now", Time.valueOf(now.toLocalTime().withNano(0)));
+        StringBuilder filter = new StringBuilder();
+        if (teacherId != null) {
+            filter.append(" AND l.teacher_id = :teacherId");
+            params.addValue("teacherId", teacherId);
+        }
+        if (departmentId != null) {
+            filter.append(" AND t.department_id = :departmentId");
+            params.addValue("departmentId", departmentId);
+        }
+        List<PendingLecture> pending = new ArrayList<>(jdbcTemplate.query(String.format(PENDING, filter), params,
+                (rs, rowNum) -> new PendingLecture(
+                new PendingMarkingDTO(
+                        rs.getLong("id"),
+                        rs.getDate("lecture_date").toLocalDate(),
+                        rs.getTime("start_time").toLocalTime(),
+                        rs.getTime("end_time").toLocalTime(),
+                        rs.getString("room_number"),
+                        rs.getLong("subject_id"),
+                        rs.getString("subject_code"),
+                        rs.getString("subject_name"),
+                        rs.getLong("teacher_id"),
+                        rs.getString("first_name") + " " + rs.getString("last_name"),
+                        rs.getLong("department_id"),
+                        rs.getLong("student_group_id"),
+                        rs.getString("group_name"),
+                        rs.getLong("marked_count"),
+                        rs.getLong("roster_size"),
+                        rs.getObject("series_id", Long.class),
+                        false),
+                rs.getLong("teacher_user_id"))));
+        pending.addAll(findPendingVirtual(teacherId, departmentId, fromDate, now));
+        pending.sort(OLDEST_FIRST);
+        return pending;
+    }
+
+    /**
+     * Past occurrences of virtual series in the window whose group has students. They have no lecture row, so no
+     * attendance is marked for them; a started occurrence is stored when its first mark is saved.
+     */
+    private List<PendingLecture> findPendingVirtual(Long teacherId, Long departmentId, LocalDate fromDate,
+                                                    LocalDateTime now) {
+        LocalTime nowTime = now.toLocalTime().withNano(0);
+        List<LectureDTO> occurrences = lectureSeriesService
+                .getVirtualOccurrencesBetween(teacherId, departmentId, fromDate, now.toLocalDate()).stream()
+                .filter(o -> o.getLectureDate().isBefore(now.toLocalDate()) || !o.getEndTime().isAfter(nowTime))
+                .collect(Collectors.toList());
+        if (occurrences.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Long> rosterSizes = new HashMap<>();
+        jdbcTemplate.query("SELECT student_group_id, COUNT(*) AS roster_size FROM students "
+                        + "WHERE student_group_id IN (:groupIds) GROUP BY student_group_id",
+                new MapSqlParameterSource("groupIds", occurrences.stream().map(LectureDTO::getStudentGroupId)
+                        .distinct().collect(Collectors.toList())),
+                rs -> {
+                    rosterSizes.put(rs.getLong("student_group_id"), rs.getLong("roster_size"));
+                });
+        Map<Long, TeacherAccount> teachers = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id, department_id FROM teachers WHERE id IN (:teacherIds)",
+                new MapSqlParameterSource("teacherIds", occurrences.stream().map(LectureDTO::getTeacherId)
+                        .distinct().collect(Collectors.toList())),
+                rs -> {
+                    teachers.put(rs.getLong("id"), new TeacherAccount(rs.getLong("user_id"), rs.getLong("department_id")));
+                });
+
+        List<PendingLecture> pending = new ArrayList<>();
+        for (LectureDTO occurrence : occurrences) {
+            long rosterSize = rosterSizes.getOrDefault(occurrence.getStudentGroupId(), 0L);
+            TeacherAccount teacher = teachers.get(occurrence.getTeacherId());
+            if (rosterSize == 0 || teacher == null) {
+                continue;
+            }
+            pending.add(new PendingLecture(new PendingMarkingDTO(
+                    null,
+                    occurrence.getLectureDate(),
+                    occurrence.getStartTime(),
+                    occurrence.getEndTime(),
+                    occurrence.getRoomNumber(),
+                    occurrence.getSubjectId(),
+                    occurrence.getSubjectCode(),
+                    occurrence.getSubjectName(),
+                    occurrence.getTeacherId(),
+                    occurrence.getTeacherName(),
+                    teacher.departmentId(),
+                    occurrence.getStudentGroupId(),
+                    occurrence.getStudentGroupName(),
+                    0,
+                    rosterSize,
+                    occurrence.getSeriesId(),
+                    true),
+                    teacher.userId()));
+        }
+        return pending;
+    }
+
+    private static String digestBody(List<PendingMarkingDTO> lectures) {
+        StringBuilder body = new StringBuilder("Attendance has not been fully marked for:\n");
+        for (PendingMarkingDTO lecture : lectures.subList(0, Math.min(lectures.size(), DIGEST_MAX_LINES))) {
+            body.append("- ").append(lecture.getLectureDate()).append(' ').append(lecture.getStartTime())
+                    .append('-').append(lecture.getEndTime()).append(' ').append(lecture.getSubjectCode())
+                    .append(", ").append(lecture.getStudentGroupName()).append(": ")
+                    .append(lecture.getMarkedCount()).append(" of ").append(lecture.getRosterSize())
+                    .append(" marked\n");
+        }
+        if (lectures.size() > DIGEST_MAX_LINES) {
+            body.append("... and ").append(lectures.size() - DIGEST_MAX_LINES).append(" more.\n");
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,450 @@
+package com.example.main.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.config.ReadWriteRoutingDataSource;
+import com.example.main.event.LectureScheduleChangedEvent;
+import com.example.main.exception.SchedulingConflictException;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Interval index of the timetable, used to reject double bookings of teachers, rooms and student groups and to
+ * answer "current and next lecture" lookups.
+ * A date's schedule is loaded from the lectures table (plus the occurrences of virtual series on that date) and
+ * holds one interval set per (teacher, date), (room, date) and (group, date). Each set is a TreeMap keyed by start
+ * time that also tracks its longest interval, so the intervals overlapping a slot are found with a single range
+ * lookup: O(log n) plus the number of overlaps.
+ * Bookings are decided by the database: reserve() locks the schedule_locks rows of the slots' teachers, groups and
+ * rooms on their dates until the booking transaction ends, then checks the slots against the dates freshly loaded
+ * under those locks plus the slots the same transaction reserved before. A competing booking of the same resource,
+ * on any node, waits for the lock and then sees the committed lecture. A batch takes all of its locks up front in
+ * a few statements and loads each of its dates once, so every slot after that is checked in memory.
+ * Read-only lookups (conflict previews, current and next lecture) use cached dates. A cached date is dropped once a
+ * transaction publishing a LectureScheduleChangedEvent for it has completed, and reloaded after at most the cache
+ * time-to-live, which bounds how long changes made on other nodes stay invisible to them.
+ * Dates are always loaded from the primary, so replica lag never leaks into conflict checks.
+ */
+@Service
+public class ScheduleConflictIndex {
+
+    // Lectures of a date, plus the occurrences of virtual series on that date that have no Lecture row yet
+    private static final String DAY_SLOTS = "SELECT l.id AS lecture_id, l.series_id, l.subject_id, l.teacher_id, "
+            + "l.room_number, l.student_group_id, l.start_time, l.end_time FROM lectures l WHERE l.lecture_date = :date "
+            + "UNION ALL "
+            + "SELECT CAST(NULL AS BIGINT), s.id, s.subject_id, s.teacher_id, s.room_number, s.student_group_id, "
+            + "s.start_time, s.end_time "
+            + "FROM lecture_series s WHERE s.materialized = FALSE AND s.day_of_week = :dayOfWeek "
+            + "AND s.start_date <= :date AND s.end_date >= :date "
+            + "AND NOT EXISTS (SELECT 1 FROM lecture_series_exclusions e WHERE e.series_id = s.id AND e.excluded_date = :date) "
+            + "AND NOT EXISTS (SELECT 1 FROM lectures o WHERE o.series_id = s.id AND o.lecture_date = :date)";
+
+    private static final String LOCK = "SELECT resource_key FROM schedule_locks "
+            + "WHERE (resource_key, lecture_date) IN (:keys) ORDER BY lecture_date, resource_key FOR UPDATE";
+    private static final String CREATE_LOCK = "INSERT INTO schedule_locks (resource_key, lecture_date) "
+            + "SELECT :key, :date WHERE NOT EXISTS (SELECT 1 FROM schedule_locks "
+            + "WHERE resource_key = :key AND lecture_date = :date)";
+
+    private static final int LOCK_BATCH_SIZE = 500; // Lock rows per statement
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate lockCreation; // Creates missing lock rows outside the booking transaction
+    private final long ttlNanos;
+    private final Map<LocalDate, DaySchedule> days; // Access-ordered, least recently checked date evicted first
+    private long invalidations; // Bumped by every invalidation, so a load that overlapped one is not cached; guarded by days
+
+    public ScheduleConflictIndex(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 @Value("${app.scheduling.cached-days:400}") int cachedDays,
+                                 @Value("${app.scheduling.cache-ttl-millis:30000}") long ttlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockCreation = new TransactionTemplate(transactionManager);
+        this.lockCreation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttlNanos = Duration.ofMillis(ttlMillis).toNanos();
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, DaySchedule> eldest) {
+                return size() > cachedDays;
+            }
+        };
+    }
+
+    /**
+     * The resources a lecture books, and thereby the ways the index can be looked up.
+     */
+    public enum Resource {
+        TEACHER("Teacher "),
+        STUDENT_GROUP("Student group "),
+        ROOM("Room ");
+
+        private final String label;
+
+        Resource(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @param id The teacher or student group ID, or the room number (trimmed and compared case-insensitively).
+         * @return The key of the resource's interval set.
+         */
+        String key(Object id) {
+            return label + (this == ROOM ? id.toString().trim().toUpperCase(Locale.ROOT) : id);
+        }
+    }
+
+    /**
+     * A booked time slot. A slot never conflicts with itself, i.e. with a slot of the same lecture or series.
+     * @param lectureId The ID of the lecture, or null for an occurrence that is not stored (yet).
+     * @param seriesId The ID of the lecture series the slot belongs to, or null for a one-off lecture.
+     */
+    public record Slot(Long lectureId, Long seriesId, Long subjectId, Long teacherId, String roomNumber,
+                       Long studentGroupId, LocalTime startTime, LocalTime endTime) {
+
+        private boolean sameBooking(Slot other) {
+            return (lectureId != null && lectureId.equals(other.lectureId))
+                    || (seriesId != null && seriesId.equals(other.seriesId));
+        }
+
+        private boolean overlaps(Slot other) {
+            return startTime.isBefore(other.endTime) && other.startTime.isBefore(endTime);
+        }
+    }
+
+    /**
+     * Checks a slot against the timetable of a date and reserves it if it is free (see reserveAll).
+     * @param date The date of the lecture.
+     * @param slot The slot to book.
+     * @throws SchedulingConflictException if the teacher, room or student group is already booked in that time.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    public void reserve(LocalDate date, Slot slot) {
+        reserveAll(Map.of(date, List.of(slot)));
+    }
+
+    /**
+     * Checks a batch of slots against the timetable and reserves them if they are free.
+     * Must run inside the transaction that stores the bookings: the resources of the slots stay locked for their
+     * dates until it ends, and the slots count as booked for the later reservations of the same transaction.
+     * The locks of the whole batch are taken in (date, resource) order, so two batches sharing resources cannot
+     * deadlock. That order only holds within one call, so a transaction should reserve everything it books at once.
+     * @param slots The slots to book, per date.
+     * @throws SchedulingConflictException if a teacher, room or student group is already booked in that time.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    public void reserveAll(Map<LocalDate, List<Slot>> slots) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Lecture slots can only be reserved inside a transaction.");
+        }
+        Map<LocalDate, Booking> bookings = bookings();
+        SortedMap<LocalDate, SortedSet<String>> unlocked = new TreeMap<>();
+        slots.forEach((date, dateSlots) -> {
+            Booking booking = bookings.computeIfAbsent(date, key -> new Booking());
+            for (Slot slot : dateSlots) {
+                for (String key : DaySchedule.keys(slot)) {
+                    if (!booking.lockedKeys.contains(key)) {
+                        unlocked.computeIfAbsent(date, k -> new TreeSet<>()).add(key);
+                    }
+                }
+            }
+        });
+        lock(unlocked);
+        // Lectures committed by others before a lock was taken are only seen by a load made after it
+        unlocked.forEach((date, keys) -> {
+            Booking booking = bookings.get(date);
+            booking.lockedKeys.addAll(keys);
+            booking.stored = load(date);
+        });
+        for (Map.Entry<LocalDate, List<Slot>> entry : slots.entrySet()) {
+            Booking booking = bookings.get(entry.getKey());
+            for (Slot slot : entry.getValue()) {
+                List<String> conflicts = booking.stored.conflicts(slot);
+                conflicts.addAll(booking.reserved.conflicts(slot));
+                if (!conflicts.isEmpty()) {
+                    throw new SchedulingConflictException("Lecture on " + entry.getKey() + " from " + slot.startTime()
+                            + " to " + slot.endTime() + " conflicts with: " + String.join("; ", conflicts) + ".");
+                }
+                booking.reserved.add(slot);
+            }
+        }
+    }
+
+    /**
+     * Lists the bookings a slot would overlap, without reserving it.
+     * @param date The date of the lecture.
+     * @param slot The slot to check.
+     * @return Descriptions of the conflicting bookings; empty if the slot is free.
+     */
+    public List<String> findConflicts(LocalDate date, Slot slot) {
+        DaySchedule day = day(date);
+        synchronized (day) {
+            return day.conflicts(slot);
+        }
+    }
+
+    /**
+     * The lecture of a resource in progress at a given time, and the one after it on the same day.
+     * @param current The lecture in progress, or null.
+     * @param next The first lecture starting later that day, or null.
+     */
+    public record CurrentAndNext(Slot current, Slot next) {
+    }
+
+    /**
+     * Looks up the lecture a teacher, student group or room has at a given time, and the next one that day.
+     * @param date The date.
+     * @param resource The kind of resource.
+     * @param id The teacher or student group ID, or the room number.
+     * @param time The time of day.
+     * @return The current and next lecture; both null if the resource has nothing left that day.
+     */
+    public CurrentAndNext findCurrentAndNext(LocalDate date, Resource resource, Object id, LocalTime time) {
+        DaySchedule day = day(date);
+        synchronized (day) {
+            IntervalSet set = day.sets.get(resource.key(id));
+            return set == null ? new CurrentAndNext(null, null) : new CurrentAndNext(set.covering(time), set.after(time));
+        }
+    }
+
+    /**
+     * Drops the cached dates affected by a schedule change so they are reloaded on their next check.
+     * Runs after the publishing transaction completes, or right away when it was published outside of one.
+     * @param event The schedule change.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onScheduleChanged(LectureScheduleChangedEvent event) {
+        synchronized (days) {
+            invalidations++;
+            if (event.affectsAllDates()) {
+                days.clear();
+            } else {
+                event.dates().forEach(days::remove);
+            }
+        }
+    }
+
+    private DaySchedule day(LocalDate date) {
+        long seen;
+        synchronized (days) {
+            DaySchedule cached = days.get(date);
+            if (cached != null && System.nanoTime() - cached.loadedAt < ttlNanos) {
+                return cached;
+            }
+            seen = invalidations;
+        }
+        // Loaded outside the lock. A load that overlapped an invalidation may miss the change behind it, so it
+        // answers this lookup but is not cached
+        DaySchedule loaded = load(date);
+        synchronized (days) {
+            if (invalidations != seen) {
+                return loaded;
+            }
+            DaySchedule cached = days.get(date);
+            if (cached != null && cached.loadedAt > loaded.loadedAt) {
+                return cached;
+            }
+            days.put(date, loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * Locks the schedule_locks rows of resources and dates for the rest of the current transaction, in (date, key)
+     * order, creating the rows first for resources never booked on a date.
+     */
+    private void lock(SortedMap<LocalDate, SortedSet<String>> keys) {
+        List<Object[]> rows = new ArrayList<>();
+        keys.forEach((date, dateKeys) -> dateKeys.forEach(key -> rows.add(new Object[] { key, Date.valueOf(date) })));
+        for (int i = 0; i < rows.size(); i += LOCK_BATCH_SIZE) {
+            List<Object[]> chunk = rows.subList(i, Math.min(i + LOCK_BATCH_SIZE, rows.size()));
+            createLocks(chunk);
+            jdbcTemplate.queryForList(LOCK, new MapSqlParameterSource("keys", chunk), String.class);
+        }
+    }
+
+    /**
+     * Creates the missing lock rows. Committed on their own, so the rows are visible to and lockable by every
+     * transaction. If another booking created one of them concurrently, the rows are created one at a time.
+     */
+    private void createLocks(List<Object[]> rows) {
+        SqlParameterSource[] params = rows.stream()
+                .map(row -> new MapSqlParameterSource("key", row[0]).addValue("date", row[1]))
+                .toArray(SqlParameterSource[]::new);
+        try {
+            lockCreation.executeWithoutResult(status -> jdbcTemplate.batchUpdate(CREATE_LOCK, params));
+        } catch (DuplicateKeyException e) {
+            for (SqlParameterSource row : params) {
+                try {
+                    lockCreation.executeWithoutResult(status -> jdbcTemplate.update(CREATE_LOCK, row));
+                } catch (DuplicateKeyException duplicate) {
+                    // Created concurrently by another booking
+                }
+            }
+        }
+    }
+
+    /**
+     * The bookings of the current transaction, per date; discarded when it completes.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<LocalDate, Booking> bookings() {
+        Map<LocalDate, Booking> pending = (Map<LocalDate, Booking>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<LocalDate, Booking> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ScheduleConflictIndex.this);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private DaySchedule load(LocalDate date) {
+        DaySchedule day = new DaySchedule();
+        day.loadedAt = System.nanoTime();
+        MapSqlParameterSource params = new MapSqlParameterSource("date", Date.valueOf(date))
+                .addValue("dayOfWeek", date.getDayOfWeek().name());
+        ReadWriteRoutingDataSource.onPrimary(() -> {
+            jdbcTemplate.query(DAY_SLOTS, params, rs -> {
+                long lectureId = rs.getLong("lecture_id");
+                Long lecture = rs.wasNull() ? null : lectureId;
+                long seriesId = rs.getLong("series_id");
+                Long series = rs.wasNull() ? null : seriesId;
+                day.add(new Slot(lecture, series, rs.getLong("subject_id"), rs.getLong("teacher_id"),
+                        rs.getString("room_number"), rs.getLong("student_group_id"),
+                        rs.getTime("start_time").toLocalTime(), rs.getTime("end_time").toLocalTime()));
+            });
+            return null;
+        });
+        return day;
+    }
+
+    /**
+     * What one transaction has booked on one date. Never shared between threads.
+     */
+    private static final class Booking {
+
+        private final Set<String> lockedKeys = new HashSet<>(); // Resources whose lock rows this transaction holds
+        private final DaySchedule reserved = new DaySchedule(); // Slots reserved by this transaction, not yet stored
+        private DaySchedule stored; // The date as loaded after the latest locks on it were taken
+    }
+
+    /**
+     * The interval sets of one date, one per teacher, room and student group. Guarded by its own monitor once cached.
+     */
+    private static final class DaySchedule {
+
+        private final Map<String, IntervalSet> sets = new HashMap<>();
+        private long loadedAt; // System.nanoTime() when the load started
+
+        void add(Slot slot) {
+            for (String key : keys(slot)) {
+                sets.computeIfAbsent(key, k -> new IntervalSet()).add(slot);
+            }
+        }
+
+        List<String> conflicts(Slot slot) {
+            List<String> conflicts = new ArrayList<>();
+            for (String key : keys(slot)) {
+                IntervalSet set = sets.get(key);
+                if (set == null) {
+                    continue;
+                }
+                for (Slot other : set.overlapping(slot)) {
+                    conflicts.add(key + " is booked from " + other.startTime() + " to " + other.endTime()
+                            + (other.lectureId() != null ? " (lecture " + other.lectureId() + ")"
+                                    : " (lecture series " + other.seriesId() + ")"));
+                }
+            }
+            return conflicts;
+        }
+
+        private static List<String> keys(Slot slot) {
+            List<String> keys = new ArrayList<>(3);
+            keys.add(Resource.TEACHER.key(slot.teacherId()));
+            keys.add(Resource.STUDENT_GROUP.key(slot.studentGroupId()));
+            if (slot.roomNumber() != null && !slot.roomNumber().isBlank()) {
+                keys.add(Resource.ROOM.key(slot.roomNumber()));
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * Intervals of one resource on one date, keyed by start time.
+     * An interval starting before a slot can only overlap it if it started at most 'longest' seconds earlier,
+     * so one sub-map lookup from (start - longest) to the slot's end finds every candidate.
+     */
+    private static final class IntervalSet {
+
+        private final NavigableMap<LocalTime, List<Slot>> byStart = new TreeMap<>();
+        private int longestSeconds; // Only grows; a stale value just widens the lookup
+
+        void add(Slot slot) {
+            byStart.computeIfAbsent(slot.startTime(), k -> new ArrayList<>(1)).add(slot);
+            longestSeconds = Math.max(longestSeconds, slot.endTime().toSecondOfDay() - slot.startTime().toSecondOfDay());
+        }
+
+        /** The latest-starting interval containing a time; same range lookup as for overlaps. */
+        Slot covering(LocalTime time) {
+            LocalTime from = LocalTime.ofSecondOfDay(Math.max(0, time.toSecondOfDay() - longestSeconds));
+            for (List<Slot> slots : byStart.subMap(from, true, time, true).descendingMap().values()) {
+                for (Slot other : slots) {
+                    if (other.endTime().isAfter(time)) {
+                        return other;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** The first interval starting after a time. */
+        Slot after(LocalTime time) {
+            Map.Entry<LocalTime, List<Slot>> next = byStart.higherEntry(time);
+            return next == null ? null : next.getValue().get(0);
+        }
+
+        List<Slot> overlapping(Slot slot) {
+            LocalTime from = LocalTime.ofSecondOfDay(Math.max(0, slot.startTime().toSecondOfDay() - longestSeconds));
+            List<Slot> overlapping = new ArrayList<>();
+            for (List<Slot> slots : byStart.subMap(from, true, slot.endTime(), false).values()) {
+                for (Slot other : slots) {
+                    if (!other.sameBooking(slot) && other.overlaps(slot)) {
+                        overlapping.add(other);
+                    }
+                }
+            }
+            return overlapping;
+        }
+    }
+}
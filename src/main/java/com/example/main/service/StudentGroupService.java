@@ -0,0 +1,184 @@
+package com.example.main.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.dto.StudentGroupDTO;
+import com.example.main.exception.DuplicateEntryException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.mapper.StudentGroupMapper;
+import com.example.main.model.Department;
+import com.example.main.model.StudentGroup;
+import com.example.main.repository.StudentGroupRepository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for managing StudentGroup entities.
+ * Handles business logic related to student group creation, retrieval, and updates,
+ * including canonicalization of group names so that e.g. "cse  2022 a " and "CSE 2022 A"
+ * refer to the same class.
+ */
+@Service
+@Transactional
+public class StudentGroupService {
+
+    private final StudentGroupRepository studentGroupRepository;
+    private final DepartmentService departmentService; // Inject DepartmentService to fetch Department entity
+    private final StudentGroupMapper studentGroupMapper;
+
+    public StudentGroupService(StudentGroupRepository studentGroupRepository, DepartmentService departmentService, StudentGroupMapper studentGroupMapper) {
+        this.studentGroupRepository = studentGroupRepository;
+        this.departmentService = departmentService;
+        this.studentGroupMapper = studentGroupMapper;
+    }
+
+    /**
+     * Canonicalizes a free-text group label: trims, collapses inner whitespace and upper-cases it.
+     * @param label The raw label.
+     * @return The canonical label, or null if the label is null or blank.
+     */
+    public static String canonicalize(String label) {
+        if (label == null || label.isBlank()) {
+            return null;
+        }
+        return label.trim().replaceAll("\\s+", " ").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates a new student group.
+     * @param studentGroupDTO The DTO containing student group details.
+     * @return The created StudentGroupDTO.
+     * @throws ResourceNotFoundException if the associated department is not found.
+     * @throws DuplicateEntryException if a group with the same canonical name already exists in the department and term.
+     */
+    public StudentGroupDTO createStudentGroup(StudentGroupDTO studentGroupDTO) {
+        Department department = departmentService.getDepartmentEntityById(studentGroupDTO.getDepartmentId());
+
+        StudentGroup studentGroup = studentGroupMapper.toStudentGroup(studentGroupDTO);
+        applyCanonicalFields(studentGroup, department);
+
+        if (studentGroupRepository.existsByDepartmentAndTermAndName(department, studentGroup.getTerm(), studentGroup.getName())) {
+            throw new DuplicateEntryException("Student group '" + studentGroup.getName() + "' already exists for term " + studentGroup.getTerm() + ".");
+        }
+
+        StudentGroup savedStudentGroup = studentGroupRepository.save(studentGroup);
+        return studentGroupMapper.toStudentGroupDTO(savedStudentGroup);
+    }
+
+    /**
+     * Retrieves a student group by its ID.
+     * @param id The ID of the student group.
+     * @return The StudentGroupDTO if found.
+     * @throws ResourceNotFoundException if the student group is not found.
+     */
+    @Transactional(readOnly = true)
+    public StudentGroupDTO getStudentGroupById(Long id) {
+        return studentGroupMapper.toStudentGroupDTO(getStudentGroupEntityById(id));
+    }
+
+    /**
+     * Retrieves a student group entity by its ID. Used internally by other services.
+     * @param id The ID of the student group.
+     * @return The StudentGroup entity if found.
+     * @throws ResourceNotFoundException if the student group is not found.
+     */
+    @Transactional(readOnly = true)
+    public StudentGroup getStudentGroupEntityById(Long id) {
+        return studentGroupRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Student group not found with ID: " + id));
+    }
+
+    /**
+     * Retrieves all student groups, optionally restricted to one term.
+     * @param term (Optional) The academic term code.
+     * @return A list of StudentGroupDTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentGroupDTO> getAllStudentGroups(String term) {
+        List<StudentGroup> studentGroups = (term == null || term.isEmpty())
+                ? studentGroupRepository.findAll()
+                : studentGroupRepository.findByTerm(term);
+        return studentGroups.stream()
+                .map(studentGroupMapper::toStudentGroupDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves student groups by department.
+     * @param departmentId The ID of the department.
+     * @return A list of StudentGroupDTOs for the specified department.
+     * @throws ResourceNotFoundException if the department is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentGroupDTO> getStudentGroupsByDepartment(Long departmentId) {
+        Department department = departmentService.getDepartmentEntityById(departmentId);
+        return studentGroupRepository.findByDepartment(department).stream()
+                .map(studentGroupMapper::toStudentGroupDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Updates an existing student group.
+     * @param id The ID of the student group to update.
+     * @param studentGroupDTO The DTO containing updated student group details.
+     * @return The updated StudentGroupDTO.
+     * @throws ResourceNotFoundException if the student group or department is not found.
+     * @throws DuplicateEntryException if the update would clash with another group's canonical name.
+     */
+    public StudentGroupDTO updateStudentGroup(Long id, StudentGroupDTO studentGroupDTO) {
+        StudentGroup existingStudentGroup = getStudentGroupEntityById(id);
+        Department department = departmentService.getDepartmentEntityById(studentGroupDTO.getDepartmentId());
+
+        StudentGroup updated = studentGroupMapper.toStudentGroup(studentGroupDTO);
+        applyCanonicalFields(updated, department);
+
+        boolean keyChanged = !existingStudentGroup.getDepartment().getId().equals(department.getId())
+                || !existingStudentGroup.getTerm().equals(updated.getTerm())
+                || !existingStudentGroup.getName().equals(updated.getName());
+        if (keyChanged && studentGroupRepository.existsByDepartmentAndTermAndName(department, updated.getTerm(), updated.getName())) {
+            throw new DuplicateEntryException("Student group '" + updated.getName() + "' already exists for term " + updated.getTerm() + ".");
+        }
+
+        existingStudentGroup.setDepartment(department);
+        existingStudentGroup.setBatchYear(updated.getBatchYear());
+        existingStudentGroup.setSection(updated.getSection());
+        existingStudentGroup.setTerm(updated.getTerm());
+        existingStudentGroup.setName(updated.getName());
+
+        StudentGroup updatedStudentGroup = studentGroupRepository.save(existingStudentGroup);
+        return studentGroupMapper.toStudentGroupDTO(updatedStudentGroup);
+    }
+
+    /**
+     * Deletes a student group by its ID.
+     * NOTE: Lectures and enrollments reference the group, so the database rejects the
+     * deletion of a group that is still in use.
+     * @param id The ID of the student group to delete.
+     * @throws ResourceNotFoundException if the student group is not found.
+     */
+    public void deleteStudentGroup(Long id) {
+        if (!studentGroupRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Student group not found with ID: " + id);
+        }
+        studentGroupRepository.deleteById(id);
+    }
+
+    /**
+     * Sets the department and canonical section, term and name on a group.
+     * When no name is given it is derived from the department code, batch year and section.
+     */
+    private void applyCanonicalFields(StudentGroup studentGroup, Department department) {
+        studentGroup.setDepartment(department);
+        studentGroup.setSection(canonicalize(studentGroup.getSection()));
+        studentGroup.setTerm(canonicalize(studentGroup.getTerm()));
+        String name = canonicalize(studentGroup.getName());
+        if (name == null) {
+            name = canonicalize(department.getCode() + " " + studentGroup.getBatchYear()
+                    + (studentGroup.getSection() != null ? " " + studentGroup.getSection() : ""));
+        }
+        studentGroup.setName(name);
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.main.service;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.StudentDTO;
 import com.example.main.dto.UserDTO;
 import com.example.main.dto.UserRegisterRequest;
 import com.example.main.exception.DuplicateEntryException;
+import com.example.main.exception.InvalidOperationException;
 import com.example.main.exception.ResourceNotFoundException;
 import com.example.main.mapper.StudentMapper;
 import com.example.main.model.Department;
 import com.example.main.model.Role;
 import com.example.main.model.Student;
+import com.example.main.model.StudentGroup;
 import com.example.main.model.User;
 import com.example.main.repository.StudentRepository;
 
@@ -28,13 +32,19 @@ public class StudentService {
     private final StudentRepository studentRepository;
     private final UserService userService; // Inject UserService to manage User accounts
     private final DepartmentService departmentService; // Inject DepartmentService to fetch Department entity
+    private final StudentGroupService studentGroupService; // Inject StudentGroupService to fetch StudentGroup entity
     private final StudentMapper studentMapper;
+    private final BulkDeletionService bulkDeletionService; // Set-based cascading deletes
 
-    public StudentService(StudentRepository studentRepository, UserService userService, DepartmentService departmentService, StudentMapper studentMapper) {
+    public StudentService(StudentRepository studentRepository, UserService userService, DepartmentService departmentService,
+                          StudentGroupService studentGroupService, StudentMapper studentMapper,
+                          BulkDeletionService bulkDeletionService) {
         this.studentRepository = studentRepository;
         this.userService = userService;
         this.departmentService = departmentService;
+        this.studentGroupService = studentGroupService;
         this.studentMapper = studentMapper;
+        this.bulkDeletionService = bulkDeletionService;
     }
 
     /**
@@ -42,7 +52,8 @@ public class StudentService {
      * @param studentDTO The DTO containing student details, including user information.
      * @return The created StudentDTO.
      * @throws DuplicateEntryException if a student with the given roll number or user email already exists.
-     * @throws ResourceNotFoundException if the associated department is not found.
+     * @throws ResourceNotFoundException if the associated department or student group is not found.
+     * @throws InvalidOperationException if the student group belongs to another department.
      */
     public StudentDTO createStudent(StudentDTO studentDTO, UserRegisterRequest userRegisterRequest) {
         if (studentRepository.existsByRollNumber(studentDTO.getRollNumber())) {
@@ -62,6 +73,7 @@ public class StudentService {
         Student student = studentMapper.toStudent(studentDTO);
         student.setUser(createdUser); // Link to the newly created user
         student.setDepartment(department); // Set the department
+        student.setStudentGroup(resolveStudentGroup(studentDTO.getStudentGroupId(), department));
 
         Student savedStudent = studentRepository.save(student);
         return studentMapper.toStudentDTO(savedStudent);
@@ -73,6 +85,7 @@ public class StudentService {
      * @return The StudentDTO if found.
      * @throws ResourceNotFoundException if the student is not found.
      */
+    @Transactional(readOnly = true)
     public StudentDTO getStudentById(Long id) {
         Student student = studentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + id));
@@ -85,6 +98,7 @@ public class StudentService {
      * @return The Student entity if found.
      * @throws ResourceNotFoundException if the student is not found.
      */
+    @Transactional(readOnly = true)
     public Student getStudentEntityById(Long id) {
         return studentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + id));
@@ -94,6 +108,7 @@ public class StudentService {
      * Retrieves all students.
      * @return A list of all StudentDTOs.
      */
+    @Transactional(readOnly = true)
     public List<StudentDTO> getAllStudents() {
         return studentRepository.findAll().stream()
                 .map(studentMapper::toStudentDTO)
@@ -106,6 +121,7 @@ public class StudentService {
      * @return A list of StudentDTOs for the specified department.
      * @throws ResourceNotFoundException if the department is not found.
      */
+    @Transactional(readOnly = true)
     public List<StudentDTO> getStudentsByDepartment(Long departmentId) {
         Department department = departmentService.getDepartmentEntityById(departmentId);
         return studentRepository.findByDepartment(department).stream()
@@ -119,6 +135,7 @@ public class StudentService {
      * @param section The section (can be null for all sections in a batch).
      * @return A list of StudentDTOs matching the criteria.
      */
+    @Transactional(readOnly = true)
     public List<StudentDTO> getStudentsByBatchYearAndSection(Integer batchYear, String section) {
         List<Student> students;
         if (section == null || section.isEmpty()) {
@@ -134,15 +151,30 @@ public class StudentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves the students currently in a student group, ordered by roll number.
+     * @param studentGroupId The ID of the student group.
+     * @return A list of StudentDTOs in the group.
+     * @throws ResourceNotFoundException if the student group is not found.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentDTO> getStudentsByStudentGroup(Long studentGroupId) {
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(studentGroupId);
+        return studentRepository.findByStudentGroupOrderByRollNumberAsc(studentGroup).stream()
+                .map(studentMapper::toStudentDTO)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Updates an existing student's details.
-     * This method handles updates to roll number, batch year, section, and department,
+     * This method handles updates to roll number, batch year, section, department and student group,
      * and also delegates user details updates.
      * @param id The ID of the student to update.
      * @param studentDTO The DTO containing updated student details.
      * @return The updated StudentDTO.
-     * @throws ResourceNotFoundException if the student, associated user, or department is not found.
+     * @throws ResourceNotFoundException if the student, associated user, department or student group is not found.
      * @throws DuplicateEntryException if an attempt is made to change roll number to an existing one.
+     * @throws InvalidOperationException if the student group belongs to another department.
      */
     public StudentDTO updateStudent(Long id, StudentDTO studentDTO) {
         Student existingStudent = studentRepository.findById(id)
@@ -165,23 +197,43 @@ public class StudentService {
         existingStudent.setDepartment(department);
         existingStudent.setBatchYear(studentDTO.getBatchYear());
         existingStudent.setSection(studentDTO.getSection());
+        existingStudent.setStudentGroup(resolveStudentGroup(studentDTO.getStudentGroupId(), department));
 
         Student updatedStudent = studentRepository.save(existingStudent);
         return studentMapper.toStudentDTO(updatedStudent);
     }
 
     /**
-     * Deletes a student by their ID. This will also delete the associated User account.
+     * Deletes a student by their ID, together with their attendance records. The User account is kept.
      * NOTE: Consider implications for historical data (e.g., attendance records) before deleting.
-     * For now, cascade deletion is configured.
      * @param id The ID of the student to delete.
+     * @return The per-table deletion report.
      * @throws ResourceNotFoundException if the student is not found.
      */
-    public void deleteStudent(Long id) {
-        Student student = studentRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Student not found with ID: " + id));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeletionReportDTO deleteStudent(Long id) {
+        if (!studentRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Student not found with ID: " + id);
+        }
+        return bulkDeletionService.deleteStudent(id);
+    }
 
-        // Delete the associated User first (due to cascade type ALL + orphanRemoval on Student.user)
-        studentRepository.delete(student);
+    /**
+     * Resolves the optional student group of a student and checks it belongs to the student's department.
+     * @param studentGroupId The ID of the student group, may be null.
+     * @param department The student's department.
+     * @return The StudentGroup entity, or null if no group was given.
+     * @throws ResourceNotFoundException if the student group is not found.
+     * @throws InvalidOperationException if the student group belongs to another department.
+     */
+    private StudentGroup resolveStudentGroup(Long studentGroupId, Department department) {
+        if (studentGroupId == null) {
+            return null;
+        }
+        StudentGroup studentGroup = studentGroupService.getStudentGroupEntityById(studentGroupId);
+        if (!studentGroup.getDepartment().getId().equals(department.getId())) {
+            throw new InvalidOperationException("Student group '" + studentGroup.getName() + "' does not belong to the student's department.");
+        }
+        return studentGroup;
     }
 }
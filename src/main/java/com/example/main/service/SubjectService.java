@@ -1,9 +1,13 @@
 package com.example.main.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.SubjectDTO;
+import com.example.main.event.LectureScheduleChangedEvent;
 import com.example.main.exception.DuplicateEntryException;
 import com.example.main.exception.ResourceNotFoundException;
 import com.example.main.mapper.SubjectMapper;
@@ -25,11 +29,16 @@ public class SubjectService {
     private final SubjectRepository subjectRepository;
     private final DepartmentService departmentService; // Inject DepartmentService to fetch Department entity
     private final SubjectMapper subjectMapper;
+    private final BulkDeletionService bulkDeletionService; // Set-based cascading deletes
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SubjectService(SubjectRepository subjectRepository, DepartmentService departmentService, SubjectMapper subjectMapper) {
+    public SubjectService(SubjectRepository subjectRepository, DepartmentService departmentService, SubjectMapper subjectMapper,
+                          BulkDeletionService bulkDeletionService, ApplicationEventPublisher eventPublisher) {
         this.subjectRepository = subjectRepository;
         this.departmentService = departmentService;
         this.subjectMapper = subjectMapper;
+        this.bulkDeletionService = bulkDeletionService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -59,6 +68,7 @@ public class SubjectService {
      * @return The SubjectDTO if found.
      * @throws ResourceNotFoundException if the subject is not found.
      */
+    @Transactional(readOnly = true)
     public SubjectDTO getSubjectById(Long id) {
         Subject subject = subjectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Subject not found with ID: " + id));
@@ -71,6 +81,7 @@ public class SubjectService {
      * @return The Subject entity if found.
      * @throws ResourceNotFoundException if the subject is not found.
      */
+    @Transactional(readOnly = true)
     public Subject getSubjectEntityById(Long id) {
         return subjectRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Subject not found with ID: " + id));
@@ -80,6 +91,7 @@ public class SubjectService {
      * Retrieves all subjects as DTOs. Used typically for exposing data via API endpoints.
      * @return A list of all SubjectDTOs.
      */
+    @Transactional(readOnly = true)
     public List<SubjectDTO> getAllSubjects() {
         return subjectRepository.findAll().stream()
                 .map(subjectMapper::toSubjectDTO)
@@ -91,6 +103,7 @@ public class SubjectService {
      * when the full entity object is required.
      * @return A list of all Subject entities.
      */
+    @Transactional(readOnly = true)
     public List<Subject> getAllSubjectEntities() { // NEW METHOD ADDED
         return subjectRepository.findAll();
     }
@@ -101,6 +114,7 @@ public class SubjectService {
      * @return A list of SubjectDTOs for the specified department.
      * @throws ResourceNotFoundException if the department is not found.
      */
+    @Transactional(readOnly = true)
     public List<SubjectDTO> getSubjectsByDepartment(Long departmentId) {
         Department department = departmentService.getDepartmentEntityById(departmentId);
         return subjectRepository.findByDepartment(department).stream()
@@ -136,17 +150,20 @@ public class SubjectService {
     }
 
     /**
-     * Deletes a subject by its ID.
-     * NOTE: Consider implementing checks for associated lectures before allowing deletion,
-     * or cascade deletion if appropriate for business rules.
-     * For now, cascade is configured in entities.
+     * Deletes a subject by its ID, together with its lecture series, lectures, their attendance records and the
+     * enrollments of student groups in it.
+     * The deletion is set-based and committed in chunks (see BulkDeletionService), so it runs outside a transaction.
      * @param id The ID of the subject to delete.
+     * @return The per-table deletion report.
      * @throws ResourceNotFoundException if the subject is not found.
      */
-    public void deleteSubject(Long id) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeletionReportDTO deleteSubject(Long id) {
         if (!subjectRepository.existsById(id)) {
             throw new ResourceNotFoundException("Subject not found with ID: " + id);
         }
-        subjectRepository.deleteById(id);
+        DeletionReportDTO report = bulkDeletionService.deleteSubject(id);
+        eventPublisher.publishEvent(LectureScheduleChangedEvent.allDates()); // Its lectures may fall on any date
+        return report;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,275 @@
+package com.example.main.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.config.ReadWriteRoutingDataSource;
+import com.example.main.dto.DepartmentDTO;
+import com.example.main.dto.SubjectDTO;
+import com.example.main.dto.SyncAttendanceRecordDTO;
+import com.example.main.dto.SyncLectureDTO;
+import com.example.main.dto.SyncResponseDTO;
+import com.example.main.dto.SyncTeacherDTO;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.model.AttendanceStatus;
+import com.example.main.model.SyncEntityType;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Service serving the delta sync of the mobile app.
+ * Every insert and update of a synced table stamps the row with the next value of one shared sequence
+ * (row_version, see the V13 migrations), and deletions leave tombstones versioned from the same sequence, so the
+ * changes since a sync token T are the rows with row_version > T, read in version order from the row_version indexes.
+ * A version is allocated when a row is written but only visible once its transaction commits, so a later version can
+ * become visible before an earlier one. The token handed out is therefore never above the settled watermark: the
+ * highest version already in use one settle period ago, sampled periodically on each node. Versions up to it are
+ * assumed committed (no sync-relevant transaction runs longer than the settle period). Rows above the token are
+ * still sent, and sent again on the next request, so clients must apply them as idempotent upserts.
+ * Tombstones are kept for a retention period; a token from before the last purge gets a full resync (reset).
+ */
+@Service
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    private static final String DEPARTMENTS = "SELECT id, name, code, row_version FROM departments "
+            + "WHERE row_version > :since ORDER BY row_version LIMIT :limit";
+    private static final String SUBJECTS = "SELECT s.id, s.name, s.code, s.department_id, d.name AS department_name, "
+            + "s.row_version FROM subjects s JOIN departments d ON d.id = s.department_id "
+            + "WHERE s.row_version > :since ORDER BY s.row_version LIMIT :limit";
+    // The names of a teacher live in the user account, so a teacher is also changed when its user is
+    private static final String TEACHERS = "SELECT t.id, t.user_id, u.first_name, u.last_name, t.employee_id, "
+            + "t.department_id, GREATEST(t.row_version, u.row_version) AS row_version "
+            + "FROM teachers t JOIN users u ON u.id = t.user_id "
+            + "WHERE t.id IN (SELECT id FROM teachers WHERE row_version > :since UNION "
+            + "SELECT ct.id FROM users cu JOIN teachers ct ON ct.user_id = cu.id WHERE cu.row_version > :since) "
+            + "ORDER BY GREATEST(t.row_version, u.row_version) LIMIT :limit";
+    private static final String LECTURES = "SELECT id, subject_id, teacher_id, student_group_id, lecture_date, "
+            + "start_time, end_time, room_number, series_id, row_version FROM lectures "
+            + "WHERE row_version > :since%s ORDER BY row_version LIMIT :limit";
+    private static final String ATTENDANCE_RECORDS = "SELECT r.id, r.lecture_id, r.student_id, r.status, "
+            + "r.marked_by_teacher_id, r.marking_timestamp, r.row_version FROM attendance_records r "
+            + "WHERE r.row_version > :since%s ORDER BY r.row_version LIMIT :limit";
+    private static final String TOMBSTONES = "SELECT entity_type, entity_id, row_version FROM sync_tombstones "
+            + "WHERE row_version > :since ORDER BY row_version LIMIT :limit";
+    // Highest version in use; every version at or below it has been allocated already
+    private static final String HIGHEST_VERSION = "SELECT GREATEST("
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM departments), "
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM users), "
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM subjects), "
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM teachers), "
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM lectures), "
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM attendance_records), "
+            + "(SELECT COALESCE(MAX(row_version), 0) FROM sync_tombstones))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction; // One consistent read of all tables per page
+    private final TransactionTemplate purgeTransaction;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final long settleNanos;
+    private final int tombstoneRetentionDays;
+    // Sampled highest version by System.nanoTime() of the sample; older samples than the settled one are dropped
+    private final ConcurrentSkipListMap<Long, Long> watermarks = new ConcurrentSkipListMap<>();
+
+    public SyncService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       @Value("${app.sync.page-size:500}") int defaultLimit,
+                       @Value("${app.sync.max-page-size:5000}") int maxLimit,
+                       @Value("${app.sync.settle-millis:10000}") long settleMillis,
+                       @Value("${app.sync.tombstone-retention-days:90}") int tombstoneRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.purgeTransaction = new TransactionTemplate(transactionManager);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.settleNanos = Duration.ofMillis(settleMillis).toNanos();
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+    }
+
+    /**
+     * Retrieves one page of the changes since a sync token.
+     * Lectures and attendance records are scoped to the lectures of the given teacher; reference data and deleted
+     * IDs are not scoped. A lecture moved to another teacher stays on the former teacher's device until it resyncs
+     * from scratch. The page is read from the primary, as the watermark is sampled there.
+     * @param since The token of the previous sync, or null/0 for a full sync.
+     * @param limit The maximum number of rows per entity type, or null for the configured page size.
+     * @param teacherId The ID of the teacher whose lectures are synced, or null for all lectures.
+     * @return The changed rows, the deleted IDs and the next sync token.
+     * @throws InvalidOperationException if the token is negative or the limit is out of range.
+     */
+    public SyncResponseDTO getChanges(Long since, Integer limit, Long teacherId) {
+        long from = since != null ? since : 0;
+        int pageLimit = limit != null ? limit : defaultLimit;
+        if (from < 0) {
+            throw new InvalidOperationException("Sync token cannot be negative.");
+        }
+        if (pageLimit < 1 || pageLimit > maxLimit) {
+            throw new InvalidOperationException("Sync page size must be between 1 and " + maxLimit + ".");
+        }
+        return ReadWriteRoutingDataSource.onPrimary(() -> readTransaction.execute(status ->
+                readPage(from, pageLimit, teacherId)));
+    }
+
+    private SyncResponseDTO readPage(long since, int limit, Long teacherId) {
+        SyncResponseDTO response = new SyncResponseDTO();
+        Long purged = jdbcTemplate.getJdbcOperations().queryForObject(
+                "SELECT purged_version FROM sync_horizon WHERE id = 1", Long.class);
+        long from = since;
+        if (since > 0 && purged != null && since < purged) {
+            response.setReset(true); // Tombstones the client has not seen are gone
+            from = 0;
+        }
+        // One row more than the limit tells whether a type was truncated
+        MapSqlParameterSource params = new MapSqlParameterSource("since", from)
+                .addValue("limit", limit + 1)
+                .addValue("teacherId", teacherId);
+        long[] cut = {Long.MAX_VALUE}; // Lowest last version of a truncated type
+
+        response.setDepartments(page(DEPARTMENTS, params, limit, cut, (rs, i) ->
+                new DepartmentDTO(rs.getLong("id"), rs.getString("name"), rs.getString("code"))));
+        response.setSubjects(page(SUBJECTS, params, limit, cut, (rs, i) -> {
+            SubjectDTO subject = new SubjectDTO();
+            subject.setId(rs.getLong("id"));
+            subject.setName(rs.getString("name"));
+            subject.setCode(rs.getString("code"));
+            subject.setDepartmentId(rs.getLong("department_id"));
+            subject.setDepartmentName(rs.getString("department_name"));
+            return subject;
+        }));
+        response.setTeachers(page(TEACHERS, params, limit, cut, (rs, i) -> new SyncTeacherDTO(rs.getLong("id"),
+                rs.getLong("user_id"), rs.getString("first_name"), rs.getString("last_name"),
+                rs.getString("employee_id"), rs.getLong("department_id"))));
+        response.setLectures(page(String.format(LECTURES, teacherId != null ? " AND teacher_id = :teacherId" : ""),
+                params, limit, cut, (rs, i) -> new SyncLectureDTO(rs.getLong("id"), rs.getLong("subject_id"),
+                        rs.getLong("teacher_id"), rs.getLong("student_group_id"),
+                        rs.getDate("lecture_date").toLocalDate(), rs.getTime("start_time").toLocalTime(),
+                        rs.getTime("end_time").toLocalTime(), rs.getString("room_number"),
+                        rs.getObject("series_id", Long.class))));
+        response.setAttendanceRecords(page(String.format(ATTENDANCE_RECORDS, teacherId != null
+                        ? " AND r.lecture_id IN (SELECT l.id FROM lectures l WHERE l.teacher_id = :teacherId)" : ""),
+                params, limit, cut, (rs, i) -> new SyncAttendanceRecordDTO(rs.getLong("id"), rs.getLong("lecture_id"),
+                        rs.getLong("student_id"), AttendanceStatus.valueOf(rs.getString("status")),
+                        rs.getLong("marked_by_teacher_id"), rs.getTimestamp("marking_timestamp").toLocalDateTime())));
+        if (from > 0) { // A full sync has nothing to delete on the device
+            List<long[]> tombstones = page(TOMBSTONES, params, limit, cut, (rs, i) ->
+                    new long[]{rs.getInt("entity_type"), rs.getLong("entity_id")});
+            for (long[] tombstone : tombstones) {
+                deletedIds(response, SyncEntityType.fromCode((int) tombstone[0])).add(tombstone[1]);
+            }
+        }
+
+        // Truncated types continue after the lowest cut; everything else is complete up to the watermark
+        long token = Math.min(cut[0], Math.max(from, getSettledVersion()));
+        response.setSyncToken(token);
+        response.setHasMore(cut[0] != Long.MAX_VALUE && token > from);
+        return response;
+    }
+
+    /**
+     * Reads up to limit rows of one entity type in version order and lowers the cut to the version of the last row
+     * returned if there were more.
+     */
+    private <T> List<T> page(String sql, MapSqlParameterSource params, int limit, long[] cut, RowMapper<T> mapper) {
+        List<T> rows = new ArrayList<>();
+        long[] lastVersion = {0};
+        jdbcTemplate.query(sql, params, rs -> {
+            if (rows.size() < limit) {
+                rows.add(mapper.mapRow(rs, rows.size()));
+                lastVersion[0] = rs.getLong("row_version");
+            } else {
+                cut[0] = Math.min(cut[0], lastVersion[0]);
+            }
+        });
+        return rows;
+    }
+
+    private static List<Long> deletedIds(SyncResponseDTO response, SyncEntityType type) {
+        return switch (type) {
+            case DEPARTMENT -> response.getDeletedDepartmentIds();
+            case SUBJECT -> response.getDeletedSubjectIds();
+            case TEACHER -> response.getDeletedTeacherIds();
+            case LECTURE -> response.getDeletedLectureIds();
+            case ATTENDANCE_RECORD -> response.getDeletedAttendanceRecordIds();
+        };
+    }
+
+    /**
+     * Records tombstones for synced rows that are about to be deleted, in the caller's transaction.
+     * Rows removed without a tombstone (archived attendance records) simply stay on the devices.
+     * @param type The type of the deleted rows.
+     * @param idQuery A query selecting the IDs of the rows, in a column named 'id'.
+     * @param params The parameters of the query.
+     * @return The number of tombstones written.
+     */
+    public int recordDeletions(SyncEntityType type, String idQuery, MapSqlParameterSource params) {
+        MapSqlParameterSource tombstoneParams = new MapSqlParameterSource(params.getValues())
+                .addValue("entityType", type.getCode())
+                .addValue("deletedAt", Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.update("INSERT INTO sync_tombstones (entity_type, entity_id, deleted_at) "
+                + "SELECT :entityType, d.id, :deletedAt FROM (" + idQuery + ") d", tombstoneParams);
+    }
+
+    /**
+     * Scheduled job sampling the highest version in use, from which the settled watermark is taken.
+     */
+    @Scheduled(fixedDelayString = "${app.sync.watermark-interval-millis:1000}")
+    public void sampleWatermark() {
+        Long version = jdbcTemplate.getJdbcOperations().queryForObject(HIGHEST_VERSION, Long.class);
+        long now = System.nanoTime();
+        watermarks.put(now, version != null ? version : 0);
+        Long settled = watermarks.floorKey(now - settleNanos);
+        if (settled != null) {
+            watermarks.headMap(settled).clear();
+        }
+    }
+
+    /**
+     * @return The newest sampled version that is at least one settle period old, or 0 before there is one.
+     */
+    long getSettledVersion() {
+        Map.Entry<Long, Long> settled = watermarks.floorEntry(System.nanoTime() - settleNanos);
+        return settled != null ? settled.getValue() : 0;
+    }
+
+    /**
+     * Scheduled job deleting tombstones older than the retention period.
+     * The highest deleted version becomes the sync horizon: clients with an older token get a full resync.
+     */
+    @Scheduled(cron = "${app.sync.tombstone-cleanup-cron:0 55 3 * * *}")
+    public void purgeTombstones() {
+        MapSqlParameterSource params = new MapSqlParameterSource("cutoff",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(tombstoneRetentionDays)));
+        Integer deleted = purgeTransaction.execute(status -> {
+            Long horizon = jdbcTemplate.queryForObject("SELECT MAX(row_version) FROM sync_tombstones "
+                    + "WHERE deleted_at < :cutoff", params, Long.class);
+            if (horizon == null) {
+                return 0;
+            }
+            params.addValue("horizon", horizon);
+            jdbcTemplate.update("UPDATE sync_horizon SET purged_version = :horizon "
+                    + "WHERE id = 1 AND purged_version < :horizon", params);
+            return jdbcTemplate.update("DELETE FROM sync_tombstones WHERE row_version <= :horizon", params);
+        });
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} sync tombstones", deleted);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.main.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.main.dto.DeletionReportDTO;
 import com.example.main.dto.TeacherDTO;
 import com.example.main.dto.UserDTO;
 import com.example.main.dto.UserRegisterRequest;
+import com.example.main.event.LectureScheduleChangedEvent;
 import com.example.main.exception.DuplicateEntryException;
 import com.example.main.exception.InvalidOperationException;
 import com.example.main.exception.ResourceNotFoundException;
@@ -31,12 +35,17 @@ public class TeacherService {
     private final UserService userService; // Inject UserService to manage User accounts
     private final DepartmentService departmentService; // Inject DepartmentService to fetch Department entity
     private final TeacherMapper teacherMapper;
+    private final BulkDeletionService bulkDeletionService; // Set-based cascading deletes
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TeacherService(TeacherRepository teacherRepository, UserService userService, DepartmentService departmentService, TeacherMapper teacherMapper) {
+    public TeacherService(TeacherRepository teacherRepository, UserService userService, DepartmentService departmentService, TeacherMapper teacherMapper,
+                          BulkDeletionService bulkDeletionService, ApplicationEventPublisher eventPublisher) {
         this.teacherRepository = teacherRepository;
         this.userService = userService;
         this.departmentService = departmentService;
         this.teacherMapper = teacherMapper;
+        this.bulkDeletionService = bulkDeletionService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -73,6 +82,7 @@ public class TeacherService {
      * @return The TeacherDTO if found.
      * @throws ResourceNotFoundException if the teacher is not found.
      */
+    @Transactional(readOnly = true)
     public TeacherDTO getTeacherById(Long id) {
         Teacher teacher = teacherRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher not found with ID: " + id));
@@ -85,6 +95,7 @@ public class TeacherService {
      * @return The Teacher entity if found.
      * @throws ResourceNotFoundException if the teacher is not found.
      */
+    @Transactional(readOnly = true)
     public Teacher getTeacherEntityById(Long id) {
         return teacherRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher not found with ID: " + id));
@@ -94,6 +105,7 @@ public class TeacherService {
      * Retrieves all teachers.
      * @return A list of all TeacherDTOs.
      */
+    @Transactional(readOnly = true)
     public List<TeacherDTO> getAllTeachers() {
         return teacherRepository.findAll().stream()
                 .map(teacherMapper::toTeacherDTO)
@@ -106,6 +118,7 @@ public class TeacherService {
      * @return A list of TeacherDTOs for the specified department.
      * @throws ResourceNotFoundException if the department is not found.
      */
+    @Transactional(readOnly = true)
     public List<TeacherDTO> getTeachersByDepartment(Long departmentId) {
         Department department = departmentService.getDepartmentEntityById(departmentId);
         return teacherRepository.findByDepartment(department).stream()
@@ -148,19 +161,21 @@ public class TeacherService {
     }
 
     /**
-     * Deletes a teacher by their ID. This will also delete the associated User account.
+     * Deletes a teacher by their ID, together with their lecture series, lectures and attendance records.
+     * The User account is kept. The deletion is set-based and committed in chunks (see BulkDeletionService),
+     * so it runs outside a transaction.
      * NOTE: Consider implications for historical data (e.g., lectures taught) before deleting.
-     * For now, cascade deletion is configured.
      * @param id The ID of the teacher to delete.
+     * @return The per-table deletion report.
      * @throws ResourceNotFoundException if the teacher is not found.
      */
-    public void deleteTeacher(Long id) {
-        Teacher teacher = teacherRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Teacher not found with ID: " + id));
-
-        // Delete the associated User first (due to cascade type ALL + orphanRemoval on Teacher.user)
-        // Or, more explicitly: userService.deactivateUser(teacher.getUser().getId()); if you prefer soft delete for user
-        // For hard delete: userRepository.delete(teacher.getUser());
-        teacherRepository.delete(teacher);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DeletionReportDTO deleteTeacher(Long id) {
+        if (!teacherRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Teacher not found with ID: " + id);
+        }
+        DeletionReportDTO report = bulkDeletionService.deleteTeacher(id);
+        eventPublisher.publishEvent(LectureScheduleChangedEvent.allDates()); // Their lectures may fall on any date
+        return report;
     }
 }
@@ -0,0 +1,362 @@
+package com.example.main.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.dto.RoomDTO;
+import com.example.main.dto.TeacherAvailabilityDTO;
+import com.example.main.dto.TimetableCourseDTO;
+import com.example.main.dto.TimetableEntryDTO;
+import com.example.main.dto.TimetableSolutionDTO;
+import com.example.main.dto.TimetableSolveRequest;
+import com.example.main.event.LectureScheduleChangedEvent;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.exception.SchedulingConflictException;
+import com.example.main.model.AttendanceEventType;
+import com.example.main.model.Subject;
+import com.example.main.model.StudentGroup;
+import com.example.main.model.Teacher;
+import com.example.main.repository.StudentGroupRepository;
+import com.example.main.repository.SubjectRepository;
+import com.example.main.repository.TeacherRepository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Service building term timetables with the TimetableSolver.
+ * It translates a TimetableSolveRequest into the solver's index form, checks up front that every course can be
+ * placed at all, and saves a clash-free weekly timetable as one Lecture per week and timeslot with JDBC batches.
+ * The solver runs outside of any transaction, so no database connection is held while it searches; only the final
+ * save runs in one transaction, which also checks the new lectures against the existing ones.
+ * Solves run one at a time on a shared pool with a thread per search; a request arriving meanwhile is rejected.
+ */
+@Service
+public class TimetableService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableService.class);
+    private static final long MAX_TERM_DAYS = 366; // Same guard as for lecture series
+    // Fixed seed of the first search. Results still vary between runs: the searches stop on wall-clock time and
+    // their number follows the CPU count
+    private static final long SEED = 20240601L;
+
+    private final TeacherRepository teacherRepository;
+    private final SubjectRepository subjectRepository;
+    private final StudentGroupRepository studentGroupRepository;
+    private final ScheduleConflictIndex scheduleConflictIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final AttendanceEventOutboxService attendanceEventOutboxService; // LECTURE_SCHEDULED per saved lecture
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+    private final ExecutorService solverPool; // Shared by all solves, one thread per search
+    private final Semaphore solving = new Semaphore(1); // One solve at a time, so its searches get every pool thread
+    private final int defaultTimeBudgetSeconds;
+    private final int maxTimeBudgetSeconds;
+    private final int batchSize;
+
+    public TimetableService(TeacherRepository teacherRepository, SubjectRepository subjectRepository,
+                            StudentGroupRepository studentGroupRepository, ScheduleConflictIndex scheduleConflictIndex,
+                            ApplicationEventPublisher eventPublisher, NamedParameterJdbcTemplate jdbcTemplate,
+                            AttendanceEventOutboxService attendanceEventOutboxService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.timetable.solver.threads:0}") int threads,
+                            @Value("${app.timetable.solver.default-time-budget-seconds:10}") int defaultTimeBudgetSeconds,
+                            @Value("${app.timetable.solver.max-time-budget-seconds:60}") int maxTimeBudgetSeconds,
+                            @Value("${app.timetable.batch-size:500}") int batchSize) {
+        this.teacherRepository = teacherRepository;
+        this.subjectRepository = subjectRepository;
+        this.studentGroupRepository = studentGroupRepository;
+        this.scheduleConflictIndex = scheduleConflictIndex;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.attendanceEventOutboxService = attendanceEventOutboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors(); // 0: one per CPU
+        this.solverPool = TimetableSolver.newPool(this.threads);
+        this.defaultTimeBudgetSeconds = defaultTimeBudgetSeconds;
+        this.maxTimeBudgetSeconds = maxTimeBudgetSeconds;
+        this.batchSize = batchSize;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        solverPool.shutdownNow();
+    }
+
+    /**
+     * Builds a weekly timetable and, unless previewing, saves it as lectures for every week of the term.
+     * Nothing is saved if the solver did not find a clash-free timetable within the time budget.
+     * @param request The courses, rooms, teacher availability, periods and term.
+     * @param preview If true, the timetable is only returned.
+     * @return The timetable found, with the number of lectures created.
+     * @throws ResourceNotFoundException if a teacher, subject or student group is not found.
+     * @throws InvalidOperationException if the request is inconsistent, a course cannot be placed at all, or another
+     * timetable is being solved.
+     * @throws SchedulingConflictException if a new lecture clashes with an existing lecture.
+     */
+    public TimetableSolutionDTO solveTimetable(TimetableSolveRequest request, boolean preview) {
+        validate(request);
+        List<DayOfWeek> days = request.getDays().stream().distinct().sorted().collect(Collectors.toList());
+        List<LocalTime> periods = request.getPeriodStartTimes().stream().distinct().sorted().collect(Collectors.toList());
+        Map<Long, Integer> groupSizes = groupSizes(request.getCourses());
+
+        // Index teachers, groups and courses; every weekly hour of a course becomes one unit
+        Map<Long, Integer> teacherIndex = new LinkedHashMap<>();
+        Map<Long, Integer> groupIndex = new LinkedHashMap<>();
+        List<TimetableCourseDTO> courses = request.getCourses();
+        List<Integer> unitCourses = new ArrayList<>();
+        for (int c = 0; c < courses.size(); c++) {
+            TimetableCourseDTO course = courses.get(c);
+            teacherIndex.putIfAbsent(course.getTeacherId(), teacherIndex.size());
+            groupIndex.putIfAbsent(course.getStudentGroupId(), groupIndex.size());
+            for (int h = 0; h < course.getHoursPerWeek(); h++) {
+                unitCourses.add(c);
+            }
+        }
+        int units = unitCourses.size();
+        int[] unitTeacher = new int[units];
+        int[] unitGroup = new int[units];
+        int[] unitCourse = new int[units];
+        int[] unitSize = new int[units];
+        for (int u = 0; u < units; u++) {
+            TimetableCourseDTO course = courses.get(unitCourses.get(u));
+            unitTeacher[u] = teacherIndex.get(course.getTeacherId());
+            unitGroup[u] = groupIndex.get(course.getStudentGroupId());
+            unitCourse[u] = unitCourses.get(u);
+            unitSize[u] = groupSizes.getOrDefault(course.getStudentGroupId(), 0);
+        }
+        boolean[][] teacherAvailable = teacherAvailability(request, teacherIndex, days, periods);
+        List<RoomDTO> rooms = request.getRooms();
+        int[] roomCapacity = rooms.stream().mapToInt(RoomDTO::getCapacity).toArray();
+        checkPlaceable(courses, teacherIndex, teacherAvailable, groupSizes, roomCapacity, days.size() * periods.size());
+
+        int budget = Math.min(request.getTimeBudgetSeconds() != null ? request.getTimeBudgetSeconds()
+                : defaultTimeBudgetSeconds, maxTimeBudgetSeconds);
+        if (!solving.tryAcquire()) {
+            throw new InvalidOperationException("Another timetable is being solved; try again once it is done.");
+        }
+        TimetableSolver.Solution solution;
+        try {
+            solution = TimetableSolver.solve(new TimetableSolver.Problem(days.size(), periods.size(), unitTeacher,
+                    unitGroup, unitCourse, unitSize, teacherAvailable, roomCapacity), Duration.ofSeconds(budget), threads,
+                    SEED, solverPool);
+        } finally {
+            solving.release();
+        }
+        log.info("Solved timetable with {} units in {} ms ({} threads, {} iterations): {} clashes, soft penalty {}",
+                units, solution.millis(), threads, solution.iterations(), solution.hardConflicts(), solution.softPenalty());
+
+        TimetableSolutionDTO result = new TimetableSolutionDTO();
+        result.setPreview(preview);
+        result.setSolved(solution.feasible());
+        result.setHardConflicts(solution.hardConflicts());
+        result.setSoftPenalty(solution.softPenalty());
+        result.setUnits(units);
+        result.setThreads(threads);
+        result.setIterations(solution.iterations());
+        result.setSolveMillis(solution.millis());
+        for (int u = 0; u < units; u++) {
+            TimetableCourseDTO course = courses.get(unitCourse[u]);
+            int timeslot = solution.timeslot()[u];
+            LocalTime start = periods.get(timeslot % periods.size());
+            result.getEntries().add(new TimetableEntryDTO(course.getStudentGroupId(), course.getSubjectId(),
+                    course.getTeacherId(), rooms.get(solution.room()[u]).getRoomNumber(),
+                    days.get(timeslot / periods.size()), start, start.plusMinutes(request.getPeriodMinutes())));
+        }
+        result.getEntries().sort(Comparator.comparing(TimetableEntryDTO::getDayOfWeek)
+                .thenComparing(TimetableEntryDTO::getStartTime)
+                .thenComparing(TimetableEntryDTO::getStudentGroupId));
+
+        if (!preview && solution.feasible()) {
+            Integer created = transactionTemplate.execute(status ->
+                    saveLectures(result.getEntries(), request.getStartDate(), request.getEndDate()));
+            result.setLecturesCreated(created == null ? 0 : created);
+        }
+        return result;
+    }
+
+    private void validate(TimetableSolveRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new InvalidOperationException("Term end date cannot be before start date.");
+        }
+        if (ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) > MAX_TERM_DAYS) {
+            throw new InvalidOperationException("A timetable cannot span more than " + MAX_TERM_DAYS + " days.");
+        }
+        List<LocalTime> periods = request.getPeriodStartTimes().stream().sorted().collect(Collectors.toList());
+        for (int i = 0; i < periods.size(); i++) {
+            LocalTime end = periods.get(i).plusMinutes(request.getPeriodMinutes());
+            if (end.isBefore(periods.get(i)) || (i + 1 < periods.size() && end.isAfter(periods.get(i + 1)))) {
+                throw new InvalidOperationException("Period starting at " + periods.get(i)
+                        + " overlaps the next period or runs past midnight.");
+            }
+        }
+        Set<Long> teacherIds = request.getCourses().stream().map(TimetableCourseDTO::getTeacherId).collect(Collectors.toSet());
+        Set<Long> subjectIds = request.getCourses().stream().map(TimetableCourseDTO::getSubjectId).collect(Collectors.toSet());
+        Set<Long> groupIds = request.getCourses().stream().map(TimetableCourseDTO::getStudentGroupId).collect(Collectors.toSet());
+        requireAll("Teacher", teacherIds, teacherRepository.findAllById(teacherIds).stream()
+                .map(Teacher::getId).collect(Collectors.toSet()));
+        requireAll("Subject", subjectIds, subjectRepository.findAllById(subjectIds).stream()
+                .map(Subject::getId).collect(Collectors.toSet()));
+        requireAll("Student group", groupIds, studentGroupRepository.findAllById(groupIds).stream()
+                .map(StudentGroup::getId).collect(Collectors.toSet()));
+        Set<String> roomNumbers = new HashSet<>();
+        for (RoomDTO room : request.getRooms()) {
+            if (!roomNumbers.add(room.getRoomNumber())) {
+                throw new InvalidOperationException("Room '" + room.getRoomNumber() + "' is listed twice.");
+            }
+        }
+    }
+
+    private static void requireAll(String entity, Set<Long> requested, Set<Long> found) {
+        List<Long> missing = requested.stream().filter(id -> !found.contains(id)).sorted().collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException(entity + " not found with ID(s): " + missing);
+        }
+    }
+
+    private Map<Long, Integer> groupSizes(List<TimetableCourseDTO> courses) {
+        Map<Long, Integer> sizes = new HashMap<>();
+        jdbcTemplate.query("SELECT student_group_id, COUNT(*) AS students FROM students "
+                        + "WHERE student_group_id IN (:groupIds) GROUP BY student_group_id",
+                new MapSqlParameterSource("groupIds", courses.stream().map(TimetableCourseDTO::getStudentGroupId)
+                        .distinct().collect(Collectors.toList())),
+                rs -> {
+                    sizes.put(rs.getLong("student_group_id"), rs.getInt("students"));
+                });
+        return sizes;
+    }
+
+    /** Per teacher index and timeslot, whether the period lies within one of the teacher's windows. */
+    private static boolean[][] teacherAvailability(TimetableSolveRequest request, Map<Long, Integer> teacherIndex,
+                                                   List<DayOfWeek> days, List<LocalTime> periods) {
+        Map<Long, List<TeacherAvailabilityDTO>> windows = request.getTeacherAvailability().stream()
+                .collect(Collectors.groupingBy(TeacherAvailabilityDTO::getTeacherId));
+        boolean[][] available = new boolean[teacherIndex.size()][days.size() * periods.size()];
+        teacherIndex.forEach((teacherId, teacher) -> {
+            List<TeacherAvailabilityDTO> teacherWindows = windows.get(teacherId);
+            for (int d = 0; d < days.size(); d++) {
+                for (int p = 0; p < periods.size(); p++) {
+                    LocalTime start = periods.get(p);
+                    LocalTime end = start.plusMinutes(request.getPeriodMinutes());
+                    DayOfWeek day = days.get(d);
+                    available[teacher][d * periods.size() + p] = teacherWindows == null || teacherWindows.stream()
+                            .anyMatch(w -> w.getDayOfWeek() == day && !start.isBefore(w.getStartTime())
+                                    && !end.isAfter(w.getEndTime()));
+                }
+            }
+        });
+        return available;
+    }
+
+    /**
+     * Rejects requests that no timetable can satisfy: a course without a fitting room, or a teacher or group
+     * with more weekly hours than available timeslots.
+     */
+    private static void checkPlaceable(List<TimetableCourseDTO> courses, Map<Long, Integer> teacherIndex,
+                                       boolean[][] teacherAvailable, Map<Long, Integer> groupSizes, int[] roomCapacity,
+                                       int timeslots) {
+        int largestRoom = Arrays.stream(roomCapacity).max().orElse(0);
+        Map<Long, Integer> teacherHours = new HashMap<>();
+        Map<Long, Integer> groupHours = new HashMap<>();
+        for (TimetableCourseDTO course : courses) {
+            int size = groupSizes.getOrDefault(course.getStudentGroupId(), 0);
+            if (size > largestRoom) {
+                throw new InvalidOperationException("No room seats the " + size + " students of student group "
+                        + course.getStudentGroupId() + ".");
+            }
+            teacherHours.merge(course.getTeacherId(), course.getHoursPerWeek(), Integer::sum);
+            groupHours.merge(course.getStudentGroupId(), course.getHoursPerWeek(), Integer::sum);
+        }
+        teacherHours.forEach((teacherId, hours) -> {
+            int available = 0;
+            for (boolean slot : teacherAvailable[teacherIndex.get(teacherId)]) {
+                available += slot ? 1 : 0;
+            }
+            if (hours > available) {
+                throw new InvalidOperationException("Teacher " + teacherId + " has " + hours
+                        + " hours per week but is available for only " + available + " periods.");
+            }
+        });
+        groupHours.forEach((groupId, hours) -> {
+            if (hours > timeslots) {
+                throw new InvalidOperationException("Student group " + groupId + " has " + hours
+                        + " hours per week but the week has only " + timeslots + " periods.");
+            }
+        });
+    }
+
+    /** Inserts one lecture per week of the term for every entry, after checking them against existing lectures. */
+    private int saveLectures(List<TimetableEntryDTO> entries, LocalDate startDate, LocalDate endDate) {
+        Map<TimetableEntryDTO, List<LocalDate>> occurrences = new LinkedHashMap<>();
+        for (TimetableEntryDTO entry : entries) {
+            occurrences.put(entry, LectureSeriesService.occurrences(entry.getDayOfWeek(), startDate, endDate, null));
+        }
+        // Drops the cached copies of these dates once this transaction completes
+        eventPublisher.publishEvent(new LectureScheduleChangedEvent(occurrences.values().stream()
+                .flatMap(List::stream).collect(Collectors.toSet())));
+
+        Map<LocalDate, List<ScheduleConflictIndex.Slot>> slots = new HashMap<>();
+        List<SqlParameterSource> rows = new ArrayList<>();
+        occurrences.forEach((entry, dates) -> {
+            ScheduleConflictIndex.Slot slot = new ScheduleConflictIndex.Slot(null, null, entry.getSubjectId(),
+                    entry.getTeacherId(), entry.getRoomNumber(), entry.getStudentGroupId(), entry.getStartTime(),
+                    entry.getEndTime());
+            for (LocalDate date : dates) {
+                slots.computeIfAbsent(date, key -> new ArrayList<>()).add(slot);
+                rows.add(new MapSqlParameterSource()
+                        .addValue("subjectId", entry.getSubjectId())
+                        .addValue("teacherId", entry.getTeacherId())
+                        .addValue("lectureDate", Date.valueOf(date))
+                        .addValue("startTime", Time.valueOf(entry.getStartTime()))
+                        .addValue("endTime", Time.valueOf(entry.getEndTime()))
+                        .addValue("studentGroupId", entry.getStudentGroupId())
+                        .addValue("roomNumber", entry.getRoomNumber()));
+            }
+        });
+        scheduleConflictIndex.reserveAll(slots);
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate("INSERT INTO lectures (subject_id, teacher_id, lecture_date, start_time, end_time, "
+                    + "student_group_id, room_number) VALUES (:subjectId, :teacherId, :lectureDate, :startTime, :endTime, "
+                    + ":studentGroupId, :roomNumber)",
+                    rows.subList(i, Math.min(i + batchSize, rows.size())).toArray(SqlParameterSource[]::new), keys,
+                    new String[] {"id"});
+            List<Long> ids = keys.getKeyList().stream()
+                    .map(key -> ((Number) key.get("id")).longValue())
+                    .collect(Collectors.toList());
+            attendanceEventOutboxService.recordLectureEvents(AttendanceEventType.LECTURE_SCHEDULED,
+                    "SELECT id FROM lectures WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids));
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,447 @@
+package com.example.main.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Weekly timetable solver. A problem consists of units, each one weekly lecture hour of a course (a subject taught
+ * to a student group by a teacher), to be placed in a timeslot and a room.
+ * Hard constraints: a teacher, a student group and a room are used at most once per timeslot, teachers only teach
+ * when available and rooms are large enough for the group. Soft constraint: two units of a course avoid sharing a day.
+ * Solving happens in two phases:
+ * - constraint propagation narrows every unit to the timeslots its teacher is available in and the rooms that fit
+ *   its group, then builds a start assignment most-constrained-unit first, placing each unit in a free timeslot;
+ * - tabu-guided min-conflicts local search repairs the remaining clashes and then reduces the soft penalty.
+ * Several searches with different random seeds run in parallel until one finds a clash-free timetable that it can no
+ * longer improve, or the time budget runs out. The best timetable found is returned. As the searches stop on
+ * wall-clock time, how far each one gets depends on timing and load, so results are not reproducible.
+ * This class works on plain indexes and is independent of Spring and the database (see TimetableService).
+ */
+public final class TimetableSolver {
+
+    private static final int HARD_WEIGHT = 1000; // One clash outweighs any number of soft violations
+    private static final int STALL_ITERATIONS = 20_000; // Stop once a clash-free timetable stops improving
+    private static final double RANDOM_WALK = 0.02; // Probability of a random move, to escape local minima
+
+    private TimetableSolver() {
+    }
+
+    /**
+     * A timetabling problem in index form. Timeslot t is period (t % periodsPerDay) of day (t / periodsPerDay).
+     * @param days Number of teaching days per week.
+     * @param periodsPerDay Number of periods per day.
+     * @param unitTeacher Teacher index of every unit.
+     * @param unitGroup Student group index of every unit.
+     * @param unitCourse Course index of every unit; units of the same course should be on different days.
+     * @param unitSize Number of students of every unit, i.e. the room capacity it needs.
+     * @param teacherAvailable Per teacher index and timeslot, whether the teacher can teach then.
+     * @param roomCapacity Capacity of every room.
+     */
+    public record Problem(int days, int periodsPerDay, int[] unitTeacher, int[] unitGroup, int[] unitCourse,
+                          int[] unitSize, boolean[][] teacherAvailable, int[] roomCapacity) {
+
+        int timeslots() {
+            return days * periodsPerDay;
+        }
+
+        int units() {
+            return unitTeacher.length;
+        }
+    }
+
+    /**
+     * A solved timetable.
+     * @param timeslot Timeslot index of every unit.
+     * @param room Room index of every unit.
+     * @param hardConflicts Number of clashing unit pairs; 0 for a valid timetable.
+     * @param softPenalty Number of course units sharing a day with another unit of the same course.
+     * @param iterations Local search iterations over all threads.
+     * @param millis Wall-clock solve time.
+     */
+    public record Solution(int[] timeslot, int[] room, int hardConflicts, int softPenalty, long iterations, long millis) {
+
+        public boolean feasible() {
+            return hardConflicts == 0;
+        }
+    }
+
+    /**
+     * Creates a pool of daemon threads for running searches.
+     * @param threads Number of threads.
+     * @return The pool; the caller shuts it down.
+     */
+    public static ExecutorService newPool(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "timetable-solver-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Solves a problem on a pool created for this call only.
+     * @param problem The problem.
+     * @param timeBudget Maximum wall-clock time to search.
+     * @param threads Number of searches run in parallel.
+     * @param seed Seed of the first search; search i uses seed + i.
+     * @return The best timetable found, which may still contain clashes if none without was found in time.
+     * @throws IllegalArgumentException if a unit has no available timeslot or no room large enough.
+     */
+    public static Solution solve(Problem problem, Duration timeBudget, int threads, long seed) {
+        ExecutorService pool = newPool(threads);
+        try {
+            return solve(problem, timeBudget, threads, seed, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Solves a problem, running the searches on the given executor.
+     * The seeds only fix how the searches start: they stop at the deadline, or when one of them is done, so the
+     * result also depends on timing, load and the number of searches (usually the number of CPUs).
+     * @param problem The problem.
+     * @param timeBudget Maximum wall-clock time to search.
+     * @param searches Number of searches run in parallel; the executor should have a thread for each of them, as
+     *                 searches still queued when the deadline passes do not search at all.
+     * @param seed Seed of the first search; search i uses seed + i.
+     * @param executor Runs the searches; not shut down.
+     * @return The best timetable found, which may still contain clashes if none without was found in time.
+     * @throws IllegalArgumentException if a unit has no available timeslot or no room large enough.
+     */
+    public static Solution solve(Problem problem, Duration timeBudget, int searches, long seed, ExecutorService executor) {
+        long started = System.nanoTime();
+        long deadline = started + timeBudget.toNanos();
+        int[][] slotDomains = slotDomains(problem);
+        int[][] roomDomains = roomDomains(problem);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        try {
+            List<Future<Search>> futures = new ArrayList<>();
+            for (int i = 0; i < searches; i++) {
+                Search search = new Search(problem, slotDomains, roomDomains, new Random(seed + i));
+                futures.add(executor.submit(() -> {
+                    search.run(deadline, stop);
+                    return search;
+                }));
+            }
+            Search best = null;
+            long iterations = 0;
+            for (Future<Search> future : futures) {
+                Search search = future.get();
+                iterations += search.iterations;
+                if (best == null || search.bestScore < best.bestScore) {
+                    best = search;
+                }
+            }
+            return new Solution(best.bestSlot, best.bestRoom, best.bestHard, best.bestSoft, iterations,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Timetable solving was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Timetable solving failed", e.getCause());
+        } finally {
+            stop.set(true); // Ends the searches still running after a failure or an interrupt
+        }
+    }
+
+    /** Propagates teacher availability: the timeslots every unit can be placed in. */
+    private static int[][] slotDomains(Problem problem) {
+        int[][] domains = new int[problem.units()][];
+        for (int u = 0; u < problem.units(); u++) {
+            boolean[] available = problem.teacherAvailable()[problem.unitTeacher()[u]];
+            domains[u] = IntStream.range(0, problem.timeslots()).filter(t -> available[t]).toArray();
+            if (domains[u].length == 0) {
+                throw new IllegalArgumentException("Unit " + u + " has no timeslot its teacher is available in");
+            }
+        }
+        return domains;
+    }
+
+    /** Propagates room capacities: the rooms large enough for every unit, smallest first (best fit). */
+    private static int[][] roomDomains(Problem problem) {
+        Integer[] bySize = new Integer[problem.roomCapacity().length];
+        Arrays.setAll(bySize, r -> r);
+        Arrays.sort(bySize, Comparator.comparingInt(r -> problem.roomCapacity()[r]));
+        int[][] domains = new int[problem.units()][];
+        for (int u = 0; u < problem.units(); u++) {
+            int size = problem.unitSize()[u];
+            domains[u] = Arrays.stream(bySize).mapToInt(Integer::intValue)
+                    .filter(r -> problem.roomCapacity()[r] >= size).toArray();
+            if (domains[u].length == 0) {
+                throw new IllegalArgumentException("Unit " + u + " has no room for " + size + " students");
+            }
+        }
+        return domains;
+    }
+
+    /**
+     * One search, confined to one thread. Keeps per-timeslot usage counts of every teacher, group and room, so the
+     * effect of moving a unit is computed in constant time per candidate timeslot.
+     */
+    private static final class Search {
+
+        private final Problem problem;
+        private final int[][] slotDomains;
+        private final int[][] roomDomains;
+        private final Random random;
+
+        private final int[] slot;
+        private final int[] room;
+        private final int[][] teacherLoad; // [teacher][timeslot]
+        private final int[][] groupLoad; // [group][timeslot]
+        private final int[][] roomLoad; // [room][timeslot]
+        private final int[][] courseDayLoad; // [course][day]
+        private final long[] tabuUntil; // [unit * timeslots + timeslot]: iteration until which the move is tabu
+        private final int[] candidates; // Reusable buffer of violated units
+        private int hard;
+        private int soft;
+
+        private int[] bestSlot;
+        private int[] bestRoom;
+        private int bestHard;
+        private int bestSoft;
+        private long bestScore = Long.MAX_VALUE;
+        private long iterations;
+
+        Search(Problem problem, int[][] slotDomains, int[][] roomDomains, Random random) {
+            this.problem = problem;
+            this.slotDomains = slotDomains;
+            this.roomDomains = roomDomains;
+            this.random = random;
+            int units = problem.units();
+            int timeslots = problem.timeslots();
+            this.slot = new int[units];
+            this.room = new int[units];
+            this.teacherLoad = new int[problem.teacherAvailable().length][timeslots];
+            this.groupLoad = new int[Arrays.stream(problem.unitGroup()).max().orElse(-1) + 1][timeslots];
+            this.roomLoad = new int[problem.roomCapacity().length][timeslots];
+            this.courseDayLoad = new int[Arrays.stream(problem.unitCourse()).max().orElse(-1) + 1][problem.days()];
+            this.tabuUntil = new long[units * timeslots];
+            this.candidates = new int[units];
+        }
+
+        void run(long deadline, AtomicBoolean stop) {
+            construct();
+            recordIfBest();
+            long lastImprovement = 0;
+            while (!stop.get() && System.nanoTime() < deadline) {
+                if (hard == 0 && (soft == 0 || iterations - lastImprovement > STALL_ITERATIONS)) {
+                    stop.set(true); // Good enough; let the other searches finish too
+                    break;
+                }
+                int unit = pickViolatedUnit();
+                if (unit < 0) {
+                    break;
+                }
+                move(unit);
+                iterations++;
+                if (recordIfBest()) {
+                    lastImprovement = iterations;
+                }
+            }
+        }
+
+        /** Most-constrained-first construction: repeatedly places the unit with the fewest clash-free timeslots left. */
+        private void construct() {
+            int units = problem.units();
+            boolean[] placed = new boolean[units];
+            int[] freeSlots = new int[units];
+            for (int u = 0; u < units; u++) {
+                freeSlots[u] = slotDomains[u].length;
+            }
+            List<List<Integer>> byTeacher = unitsBy(problem.unitTeacher(), teacherLoad.length);
+            List<List<Integer>> byGroup = unitsBy(problem.unitGroup(), groupLoad.length);
+
+            for (int step = 0; step < units; step++) {
+                int unit = -1;
+                int ties = 0;
+                for (int u = 0; u < units; u++) {
+                    if (placed[u]) {
+                        continue;
+                    }
+                    if (unit < 0 || freeSlots[u] < freeSlots[unit]) {
+                        unit = u;
+                        ties = 1;
+                    } else if (freeSlots[u] == freeSlots[unit] && random.nextInt(++ties) == 0) {
+                        unit = u;
+                    }
+                }
+                placeBest(unit, -1);
+                placed[unit] = true;
+                // Forward checking: only units sharing the teacher or the group lose free timeslots
+                for (int other : byTeacher.get(problem.unitTeacher()[unit])) {
+                    if (!placed[other]) {
+                        freeSlots[other] = countFreeSlots(other);
+                    }
+                }
+                for (int other : byGroup.get(problem.unitGroup()[unit])) {
+                    if (!placed[other]) {
+                        freeSlots[other] = countFreeSlots(other);
+                    }
+                }
+            }
+        }
+
+        private int countFreeSlots(int unit) {
+            int teacher = problem.unitTeacher()[unit];
+            int group = problem.unitGroup()[unit];
+            int free = 0;
+            for (int t : slotDomains[unit]) {
+                if (teacherLoad[teacher][t] == 0 && groupLoad[group][t] == 0) {
+                    free++;
+                }
+            }
+            return free;
+        }
+
+        private int pickViolatedUnit() {
+            int count = 0;
+            for (int u = 0; u < problem.units(); u++) {
+                if (hard > 0 ? clashes(u) : sharesDay(u)) {
+                    candidates[count++] = u;
+                }
+            }
+            return count == 0 ? -1 : candidates[random.nextInt(count)];
+        }
+
+        private boolean clashes(int unit) {
+            int t = slot[unit];
+            return teacherLoad[problem.unitTeacher()[unit]][t] > 1 || groupLoad[problem.unitGroup()[unit]][t] > 1
+                    || roomLoad[room[unit]][t] > 1;
+        }
+
+        private boolean sharesDay(int unit) {
+            return courseDayLoad[problem.unitCourse()[unit]][slot[unit] / problem.periodsPerDay()] > 1;
+        }
+
+        /** Moves a violated unit to its best non-tabu timeslot, or to a random one now and then. */
+        private void move(int unit) {
+            int from = slot[unit];
+            remove(unit);
+            int[] domain = slotDomains[unit];
+            if (domain.length > 1 && random.nextDouble() < RANDOM_WALK) {
+                int t = domain[random.nextInt(domain.length)];
+                add(unit, t, bestRoom(unit, t));
+            } else {
+                placeBest(unit, from);
+            }
+            if (slot[unit] != from) {
+                tabuUntil[unit * problem.timeslots() + from] = iterations + 7 + random.nextInt(10);
+            }
+        }
+
+        /**
+         * Places a unit in the timeslot and room that add the least penalty, breaking ties randomly.
+         * @param excluded A timeslot to avoid (the one the unit is leaving), or -1.
+         */
+        private void placeBest(int unit, int excluded) {
+            int teacher = problem.unitTeacher()[unit];
+            int group = problem.unitGroup()[unit];
+            int course = problem.unitCourse()[unit];
+            long current = (long) hard * HARD_WEIGHT + soft;
+            int bestSlotChoice = -1;
+            int bestRoomChoice = -1;
+            long bestDelta = Long.MAX_VALUE;
+            int ties = 0;
+            for (int t : slotDomains[unit]) {
+                if (t == excluded && slotDomains[unit].length > 1) {
+                    continue;
+                }
+                int r = bestRoom(unit, t);
+                long delta = (long) (teacherLoad[teacher][t] + groupLoad[group][t] + roomLoad[r][t]) * HARD_WEIGHT
+                        + courseDayLoad[course][t / problem.periodsPerDay()];
+                // Tabu moves are only taken if they lead to a new best timetable (aspiration)
+                if (tabuUntil[unit * problem.timeslots() + t] > iterations && current + delta >= bestScore) {
+                    continue;
+                }
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestSlotChoice = t;
+                    bestRoomChoice = r;
+                    ties = 1;
+                } else if (delta == bestDelta && random.nextInt(++ties) == 0) {
+                    bestSlotChoice = t;
+                    bestRoomChoice = r;
+                }
+            }
+            if (bestSlotChoice < 0) { // Everything tabu: fall back to any timeslot
+                bestSlotChoice = slotDomains[unit][random.nextInt(slotDomains[unit].length)];
+                bestRoomChoice = bestRoom(unit, bestSlotChoice);
+            }
+            add(unit, bestSlotChoice, bestRoomChoice);
+        }
+
+        /** The least used fitting room in a timeslot; the smallest fitting room among free ones. */
+        private int bestRoom(int unit, int t) {
+            int best = -1;
+            for (int r : roomDomains[unit]) {
+                if (roomLoad[r][t] == 0) {
+                    return r;
+                }
+                if (best < 0 || roomLoad[r][t] < roomLoad[best][t]) {
+                    best = r;
+                }
+            }
+            return best;
+        }
+
+        private void add(int unit, int t, int r) {
+            int teacher = problem.unitTeacher()[unit];
+            int group = problem.unitGroup()[unit];
+            int course = problem.unitCourse()[unit];
+            int day = t / problem.periodsPerDay();
+            hard += teacherLoad[teacher][t]++ + groupLoad[group][t]++ + roomLoad[r][t]++;
+            soft += courseDayLoad[course][day]++;
+            slot[unit] = t;
+            room[unit] = r;
+        }
+
+        private void remove(int unit) {
+            int t = slot[unit];
+            int teacher = problem.unitTeacher()[unit];
+            int group = problem.unitGroup()[unit];
+            int course = problem.unitCourse()[unit];
+            int day = t / problem.periodsPerDay();
+            hard -= --teacherLoad[teacher][t] + --groupLoad[group][t] + --roomLoad[room[unit]][t];
+            soft -= --courseDayLoad[course][day];
+        }
+
+        private boolean recordIfBest() {
+            long score = (long) hard * HARD_WEIGHT + soft;
+            if (score >= bestScore) {
+                return false;
+            }
+            bestScore = score;
+            bestHard = hard;
+            bestSoft = soft;
+            bestSlot = slot.clone();
+            bestRoom = room.clone();
+            return true;
+        }
+
+        private static List<List<Integer>> unitsBy(int[] owner, int owners) {
+            List<List<Integer>> units = new ArrayList<>(owners);
+            for (int i = 0; i < owners; i++) {
+                units.add(new ArrayList<>());
+            }
+            for (int u = 0; u < owner.length; u++) {
+                units.get(owner[u]).add(u);
+            }
+            return units;
+        }
+    }
+}
@@ -57,6 +57,7 @@ public class UserService {
      * @return The UserDTO if found.
      * @throws ResourceNotFoundException if the user is not found.
      */
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
@@ -69,6 +70,7 @@ public class UserService {
      * @return The User entity if found.
      * @throws ResourceNotFoundException if the user is not found.
      */
+    @Transactional(readOnly = true)
     public User getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
@@ -80,6 +82,7 @@ public class UserService {
      * @return The UserDTO if found.
      * @throws ResourceNotFoundException if the user is not found.
      */
+    @Transactional(readOnly = true)
     public UserDTO getUserDTOByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
@@ -91,6 +94,7 @@ public class UserService {
      * Retrieves all users.
      * @return A list of all UserDTOs.
      */
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(userMapper::toUserDTO)
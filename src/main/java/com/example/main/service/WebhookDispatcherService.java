@@ -0,0 +1,389 @@
+package com.example.main.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.main.dto.AttendanceEventDTO;
+import com.example.main.dto.WebhookMetricsDTO;
+import com.example.main.event.AttendanceEventsRelayedEvent;
+import com.example.main.model.WebhookSubscription;
+import com.example.main.repository.WebhookSubscriptionRepository;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service delivering the relayed attendance events to the webhook subscriptions.
+ * Each batch relayed from the outbox is split per active subscription into batches of at most its maximum batch
+ * size and queued in webhook_deliveries, in the relay transaction: a batch is queued exactly when it is published,
+ * and marking attendance never waits for a receiver.
+ * A scheduled job then claims the due batches (a short lease on next_attempt_at, so nodes do not send the same batch
+ * twice), taking from each subscription only as many as its endpoint has free request slots, so a slow receiver's
+ * backlog never holds up the others. It POSTs them as JSON arrays over one shared non-blocking HTTP client, with at most the subscription's
+ * maximum concurrency of requests in flight per endpoint on this node. A batch answered with anything but 2xx is
+ * retried with exponential backoff and jitter, and dead-lettered once its attempts are exhausted.
+ * Delivery is at-least-once and batches of one subscriber may arrive out of order (retries, concurrency):
+ * receivers order and deduplicate by event ID.
+ */
+@Service
+public class WebhookDispatcherService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcherService.class);
+
+    private static final String INSERT_DELIVERY = "INSERT INTO webhook_deliveries (subscription_id, first_event_id, "
+            + "last_event_id, event_count, oldest_event_at, payload, status, attempts, next_attempt_at, created_at) "
+            + "VALUES (:subscriptionId, :firstEventId, :lastEventId, :eventCount, :oldestEventAt, :payload, 'PENDING', "
+            + "0, :now, :now)";
+
+    // Due batches of one subscription, oldest first
+    private static final String DUE_DELIVERIES = "SELECT id, event_count, oldest_event_at, attempts FROM webhook_deliveries "
+            + "WHERE subscription_id = :subscriptionId AND status = 'PENDING' AND next_attempt_at <= :now "
+            + "ORDER BY id LIMIT :limit";
+
+    // Leases a due batch to this run; matches no row if another node or run claimed it first
+    private static final String CLAIM_DELIVERY = "UPDATE webhook_deliveries SET next_attempt_at = :leaseUntil "
+            + "WHERE id = :id AND status = 'PENDING' AND next_attempt_at <= :now";
+
+    private static final int MAX_ERROR_LENGTH = 500; // Length of webhook_deliveries.last_error
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient; // Shared by all endpoints
+    private final Duration timeout;
+    private final int dispatchLimit; // Batches claimed per run
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int retentionDays;
+    private final Map<Long, EndpointSlots> endpointSlots = new ConcurrentHashMap<>(); // By subscription ID
+
+    // Metrics since sinceNanos
+    private volatile LocalDateTime since = LocalDateTime.now();
+    private volatile long sinceNanos = System.nanoTime();
+    private final LongAdder deliveredBatches = new LongAdder();
+    private final LongAdder deliveredEvents = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder deadLetters = new LongAdder();
+    private final LongAdder totalLagMillis = new LongAdder();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public WebhookDispatcherService(NamedParameterJdbcTemplate jdbcTemplate,
+                                    WebhookSubscriptionRepository subscriptionRepository, ObjectMapper objectMapper,
+                                    @Value("${app.webhooks.timeout-millis:10000}") long timeoutMillis,
+                                    @Value("${app.webhooks.dispatch-limit:100}") int dispatchLimit,
+                                    @Value("${app.webhooks.max-attempts:8}") int maxAttempts,
+                                    @Value("${app.webhooks.backoff.initial-millis:1000}") long initialBackoffMillis,
+                                    @Value("${app.webhooks.backoff.max-millis:600000}") long maxBackoffMillis,
+                                    @Value("${app.events.retention-days:7}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.subscriptionRepository = subscriptionRepository;
+        this.objectMapper = objectMapper;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.dispatchLimit = dispatchLimit;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMillis);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMillis);
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Queues a relayed batch for every active subscription. Runs in the relay transaction, so the batch is queued
+     * if and only if it is stamped as published.
+     * @param relayed The relayed events, in ID order.
+     */
+    @EventListener
+    public void onEventsRelayed(AttendanceEventsRelayedEvent relayed) {
+        List<AttendanceEventDTO> events = relayed.events();
+        List<WebhookSubscription> subscriptions = subscriptionRepository.findByActiveTrue();
+        if (events.isEmpty() || subscriptions.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Map<Integer, List<byte[]>> payloadsBySize = new HashMap<>(); // Subscriptions with the same batch size share payloads
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (WebhookSubscription subscription : subscriptions) {
+            int size = subscription.getMaxBatchSize();
+            List<byte[]> payloads = payloadsBySize.computeIfAbsent(size, s -> encodeBatches(events, s));
+            for (int i = 0; i < payloads.size(); i++) {
+                List<AttendanceEventDTO> batch = events.subList(i * size, Math.min(events.size(), (i + 1) * size));
+                rows.add(new MapSqlParameterSource("subscriptionId", subscription.getId())
+                        .addValue("firstEventId", batch.get(0).getId())
+                        .addValue("lastEventId", batch.get(batch.size() - 1).getId())
+                        .addValue("eventCount", batch.size())
+                        .addValue("oldestEventAt", Timestamp.valueOf(batch.stream()
+                                .map(AttendanceEventDTO::getOccurredAt).min(LocalDateTime::compareTo).orElseThrow()))
+                        .addValue("payload", payloads.get(i))
+                        .addValue("now", now));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_DELIVERY, rows.toArray(new MapSqlParameterSource[0]));
+    }
+
+    private List<byte[]> encodeBatches(List<AttendanceEventDTO> events, int size) {
+        List<byte[]> payloads = new ArrayList<>();
+        for (int from = 0; from < events.size(); from += size) {
+            try {
+                payloads.add(objectMapper.writeValueAsBytes(events.subList(from, Math.min(events.size(), from + size))));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e); // Not thrown for plain DTOs
+            }
+        }
+        return payloads;
+    }
+
+    /**
+     * Scheduled job sending the due batches (see dispatch).
+     */
+    @Scheduled(fixedDelayString = "${app.webhooks.dispatch-interval-millis:1000}")
+    public void dispatchScheduled() {
+        dispatch();
+    }
+
+    /**
+     * Claims and sends the due batches, oldest first, as far as the endpoints' concurrency caps allow.
+     * Each subscription contributes at most as many batches as its endpoint has free request slots on this node;
+     * subscriptions at their cap are skipped. Returns without waiting for the responses; batches of an endpoint at
+     * its cap stay due for the next run.
+     * @return The number of requests started.
+     */
+    public int dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource("now", Timestamp.valueOf(now))
+                .addValue("leaseUntil", Timestamp.valueOf(now.plus(timeout.multipliedBy(2))));
+        List<DueDelivery> due = new ArrayList<>();
+        for (WebhookSubscription subscription : subscriptionRepository.findByActiveTrue()) {
+            int free = slotsOf(subscription.getId(), subscription.getMaxConcurrency()).availablePermits();
+            if (free == 0) {
+                continue; // Its batches wait for a free slot instead of taking the others' share of the run
+            }
+            URI url = URI.create(subscription.getUrl());
+            MapSqlParameterSource subscriptionParams = new MapSqlParameterSource("subscriptionId", subscription.getId())
+                    .addValue("now", Timestamp.valueOf(now))
+                    .addValue("limit", Math.min(free, dispatchLimit));
+            due.addAll(jdbcTemplate.query(DUE_DELIVERIES, subscriptionParams, (rs, rowNum) -> new DueDelivery(
+                    rs.getLong("id"), subscription.getId(), rs.getInt("event_count"),
+                    rs.getTimestamp("oldest_event_at").toLocalDateTime(), rs.getInt("attempts"), url,
+                    subscription.getMaxConcurrency())));
+        }
+        due.sort(Comparator.comparingLong(DueDelivery::id));
+        if (due.size() > dispatchLimit) {
+            due.subList(dispatchLimit, due.size()).clear();
+        }
+        int started = 0;
+        for (DueDelivery delivery : due) {
+            Semaphore slots = slotsOf(delivery.subscriptionId(), delivery.maxConcurrency());
+            if (!slots.tryAcquire()) {
+                continue; // Endpoint at its cap
+            }
+            boolean sent = false;
+            try {
+                if (jdbcTemplate.update(CLAIM_DELIVERY, params.addValue("id", delivery.id())) == 1) {
+                    send(delivery, slots);
+                    sent = true;
+                    started++;
+                }
+            } finally {
+                if (!sent) {
+                    slots.release();
+                }
+            }
+        }
+        return started;
+    }
+
+    /**
+     * The permits of an endpoint, rebuilt when its cap has changed. Requests still in flight under the old cap
+     * return their permits to the old semaphore, so the endpoint may briefly see both.
+     */
+    private Semaphore slotsOf(long subscriptionId, int maxConcurrency) {
+        return endpointSlots.compute(subscriptionId, (id, slots) -> slots != null && slots.cap() == maxConcurrency
+                ? slots : new EndpointSlots(maxConcurrency, new Semaphore(maxConcurrency))).permits();
+    }
+
+    /**
+     * Forgets the concurrency permits of a deleted subscription, once the deletion has committed.
+     * Other nodes drop theirs in the daily cleanup (see deleteDeliveredBatches).
+     * @param subscriptionId The ID of the subscription.
+     */
+    public void forgetSubscription(Long subscriptionId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            endpointSlots.remove(subscriptionId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                endpointSlots.remove(subscriptionId);
+            }
+        });
+    }
+
+    private void send(DueDelivery delivery, Semaphore slots) {
+        byte[] payload = jdbcTemplate.queryForObject("SELECT payload FROM webhook_deliveries WHERE id = :id",
+                new MapSqlParameterSource("id", delivery.id()), byte[].class);
+        HttpRequest request = HttpRequest.newBuilder(delivery.url())
+                .timeout(timeout)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header("X-Webhook-Delivery", String.valueOf(delivery.id()))
+                .header("X-Webhook-Attempt", String.valueOf(delivery.attempts() + 1))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build();
+        inFlight.incrementAndGet();
+        CompletableFuture<HttpResponse<Void>> response;
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        response.whenComplete((result, error) -> {
+            try {
+                complete(delivery, result, error);
+            } catch (RuntimeException e) {
+                // The lease expires and the batch is sent again
+                log.error("Could not record the outcome of webhook delivery {}", delivery.id(), e);
+            } finally {
+                inFlight.decrementAndGet();
+                slots.release();
+            }
+        });
+    }
+
+    private void complete(DueDelivery delivery, HttpResponse<Void> response, Throwable error) {
+        LocalDateTime now = LocalDateTime.now();
+        int attempts = delivery.attempts() + 1;
+        MapSqlParameterSource params = new MapSqlParameterSource("id", delivery.id())
+                .addValue("attempts", attempts)
+                .addValue("now", Timestamp.valueOf(now));
+        if (error == null && response.statusCode() / 100 == 2) {
+            jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'DELIVERED', attempts = :attempts, "
+                    + "delivered_at = :now, last_error = NULL WHERE id = :id", params);
+            long lagMillis = Math.max(0, Duration.between(delivery.oldestEventAt(), now).toMillis());
+            deliveredBatches.increment();
+            deliveredEvents.add(delivery.eventCount());
+            totalLagMillis.add(lagMillis);
+            maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+            return;
+        }
+        failedAttempts.increment();
+        params.addValue("error", describeFailure(response, error));
+        if (attempts >= maxAttempts) {
+            jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'DEAD', attempts = :attempts, "
+                    + "last_error = :error WHERE id = :id", params);
+            deadLetters.increment();
+            log.warn("Webhook delivery {} to {} dead-lettered after {} attempts: {}", delivery.id(), delivery.url(),
+                    attempts, params.getValue("error"));
+        } else {
+            jdbcTemplate.update("UPDATE webhook_deliveries SET attempts = :attempts, next_attempt_at = :nextAttemptAt, "
+                    + "last_error = :error WHERE id = :id",
+                    params.addValue("nextAttemptAt", Timestamp.valueOf(now.plus(backoff(attempts)))));
+        }
+    }
+
+    /**
+     * Delay before the next attempt: the initial backoff doubled per failed attempt, capped at the maximum, of
+     * which a random half is waived so that batches failing together do not retry together.
+     */
+    private Duration backoff(int attempts) {
+        long millis = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        millis = Math.min(millis <= 0 ? Long.MAX_VALUE : millis, maxBackoff.toMillis());
+        return Duration.ofMillis(millis / 2 + ThreadLocalRandom.current().nextLong(millis / 2 + 1));
+    }
+
+    private static String describeFailure(HttpResponse<Void> response, Throwable error) {
+        if (error == null) {
+            return "HTTP " + response.statusCode();
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String description = cause.getClass().getSimpleName() + (cause.getMessage() != null ? ": " + cause.getMessage() : "");
+        return description.length() > MAX_ERROR_LENGTH ? description.substring(0, MAX_ERROR_LENGTH) : description;
+    }
+
+    /**
+     * Retrieves the delivery metrics of this node.
+     * @return The metrics since startup or the last reset; pendingBatches counts the queue of all nodes.
+     */
+    public WebhookMetricsDTO getMetrics() {
+        long batches = deliveredBatches.sum();
+        long events = deliveredEvents.sum();
+        double seconds = Math.max(1, System.nanoTime() - sinceNanos) / 1e9;
+        Long pending = jdbcTemplate.getJdbcOperations().queryForObject(
+                "SELECT COUNT(*) FROM webhook_deliveries WHERE status = 'PENDING'", Long.class);
+        return new WebhookMetricsDTO(since, batches, events, events / seconds, failedAttempts.sum(),
+                deadLetters.sum(), inFlight.get(), batches == 0 ? 0 : totalLagMillis.sum() / batches,
+                maxLagMillis.get(), pending == null ? 0 : pending);
+    }
+
+    /**
+     * Restarts the measuring period of the metrics (e.g. before a load test). In-flight requests are kept.
+     */
+    public void resetMetrics() {
+        deliveredBatches.reset();
+        deliveredEvents.reset();
+        failedAttempts.reset();
+        deadLetters.reset();
+        totalLagMillis.reset();
+        maxLagMillis.set(0);
+        since = LocalDateTime.now();
+        sinceNanos = System.nanoTime();
+    }
+
+    /**
+     * Scheduled job deleting delivered batches older than the event retention period. Also forgets the concurrency
+     * permits of subscriptions deleted through other nodes.
+     */
+    @Scheduled(cron = "${app.webhooks.cleanup-cron:0 50 3 * * *}")
+    public void deleteDeliveredBatches() {
+        Set<Long> subscriptionIds = new HashSet<>(jdbcTemplate.getJdbcOperations().queryForList(
+                "SELECT id FROM webhook_subscriptions", Long.class));
+        endpointSlots.keySet().retainAll(subscriptionIds);
+        int deleted = jdbcTemplate.update("DELETE FROM webhook_deliveries WHERE status = 'DELIVERED' "
+                + "AND delivered_at < :cutoff",
+                new MapSqlParameterSource("cutoff", Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays))));
+        if (deleted > 0) {
+            log.info("Deleted {} delivered webhook batches", deleted);
+        }
+    }
+
+    private record EndpointSlots(int cap, Semaphore permits) {
+    }
+
+    private record DueDelivery(long id, long subscriptionId, int eventCount, LocalDateTime oldestEventAt, int attempts,
+                               URI url, int maxConcurrency) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.main.service;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.main.dto.WebhookDeliveryDTO;
+import com.example.main.dto.WebhookSubscriptionDTO;
+import com.example.main.exception.DuplicateEntryException;
+import com.example.main.exception.InvalidOperationException;
+import com.example.main.exception.ResourceNotFoundException;
+import com.example.main.mapper.WebhookSubscriptionMapper;
+import com.example.main.model.WebhookDeliveryStatus;
+import com.example.main.model.WebhookSubscription;
+import com.example.main.repository.WebhookSubscriptionRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for managing webhook subscriptions and their dead-lettered batches.
+ * Delivery itself is done by the WebhookDispatcherService.
+ */
+@Service
+@Transactional
+public class WebhookSubscriptionService {
+
+    private static final String DEAD_LETTERS = "SELECT id, subscription_id, first_event_id, last_event_id, event_count, "
+            + "status, attempts, next_attempt_at, last_error, created_at, delivered_at FROM webhook_deliveries "
+            + "WHERE status = 'DEAD' %s ORDER BY id";
+
+    private final WebhookSubscriptionRepository subscriptionRepository;
+    private final WebhookSubscriptionMapper subscriptionMapper;
+    private final NamedParameterJdbcTemplate jdbcTemplate; // Deliveries are plain rows, not entities
+    private final WebhookDispatcherService dispatcherService; // Holds the concurrency permits per subscription
+
+    public WebhookSubscriptionService(WebhookSubscriptionRepository subscriptionRepository,
+                                      WebhookSubscriptionMapper subscriptionMapper,
+                                      NamedParameterJdbcTemplate jdbcTemplate,
+                                      WebhookDispatcherService dispatcherService) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.subscriptionMapper = subscriptionMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dispatcherService = dispatcherService;
+    }
+
+    /**
+     * Creates a new, active subscription. It receives the events relayed from now on.
+     * @param subscriptionDTO The DTO containing subscription details.
+     * @return The created WebhookSubscriptionDTO.
+     * @throws DuplicateEntryException if a subscription with the same name already exists.
+     */
+    public WebhookSubscriptionDTO createSubscription(WebhookSubscriptionDTO subscriptionDTO) {
+        if (subscriptionRepository.existsByName(subscriptionDTO.getName())) {
+            throw new DuplicateEntryException("Webhook subscription with name '" + subscriptionDTO.getName()
+                    + "' already exists.");
+        }
+        WebhookSubscription subscription = subscriptionMapper.toWebhookSubscription(subscriptionDTO);
+        subscription.setCreatedAt(LocalDateTime.now());
+        return subscriptionMapper.toWebhookSubscriptionDTO(subscriptionRepository.save(subscription));
+    }
+
+    /**
+     * Retrieves all subscriptions.
+     * @return A list of all WebhookSubscriptionDTOs.
+     */
+    @Transactional(readOnly = true)
+    public List<WebhookSubscriptionDTO> getAllSubscriptions() {
+        return subscriptionRepository.findAll().stream()
+                .map(subscriptionMapper::toWebhookSubscriptionDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Activates or deactivates a subscription. While inactive it gets no new batches and its queued batches wait.
+     * @param id The ID of the subscription.
+     * @param active The new state.
+     * @return The updated WebhookSubscriptionDTO.
+     * @throws ResourceNotFoundException if the subscription is not found.
+     */
+    public WebhookSubscriptionDTO setActive(Long id, boolean active) {
+        WebhookSubscription subscription = getSubscriptionEntityById(id);
+        subscription.setActive(active);
+        return subscriptionMapper.toWebhookSubscriptionDTO(subscriptionRepository.save(subscription));
+    }
+
+    /**
+     * Deletes a subscription together with its queued, delivered and dead-lettered batches.
+     * @param id The ID of the subscription to delete.
+     * @throws ResourceNotFoundException if the subscription is not found.
+     */
+    public void deleteSubscription(Long id) {
+        WebhookSubscription subscription = getSubscriptionEntityById(id);
+        jdbcTemplate.update("DELETE FROM webhook_deliveries WHERE subscription_id = :id",
+                new MapSqlParameterSource("id", id));
+        subscriptionRepository.delete(subscription);
+        dispatcherService.forgetSubscription(id);
+    }
+
+    /**
+     * Retrieves the dead-lettered batches, oldest first.
+     * @param subscriptionId The ID of the subscription, or null for all subscriptions.
+     * @return The dead-lettered batches, without payload.
+     */
+    @Transactional(readOnly = true)
+    public List<WebhookDeliveryDTO> getDeadLetters(Long subscriptionId) {
+        String sql = String.format(DEAD_LETTERS, subscriptionId != null ? "AND subscription_id = :subscriptionId" : "");
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("subscriptionId", subscriptionId),
+                (rs, rowNum) -> {
+                    Timestamp deliveredAt = rs.getTimestamp("delivered_at");
+                    return new WebhookDeliveryDTO(rs.getLong("id"), rs.getLong("subscription_id"),
+                            rs.getLong("first_event_id"), rs.getLong("last_event_id"), rs.getInt("event_count"),
+                            WebhookDeliveryStatus.valueOf(rs.getString("status")), rs.getInt("attempts"),
+                            rs.getTimestamp("next_attempt_at").toLocalDateTime(), rs.getString("last_error"),
+                            rs.getTimestamp("created_at").toLocalDateTime(),
+                            deliveredAt != null ? deliveredAt.toLocalDateTime() : null);
+                });
+    }
+
+    /**
+     * Queues a dead-lettered batch again, with a fresh set of attempts, e.g. once the receiver is fixed.
+     * @param deliveryId The ID of the dead-lettered batch.
+     * @throws ResourceNotFoundException if the batch is not found.
+     * @throws InvalidOperationException if the batch is not dead-lettered.
+     */
+    public void retryDeadLetter(Long deliveryId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", deliveryId)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        int updated = jdbcTemplate.update("UPDATE webhook_deliveries SET status = 'PENDING', attempts = 0, "
+                + "next_attempt_at = :now WHERE id = :id AND status = 'DEAD'", params);
+        if (updated == 0) {
+            List<String> status = jdbcTemplate.queryForList("SELECT status FROM webhook_deliveries WHERE id = :id",
+                    params, String.class);
+            if (status.isEmpty()) {
+                throw new ResourceNotFoundException("Webhook delivery not found with ID: " + deliveryId);
+            }
+            throw new InvalidOperationException("Webhook delivery " + deliveryId + " is " + status.get(0)
+                    + ", not dead-lettered.");
+        }
+    }
+
+    private WebhookSubscription getSubscriptionEntityById(Long id) {
+        return subscriptionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Webhook subscription not found with ID: " + id));
+    }
+}
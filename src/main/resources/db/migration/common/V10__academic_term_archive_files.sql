@@ -0,0 +1,5 @@
+-- Export state of the columnar archive file of a term (see AttendanceArchiveFile).
+-- Once the file is verified, the term's rows can be purged from attendance_records_archive.
+ALTER TABLE academic_terms ADD COLUMN exported_at TIMESTAMP;
+ALTER TABLE academic_terms ADD COLUMN exported_rows BIGINT;
+ALTER TABLE academic_terms ADD COLUMN purged_at TIMESTAMP;
@@ -0,0 +1,15 @@
+-- Attendance and lecture change events for external consumers (ERP, SMS gateway, analytics), written in the
+-- transaction of the change itself. The relay publishes them in ID order and stamps published_at.
+-- No foreign keys: the event of a deleted lecture outlives the lecture.
+CREATE TABLE attendance_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type SMALLINT NOT NULL,
+    lecture_id BIGINT NOT NULL,
+    student_id BIGINT,
+    record_id BIGINT,
+    status SMALLINT,
+    occurred_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP
+);
+
+CREATE INDEX idx_attendance_events_unpublished ON attendance_events (published_at, id);
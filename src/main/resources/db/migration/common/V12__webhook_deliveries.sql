@@ -0,0 +1,33 @@
+-- Webhook subscribers of the relayed attendance events, and the batched payloads queued for them.
+-- A delivery holds one coalesced batch for one subscriber; it stays PENDING until the receiver answers 2xx
+-- (DELIVERED) or the retries are exhausted (DEAD, kept for inspection and manual retry).
+CREATE TABLE webhook_subscriptions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    url VARCHAR(500) NOT NULL,
+    max_concurrency INTEGER NOT NULL,
+    max_batch_size INTEGER NOT NULL,
+    active BOOLEAN NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_webhook_subscriptions_name UNIQUE (name)
+);
+
+CREATE TABLE webhook_deliveries (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subscription_id BIGINT NOT NULL,
+    first_event_id BIGINT NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    event_count INTEGER NOT NULL,
+    oldest_event_at TIMESTAMP NOT NULL,
+    payload BYTEA NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    delivered_at TIMESTAMP,
+    CONSTRAINT fk_webhook_deliveries_subscription FOREIGN KEY (subscription_id) REFERENCES webhook_subscriptions (id)
+);
+
+CREATE INDEX idx_webhook_deliveries_due ON webhook_deliveries (status, next_attempt_at, id);
+CREATE INDEX idx_webhook_deliveries_subscription ON webhook_deliveries (subscription_id, status);
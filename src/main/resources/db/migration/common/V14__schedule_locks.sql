@@ -0,0 +1,8 @@
+-- One row per booked resource (teacher, student group or room) and date. Bookings lock the rows of the resources
+-- they use with SELECT ... FOR UPDATE before checking for overlaps, which serialises competing bookings across nodes.
+-- Rows are created on first use and never hold data of their own.
+CREATE TABLE schedule_locks (
+    resource_key VARCHAR(120) NOT NULL,
+    lecture_date DATE NOT NULL,
+    CONSTRAINT pk_schedule_locks PRIMARY KEY (resource_key, lecture_date)
+);
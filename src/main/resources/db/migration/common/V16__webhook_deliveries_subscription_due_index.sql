@@ -0,0 +1,4 @@
+-- WebhookDispatcherService.dispatch reads each subscription's due batches separately, oldest first.
+-- Extends the per-subscription index with the order column, so a backlogged subscription is read from its head.
+DROP INDEX idx_webhook_deliveries_subscription;
+CREATE INDEX idx_webhook_deliveries_subscription ON webhook_deliveries (subscription_id, status, id);
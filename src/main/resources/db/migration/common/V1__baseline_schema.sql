@@ -0,0 +1,81 @@
+-- Baseline schema for the Attendance Management System, as created by 'ddl-auto=update' before Flyway took over.
+-- Existing databases of that release are adopted as this version; V1.1 converts them to student groups.
+-- Portable between H2 (2.x) and PostgreSQL; vendor specific scripts live in db/migration/{vendor}.
+
+CREATE TABLE departments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    code VARCHAR(20) NOT NULL,
+    CONSTRAINT uk_departments_name UNIQUE (name),
+    CONSTRAINT uk_departments_code UNIQUE (code)
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    is_active BOOLEAN NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE subjects (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    code VARCHAR(50) NOT NULL,
+    department_id BIGINT NOT NULL,
+    CONSTRAINT uk_subjects_code UNIQUE (code),
+    CONSTRAINT fk_subjects_department FOREIGN KEY (department_id) REFERENCES departments (id)
+);
+
+CREATE TABLE teachers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    employee_id VARCHAR(50) NOT NULL,
+    department_id BIGINT NOT NULL,
+    CONSTRAINT uk_teachers_user UNIQUE (user_id),
+    CONSTRAINT uk_teachers_employee_id UNIQUE (employee_id),
+    CONSTRAINT fk_teachers_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_teachers_department FOREIGN KEY (department_id) REFERENCES departments (id)
+);
+
+CREATE TABLE students (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    roll_number VARCHAR(50) NOT NULL,
+    department_id BIGINT NOT NULL,
+    batch_year INTEGER NOT NULL,
+    section VARCHAR(10),
+    CONSTRAINT uk_students_user UNIQUE (user_id),
+    CONSTRAINT uk_students_roll_number UNIQUE (roll_number),
+    CONSTRAINT fk_students_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_students_department FOREIGN KEY (department_id) REFERENCES departments (id)
+);
+
+CREATE TABLE lectures (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject_id BIGINT NOT NULL,
+    teacher_id BIGINT NOT NULL,
+    lecture_date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    student_group VARCHAR(100) NOT NULL,
+    room_number VARCHAR(50),
+    CONSTRAINT fk_lectures_subject FOREIGN KEY (subject_id) REFERENCES subjects (id),
+    CONSTRAINT fk_lectures_teacher FOREIGN KEY (teacher_id) REFERENCES teachers (id)
+);
+
+CREATE TABLE attendance_records (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    lecture_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    marked_by_teacher_id BIGINT NOT NULL,
+    marking_timestamp TIMESTAMP NOT NULL,
+    CONSTRAINT uk_attendance_records_lecture_student UNIQUE (lecture_id, student_id),
+    CONSTRAINT fk_attendance_records_lecture FOREIGN KEY (lecture_id) REFERENCES lectures (id),
+    CONSTRAINT fk_attendance_records_student FOREIGN KEY (student_id) REFERENCES students (id),
+    CONSTRAINT fk_attendance_records_teacher FOREIGN KEY (marked_by_teacher_id) REFERENCES teachers (id)
+);
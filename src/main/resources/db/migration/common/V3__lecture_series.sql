@@ -0,0 +1,34 @@
+-- Recurring weekly lecture slots from which lectures are generated.
+
+CREATE TABLE lecture_series (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    subject_id BIGINT NOT NULL,
+    teacher_id BIGINT NOT NULL,
+    student_group_id BIGINT NOT NULL,
+    day_of_week VARCHAR(10) NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    room_number VARCHAR(50),
+    CONSTRAINT fk_lecture_series_subject FOREIGN KEY (subject_id) REFERENCES subjects (id),
+    CONSTRAINT fk_lecture_series_teacher FOREIGN KEY (teacher_id) REFERENCES teachers (id),
+    CONSTRAINT fk_lecture_series_student_group FOREIGN KEY (student_group_id) REFERENCES student_groups (id)
+);
+
+CREATE INDEX idx_lecture_series_group ON lecture_series (student_group_id);
+CREATE INDEX idx_lecture_series_teacher ON lecture_series (teacher_id);
+CREATE INDEX idx_lecture_series_subject ON lecture_series (subject_id);
+
+-- Holidays and other dates on which a series does not take place
+CREATE TABLE lecture_series_exclusions (
+    series_id BIGINT NOT NULL,
+    excluded_date DATE NOT NULL,
+    CONSTRAINT pk_lecture_series_exclusions PRIMARY KEY (series_id, excluded_date),
+    CONSTRAINT fk_lecture_series_exclusions_series FOREIGN KEY (series_id) REFERENCES lecture_series (id)
+);
+
+-- Lectures generated from a series; one occurrence per series and date makes regeneration idempotent
+ALTER TABLE lectures ADD COLUMN series_id BIGINT;
+ALTER TABLE lectures ADD CONSTRAINT fk_lectures_series FOREIGN KEY (series_id) REFERENCES lecture_series (id);
+CREATE UNIQUE INDEX uk_lectures_series_date ON lectures (series_id, lecture_date);
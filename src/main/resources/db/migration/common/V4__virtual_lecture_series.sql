@@ -0,0 +1,3 @@
+-- Virtual lecture series: occurrences are computed from the rule and only stored once attendance is marked
+-- or the occurrence is edited. Existing series keep generating all their lectures up front.
+ALTER TABLE lecture_series ADD COLUMN materialized BOOLEAN DEFAULT TRUE NOT NULL;
@@ -0,0 +1,16 @@
+-- Notifications waiting to be delivered (e-mail, push, ...) by a sender outside of the request path.
+-- The dedup key makes scheduled producers idempotent: running a job twice, or on two nodes, writes one row.
+CREATE TABLE notification_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    kind VARCHAR(50) NOT NULL,
+    recipient_user_id BIGINT NOT NULL,
+    dedup_key VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body VARCHAR(4000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP,
+    CONSTRAINT uk_notification_outbox_dedup UNIQUE (kind, recipient_user_id, dedup_key),
+    CONSTRAINT fk_notification_outbox_user FOREIGN KEY (recipient_user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_notification_outbox_unsent ON notification_outbox (sent_at, id);
@@ -0,0 +1,33 @@
+-- Change history of attendance marks: one row per status change of an attendance record.
+-- Statuses and sources are stored as SMALLINT codes (see AttendanceStatus and AttendanceChangeSource); the lecture
+-- is not copied into every row, as it is known from the record.
+-- Rows outlive neither their lecture nor their student (see BulkDeletionService), but carry no foreign keys
+-- so that audit writes never contend with the locks of the records they describe.
+CREATE TABLE attendance_audit (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    record_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    old_status SMALLINT,
+    new_status SMALLINT NOT NULL,
+    changed_by_user_id BIGINT NOT NULL,
+    source SMALLINT NOT NULL,
+    reason VARCHAR(255),
+    changed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_attendance_audit_record ON attendance_audit (record_id, changed_at);
+CREATE INDEX idx_attendance_audit_student ON attendance_audit (student_id, changed_at);
+CREATE INDEX idx_attendance_audit_changed_by ON attendance_audit (changed_by_user_id, changed_at);
+CREATE INDEX idx_attendance_audit_changed_at ON attendance_audit (changed_at);
+
+-- Audit rows of past months, compacted into one deflated chunk per student and month (see AttendanceAuditCodec)
+CREATE TABLE attendance_audit_archive (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    month_start DATE NOT NULL,
+    row_count INTEGER NOT NULL,
+    payload BYTEA NOT NULL,
+    CONSTRAINT uk_attendance_audit_archive_student_month UNIQUE (student_id, month_start)
+);
+
+CREATE INDEX idx_attendance_audit_archive_month ON attendance_audit_archive (month_start);
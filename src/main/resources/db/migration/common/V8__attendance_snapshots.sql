@@ -0,0 +1,11 @@
+-- Periodic snapshots of the statuses of all attendance records of a student (see AttendanceAuditCodec), used as
+-- starting points for point-in-time queries that replay the audit log backwards
+CREATE TABLE attendance_snapshots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    record_count INTEGER NOT NULL,
+    payload BYTEA NOT NULL
+);
+
+CREATE INDEX idx_attendance_snapshots_student ON attendance_snapshots (student_id, taken_at);
@@ -0,0 +1,34 @@
+-- Academic terms: date ranges that can be closed (frozen) and then archived
+CREATE TABLE academic_terms (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    closed BOOLEAN DEFAULT FALSE NOT NULL,
+    archived_at TIMESTAMP,
+    CONSTRAINT uk_academic_terms_name UNIQUE (name)
+);
+
+CREATE INDEX idx_academic_terms_dates ON academic_terms (start_date, end_date);
+
+-- Attendance records of closed terms, moved out of attendance_records in chunks.
+-- Rows keep their attendance_records ID (the audit log refers to it); the lecture date is copied for range scans.
+CREATE TABLE attendance_records_archive (
+    id BIGINT PRIMARY KEY,
+    lecture_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    marked_by_teacher_id BIGINT NOT NULL,
+    marking_timestamp TIMESTAMP NOT NULL,
+    term_id BIGINT NOT NULL,
+    lecture_date DATE NOT NULL,
+    CONSTRAINT uk_attendance_records_archive_lecture_student UNIQUE (lecture_id, student_id),
+    CONSTRAINT fk_attendance_records_archive_lecture FOREIGN KEY (lecture_id) REFERENCES lectures (id),
+    CONSTRAINT fk_attendance_records_archive_student FOREIGN KEY (student_id) REFERENCES students (id),
+    CONSTRAINT fk_attendance_records_archive_teacher FOREIGN KEY (marked_by_teacher_id) REFERENCES teachers (id),
+    CONSTRAINT fk_attendance_records_archive_term FOREIGN KEY (term_id) REFERENCES academic_terms (id)
+);
+
+CREATE INDEX idx_attendance_records_archive_student ON attendance_records_archive (student_id, lecture_date);
+CREATE INDEX idx_attendance_records_archive_term ON attendance_records_archive (term_id);
+CREATE INDEX idx_attendance_records_archive_teacher ON attendance_records_archive (marked_by_teacher_id);
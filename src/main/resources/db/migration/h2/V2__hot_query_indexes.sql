@@ -0,0 +1,31 @@
+-- Indexes for the hot repository queries (H2).
+-- H2 has no INCLUDE clause, so the covering columns are appended to the key where it matters.
+-- H2 already indexes every foreign key, so only composite and non-FK lookups are declared here.
+
+-- Timetable of a class for a day / all lectures of a class (LectureRepository.findByStudentGroup*)
+CREATE INDEX idx_lectures_group_date ON lectures (student_group_id, lecture_date, start_time);
+
+-- Daily schedule of a teacher (LectureRepository.findByTeacher*)
+CREATE INDEX idx_lectures_teacher_date ON lectures (teacher_id, lecture_date, start_time);
+
+-- Lecture counts for attendance summaries (countTotalLecturesForSubjectAndStudentGroup)
+CREATE INDEX idx_lectures_subject_group_date ON lectures (subject_id, student_group_id, lecture_date);
+
+-- All lectures on a date (LectureRepository.findByLectureDate)
+CREATE INDEX idx_lectures_date ON lectures (lecture_date);
+
+-- Attendance history and present counts of a student (findByStudent*, countPresentByStudentAndSubject)
+CREATE INDEX idx_attendance_records_student ON attendance_records (student_id, lecture_id, status);
+
+-- Students of a batch and section (StudentRepository.findByBatchYearAndSection)
+CREATE INDEX idx_students_batch_section ON students (batch_year, section);
+
+-- Ordered roster of a class (StudentRepository.findByStudentGroupOrderByRollNumberAsc)
+CREATE INDEX idx_students_group_roll ON students (student_group_id, roll_number);
+
+-- Groups of a term (StudentGroupRepository.findByTerm) and of a batch/section
+CREATE INDEX idx_student_groups_term ON student_groups (term);
+CREATE INDEX idx_student_groups_batch_section ON student_groups (batch_year, section);
+
+-- Groups taking a subject (EnrollmentRepository.findStudentGroupsBySubjectId)
+CREATE INDEX idx_enrollments_subject ON enrollments (subject_id);
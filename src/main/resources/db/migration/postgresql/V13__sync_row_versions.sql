@@ -0,0 +1,59 @@
+-- Change tracking for the mobile delta sync (PostgreSQL).
+-- Every insert and update of a synced table takes the next value of one shared sequence as its row_version, so
+-- "changed since sync token T" is "row_version > T", a range scan on the row_version index. Deleted rows leave a
+-- tombstone versioned from the same sequence. Inserts take the version from the column default and updates from a
+-- trigger; an UPDATE that changes no column keeps the old version. Adding the columns backfills existing rows.
+CREATE SEQUENCE sync_version_seq;
+
+CREATE FUNCTION next_row_version() RETURNS trigger AS $$
+BEGIN
+    NEW.row_version := nextval('sync_version_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE departments ADD COLUMN row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL;
+ALTER TABLE users ADD COLUMN row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL;
+ALTER TABLE subjects ADD COLUMN row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL;
+ALTER TABLE teachers ADD COLUMN row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL;
+ALTER TABLE lectures ADD COLUMN row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL;
+ALTER TABLE attendance_records ADD COLUMN row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL;
+
+CREATE TRIGGER trg_departments_row_version BEFORE UPDATE ON departments
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION next_row_version();
+CREATE TRIGGER trg_users_row_version BEFORE UPDATE ON users
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION next_row_version();
+CREATE TRIGGER trg_subjects_row_version BEFORE UPDATE ON subjects
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION next_row_version();
+CREATE TRIGGER trg_teachers_row_version BEFORE UPDATE ON teachers
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION next_row_version();
+CREATE TRIGGER trg_lectures_row_version BEFORE UPDATE ON lectures
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION next_row_version();
+CREATE TRIGGER trg_attendance_records_row_version BEFORE UPDATE ON attendance_records
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION next_row_version();
+
+CREATE INDEX idx_departments_row_version ON departments (row_version);
+CREATE INDEX idx_users_row_version ON users (row_version);
+CREATE INDEX idx_subjects_row_version ON subjects (row_version);
+CREATE INDEX idx_teachers_row_version ON teachers (row_version);
+CREATE INDEX idx_lectures_row_version ON lectures (row_version);
+CREATE INDEX idx_attendance_records_row_version ON attendance_records (row_version);
+
+-- Deleted synced rows. No foreign keys: the tombstone outlives the row.
+CREATE TABLE sync_tombstones (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entity_type SMALLINT NOT NULL,
+    entity_id BIGINT NOT NULL,
+    row_version BIGINT DEFAULT nextval('sync_version_seq') NOT NULL,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_sync_tombstones_row_version ON sync_tombstones (row_version);
+
+-- Highest tombstone version removed by the retention job; older sync tokens must resynchronise from scratch
+CREATE TABLE sync_horizon (
+    id SMALLINT PRIMARY KEY,
+    purged_version BIGINT NOT NULL
+);
+
+INSERT INTO sync_horizon (id, purged_version) VALUES (1, 0);
@@ -0,0 +1,3 @@
+-- Case-insensitive email lookups (BulkImportService duplicate checks on LOWER(email)).
+-- Not unique, as existing accounts may differ in case only; H2 has no expression indexes and gets no counterpart.
+CREATE INDEX idx_users_email_lower ON users (LOWER(email));
@@ -0,0 +1,42 @@
+-- Indexes for the hot repository queries (PostgreSQL).
+-- PostgreSQL does not index foreign keys on its own, so the plain FK lookups are declared too.
+-- INCLUDE columns make the timetable and attendance lookups index-only scans.
+
+-- Timetable of a class for a day / all lectures of a class (LectureRepository.findByStudentGroup*)
+CREATE INDEX idx_lectures_group_date ON lectures (student_group_id, lecture_date)
+    INCLUDE (start_time, end_time, subject_id, teacher_id);
+
+-- Daily schedule of a teacher (LectureRepository.findByTeacher*)
+CREATE INDEX idx_lectures_teacher_date ON lectures (teacher_id, lecture_date)
+    INCLUDE (start_time, end_time, subject_id, student_group_id);
+
+-- Lecture counts for attendance summaries (countTotalLecturesForSubjectAndStudentGroup)
+CREATE INDEX idx_lectures_subject_group_date ON lectures (subject_id, student_group_id, lecture_date);
+
+-- All lectures on a date (LectureRepository.findByLectureDate)
+CREATE INDEX idx_lectures_date ON lectures (lecture_date);
+
+-- Attendance history and present counts of a student (findByStudent*, countPresentByStudentAndSubject)
+CREATE INDEX idx_attendance_records_student ON attendance_records (student_id)
+    INCLUDE (lecture_id, status);
+
+-- Records marked by a teacher (FK lookup)
+CREATE INDEX idx_attendance_records_teacher ON attendance_records (marked_by_teacher_id);
+
+-- Students of a batch and section (StudentRepository.findByBatchYearAndSection)
+CREATE INDEX idx_students_batch_section ON students (batch_year, section);
+
+-- Ordered roster of a class (StudentRepository.findByStudentGroupOrderByRollNumberAsc)
+CREATE INDEX idx_students_group_roll ON students (student_group_id, roll_number);
+
+-- Students / subjects / teachers of a department (find*ByDepartment)
+CREATE INDEX idx_students_department ON students (department_id);
+CREATE INDEX idx_subjects_department ON subjects (department_id);
+CREATE INDEX idx_teachers_department ON teachers (department_id);
+
+-- Groups of a term (StudentGroupRepository.findByTerm) and of a batch/section
+CREATE INDEX idx_student_groups_term ON student_groups (term);
+CREATE INDEX idx_student_groups_batch_section ON student_groups (batch_year, section);
+
+-- Groups taking a subject (EnrollmentRepository.findStudentGroupsBySubjectId)
+CREATE INDEX idx_enrollments_subject ON enrollments (subject_id);
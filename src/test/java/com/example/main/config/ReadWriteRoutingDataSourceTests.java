@@ -0,0 +1,71 @@
+package com.example.main.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Verifies read/write splitting against a stand-in replica: a second connection pool on the same
+ * in-memory H2 database, so the "replica" sees the primary's data without replication lag.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=jdbc:h2:mem:attendancedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.maximum-pool-size=2"
+})
+class ReadWriteRoutingDataSourceTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, inTransaction(true));
+    }
+
+    @Test
+    void readWriteTransactionUsesPrimary() {
+        assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, inTransaction(false));
+    }
+
+    @Test
+    void pinnedReadUsesPrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+        int replicaConnections = readOnly.execute(status -> ReadWriteRoutingDataSource.onPrimary(() -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM departments", Long.class);
+            return activeReplicaConnections();
+        }));
+        assertEquals(0, replicaConnections);
+    }
+
+    private ReadWriteRoutingDataSource.Route inTransaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM departments", Long.class);
+            return activeReplicaConnections() > 0
+                    ? ReadWriteRoutingDataSource.Route.REPLICA
+                    : ReadWriteRoutingDataSource.Route.PRIMARY;
+        });
+    }
+
+    private int activeReplicaConnections() {
+        return ((HikariDataSource) replicaDataSource).getHikariPoolMXBean().getActiveConnections();
+    }
+}
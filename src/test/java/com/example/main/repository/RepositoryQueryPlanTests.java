@@ -0,0 +1,231 @@
+package com.example.main.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Guards the indexes declared in db/migration against regressions.
+ * Every hot query is run through EXPLAIN and the test fails if H2 plans a full table scan for any table in it.
+ * The queries are hand-written SQL with the same tables, joins and predicates as the repository methods and the
+ * services' native SQL they are named after; they are not captured from Hibernate, so a changed repository query
+ * has to be updated here as well.
+ * Seed data is inserted inside the test transaction and rolled back afterwards.
+ */
+@SpringBootTest
+@Transactional
+class RepositoryQueryPlanTests {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Hand-written equivalents of the derived and JPQL repository queries and copies of the services' native SQL,
+     * keyed by the method running them, with literals in place of the bind parameters.
+     */
+    static List<Object[]> hotQueries() {
+        return List.of(
+                query("AttendanceRecordRepository.findByLectureAndStudent",
+                        "SELECT * FROM attendance_records WHERE lecture_id = 1 AND student_id = 1"),
+                query("AttendanceRecordRepository.findByStudent",
+                        "SELECT * FROM attendance_records WHERE student_id = 1"),
+                query("AttendanceRecordRepository.findByLecture",
+                        "SELECT * FROM attendance_records WHERE lecture_id = 1"),
+                query("AttendanceRecordRepository.findByStudentAndLectureDateBetween",
+                        "SELECT ar.* FROM attendance_records ar JOIN lectures l ON l.id = ar.lecture_id "
+                                + "WHERE ar.student_id = 1 AND l.lecture_date BETWEEN DATE '2025-01-06' AND DATE '2025-02-06'"),
+                query("AttendanceRecordRepository.countPresentByStudentAndSubject",
+                        "SELECT COUNT(ar.id) FROM attendance_records ar JOIN lectures l ON l.id = ar.lecture_id "
+                                + "WHERE ar.student_id = 1 AND l.subject_id = 1 AND ar.status = 'PRESENT'"),
+                query("ArchivedAttendanceRecordRepository.findByStudent",
+                        "SELECT * FROM attendance_records_archive WHERE student_id = 1"),
+                query("ArchivedAttendanceRecordRepository.findByLecture",
+                        "SELECT * FROM attendance_records_archive WHERE lecture_id = 1"),
+                query("ArchivedAttendanceRecordRepository.findByStudentAndLectureDateBetween",
+                        "SELECT * FROM attendance_records_archive WHERE student_id = 1 "
+                                + "AND lecture_date BETWEEN DATE '2025-01-06' AND DATE '2025-02-06'"),
+                query("ArchivedAttendanceRecordRepository.countPresentByStudentAndSubject",
+                        "SELECT COUNT(ar.id) FROM attendance_records_archive ar JOIN lectures l ON l.id = ar.lecture_id "
+                                + "WHERE ar.student_id = 1 AND l.subject_id = 1 AND ar.status = 'PRESENT'"),
+                query("AttendanceRecordRepository.countTotalLecturesForSubjectAndStudentGroup",
+                        "SELECT COUNT(l.id) FROM lectures l LEFT JOIN lecture_series s ON s.id = l.series_id "
+                                + "WHERE l.subject_id = 1 AND l.student_group_id = 1 AND (s.id IS NULL OR s.materialized = TRUE)"),
+                query("PendingMarkingService.getPendingLectures",
+                        "SELECT l.id, (SELECT COUNT(*) FROM attendance_records a WHERE a.lecture_id = l.id), "
+                                + "(SELECT COUNT(*) FROM students s WHERE s.student_group_id = l.student_group_id) "
+                                + "FROM lectures l WHERE l.teacher_id = 1 "
+                                + "AND l.lecture_date BETWEEN DATE '2025-01-06' AND DATE '2025-02-06'"),
+                query("AttendanceEventRelayService.relayBatch",
+                        "SELECT id FROM attendance_events WHERE published_at IS NULL "
+                                + "AND occurred_at <= TIMESTAMP '2025-01-06 10:00:00' ORDER BY id LIMIT 500"),
+                query("WebhookDispatcherService.dispatch",
+                        "SELECT id FROM webhook_deliveries WHERE subscription_id = 1 AND status = 'PENDING' "
+                                + "AND next_attempt_at <= TIMESTAMP '2025-01-06 10:00:00' ORDER BY id LIMIT 100"),
+                query("SyncService.getChanges (lectures of a teacher)",
+                        "SELECT * FROM lectures WHERE row_version > 100000 AND teacher_id = 1 "
+                                + "ORDER BY row_version LIMIT 501"),
+                query("SyncService.getChanges (attendance records of a teacher)",
+                        "SELECT r.* FROM attendance_records r WHERE r.row_version > 100000 AND r.lecture_id IN "
+                                + "(SELECT l.id FROM lectures l WHERE l.teacher_id = 1) ORDER BY r.row_version LIMIT 501"),
+                query("SyncService.getChanges (teachers)",
+                        "SELECT t.id, u.first_name FROM teachers t JOIN users u ON u.id = t.user_id "
+                                + "WHERE t.id IN (SELECT id FROM teachers WHERE row_version > 100000 UNION "
+                                + "SELECT ct.id FROM users cu JOIN teachers ct ON ct.user_id = cu.id WHERE cu.row_version > 100000) "
+                                + "ORDER BY GREATEST(t.row_version, u.row_version) LIMIT 501"),
+                query("SyncService.getChanges (tombstones)",
+                        "SELECT * FROM sync_tombstones WHERE row_version > 100000 ORDER BY row_version LIMIT 501"),
+                query("LectureRepository.findByTeacher",
+                        "SELECT * FROM lectures WHERE teacher_id = 1"),
+                query("LectureRepository.findBySubject",
+                        "SELECT * FROM lectures WHERE subject_id = 1"),
+                query("LectureRepository.findByLectureDate",
+                        "SELECT * FROM lectures WHERE lecture_date = DATE '2025-01-06'"),
+                query("LectureRepository.findByStudentGroup",
+                        "SELECT * FROM lectures WHERE student_group_id = 1"),
+                query("LectureRepository.findByTeacherAndLectureDate",
+                        "SELECT * FROM lectures WHERE teacher_id = 1 AND lecture_date = DATE '2025-01-06'"),
+                query("LectureRepository.findByStudentGroupAndLectureDate",
+                        "SELECT * FROM lectures WHERE student_group_id = 1 AND lecture_date = DATE '2025-01-06'"),
+                query("StudentRepository.findByUser",
+                        "SELECT * FROM students WHERE user_id = 1"),
+                query("StudentRepository.findByRollNumber",
+                        "SELECT * FROM students WHERE roll_number = 'R0001'"),
+                query("StudentRepository.findByDepartment",
+                        "SELECT * FROM students WHERE department_id = 1"),
+                query("StudentRepository.findByBatchYearAndSection",
+                        "SELECT * FROM students WHERE batch_year = 2023 AND section = 'A'"),
+                query("StudentRepository.findByStudentGroupOrderByRollNumberAsc",
+                        "SELECT * FROM students WHERE student_group_id = 1 ORDER BY roll_number"),
+                query("StudentGroupRepository.findByDepartmentAndTermAndName",
+                        "SELECT * FROM student_groups WHERE department_id = 1 AND term = 'T1' AND name = 'CS2023A'"),
+                query("StudentGroupRepository.findByTerm",
+                        "SELECT * FROM student_groups WHERE term = 'T1'"),
+                query("EnrollmentRepository.findSubjectsByStudentGroupId",
+                        "SELECT s.* FROM enrollments e JOIN subjects s ON s.id = e.subject_id WHERE e.student_group_id = 1"),
+                query("EnrollmentRepository.findStudentGroupsBySubjectId",
+                        "SELECT g.* FROM enrollments e JOIN student_groups g ON g.id = e.student_group_id WHERE e.subject_id = 1"),
+                query("SubjectRepository.findByDepartment",
+                        "SELECT * FROM subjects WHERE department_id = 1"),
+                query("TeacherRepository.findByDepartment",
+                        "SELECT * FROM teachers WHERE department_id = 1"),
+                query("UserRepository.findByEmail",
+                        "SELECT * FROM users WHERE email = 'student1@example.com'"));
+    }
+
+    private static Object[] query(String name, String sql) {
+        return new Object[] { name, sql };
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.update("INSERT INTO departments (id, name, code) VALUES (1, 'Plan Test Department', 'PLN')");
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= 210; i++) {
+            String role = i <= 200 ? "STUDENT" : "TEACHER";
+            users.add(new Object[] { i, role.toLowerCase() + i + "@example.com", "x", role, "First", "Last", true });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, password, role, first_name, last_name, is_active) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", users);
+
+        List<Object[]> teachers = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            teachers.add(new Object[] { i, 200 + i, "EMP" + i, 1 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO teachers (id, user_id, employee_id, department_id) VALUES (?, ?, ?, ?)",
+                teachers);
+
+        List<Object[]> subjects = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            subjects.add(new Object[] { i, "Subject " + i, "SUB" + i, 1 });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO subjects (id, name, code, department_id) VALUES (?, ?, ?, ?)", subjects);
+
+        List<Object[]> groups = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            String section = String.valueOf((char) ('A' + (i - 1) % 4));
+            int batchYear = 2022 + (i - 1) / 4;
+            groups.add(new Object[] { i, 1, batchYear, section, "T" + i, "PLN" + batchYear + section });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student_groups (id, department_id, batch_year, section, term, name) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", groups);
+
+        List<Object[]> enrollments = new ArrayList<>();
+        for (int group = 1; group <= 8; group++) {
+            for (int subject = 1; subject <= 10; subject++) {
+                enrollments.add(new Object[] { group, subject });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO enrollments (student_group_id, subject_id) VALUES (?, ?)", enrollments);
+
+        List<Object[]> students = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            int group = (i - 1) % 8 + 1;
+            Map<String, Object> row = jdbcTemplate.queryForMap(
+                    "SELECT batch_year, section FROM student_groups WHERE id = ?", group);
+            students.add(new Object[] { i, i, String.format("R%04d", i), 1, row.get("BATCH_YEAR"),
+                    row.get("SECTION"), group });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO students (id, user_id, roll_number, department_id, batch_year, section, "
+                + "student_group_id) VALUES (?, ?, ?, ?, ?, ?, ?)", students);
+
+        List<Object[]> lectures = new ArrayList<>();
+        int lectureId = 0;
+        for (int day = 0; day < 60; day++) {
+            for (int group = 1; group <= 8; group++) {
+                lectureId++;
+                LocalTime start = LocalTime.of(9, 0).plusHours(lectureId % 6);
+                lectures.add(new Object[] { lectureId, lectureId % 10 + 1, lectureId % 10 + 1,
+                        Date.valueOf(FIRST_DAY.plusDays(day)), Time.valueOf(start), Time.valueOf(start.plusHours(1)),
+                        group, "R" + group });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO lectures (id, subject_id, teacher_id, lecture_date, start_time, end_time, "
+                + "student_group_id, room_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", lectures);
+
+        List<Object[]> records = new ArrayList<>();
+        Timestamp markedAt = Timestamp.valueOf(LocalDateTime.of(2025, 1, 6, 10, 0));
+        for (int lecture = 1; lecture <= lectureId; lecture++) {
+            int group = (lecture - 1) % 8 + 1;
+            for (int student = group; student <= 200; student += 8) {
+                records.add(new Object[] { lecture, student, student % 5 == 0 ? "ABSENT" : "PRESENT",
+                        lecture % 10 + 1, markedAt });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO attendance_records (lecture_id, student_id, status, marked_by_teacher_id, "
+                + "marking_timestamp) VALUES (?, ?, ?, ?, ?)", records);
+
+        // The same records again as an archived closed term, so the archive has a realistic size too
+        jdbcTemplate.update("INSERT INTO academic_terms (id, name, start_date, end_date, closed) "
+                + "VALUES (1, 'Plan Test Term', DATE '2025-01-06', DATE '2025-03-06', TRUE)");
+        jdbcTemplate.update("INSERT INTO attendance_records_archive (id, lecture_id, student_id, status, "
+                + "marked_by_teacher_id, marking_timestamp, term_id, lecture_date) "
+                + "SELECT r.id, r.lecture_id, r.student_id, r.status, r.marked_by_teacher_id, r.marking_timestamp, 1, "
+                + "l.lecture_date FROM attendance_records r JOIN lectures l ON l.id = r.lecture_id");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesAnIndex(String repositoryMethod, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertFalse(plan.contains("tableScan"), () -> repositoryMethod + " falls back to a table scan:\n" + plan);
+    }
+}
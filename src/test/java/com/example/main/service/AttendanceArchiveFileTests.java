@@ -0,0 +1,133 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * Writes a generated term into an archive file, reads it back and compares every row and dictionary entry with the
+ * source rows, and checks that a damaged file is rejected rather than decoded.
+ * The term has full and partial rosters, status runs of every length and record IDs that are not in row order.
+ */
+class AttendanceArchiveFileTests {
+
+    private static final long TERM_ID = 7;
+
+    @TempDir
+    Path directory;
+
+    private final List<AttendanceArchiveFile.Subject> subjects = new ArrayList<>();
+    private final List<AttendanceArchiveFile.Student> students = new ArrayList<>();
+    private final List<AttendanceArchiveFile.Lecture> lectures = new ArrayList<>();
+    private final List<AttendanceArchiveFile.LectureTotal> totals = new ArrayList<>();
+    private final List<long[]> rows = new ArrayList<>(); // lecture index, student ordinal, status ordinal, record ID
+
+    @BeforeEach
+    void generate() {
+        Random random = new Random(TERM_ID);
+        for (int i = 0; i < 3; i++) {
+            subjects.add(new AttendanceArchiveFile.Subject(10 + i * 5L, "CS10" + i, "Subject, \"" + i + "\""));
+            totals.add(new AttendanceArchiveFile.LectureTotal(i, 300, 12 + i));
+        }
+        for (int i = 0; i < 40; i++) {
+            students.add(new AttendanceArchiveFile.Student(1000 + i * 3L, 300 + i / 20, "R" + i));
+        }
+        long recordId = 50_000;
+        for (int lecture = 0; lecture < 30; lecture++) {
+            boolean fullRoster = lecture % 3 != 0;
+            int rowCount = 0;
+            for (int student = 0; student < students.size(); student++) {
+                if (!fullRoster && random.nextInt(4) == 0) {
+                    continue;
+                }
+                AttendanceStatus status = random.nextInt(5) > 0 ? AttendanceStatus.PRESENT
+                        : AttendanceStatus.values()[random.nextInt(AttendanceStatus.values().length)];
+                recordId += random.nextInt(10) == 0 ? -random.nextInt(40_000) : 1 + random.nextInt(3);
+                rows.add(new long[] { lecture, student, status.ordinal(), recordId });
+                rowCount++;
+            }
+            lectures.add(new AttendanceArchiveFile.Lecture(2000 + lecture, lecture % subjects.size(), 300 + lecture % 2,
+                    LocalDate.of(2025, 9, 1).plusDays(lecture), rowCount));
+        }
+        lectures.add(new AttendanceArchiveFile.Lecture(2100, 0, 300, LocalDate.of(2025, 12, 1), 0)); // No records
+    }
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path file = write();
+
+        AttendanceArchiveFile archive = AttendanceArchiveFile.read(file);
+
+        assertEquals(TERM_ID, archive.getTermId());
+        assertEquals(rows.size(), archive.getRowCount());
+        assertEquals(lectures, archive.getLectures());
+        assertEquals(totals, archive.getTotals());
+        assertEquals(subjects.size(), archive.getSubjectCount());
+        for (int i = 0; i < subjects.size(); i++) {
+            assertEquals(subjects.get(i), archive.getSubject(i));
+        }
+        for (int i = 0; i < students.size(); i++) {
+            assertEquals(students.get(i), archive.getStudent(i));
+            assertEquals(i, archive.findStudent(students.get(i).id()));
+        }
+        assertEquals(-1, archive.findStudent(1001));
+
+        List<long[]> readRows = new ArrayList<>();
+        archive.forEachRow((lecture, student, status, recordId) -> readRows.add(
+                new long[] { lectures.indexOf(lecture), student, status.ordinal(), recordId }));
+        assertEquals(rows.size(), readRows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertTrue(Arrays.equals(rows.get(i), readRows.get(i)),
+                    "Row " + i + ": expected " + Arrays.toString(rows.get(i)) + " but read " + Arrays.toString(readRows.get(i)));
+        }
+    }
+
+    @Test
+    void rejectsACorruptedFile() throws IOException {
+        Path file = write();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> AttendanceArchiveFile.read(file));
+        assertTrue(e.getMessage().startsWith("Checksum mismatch"), e.getMessage());
+    }
+
+    @Test
+    void rejectsATruncatedFile() throws IOException {
+        Path file = write();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 9));
+
+        assertThrows(IOException.class, () -> AttendanceArchiveFile.read(file));
+    }
+
+    private Path write() throws IOException {
+        int[] ordinals = new int[rows.size()];
+        AttendanceStatus[] statuses = new AttendanceStatus[rows.size()];
+        long[] recordIds = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ordinals[i] = (int) rows.get(i)[1];
+            statuses[i] = AttendanceStatus.values()[(int) rows.get(i)[2]];
+            recordIds[i] = rows.get(i)[3];
+        }
+        Path file = directory.resolve("term-" + TERM_ID + ".atar");
+        AttendanceArchiveFile.write(file, TERM_ID, subjects, students, lectures, totals, ordinals, statuses, recordIds);
+        return file;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * Encodes audit chunks and snapshots and checks that decoding gives back exactly what was encoded: every change
+ * source code, created records (no old status), absent, empty and non-ASCII reasons, millisecond times that go
+ * back between records, and large IDs.
+ */
+class AttendanceAuditCodecTests {
+
+    private static final long STUDENT_ID = 4242;
+    private static final LocalDateTime MONTH_START = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    @Test
+    void decodesEveryChangeSourceAndStatus() {
+        List<AttendanceAuditService.Change> changes = new ArrayList<>();
+        long recordId = 100;
+        for (AttendanceChangeSource source : AttendanceChangeSource.values()) {
+            for (AttendanceStatus newStatus : AttendanceStatus.values()) {
+                LocalDateTime changedAt = MONTH_START.plusDays(source.getCode()).plusNanos(newStatus.getCode() * 1_000_000L);
+                changes.add(change(recordId, null, newStatus, source, null, changedAt)); // Created
+                for (AttendanceStatus oldStatus : AttendanceStatus.values()) {
+                    changedAt = changedAt.plusSeconds(61).plusNanos(7_000_000);
+                    changes.add(change(recordId, oldStatus, newStatus, source, null, changedAt));
+                }
+                recordId += 1 + source.getCode();
+            }
+        }
+
+        assertEquals(changes, AttendanceAuditCodec.decode(STUDENT_ID, AttendanceAuditCodec.encode(changes)));
+    }
+
+    @Test
+    void decodesReasonsAndTimesGoingBackBetweenRecords() {
+        List<AttendanceAuditService.Change> changes = List.of(
+                change(1, null, AttendanceStatus.ABSENT, AttendanceChangeSource.MARK, null, MONTH_START.plusDays(20)),
+                change(1, AttendanceStatus.ABSENT, AttendanceStatus.LEAVE, AttendanceChangeSource.LEAVE,
+                        "Medical leave, approved", MONTH_START.plusDays(21).plusNanos(999_000_000)),
+                // The next record was created earlier, so the time delta is negative
+                change(2, null, AttendanceStatus.PRESENT, AttendanceChangeSource.OFFLINE_UPLOAD, "",
+                        MONTH_START.plusHours(1)),
+                change(2, AttendanceStatus.PRESENT, AttendanceStatus.ABSENT, AttendanceChangeSource.BULK_CORRECTION,
+                        "Korrektur für die Woche – Raum 101 ✓", MONTH_START.plusDays(2)),
+                change(Long.MAX_VALUE / 2, AttendanceStatus.LEAVE, AttendanceStatus.PRESENT,
+                        AttendanceChangeSource.UPDATE, "x".repeat(255), LocalDateTime.of(1999, 12, 31, 23, 59, 59)));
+
+        assertEquals(changes, AttendanceAuditCodec.decode(STUDENT_ID, AttendanceAuditCodec.encode(changes)));
+    }
+
+    @Test
+    void decodesAnEmptyChunk() {
+        assertEquals(List.of(), AttendanceAuditCodec.decode(STUDENT_ID, AttendanceAuditCodec.encode(List.of())));
+    }
+
+    @Test
+    void decodesSnapshotStatuses() {
+        SortedMap<Long, AttendanceStatus> statuses = new TreeMap<>();
+        for (long recordId = 1; recordId < 5000; recordId += 1 + recordId % 13) {
+            statuses.put(recordId, AttendanceStatus.values()[(int) (recordId % AttendanceStatus.values().length)]);
+        }
+        statuses.put(Long.MAX_VALUE >> 3, AttendanceStatus.LEAVE);
+
+        assertEquals(statuses, AttendanceAuditCodec.decodeStatuses(AttendanceAuditCodec.encodeStatuses(statuses)));
+    }
+
+    @Test
+    void rejectsATruncatedChunk() {
+        List<AttendanceAuditService.Change> changes = List.of(
+                change(1, null, AttendanceStatus.PRESENT, AttendanceChangeSource.MARK, "reason", MONTH_START),
+                change(2, null, AttendanceStatus.ABSENT, AttendanceChangeSource.MARK, null, MONTH_START));
+        byte[] chunk = AttendanceAuditCodec.encode(changes);
+
+        assertThrows(UncheckedIOException.class,
+                () -> AttendanceAuditCodec.decode(STUDENT_ID, Arrays.copyOf(chunk, chunk.length / 2)));
+    }
+
+    private static AttendanceAuditService.Change change(long recordId, AttendanceStatus oldStatus,
+                                                        AttendanceStatus newStatus, AttendanceChangeSource source,
+                                                        String reason, LocalDateTime changedAt) {
+        return new AttendanceAuditService.Change(recordId, STUDENT_ID, oldStatus, newStatus, 9_000_000_001L, source,
+                reason, changedAt);
+    }
+}
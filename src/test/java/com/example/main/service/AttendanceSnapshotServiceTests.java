@@ -0,0 +1,259 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.main.model.AttendanceChangeSource;
+import com.example.main.model.AttendanceStatus;
+
+/**
+ * Seeds a student's records with a backdated audit trail and reconstructs their statuses at moments before, between
+ * and after the changes: replaying from the current records, from a snapshot taken after the moment (which must
+ * give the same statuses), and with records of a purged term that only its archive file still holds.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshotdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.attendance.archive.directory=target/snapshot-tests-archive"
+})
+class AttendanceSnapshotServiceTests {
+
+    @Autowired
+    private AttendanceSnapshotService snapshotService;
+
+    @Autowired
+    private AttendanceAuditService auditService;
+
+    @Autowired
+    private AttendanceArchiveFileService archiveFileService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String code;
+    private long departmentId;
+    private long subjectId;
+    private long teacherId;
+    private long teacherUserId;
+    private long groupId;
+    private long studentId;
+    private LocalDateTime base; // Start of the audit trail
+
+    @BeforeEach
+    void seed() {
+        // A snapshot run only covers changes after the previous run, and the audit trails here are backdated
+        jdbcTemplate.update("DELETE FROM attendance_snapshots");
+        code = "SNP" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO departments (name, code) VALUES (?, ?)", code, code);
+        departmentId = jdbcTemplate.queryForObject("SELECT id FROM departments WHERE code = ?", Long.class, code);
+        teacherUserId = insertUser(code + "@example.com", "TEACHER");
+        jdbcTemplate.update("INSERT INTO subjects (name, code, department_id) VALUES (?, ?, ?)", code, code, departmentId);
+        subjectId = jdbcTemplate.queryForObject("SELECT id FROM subjects WHERE code = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO teachers (user_id, employee_id, department_id) VALUES (?, ?, ?)",
+                teacherUserId, code, departmentId);
+        teacherId = jdbcTemplate.queryForObject("SELECT id FROM teachers WHERE employee_id = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO student_groups (department_id, batch_year, term, name) "
+                + "VALUES (?, 2024, 'FALL', ?)", departmentId, code);
+        groupId = jdbcTemplate.queryForObject("SELECT id FROM student_groups WHERE name = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO enrollments (student_group_id, subject_id) VALUES (?, ?)", groupId, subjectId);
+        long studentUserId = insertUser(code + "-s@example.com", "STUDENT");
+        jdbcTemplate.update("INSERT INTO students (user_id, roll_number, department_id, batch_year, student_group_id) "
+                + "VALUES (?, ?, ?, 2024, ?)", studentUserId, code, departmentId, groupId);
+        studentId = jdbcTemplate.queryForObject("SELECT id FROM students WHERE user_id = ?", Long.class, studentUserId);
+        base = LocalDateTime.now().minusHours(10).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void replaysTheAuditLogBackwardsFromTheCurrentRecords() {
+        Timeline timeline = seedTimeline();
+
+        timeline.assertReconstructed();
+    }
+
+    @Test
+    void replayFromASnapshotMatchesReplayFromTheCurrentRecords() {
+        Timeline timeline = seedTimeline();
+        timeline.assertReconstructed();
+
+        assertTrue(snapshotService.takeSnapshots() >= 1);
+        LocalDateTime takenAt = jdbcTemplate.queryForObject("SELECT taken_at FROM attendance_snapshots "
+                + "WHERE student_id = ?", Timestamp.class, studentId).toLocalDateTime();
+        assertTrue(takenAt.isAfter(base.plusHours(4)));
+        timeline.assertReconstructed(); // Every moment now replays from the snapshot
+
+        // A change after the snapshot: moments before it replay from the snapshot, later ones from the records
+        LocalDateTime changedAt = takenAt.plusSeconds(1);
+        changeRecord(timeline.first(), AttendanceStatus.LEAVE, AttendanceStatus.ABSENT, changedAt);
+        timeline.assertReconstructed();
+        assertEquals(statuses(timeline.first(), AttendanceStatus.LEAVE, timeline.second(), AttendanceStatus.ABSENT),
+                snapshotService.getStatusesAsOf(studentId, changedAt.minusNanos(1000)));
+        assertEquals(statuses(timeline.first(), AttendanceStatus.ABSENT, timeline.second(), AttendanceStatus.ABSENT),
+                snapshotService.getStatusesAsOf(studentId, changedAt));
+    }
+
+    @Test
+    void seedsRecordsOfPurgedTermsFromTheirArchiveFile() {
+        String termName = code + "-T";
+        jdbcTemplate.update("INSERT INTO academic_terms (name, start_date, end_date, closed, archived_at) "
+                + "VALUES (?, DATE '2024-01-01', DATE '2024-06-30', TRUE, TIMESTAMP '2024-07-01 00:00:00')", termName);
+        long termId = jdbcTemplate.queryForObject("SELECT id FROM academic_terms WHERE name = ?", Long.class, termName);
+        long lectureId = insertLecture(LocalDate.of(2024, 2, 1));
+        long archivedId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000 FROM attendance_records",
+                Long.class);
+        LocalDateTime marked = LocalDateTime.of(2024, 2, 1, 10, 0);
+        LocalDateTime corrected = LocalDateTime.of(2024, 2, 3, 10, 0);
+        jdbcTemplate.update("INSERT INTO attendance_records_archive (id, lecture_id, student_id, status, "
+                + "marked_by_teacher_id, marking_timestamp, term_id, lecture_date) VALUES (?, ?, ?, 'ABSENT', ?, ?, ?, ?)",
+                archivedId, lectureId, studentId, teacherId, Timestamp.valueOf(corrected), termId,
+                Date.valueOf(LocalDate.of(2024, 2, 1)));
+        auditService.recordChanges(List.of(
+                change(archivedId, null, AttendanceStatus.PRESENT, marked),
+                change(archivedId, AttendanceStatus.PRESENT, AttendanceStatus.ABSENT, corrected)));
+        auditService.compactBefore(YearMonth.of(2024, 7)); // The term's audit rows are read from archive chunks
+        Timeline timeline = seedTimeline();
+
+        assertTrue(archiveFileService.exportTerm(termId) >= 1);
+        assertEquals(1, archiveFileService.purgeTerm(termId));
+
+        Map<LocalDateTime, SortedMap<Long, AttendanceStatus>> expected = Map.of(
+                LocalDateTime.of(2024, 1, 15, 0, 0), statuses(),
+                marked.plusDays(1), statuses(archivedId, AttendanceStatus.PRESENT),
+                corrected.plusDays(1), statuses(archivedId, AttendanceStatus.ABSENT));
+        expected.forEach((asOf, statuses) -> assertEquals(statuses, snapshotService.getStatusesAsOf(studentId, asOf),
+                "as of " + asOf));
+        SortedMap<Long, AttendanceStatus> now = new TreeMap<>(timeline.current());
+        now.put(archivedId, AttendanceStatus.ABSENT);
+        assertEquals(now, snapshotService.getStatusesAsOf(studentId, LocalDateTime.now()));
+
+        // A snapshot taken after the purge holds the live records only; the archive file fills in the rest
+        jdbcTemplate.update("INSERT INTO attendance_snapshots (student_id, taken_at, record_count, payload) "
+                + "VALUES (?, ?, ?, ?)", studentId, Timestamp.valueOf(LocalDateTime.now()), timeline.current().size(),
+                AttendanceAuditCodec.encodeStatuses(new TreeMap<>(timeline.current())));
+        expected.forEach((asOf, statuses) -> assertEquals(statuses, snapshotService.getStatusesAsOf(studentId, asOf),
+                "as of " + asOf + " from the snapshot"));
+        timeline.assertReconstructed(Map.of(archivedId, AttendanceStatus.ABSENT));
+    }
+
+    /**
+     * Stores two records of the student with their audit trail, four changes an hour apart from base:
+     * the first record is marked ABSENT, corrected to PRESENT, the second is marked LEAVE, then both change again.
+     */
+    private Timeline seedTimeline() {
+        long firstLecture = insertLecture(LocalDate.now().minusDays(2));
+        long secondLecture = insertLecture(LocalDate.now().minusDays(1));
+        long first = insertRecord(firstLecture, AttendanceStatus.LEAVE, base.plusHours(4));
+        long second = insertRecord(secondLecture, AttendanceStatus.ABSENT, base.plusHours(4));
+        auditService.recordChanges(List.of(
+                change(first, null, AttendanceStatus.ABSENT, base.plusHours(1)),
+                change(first, AttendanceStatus.ABSENT, AttendanceStatus.PRESENT, base.plusHours(2)),
+                change(second, null, AttendanceStatus.LEAVE, base.plusHours(3)),
+                change(second, AttendanceStatus.LEAVE, AttendanceStatus.ABSENT, base.plusHours(4)),
+                change(first, AttendanceStatus.PRESENT, AttendanceStatus.LEAVE, base.plusHours(4))));
+        return new Timeline(first, second);
+    }
+
+    private void changeRecord(long recordId, AttendanceStatus oldStatus, AttendanceStatus newStatus,
+                              LocalDateTime changedAt) {
+        jdbcTemplate.update("UPDATE attendance_records SET status = ?, marking_timestamp = ? WHERE id = ?",
+                newStatus.name(), Timestamp.valueOf(changedAt), recordId);
+        auditService.recordChanges(List.of(change(recordId, oldStatus, newStatus, changedAt)));
+    }
+
+    private AttendanceAuditService.Change change(long recordId, AttendanceStatus oldStatus, AttendanceStatus newStatus,
+                                                 LocalDateTime changedAt) {
+        return new AttendanceAuditService.Change(recordId, studentId, oldStatus, newStatus, teacherUserId,
+                oldStatus == null ? AttendanceChangeSource.MARK : AttendanceChangeSource.UPDATE, null, changedAt);
+    }
+
+    private long insertUser(String email, String role) {
+        jdbcTemplate.update("INSERT INTO users (email, password, role, first_name, last_name, is_active) "
+                + "VALUES (?, 'x', ?, 'T', 'T', TRUE)", email, role);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    private long insertLecture(LocalDate date) {
+        jdbcTemplate.update("INSERT INTO lectures (subject_id, teacher_id, lecture_date, start_time, end_time, "
+                + "student_group_id) VALUES (?, ?, ?, TIME '09:00:00', TIME '10:00:00', ?)",
+                subjectId, teacherId, Date.valueOf(date), groupId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM lectures WHERE subject_id = ?", Long.class, subjectId);
+    }
+
+    private long insertRecord(long lectureId, AttendanceStatus status, LocalDateTime markedAt) {
+        jdbcTemplate.update("INSERT INTO attendance_records (lecture_id, student_id, status, marked_by_teacher_id, "
+                + "marking_timestamp) VALUES (?, ?, ?, ?, ?)", lectureId, studentId, status.name(), teacherId,
+                Timestamp.valueOf(markedAt));
+        return jdbcTemplate.queryForObject("SELECT id FROM attendance_records WHERE lecture_id = ? AND student_id = ?",
+                Long.class, lectureId, studentId);
+    }
+
+    private static SortedMap<Long, AttendanceStatus> statuses(Object... recordsAndStatuses) {
+        SortedMap<Long, AttendanceStatus> statuses = new TreeMap<>();
+        for (int i = 0; i < recordsAndStatuses.length; i += 2) {
+            statuses.put((Long) recordsAndStatuses[i], (AttendanceStatus) recordsAndStatuses[i + 1]);
+        }
+        return statuses;
+    }
+
+    /**
+     * The two records of seedTimeline and their expected statuses at moments around its changes.
+     */
+    private final class Timeline {
+
+        private final long first;
+        private final long second;
+
+        Timeline(long first, long second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        long first() {
+            return first;
+        }
+
+        long second() {
+            return second;
+        }
+
+        Map<Long, AttendanceStatus> current() {
+            return statuses(first, AttendanceStatus.LEAVE, second, AttendanceStatus.ABSENT);
+        }
+
+        void assertReconstructed() {
+            assertReconstructed(Map.of());
+        }
+
+        /**
+         * @param others Statuses of other records of the student, unchanged during the timeline.
+         */
+        void assertReconstructed(Map<Long, AttendanceStatus> others) {
+            Map<LocalDateTime, SortedMap<Long, AttendanceStatus>> expected = Map.of(
+                    base, statuses(),
+                    base.plusHours(1), statuses(first, AttendanceStatus.ABSENT), // A change counts from its moment
+                    base.plusMinutes(90), statuses(first, AttendanceStatus.ABSENT),
+                    base.plusMinutes(150), statuses(first, AttendanceStatus.PRESENT),
+                    base.plusMinutes(210), statuses(first, AttendanceStatus.PRESENT, second, AttendanceStatus.LEAVE),
+                    base.plusMinutes(270), statuses(first, AttendanceStatus.LEAVE, second, AttendanceStatus.ABSENT));
+            expected.forEach((asOf, statuses) -> {
+                statuses.putAll(others);
+                assertEquals(statuses, snapshotService.getStatusesAsOf(studentId, asOf), "as of " + asOf);
+            });
+        }
+    }
+}
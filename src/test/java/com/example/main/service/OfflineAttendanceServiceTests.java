@@ -0,0 +1,266 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.dto.OfflineAttendanceUploadRequest;
+import com.example.main.dto.OfflineAttendanceUploadResultDTO;
+import com.example.main.dto.OfflineMarkOperation;
+import com.example.main.dto.OfflineMarkResultDTO;
+import com.example.main.model.AttendanceStatus;
+import com.example.main.model.OfflineMarkOutcome;
+
+/**
+ * Uploads offline marks against stored records and against records a concurrent transaction inserts meanwhile, and
+ * checks last-writer-wins by client timestamp: the tie-breaks on equal timestamps, clamping of device clocks that run
+ * ahead of the server, the savepoint rollback of a clashing insert batch with the contested keys decided again, and
+ * that uploading the same batch twice writes nothing the second time.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:offlinedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+class OfflineAttendanceServiceTests {
+
+    @Autowired
+    private OfflineAttendanceService offlineAttendanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long teacherId;
+    private long lectureId;
+    private long[] studentIds;
+    private LocalDateTime base; // Client time of the marks, well before the server time
+
+    @BeforeEach
+    void seed() {
+        String code = "OFF" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO departments (name, code) VALUES (?, ?)", code, code);
+        long departmentId = jdbcTemplate.queryForObject("SELECT id FROM departments WHERE code = ?", Long.class, code);
+        long userId = insertUser(code + "@example.com", "TEACHER");
+        jdbcTemplate.update("INSERT INTO subjects (name, code, department_id) VALUES (?, ?, ?)", code, code, departmentId);
+        long subjectId = jdbcTemplate.queryForObject("SELECT id FROM subjects WHERE code = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO teachers (user_id, employee_id, department_id) VALUES (?, ?, ?)",
+                userId, code, departmentId);
+        teacherId = jdbcTemplate.queryForObject("SELECT id FROM teachers WHERE employee_id = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO student_groups (department_id, batch_year, term, name) "
+                + "VALUES (?, 2026, 'FALL', ?)", departmentId, code);
+        long groupId = jdbcTemplate.queryForObject("SELECT id FROM student_groups WHERE name = ?", Long.class, code);
+        studentIds = new long[3];
+        for (int i = 0; i < studentIds.length; i++) {
+            long studentUserId = insertUser(code + "-" + i + "@example.com", "STUDENT");
+            jdbcTemplate.update("INSERT INTO students (user_id, roll_number, department_id, batch_year, student_group_id) "
+                    + "VALUES (?, ?, ?, 2026, ?)", studentUserId, code + "-" + i, departmentId, groupId);
+            studentIds[i] = jdbcTemplate.queryForObject("SELECT id FROM students WHERE user_id = ?", Long.class,
+                    studentUserId);
+        }
+        jdbcTemplate.update("INSERT INTO lectures (subject_id, teacher_id, lecture_date, start_time, end_time, "
+                + "student_group_id) VALUES (?, ?, ?, TIME '09:00:00', TIME '10:00:00', ?)",
+                subjectId, teacherId, Date.valueOf(LocalDate.now().minusDays(1)), groupId);
+        lectureId = jdbcTemplate.queryForObject("SELECT id FROM lectures WHERE subject_id = ?", Long.class, subjectId);
+        base = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    @Test
+    void equalTimestampsLetTheLaterOperationWinButNotOverADifferentStoredMark() {
+        insertRecord(studentIds[0], AttendanceStatus.PRESENT, base);
+
+        OfflineAttendanceUploadResultDTO result = upload(
+                mark(1, studentIds[0], AttendanceStatus.ABSENT, base),
+                mark(2, studentIds[1], AttendanceStatus.ABSENT, base),
+                mark(3, studentIds[1], AttendanceStatus.LEAVE, base));
+
+        assertOutcome(result.getResults().get(0), OfflineMarkOutcome.SUPERSEDED, AttendanceStatus.PRESENT, base);
+        assertOutcome(result.getResults().get(1), OfflineMarkOutcome.SUPERSEDED, AttendanceStatus.LEAVE, base);
+        assertOutcome(result.getResults().get(2), OfflineMarkOutcome.APPLIED, AttendanceStatus.LEAVE, base);
+        assertEquals(1, result.getRecordsChanged());
+        assertEquals(AttendanceStatus.PRESENT, storedStatus(studentIds[0]));
+        assertEquals(AttendanceStatus.LEAVE, storedStatus(studentIds[1]));
+    }
+
+    @Test
+    void clientClockAheadOfTheServerCountsAsTheServerTime() {
+        LocalDateTime before = LocalDateTime.now();
+        OfflineAttendanceUploadResultDTO fast = upload(
+                mark(1, studentIds[0], AttendanceStatus.ABSENT, LocalDateTime.now().plusDays(2)));
+        LocalDateTime after = LocalDateTime.now();
+
+        LocalDateTime stored = storedTimestamp(studentIds[0]);
+        assertEquals(OfflineMarkOutcome.APPLIED, fast.getResults().get(0).getOutcome());
+        assertFalse(stored.isBefore(before.truncatedTo(ChronoUnit.MICROS)), "stored " + stored);
+        assertFalse(stored.isAfter(after), "stored " + stored);
+
+        // A mark made after the upload, by a correct clock, still wins over it
+        OfflineAttendanceUploadResultDTO later = upload(
+                mark(1, studentIds[0], AttendanceStatus.PRESENT, LocalDateTime.now().plusNanos(1000)));
+        assertEquals(OfflineMarkOutcome.APPLIED, later.getResults().get(0).getOutcome());
+        assertEquals(AttendanceStatus.PRESENT, storedStatus(studentIds[0]));
+    }
+
+    @Test
+    void clashingInsertIsRolledBackToItsSavepointAndTheRestOfTheBatchApplies() throws Exception {
+        // The concurrent mark is earlier than the upload's, so the upload overwrites it once the clash is resolved
+        OfflineAttendanceUploadResultDTO result = uploadWhileInsertedConcurrently(studentIds[1],
+                base.minusMinutes(30), mark(1, studentIds[0], AttendanceStatus.PRESENT, base),
+                mark(2, studentIds[1], AttendanceStatus.PRESENT, base),
+                mark(3, studentIds[2], AttendanceStatus.PRESENT, base));
+
+        assertEquals(3, result.getApplied());
+        for (int i = 0; i < studentIds.length; i++) {
+            assertEquals(1, countRecords(studentIds[i]));
+            assertEquals(AttendanceStatus.PRESENT, storedStatus(studentIds[i]));
+            assertEquals(base, storedTimestamp(studentIds[i]));
+            assertEquals(recordId(studentIds[i]), result.getResults().get(i).getRecordId());
+        }
+        assertEquals(3, result.getRecordsChanged());
+        assertEquals(3, countAuditRows());
+    }
+
+    @Test
+    void contestedKeyIsDecidedAgainAgainstTheConcurrentMark() throws Exception {
+        // The concurrent mark is later than the upload's, so it stays and the upload's mark is superseded
+        LocalDateTime concurrentAt = base.plusMinutes(30);
+        OfflineAttendanceUploadResultDTO result = uploadWhileInsertedConcurrently(studentIds[0], concurrentAt,
+                mark(1, studentIds[0], AttendanceStatus.PRESENT, base));
+
+        OfflineMarkResultDTO outcome = result.getResults().get(0);
+        assertOutcome(outcome, OfflineMarkOutcome.SUPERSEDED, AttendanceStatus.ABSENT, concurrentAt);
+        assertEquals(recordId(studentIds[0]), outcome.getRecordId());
+        assertEquals(AttendanceStatus.ABSENT, storedStatus(studentIds[0]));
+        assertEquals(0, result.getRecordsChanged());
+        assertEquals(0, countAuditRows());
+    }
+
+    @Test
+    void uploadingTheSameBatchAgainReportsItAppliedWithoutWriting() {
+        insertRecord(studentIds[0], AttendanceStatus.PRESENT, base);
+        List<OfflineMarkOperation> batch = List.of(
+                mark(1, studentIds[0], AttendanceStatus.ABSENT, base.plusMinutes(1)),
+                mark(2, studentIds[1], AttendanceStatus.LEAVE, base.plusMinutes(2)));
+        OfflineAttendanceUploadResultDTO first = offlineAttendanceService.uploadMarks(
+                new OfflineAttendanceUploadRequest("device", batch), teacherId);
+        long version = rowVersion(studentIds[0]);
+        int auditRows = countAuditRows();
+
+        OfflineAttendanceUploadResultDTO again = offlineAttendanceService.uploadMarks(
+                new OfflineAttendanceUploadRequest("device", batch), teacherId);
+
+        assertEquals(2, first.getApplied());
+        assertEquals(2, first.getRecordsChanged());
+        assertEquals(2, again.getApplied());
+        assertEquals(0, again.getRecordsChanged());
+        assertEquals(first.getResults(), again.getResults());
+        assertEquals(version, rowVersion(studentIds[0]));
+        assertEquals(auditRows, countAuditRows());
+    }
+
+    /**
+     * Uploads while another transaction has inserted, but not yet committed, an ABSENT mark for one of the keys.
+     * The upload does not see the record when it loads the stored marks, so its insert of the key clashes.
+     */
+    private OfflineAttendanceUploadResultDTO uploadWhileInsertedConcurrently(long studentId, LocalDateTime markedAt,
+                                                                             OfflineMarkOperation... operations)
+            throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> concurrent = thread.submit(() -> new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> {
+                        insertRecord(studentId, AttendanceStatus.ABSENT, markedAt);
+                        inserted.countDown();
+                        try {
+                            Thread.sleep(500); // Commits while the upload waits on the inserted key
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertTrue(inserted.await(30, TimeUnit.SECONDS));
+            OfflineAttendanceUploadResultDTO result = upload(operations);
+            concurrent.get(30, TimeUnit.SECONDS);
+            return result;
+        } finally {
+            thread.shutdownNow();
+        }
+    }
+
+    private OfflineAttendanceUploadResultDTO upload(OfflineMarkOperation... operations) {
+        return offlineAttendanceService.uploadMarks(new OfflineAttendanceUploadRequest("device", List.of(operations)),
+                teacherId);
+    }
+
+    private OfflineMarkOperation mark(long sequenceNumber, long studentId, AttendanceStatus status,
+                                      LocalDateTime clientTimestamp) {
+        return new OfflineMarkOperation(sequenceNumber, lectureId, studentId, status, clientTimestamp);
+    }
+
+    private static void assertOutcome(OfflineMarkResultDTO result, OfflineMarkOutcome outcome, AttendanceStatus status,
+                                      LocalDateTime markingTimestamp) {
+        assertEquals(outcome, result.getOutcome());
+        assertEquals(status, result.getStatus());
+        assertEquals(markingTimestamp, result.getMarkingTimestamp());
+    }
+
+    private long insertUser(String email, String role) {
+        jdbcTemplate.update("INSERT INTO users (email, password, role, first_name, last_name, is_active) "
+                + "VALUES (?, 'x', ?, 'T', 'T', TRUE)", email, role);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    private void insertRecord(long studentId, AttendanceStatus status, LocalDateTime markedAt) {
+        jdbcTemplate.update("INSERT INTO attendance_records (lecture_id, student_id, status, marked_by_teacher_id, "
+                + "marking_timestamp) VALUES (?, ?, ?, ?, ?)", lectureId, studentId, status.name(), teacherId,
+                Timestamp.valueOf(markedAt));
+    }
+
+    private AttendanceStatus storedStatus(long studentId) {
+        return AttendanceStatus.valueOf(jdbcTemplate.queryForObject("SELECT status FROM attendance_records "
+                + "WHERE lecture_id = ? AND student_id = ?", String.class, lectureId, studentId));
+    }
+
+    private LocalDateTime storedTimestamp(long studentId) {
+        return jdbcTemplate.queryForObject("SELECT marking_timestamp FROM attendance_records "
+                + "WHERE lecture_id = ? AND student_id = ?", Timestamp.class, lectureId, studentId).toLocalDateTime();
+    }
+
+    private long recordId(long studentId) {
+        return jdbcTemplate.queryForObject("SELECT id FROM attendance_records WHERE lecture_id = ? AND student_id = ?",
+                Long.class, lectureId, studentId);
+    }
+
+    private long rowVersion(long studentId) {
+        return jdbcTemplate.queryForObject("SELECT row_version FROM attendance_records "
+                + "WHERE lecture_id = ? AND student_id = ?", Long.class, lectureId, studentId);
+    }
+
+    private int countRecords(long studentId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance_records WHERE lecture_id = ? "
+                + "AND student_id = ?", Integer.class, lectureId, studentId);
+    }
+
+    private int countAuditRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance_audit WHERE record_id IN "
+                + "(SELECT id FROM attendance_records WHERE lecture_id = ?)", Integer.class, lectureId);
+    }
+}
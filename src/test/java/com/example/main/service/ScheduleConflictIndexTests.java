@@ -0,0 +1,204 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.main.exception.SchedulingConflictException;
+
+/**
+ * Books the same teacher, group and room from concurrent transactions and from a transaction that does not know
+ * about a lecture stored behind the index's back (as another node would), and checks that exactly one booking of a
+ * slot wins while the reservations of a transaction still see each other. Two batches taking the same resources
+ * on several dates in opposite order must not deadlock.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:scheduledb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+class ScheduleConflictIndexTests {
+
+    private static final LocalTime START = LocalTime.of(9, 0);
+    private static final LocalTime END = LocalTime.of(10, 0);
+
+    @Autowired
+    private ScheduleConflictIndex index;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long subjectId;
+    private long teacherId;
+    private long groupId;
+    private LocalDate date;
+
+    @BeforeEach
+    void seed() {
+        String code = "SCH" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO departments (name, code) VALUES (?, ?)", code, code);
+        long departmentId = jdbcTemplate.queryForObject("SELECT id FROM departments WHERE code = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO users (email, password, role, first_name, last_name, is_active) "
+                + "VALUES (?, 'x', 'TEACHER', 'T', 'T', TRUE)", code + "@example.com");
+        long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class,
+                code + "@example.com");
+        jdbcTemplate.update("INSERT INTO subjects (name, code, department_id) VALUES (?, ?, ?)", code, code, departmentId);
+        subjectId = jdbcTemplate.queryForObject("SELECT id FROM subjects WHERE code = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO teachers (user_id, employee_id, department_id) VALUES (?, ?, ?)",
+                userId, code, departmentId);
+        teacherId = jdbcTemplate.queryForObject("SELECT id FROM teachers WHERE employee_id = ?", Long.class, code);
+        jdbcTemplate.update("INSERT INTO student_groups (department_id, batch_year, term, name) "
+                + "VALUES (?, 2026, 'FALL', ?)", departmentId, code);
+        groupId = jdbcTemplate.queryForObject("SELECT id FROM student_groups WHERE name = ?", Long.class, code);
+        date = LocalDate.of(2026, 3, 2).plusDays(System.nanoTime() % 300);
+    }
+
+    @Test
+    void concurrentBookingsOfOneSlotLetExactlyOneWin() throws Exception {
+        int bookings = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(bookings);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < bookings; i++) {
+                String room = "R" + i; // Different rooms, so only the teacher and group collide
+                results.add(threads.submit(() -> {
+                    start.await();
+                    try {
+                        book(room);
+                        return true;
+                    } catch (SchedulingConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int won = 0;
+            for (Future<Boolean> result : results) {
+                won += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, won);
+            assertEquals(1, storedLectures());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void bookingSeesLecturesStoredAfterTheDateWasCached() {
+        assertTrue(index.findConflicts(date, slot("A1")).isEmpty());
+        // Stored without publishing a schedule change, like a lecture booked on another node
+        insertLecture("A2");
+
+        assertThrows(SchedulingConflictException.class, () -> book("A3"));
+        assertEquals(1, storedLectures());
+    }
+
+    @Test
+    void reservationsOfOneTransactionSeeEachOther() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThrows(SchedulingConflictException.class, () -> transaction.executeWithoutResult(status -> {
+            index.reserve(date, slot("B1"));
+            index.reserve(date, slot("B2"));
+        }));
+        // Rolled back reservations leave nothing behind
+        book("B3");
+        assertEquals(1, storedLectures());
+    }
+
+    @Test
+    void batchesTakingTheSameResourcesInOppositeOrderLetExactlyOneWin() throws Exception {
+        LocalDate nextWeek = date.plusWeeks(1);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (List<LocalDate> dates : List.of(List.of(date, nextWeek), List.of(nextWeek, date))) {
+                results.add(threads.submit(() -> {
+                    start.await();
+                    Map<LocalDate, List<ScheduleConflictIndex.Slot>> slots = new LinkedHashMap<>();
+                    dates.forEach(day -> slots.put(day, List.of(slot("D" + dates.indexOf(day)))));
+                    try {
+                        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                            index.reserveAll(slots);
+                            slots.forEach((day, daySlots) -> insertLecture(day, daySlots.get(0).roomNumber()));
+                        });
+                        return true;
+                    } catch (SchedulingConflictException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int won = 0;
+            for (Future<Boolean> result : results) {
+                won += result.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, won);
+            assertEquals(2, storedLectures());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchChecksItsSlotsAgainstEachOther() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertThrows(SchedulingConflictException.class, () -> transaction.executeWithoutResult(status ->
+                index.reserveAll(Map.of(date, List.of(slot("E1"), slot("E2"))))));
+        book("E3");
+        assertEquals(1, storedLectures());
+    }
+
+    @Test
+    void reserveRequiresATransaction() {
+        assertThrows(IllegalStateException.class, () -> index.reserve(date, slot("C1")));
+    }
+
+    private void book(String room) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            index.reserve(date, slot(room));
+            insertLecture(room);
+        });
+    }
+
+    private ScheduleConflictIndex.Slot slot(String room) {
+        return new ScheduleConflictIndex.Slot(null, null, subjectId, teacherId, room, groupId, START, END);
+    }
+
+    private void insertLecture(String room) {
+        insertLecture(date, room);
+    }
+
+    private void insertLecture(LocalDate day, String room) {
+        jdbcTemplate.update("INSERT INTO lectures (subject_id, teacher_id, lecture_date, start_time, end_time, "
+                + "student_group_id, room_number) VALUES (?, ?, ?, ?, ?, ?, ?)", subjectId, teacherId,
+                Date.valueOf(day), Time.valueOf(START), Time.valueOf(END), groupId, room);
+    }
+
+    private int storedLectures() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lectures WHERE teacher_id = ?", Integer.class,
+                teacherId);
+    }
+}
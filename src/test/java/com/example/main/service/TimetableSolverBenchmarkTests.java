@@ -0,0 +1,112 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmarks the TimetableSolver on generated terms of growing size, up to 40 student groups, 200 teachers and
+ * 60 rooms, and reports the solve time per problem size.
+ * Every group takes 7 subjects of 4 weekly hours in a 5 x 6 week (28 of 30 periods), every teacher is unavailable
+ * on one day, and group sizes and room capacities vary. Each solution is checked independently against all hard
+ * constraints.
+ * Takes minutes, so it is tagged "benchmark" and only runs with the benchmark Maven profile (mvn test -Pbenchmark).
+ */
+@Tag("benchmark")
+class TimetableSolverBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(TimetableSolverBenchmarkTests.class);
+
+    private static final int DAYS = 5;
+    private static final int PERIODS_PER_DAY = 6;
+    private static final int SUBJECTS_PER_GROUP = 7;
+    private static final int HOURS_PER_SUBJECT = 4;
+    private static final Duration TIME_BUDGET = Duration.ofSeconds(30);
+    private static final StringBuilder REPORT = new StringBuilder(
+            String.format("%8s %8s %6s %6s %8s %10s %12s %6s%n",
+                    "groups", "teachers", "rooms", "units", "threads", "solve ms", "iterations", "soft"));
+
+    @ParameterizedTest(name = "{0} groups, {1} teachers, {2} rooms")
+    @CsvSource({"5, 25, 8", "10, 50, 15", "20, 100, 30", "40, 200, 60"})
+    void solvesClashFreeTimetable(int groups, int teachers, int rooms) {
+        TimetableSolver.Problem problem = generate(groups, teachers, rooms, new Random(groups));
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        TimetableSolver.Solution solution = TimetableSolver.solve(problem, TIME_BUDGET, threads, 42L);
+
+        REPORT.append(String.format("%8d %8d %6d %6d %8d %10d %12d %6d%n", groups, teachers, rooms,
+                problem.unitTeacher().length, threads, solution.millis(), solution.iterations(), solution.softPenalty()));
+        assertTrue(solution.feasible(), "No clash-free timetable found: " + solution.hardConflicts() + " clashes");
+        assertEquals(0, countViolations(problem, solution), "Solution reported feasible but breaks hard constraints");
+    }
+
+    @AfterAll
+    static void logReport() {
+        log.info("Timetable solver benchmark ({} days x {} periods){}{}", DAYS, PERIODS_PER_DAY, System.lineSeparator(),
+                REPORT);
+    }
+
+    private static TimetableSolver.Problem generate(int groups, int teachers, int rooms, Random random) {
+        int units = groups * SUBJECTS_PER_GROUP * HOURS_PER_SUBJECT;
+        int[] unitTeacher = new int[units];
+        int[] unitGroup = new int[units];
+        int[] unitCourse = new int[units];
+        int[] unitSize = new int[units];
+        int[] groupSize = random.ints(groups, 20, 61).toArray();
+        int u = 0;
+        for (int g = 0; g < groups; g++) {
+            for (int s = 0; s < SUBJECTS_PER_GROUP; s++) {
+                int course = g * SUBJECTS_PER_GROUP + s;
+                int teacher = course % teachers; // Spreads courses evenly over the teachers
+                for (int h = 0; h < HOURS_PER_SUBJECT; h++, u++) {
+                    unitTeacher[u] = teacher;
+                    unitGroup[u] = g;
+                    unitCourse[u] = course;
+                    unitSize[u] = groupSize[g];
+                }
+            }
+        }
+        boolean[][] teacherAvailable = new boolean[teachers][DAYS * PERIODS_PER_DAY];
+        for (int t = 0; t < teachers; t++) {
+            int dayOff = random.nextInt(DAYS);
+            for (int slot = 0; slot < DAYS * PERIODS_PER_DAY; slot++) {
+                teacherAvailable[t][slot] = slot / PERIODS_PER_DAY != dayOff;
+            }
+        }
+        int[] roomCapacity = random.ints(rooms, 25, 66).toArray();
+        roomCapacity[0] = 65; // At least one room fits every group
+        return new TimetableSolver.Problem(DAYS, PERIODS_PER_DAY, unitTeacher, unitGroup, unitCourse, unitSize,
+                teacherAvailable, roomCapacity);
+    }
+
+    /** Counts hard constraint violations without relying on the solver's own bookkeeping. */
+    private static int countViolations(TimetableSolver.Problem problem, TimetableSolver.Solution solution) {
+        int violations = 0;
+        Set<List<Integer>> teacherSlots = new HashSet<>();
+        Set<List<Integer>> groupSlots = new HashSet<>();
+        Set<List<Integer>> roomSlots = new HashSet<>();
+        for (int u = 0; u < problem.unitTeacher().length; u++) {
+            int slot = solution.timeslot()[u];
+            int room = solution.room()[u];
+            violations += teacherSlots.add(List.of(problem.unitTeacher()[u], slot)) ? 0 : 1;
+            violations += groupSlots.add(List.of(problem.unitGroup()[u], slot)) ? 0 : 1;
+            violations += roomSlots.add(List.of(room, slot)) ? 0 : 1;
+            violations += problem.teacherAvailable()[problem.unitTeacher()[u]][slot] ? 0 : 1;
+            violations += problem.roomCapacity()[room] >= problem.unitSize()[u] ? 0 : 1;
+        }
+        return violations + (Arrays.stream(solution.timeslot()).allMatch(t -> t >= 0) ? 0 : 1);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.main.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.main.dto.WebhookDeliveryDTO;
+import com.example.main.dto.WebhookMetricsDTO;
+import com.example.main.dto.WebhookSubscriptionDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Delivers outbox events to a local mock receiver through the relay and the webhook dispatcher, and checks the
+ * batching, the per-endpoint concurrency cap (also after it is changed), the retry backoff and dead-lettering, and
+ * the throughput and lag metrics, and that a slow endpoint's backlog does not hold up the others. The scheduled relay and dispatch runs are pushed out so the test drives them, and the test uses its own
+ * in-memory database, as the dispatchers of other cached test contexts would otherwise act as further nodes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:webhookdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.events.relay.interval-millis=3600000",
+        "app.events.relay.settle-millis=0",
+        "app.webhooks.dispatch-interval-millis=3600000",
+        "app.webhooks.dispatch-limit=10",
+        "app.webhooks.max-attempts=3",
+        "app.webhooks.backoff.initial-millis=50",
+        "app.webhooks.backoff.max-millis=200"
+})
+class WebhookDispatcherTests {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDispatcherTests.class);
+
+    private static final int EVENTS = 500;
+    private static final int BATCH_SIZE = 25;
+    private static final int CONCURRENCY = 2;
+    private static final Duration EVENT_AGE = Duration.ofSeconds(1); // Age of the events when they are relayed
+    private static final Duration RECEIVER_DELAY = Duration.ofMillis(20); // Processing time per request
+    private static final Duration SLOW_RECEIVER_DELAY = Duration.ofMillis(300); // Processing time per request on /slow
+
+    @Autowired
+    private AttendanceEventRelayService relayService;
+
+    @Autowired
+    private WebhookDispatcherService dispatcherService;
+
+    @Autowired
+    private WebhookSubscriptionService subscriptionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpServer receiver;
+    private ExecutorService receiverThreads;
+    private final List<Long> subscriptions = new ArrayList<>();
+    private final Set<Long> receivedEventIds = ConcurrentHashMap.newKeySet();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private final List<Long> failedAttemptNanos = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startReceiver() throws IOException {
+        receiver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        receiverThreads = Executors.newFixedThreadPool(8);
+        receiver.setExecutor(receiverThreads);
+        receiver.createContext("/ok", this::accept);
+        receiver.createContext("/fail", exchange -> {
+            failedAttemptNanos.add(System.nanoTime());
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        receiver.createContext("/slow", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(SLOW_RECEIVER_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        receiver.start();
+        relayService.relay(); // Drain events left by the other test before subscribing
+        dispatcherService.resetMetrics();
+    }
+
+    @AfterEach
+    void stopReceiver() {
+        subscriptions.forEach(subscriptionService::deleteSubscription);
+        receiver.stop(0);
+        receiverThreads.shutdownNow();
+    }
+
+    @Test
+    void deliversBatchesWithinConcurrencyCapAndReportsMetrics() throws Exception {
+        long subscriptionId = subscribe("/ok");
+        Set<Long> eventIds = insertEvents(EVENTS);
+        long start = System.nanoTime();
+        long measuredSince = start; // The metrics were reset before start
+
+        assertEquals(EVENTS, relayService.relay());
+        awaitNoPending(subscriptionId, Duration.ofSeconds(30));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        WebhookMetricsDTO metrics = dispatcherService.getMetrics();
+
+        assertEquals(eventIds, receivedEventIds);
+        assertEquals(EVENTS / BATCH_SIZE, batchSizes.size());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= BATCH_SIZE));
+        assertTrue(maxConcurrentRequests.get() <= CONCURRENCY, "max concurrent " + maxConcurrentRequests.get());
+        assertEquals(EVENTS / BATCH_SIZE, metrics.getDeliveredBatches());
+        assertEquals(EVENTS, metrics.getDeliveredEvents());
+        assertEquals(0, metrics.getFailedAttempts());
+        assertEquals(0, metrics.getDeadLetters());
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(0, metrics.getPendingBatches());
+        // The measuring period started before start, so the rate cannot exceed the events over the elapsed time
+        double maxEventsPerSecond = EVENTS * 1000.0 / Math.max(1, (System.nanoTime() - measuredSince) / 1_000_000 - 1);
+        assertTrue(metrics.getEventsPerSecond() > 0 && metrics.getEventsPerSecond() <= maxEventsPerSecond,
+                "events per second " + metrics.getEventsPerSecond());
+        assertTrue(metrics.getAverageLagMillis() >= EVENT_AGE.toMillis(), "average lag " + metrics.getAverageLagMillis());
+        assertTrue(metrics.getMaxLagMillis() >= metrics.getAverageLagMillis());
+        assertTrue(metrics.getMaxLagMillis() <= EVENT_AGE.toMillis() + elapsedMillis + 1000,
+                "max lag " + metrics.getMaxLagMillis());
+        log.info("{} events in {} batches to 1 endpoint (cap {}, max seen {}): {} ms, {} events/s, lag avg {} ms, "
+                + "max {} ms", metrics.getDeliveredEvents(), metrics.getDeliveredBatches(), CONCURRENCY,
+                maxConcurrentRequests.get(), elapsedMillis, Math.round(metrics.getEventsPerSecond()),
+                metrics.getAverageLagMillis(), metrics.getMaxLagMillis());
+    }
+
+    @Test
+    void appliesAChangedConcurrencyCap() throws Exception {
+        long subscriptionId = subscribe("/ok");
+        insertEvents(BATCH_SIZE * 4);
+        relayService.relay();
+        awaitNoPending(subscriptionId, Duration.ofSeconds(30)); // Sets up the endpoint's permits with the old cap
+
+        jdbcTemplate.update("UPDATE webhook_subscriptions SET max_concurrency = 1 WHERE id = ?", subscriptionId);
+        maxConcurrentRequests.set(0);
+        insertEvents(BATCH_SIZE * 8);
+        relayService.relay();
+        awaitNoPending(subscriptionId, Duration.ofSeconds(30));
+
+        assertEquals(1, maxConcurrentRequests.get());
+        assertEquals(12, dispatcherService.getMetrics().getDeliveredBatches());
+    }
+
+    @Test
+    void retriesWithBackoffThenDeadLetters() throws Exception {
+        long subscriptionId = subscribe("/fail");
+        insertEvents(10);
+
+        assertEquals(10, relayService.relay());
+        awaitNoPending(subscriptionId, Duration.ofSeconds(10));
+
+        assertEquals(3, failedAttemptNanos.size());
+        long firstGapMillis = (failedAttemptNanos.get(1) - failedAttemptNanos.get(0)) / 1_000_000;
+        long secondGapMillis = (failedAttemptNanos.get(2) - failedAttemptNanos.get(1)) / 1_000_000;
+        assertTrue(firstGapMillis >= 25, "first backoff " + firstGapMillis + " ms");
+        assertTrue(secondGapMillis >= 50, "second backoff " + secondGapMillis + " ms");
+
+        List<WebhookDeliveryDTO> deadLetters = subscriptionService.getDeadLetters(subscriptionId);
+        assertEquals(1, deadLetters.size());
+        assertEquals(3, deadLetters.get(0).getAttempts());
+        assertEquals("HTTP 503", deadLetters.get(0).getLastError());
+        WebhookMetricsDTO metrics = dispatcherService.getMetrics();
+        assertEquals(3, metrics.getFailedAttempts());
+        assertEquals(1, metrics.getDeadLetters());
+        assertEquals(0, metrics.getDeliveredBatches());
+
+        subscriptionService.retryDeadLetter(deadLetters.get(0).getId());
+        assertEquals(Collections.emptyList(), subscriptionService.getDeadLetters(subscriptionId));
+    }
+
+    @Test
+    void slowEndpointWithBacklogDoesNotHoldUpOthers() throws Exception {
+        // Relayed first, the slow endpoint's 30 single-event batches fill the first three runs' worth of due batches
+        long slowId = subscribe("/slow", 1, 1);
+        long fastId = subscribe("/ok", CONCURRENCY, BATCH_SIZE);
+        insertEvents(30);
+        relayService.relay();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (pendingBatches(fastId) > 0) {
+            assertTrue(System.nanoTime() < deadline, "fast endpoint starved");
+            dispatcherService.dispatch();
+            Thread.sleep(5);
+        }
+
+        assertEquals(2, batchSizes.size());
+        assertTrue(pendingBatches(slowId) >= 20, "slow endpoint pending " + pendingBatches(slowId));
+        while (dispatcherService.getMetrics().getInFlight() > 0) {
+            Thread.sleep(5); // Lets the slow request finish before its subscription is deleted
+        }
+    }
+
+    private void accept(HttpExchange exchange) throws IOException {
+        int concurrent = concurrentRequests.incrementAndGet();
+        maxConcurrentRequests.accumulateAndGet(concurrent, Math::max);
+        try {
+            List<Map<String, Object>> events = objectMapper.readValue(exchange.getRequestBody().readAllBytes(),
+                    new TypeReference<>() { });
+            events.forEach(event -> receivedEventIds.add(((Number) event.get("id")).longValue()));
+            batchSizes.add(events.size());
+            Thread.sleep(RECEIVER_DELAY.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            concurrentRequests.decrementAndGet(); // Before responding, so the client cannot start the next one earlier
+        }
+        exchange.sendResponseHeaders(204, -1);
+        exchange.close();
+    }
+
+    private long subscribe(String path) {
+        return subscribe(path, CONCURRENCY, BATCH_SIZE);
+    }
+
+    private long subscribe(String path, int maxConcurrency, int maxBatchSize) {
+        WebhookSubscriptionDTO subscription = subscriptionService.createSubscription(new WebhookSubscriptionDTO(null,
+                "test " + path + " " + System.nanoTime(),
+                "http://127.0.0.1:" + receiver.getAddress().getPort() + path, maxConcurrency, maxBatchSize, true, null));
+        subscriptions.add(subscription.getId());
+        return subscription.getId();
+    }
+
+    private Set<Long> insertEvents(int count) {
+        Timestamp occurredAt = Timestamp.valueOf(LocalDateTime.now().minus(EVENT_AGE));
+        Long firstId = null;
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO attendance_events (event_type, lecture_id, occurred_at) VALUES (3, ?, ?)",
+                    i + 1, occurredAt);
+            if (firstId == null) {
+                firstId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM attendance_events", Long.class);
+            }
+        }
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT id FROM attendance_events WHERE id >= ?", Long.class, firstId));
+    }
+
+    private long pendingBatches(long subscriptionId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webhook_deliveries WHERE subscription_id = ? "
+                + "AND status = 'PENDING'", Long.class, subscriptionId);
+    }
+
+    private void awaitNoPending(long subscriptionId, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pendingBatches(subscriptionId) > 0 || dispatcherService.getMetrics().getInFlight() > 0) {
+            assertTrue(System.nanoTime() < deadline, "deliveries still pending");
+            dispatcherService.dispatch();
+            Thread.sleep(5);
+        }
+    }
+}